@@ -5,8 +5,12 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 
+import database.ReadRouting;
+import database.UnitOfWork;
+
 /**
  * The CustomerDAO class provides methods for managing customer records in an SQLite database.
  * This class implements various methods such as adding, retrieving, updating, and deleting customers, 
@@ -67,7 +71,7 @@ public class CustomerDAO {
 	public ArrayList<Customer> findAllCustomers() {
 		String query = "SELECT * FROM customer;";
 		ArrayList<Customer> customers = new ArrayList<>();
-		try (Connection conn = this.connect();
+		try (Connection conn = ReadRouting.connect("CustomerDAO.findAllCustomers", this::connect);
 				PreparedStatement preStatement = conn.prepareStatement(query);
 				ResultSet result = preStatement.executeQuery()){
 					while (result.next()) {
@@ -178,6 +182,31 @@ public class CustomerDAO {
 		return false;
 
 	}
+
+	/**
+     * Adds a new customer record as part of a unit of work, setting the customer's generated ID.
+     * Nothing is saved until the unit of work is committed.
+     * 
+     * @param work the unit of work to run in
+     * @param customer the Customer object to be added
+     * @throws SQLException if the customer cannot be added, in which case the unit of work should be rolled back
+     */
+	public void addCustomer(UnitOfWork work, Customer customer) throws SQLException {
+		String query = "INSERT INTO customer(businessName, address, telephoneNumber, emailAddress) VALUES(?, ?, ?, ?)";
+		try (PreparedStatement preStatement = work.connection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+			preStatement.setString(1, customer.getBusinessName());
+			preStatement.setString(2, customer.getAddress().toString());
+			preStatement.setString(3, customer.getTelephoneNumber());
+			preStatement.setString(4, customer.getEmailAddress());
+			preStatement.executeUpdate();
+			try (ResultSet generatedKeys = preStatement.getGeneratedKeys()) {
+				if (!generatedKeys.next()) {
+					throw new SQLException("No ID was generated for the customer");
+				}
+				customer.setCustomerID(generatedKeys.getInt(1));
+			}
+		}
+	}
 	
 	/**
      * Retrieves the ID of a customer by their business name and email address.
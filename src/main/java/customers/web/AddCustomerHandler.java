@@ -4,8 +4,10 @@ import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpHandler;
 import login.web.LoginSessionManager;
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.web.StaticAssets;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles the HTTP GET requests to display a form for adding a new customer.
@@ -40,17 +42,8 @@ public class AddCustomerHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs while handling the request.
      */
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+    	LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-        
         he.sendResponseHeaders(200, 0);
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
 
@@ -61,7 +54,7 @@ public class AddCustomerHandler implements HttpHandler {
         	    "    <meta charset='UTF-8'>" +
         	    "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
         	    "    <title>Add New Customer</title>" +
-        	    "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' crossorigin='anonymous'>" +
+        	    "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
         	    "</head>" +
         	    "<body>" +
         	    "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -128,25 +121,4 @@ public class AddCustomerHandler implements HttpHandler {
 
         out.close();
     }
-    
-    /**
-     * Extracts the session ID from the request cookies.
-     *
-     * @param exchange the HttpExchange object containing the request.
-     * @return the session ID as a String, or null if not found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
 }
\ No newline at end of file
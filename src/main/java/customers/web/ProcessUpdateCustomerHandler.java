@@ -1,8 +1,6 @@
 package customers.web;
 
 import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
 
 import com.sun.net.httpserver.HttpHandler;
 
@@ -13,11 +11,8 @@ import customers.CustomerDAO;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.BufferedReader;
-import java.util.HashMap;
 import java.util.Map;
-import login.web.LoginSessionManager;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles HTTP requests to process updates to an existing customer record.
@@ -54,28 +49,9 @@ public class ProcessUpdateCustomerHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs while processing the request or sending the response.
      */
     public void handle(HttpExchange he) throws IOException {
-    	
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-
-        // Check if user is logged in and is an admin (need to be logged in as admin to view this page)
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-    	
-        BufferedReader reader = new BufferedReader(new InputStreamReader(he.getRequestBody()));
-        String line;
-        StringBuilder input = new StringBuilder();
-        while ((line = reader.readLine()) != null) {
-            input.append(line);
-        }
-
         // Parse the form data into a map
         try {
-            Map<String, String> formData = parseFormData(input.toString());
+            Map<String, String> formData = RequestContext.of(he).form();
             
             // Extract individual form fields and store in the map
             int customerId = Integer.parseInt(formData.get("id"));
@@ -109,46 +85,4 @@ public class ProcessUpdateCustomerHandler implements HttpHandler {
             ex.printStackTrace();
         }
     }
-    
-    /**
-     * Retrieves the session ID from the HTTP cookies.
-     * 
-     * @param exchange the HttpExchange object containing the request details.
-     * @return the session ID if found, otherwise null.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Parses form data from a URL-encoded string.
-     * 
-     * @param formData the raw form data string.
-     * @return a map containing key-value pairs of form data.
-     * @throws UnsupportedEncodingException if UTF-8 encoding is not supported.
-     */
-    private Map<String, String> parseFormData(String formData) throws UnsupportedEncodingException {
-        Map<String, String> result = new HashMap<>();
-        String[] pairs = formData.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=");
-            if (keyValue.length == 2) {
-                String key = keyValue[0];
-                String value = URLDecoder.decode(keyValue[1], "UTF-8"); // Decode the value
-                result.put(key, value);
-            }
-        }
-        return result;
-    }
 }
\ No newline at end of file
@@ -13,8 +13,10 @@ import com.sun.net.httpserver.HttpHandler;
 import login.web.LoginSessionManager;
 
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.web.StaticAssets;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles HTTP requests to display the update customer form.
@@ -44,32 +46,19 @@ public class UpdateCustomerHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs.
      */
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+    	LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
-        // Check if user is logged in and is an admin (Page is only accessible for admin and not customers)
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-    	
         he.sendResponseHeaders(200, 0);
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
         
         // Extract customer ID from query parameters
-        String query = he.getRequestURI().getQuery();
-        String custId = null;
-        if (query != null && query.contains("id=")) {
-        	custId = query.split("=")[1];
-        }
+        String custId = RequestContext.of(he).query("id");
 
        
         out.write(
             "<html>" +
             "<head><title>Update Customer</title>" +
-            "<link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" crossorigin=\"anonymous\">" +
+            "<link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
             "</head>" +
             "<body>" +
             "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -141,25 +130,4 @@ public class UpdateCustomerHandler implements HttpHandler {
 
         out.close();
     }
-    
-    /**
-     * Retrieves the session ID from the HTTP cookies.
-     * 
-     * @param exchange the HttpExchange object containing the request details.
-     * @return the session ID if found, otherwise null.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
 }
@@ -5,10 +5,12 @@ import com.sun.net.httpserver.HttpHandler;
 import customers.Customer;
 import customers.CustomerDAO;
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.web.StaticAssets;
 import java.util.ArrayList;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import login.web.LoginSessionManager;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles HTTP requests to display a list of all customers.
@@ -39,17 +41,8 @@ public class ViewAllCustomersHandler implements HttpHandler{
      * @throws IOException if an I/O error occurs during processing.
      */
 	  public void handle(HttpExchange he) throws IOException {
-		  String sessionId = getSessionIdFromCookie(he);
-	      LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-	
-	      // Check if user is logged in and is an admin
-	      if (session == null || !"Admin".equals(session.getRole())) {
-	          he.getResponseHeaders().set("Location", "/login");
-	          he.sendResponseHeaders(302, 0);
-	          he.getResponseBody().close();
-	          return;
-	      }
-		  	
+		  LoginSessionManager.UserSession session = RequestContext.of(he).session();
+
 		    he.sendResponseHeaders(200,0);
 		    BufferedWriter out = new BufferedWriter(  
 		        new OutputStreamWriter(he.getResponseBody() ));
@@ -65,7 +58,7 @@ public class ViewAllCustomersHandler implements HttpHandler{
 		    	    "    <meta charset='UTF-8'>" +
 		    	    "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
 		    	    "    <title>Customers</title>" +
-		    	    "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' integrity='sha384-TX8t27EcRE3e/ihU7zmQxVncDAy5uIKz4rEkgIXeMed4M0jlfIDPvg6uqKI2xXr2' crossorigin='anonymous'>" +
+		    	    "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
 		    	    "</head>" +
 		    	    "<body>" +
 		    	    "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -145,26 +138,4 @@ public class ViewAllCustomersHandler implements HttpHandler{
 	    out.close();
 	
 	  }
-	  
-	    /**
-	     * Retrieves the session ID from the HTTP cookies.
-	     * 
-	     * @param exchange the HttpExchange object containing the request details.
-	     * @return the session ID if found, otherwise null.
-	     */
-	  private String getSessionIdFromCookie(HttpExchange exchange) {
-	      String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-	      if (cookieHeader != null) {
-	          String[] cookies = cookieHeader.split(";");
-	          for (String cookie : cookies) {
-	              cookie = cookie.trim();
-	              String[] cookiePair = cookie.split("=", 2);
-	              if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-	                  return cookiePair[1];
-	              }
-	          }
-	      }
-	      return null;
-	  }
-
 }
\ No newline at end of file
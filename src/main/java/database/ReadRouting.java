@@ -0,0 +1,112 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import metrics.Metrics;
+
+/**
+ * Decides, per DAO method, whether a read goes to the live database or to the {@link SnapshotReplica}.
+ *
+ * Only reporting-style queries that can tolerate slightly old data should be routed to the replica.
+ * Routes are named {@code ClassName.methodName} and are configured with the {@code db.snapshotReads}
+ * system property, a comma separated list that replaces {@link #DEFAULT_ROUTES}; set it to {@code none}
+ * to send every read to the live database.
+ *
+ * A routed read still uses the live database when no replica has been installed (for example in unit tests),
+ * when no copy has been taken yet, or when the copy is older than the {@code db.snapshot.maxStalenessSeconds}
+ * system property (two minutes by default) because refreshing has been failing.
+ * Reads served by each source are counted in the {@code db.reads.snapshot} and {@code db.reads.primary} metrics.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class ReadRouting {
+
+    /** JDBC URL of the live database shared by every DAO. */
+    public static final String PRIMARY_URL = "jdbc:sqlite:src/main/resources/appliance.sql";
+
+    /** Admin listings that are routed to the replica unless configured otherwise. */
+    public static final String DEFAULT_ROUTES = "CustomerDAO.findAllCustomers,UsersDAO.findAllUsers";
+
+    private static final long MAX_STALENESS_MILLIS = Long.getLong("db.snapshot.maxStalenessSeconds", 120) * 1000;
+
+    private static volatile SnapshotReplica replica;
+    private static volatile Set<String> routes = parseRoutes(System.getProperty("db.snapshotReads", DEFAULT_ROUTES));
+
+    private ReadRouting() {
+        // Static utility
+    }
+
+    /**
+     * Sends routed reads to the given replica from now on.
+     *
+     * @param snapshot the replica to read from, or null to send every read to the live database
+     */
+    public static void install(SnapshotReplica snapshot) {
+        replica = snapshot;
+    }
+
+    /**
+     * Replaces the set of routed methods.
+     *
+     * @param configuration a comma separated list of {@code ClassName.methodName} entries, or "none"
+     */
+    public static void configure(String configuration) {
+        routes = parseRoutes(configuration);
+    }
+
+    /**
+     * Returns whether a method is configured to read from the replica.
+     *
+     * @param method the route name, for example "CustomerDAO.findAllCustomers"
+     * @return true if the method is routed to the replica
+     */
+    public static boolean isRouted(String method) {
+        return routes.contains(method);
+    }
+
+    /**
+     * Returns the connection a DAO method should read from.
+     *
+     * @param method the route name, for example "CustomerDAO.findAllCustomers"
+     * @param primary opens a connection to the live database, normally the DAO's own {@code connect()}
+     * @return a read-only replica connection if the method is routed and the replica is fresh enough,
+     *         otherwise a connection from {@code primary}
+     */
+    public static Connection connect(String method, Supplier<Connection> primary) {
+        SnapshotReplica snapshot = replica;
+        if (snapshot != null && isRouted(method) && snapshot.isAvailable()
+                && snapshot.ageMillis() <= MAX_STALENESS_MILLIS) {
+            try {
+                Connection conn = snapshot.openReadConnection();
+                Metrics.counter("db.reads.snapshot").increment();
+                return conn;
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+        Metrics.counter("db.reads.primary").increment();
+        return primary.get();
+    }
+
+    private static Set<String> parseRoutes(String configuration) {
+        if (configuration == null || configuration.trim().isEmpty() || "none".equalsIgnoreCase(configuration.trim())) {
+            return Collections.emptySet();
+        }
+        Set<String> parsed = new HashSet<>();
+        for (String route : Arrays.asList(configuration.split(","))) {
+            if (!route.trim().isEmpty()) {
+                parsed.add(route.trim());
+            }
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+}
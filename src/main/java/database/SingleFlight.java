@@ -0,0 +1,141 @@
+package database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import metrics.Metrics;
+
+/**
+ * Collapses concurrent identical reads into one execution. The first caller for a key runs the read;
+ * callers that arrive with the same key while it is still running wait for it and receive the same result,
+ * or the same exception. Nothing is kept once the read finishes, so this is not a cache: the next call
+ * after that runs the read again.
+ *
+ * {@link #forget()} detaches the reads currently running, so that callers arriving after a write start a
+ * fresh read rather than joining one that may have missed the write. Callers already waiting still get
+ * the result of the read they joined.
+ *
+ * Results are handed to every caller as-is, so they should not be modified; callers that need a mutable
+ * result should copy it. A read must not call back into the same key, as it would wait for itself.
+ * Executions and collapsed calls are counted in the {@code <name>.executions} and {@code <name>.coalesced}
+ * metrics, which are shared by all instances with the same name.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder executions;
+    private final LongAdder coalesced;
+
+    /**
+     * Creates a group of coalesced reads.
+     *
+     * @param name the metrics prefix, for example "catalogue.reads"
+     */
+    public SingleFlight(String name) {
+        this.executions = Metrics.counter(name + ".executions");
+        this.coalesced = Metrics.counter(name + ".coalesced");
+    }
+
+    /**
+     * Runs a read, or waits for the identical read that is already running.
+     *
+     * @param key identifies the read, including all of its parameters
+     * @param read performs the read
+     * @return the result of the read
+     */
+    public V execute(K key, Supplier<V> read) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        executions.increment();
+        try {
+            V result = read.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Starts a read on an executor, or returns the identical read that is already running, without waiting for it.
+     *
+     * @param key identifies the read, including all of its parameters
+     * @param read performs the read
+     * @param executor runs the read if it is not already running
+     * @return completes with the result of the read, or with the exception it threw
+     */
+    public CompletableFuture<V> submit(K key, Supplier<V> read, Executor executor) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+        executions.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    flight.complete(read.get());
+                } catch (Throwable ex) {
+                    flight.completeExceptionally(ex);
+                } finally {
+                    flights.remove(key, flight);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(ex);
+        }
+        return flight;
+    }
+
+    /**
+     * Detaches the reads that are currently running, so that later calls start new ones.
+     */
+    public void forget() {
+        flights.clear();
+    }
+
+    /**
+     * Returns the number of reads currently running.
+     *
+     * @return the number of keys with a read in flight
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // Rethrow what the read threw, as the caller that ran it saw it
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package database;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import metrics.Metrics;
+
+/**
+ * A read-only copy of the SQLite database that reporting queries can read from instead of the live file,
+ * so that long admin listings do not hold locks that checkout and signup writes have to wait for.
+ *
+ * The copy is taken with the SQLite online backup API (the {@code backup to} command of the SQLite JDBC driver),
+ * which copies a consistent view of the database while other connections keep writing. Each refresh writes
+ * a new file and then switches readers over to it, so a reader never sees a partially written copy;
+ * the previous file is deleted once it is no longer the current one.
+ * Connections to the copy are opened read-only. Each replica names its files with its own prefix, made of the
+ * process ID and a per-process counter, and only ever deletes files with that prefix, so several replicas,
+ * or several servers, can share a directory.
+ *
+ * The following metrics are published:
+ * - {@code db.snapshot.age_ms}: how long ago the current copy was taken (its staleness)
+ * - {@code db.snapshot.refresh_ms}: how long the last refresh took
+ * - {@code db.snapshot.refreshes} and {@code db.snapshot.refresh_failures}
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class SnapshotReplica implements AutoCloseable {
+
+    /** SQLite open flags for a read-only connection (SQLITE_OPEN_READONLY). */
+    private static final String READ_ONLY_OPEN_MODE = "1";
+
+    private static final String FILE_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".sql";
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final String primaryUrl;
+    private final Path directory;
+    private final String filePrefix = FILE_PREFIX + ProcessHandle.current().pid() + "-" + INSTANCES.incrementAndGet() + "-";
+    private final Object refreshLock = new Object();
+
+    private volatile Path current;
+    private volatile long takenAtMillis;
+    private volatile long lastRefreshMillis;
+    private long sequence;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a replica of the given database. No copy is taken until {@link #refresh()} or {@link #start(long)} is called.
+     *
+     * @param primaryUrl the JDBC URL of the live database
+     * @param directory the directory the copies are written to
+     */
+    public SnapshotReplica(String primaryUrl, Path directory) {
+        this.primaryUrl = primaryUrl;
+        this.directory = directory;
+        Metrics.gauge("db.snapshot.age_ms", this::ageMillis);
+        Metrics.gauge("db.snapshot.refresh_ms", () -> lastRefreshMillis);
+    }
+
+    /**
+     * Takes a new copy of the live database and makes it the one readers connect to.
+     *
+     * @throws SQLException if the backup fails
+     * @throws IOException if the copy cannot be written
+     */
+    public void refresh() throws SQLException, IOException {
+        synchronized (refreshLock) {
+            long start = System.currentTimeMillis();
+            Files.createDirectories(directory);
+            Path target = directory.resolve(filePrefix + System.nanoTime() + "-" + (++sequence) + FILE_SUFFIX);
+            try (Connection conn = DriverManager.getConnection(primaryUrl);
+                 Statement statement = conn.createStatement()) {
+                statement.executeUpdate("backup to \"" + target.toAbsolutePath() + "\"");
+            } catch (SQLException ex) {
+                Metrics.counter("db.snapshot.refresh_failures").increment();
+                Files.deleteIfExists(target);
+                throw ex;
+            }
+            Path previous = current;
+            current = target;
+            takenAtMillis = start;
+            lastRefreshMillis = System.currentTimeMillis() - start;
+            Metrics.counter("db.snapshot.refreshes").increment();
+            if (previous != null) {
+                deleteOldCopies();
+            }
+        }
+    }
+
+    /**
+     * Takes a first copy and then refreshes it in the background at a fixed interval.
+     * If the first copy fails, readers keep using the live database until a refresh succeeds.
+     *
+     * @param intervalSeconds the number of seconds between refreshes
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (SQLException | IOException ex) {
+            ex.printStackTrace();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (SQLException | IOException ex) {
+                ex.printStackTrace();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns whether a copy has been taken.
+     *
+     * @return true if readers can connect to the replica
+     */
+    public boolean isAvailable() {
+        return current != null;
+    }
+
+    /**
+     * Returns how old the current copy is.
+     *
+     * @return the age in milliseconds, or -1 if no copy has been taken
+     */
+    public long ageMillis() {
+        return (current == null) ? -1 : System.currentTimeMillis() - takenAtMillis;
+    }
+
+    /**
+     * Opens a read-only connection to the current copy.
+     *
+     * @return a new connection that the caller must close
+     * @throws SQLException if the connection cannot be opened or no copy has been taken
+     */
+    public Connection openReadConnection() throws SQLException {
+        Path snapshot = current;
+        if (snapshot == null) {
+            throw new SQLException("No snapshot has been taken yet");
+        }
+        Properties properties = new Properties();
+        properties.setProperty("open_mode", READ_ONLY_OPEN_MODE);
+        return DriverManager.getConnection("jdbc:sqlite:" + snapshot.toAbsolutePath(), properties);
+    }
+
+    /**
+     * Stops the background refresh and deletes the copies.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        synchronized (refreshLock) {
+            current = null;
+            deleteOldCopies();
+        }
+    }
+
+    /**
+     * Deletes every copy this replica made except the current one. Copies that are still open by a reader
+     * cannot be deleted on some platforms; they are retried after the next refresh.
+     */
+    private void deleteOldCopies() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> copies = Files.newDirectoryStream(directory, filePrefix + "*" + FILE_SUFFIX)) {
+            for (Path copy : copies) {
+                if (!copy.equals(current)) {
+                    try {
+                        Files.deleteIfExists(copy);
+                    } catch (IOException ex) {
+                        // Still in use by a reader; try again next time
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package database;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.Metrics;
+
+/**
+ * Keeps the last good result of each read so that a slow or failing database does not empty a page.
+ *
+ * A result younger than the fresh window is returned as it is. An older result, up to the stale limit, is
+ * still returned straight away while a refresh runs in the background (stale-while-revalidate). Past the
+ * stale limit, or after {@link #invalidate()}, the caller waits for a new read; if that read fails, or
+ * does not finish within the timeout, the last good result is returned instead as long as it is within the
+ * stale limit (serve-stale-on-error). Only when there is no usable result does the caller see the failure.
+ *
+ * Reads run on a shared pool of daemon threads and identical reads are coalesced with a {@link SingleFlight},
+ * so a refresh is never started twice. The number of entries is bounded; the oldest are dropped first.
+ * Stale results served, and the number and total time of reads, are counted in the {@code <name>.stale_serves},
+ * {@code <name>.stale_on_error}, {@code <name>.refreshes}, {@code <name>.refresh_failures} and
+ * {@code <name>.refresh_ms_total} metrics.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class StaleReads<K, V> {
+
+    /**
+     * A database read that may fail.
+     */
+    @FunctionalInterface
+    public interface Read<V> {
+
+        /**
+         * Performs the read.
+         *
+         * @return the result
+         * @throws SQLException if the database cannot be read
+         */
+        V read() throws SQLException;
+    }
+
+    private static final ExecutorService READERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "stale-reads");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final SingleFlight<K, V> flight;
+    private final AtomicLong generation = new AtomicLong();
+    private final long freshNanos;
+    private final long maxStaleNanos;
+    private final long timeoutMillis;
+    private final int maxEntries;
+    private final LongAdder staleServes;
+    private final LongAdder staleOnError;
+    private final LongAdder refreshes;
+    private final LongAdder refreshFailures;
+    private final LongAdder refreshMillis;
+
+    /**
+     * A result and when its read started.
+     */
+    private static final class Entry<V> {
+        final V value;
+        final long readAt;
+        final long generation;
+
+        Entry(V value, long readAt, long generation) {
+            this.value = value;
+            this.readAt = readAt;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Creates a set of stale-tolerant reads.
+     *
+     * @param name the metrics prefix, for example "catalogue.reads"
+     * @param freshMillis how long a result is returned without a refresh
+     * @param maxStaleMillis how long a result may be returned in place of a newer one
+     * @param timeoutMillis how long to wait for a read before returning a stale result instead
+     * @param maxEntries the largest number of results kept
+     */
+    public StaleReads(String name, long freshMillis, long maxStaleMillis, long timeoutMillis, int maxEntries) {
+        this.flight = new SingleFlight<>(name);
+        this.freshNanos = TimeUnit.MILLISECONDS.toNanos(freshMillis);
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(freshMillis, maxStaleMillis));
+        this.timeoutMillis = timeoutMillis;
+        this.maxEntries = maxEntries;
+        this.staleServes = Metrics.counter(name + ".stale_serves");
+        this.staleOnError = Metrics.counter(name + ".stale_on_error");
+        this.refreshes = Metrics.counter(name + ".refreshes");
+        this.refreshFailures = Metrics.counter(name + ".refresh_failures");
+        this.refreshMillis = Metrics.counter(name + ".refresh_ms_total");
+    }
+
+    /**
+     * Creates a set of stale-tolerant reads configured with system properties named after it: for the name
+     * "catalogue.reads", {@code catalogue.reads.freshMillis} (2 seconds by default),
+     * {@code catalogue.reads.maxStaleSeconds} (5 minutes), {@code catalogue.reads.timeoutMillis} (1 second)
+     * and {@code catalogue.reads.maxEntries} (1000).
+     *
+     * @param name the property and metrics prefix
+     * @return the reads
+     */
+    public static <K, V> StaleReads<K, V> configured(String name) {
+        return new StaleReads<>(name, Long.getLong(name + ".freshMillis", 2000),
+                Long.getLong(name + ".maxStaleSeconds", 300) * 1000, Long.getLong(name + ".timeoutMillis", 1000),
+                Integer.getInteger(name + ".maxEntries", 1000));
+    }
+
+    /**
+     * Returns the result of a read, from the last good result where allowed.
+     *
+     * @param key identifies the read, including all of its parameters
+     * @param read performs the read
+     * @return the result
+     * @throws SQLException if the read failed and there is no result to fall back on
+     */
+    public V get(K key, Read<V> read) throws SQLException {
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        long current = generation.get();
+        boolean usable = entry != null && now - entry.readAt < maxStaleNanos;
+        if (usable && entry.generation == current) {
+            if (now - entry.readAt >= freshNanos) {
+                // Serve the old result and refresh it in the background
+                refresh(key, read, current);
+                staleServes.increment();
+            }
+            return entry.value;
+        }
+        CompletableFuture<V> pending = refresh(key, read, current);
+        try {
+            return usable ? pending.get(timeoutMillis, TimeUnit.MILLISECONDS) : pending.get();
+        } catch (ExecutionException | CompletionException ex) {
+            if (!usable) {
+                throw unwrap(ex.getCause());
+            }
+        } catch (TimeoutException ex) {
+            // The read carries on and stores its result when it finishes
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (!usable) {
+                throw new SQLException("Interrupted while waiting for a read", ex);
+            }
+        }
+        staleServes.increment();
+        staleOnError.increment();
+        return entry.value;
+    }
+
+    /**
+     * Marks every result as out of date, for example after a write. The next call for each key waits for a
+     * new read, but the old result may still be returned if that read fails.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        flight.forget();
+    }
+
+    /**
+     * Discards every result.
+     */
+    public void clear() {
+        invalidate();
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of results kept.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private CompletableFuture<V> refresh(K key, Read<V> read, long readGeneration) {
+        return flight.submit(key, () -> {
+            long start = System.nanoTime();
+            try {
+                V value = read.read();
+                store(key, new Entry<>(value, start, readGeneration));
+                return value;
+            } catch (SQLException ex) {
+                refreshFailures.increment();
+                ex.printStackTrace();
+                throw new CompletionException(ex);
+            } finally {
+                refreshes.increment();
+                refreshMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }, READERS);
+    }
+
+    private void store(K key, Entry<V> entry) {
+        entries.merge(key, entry, (old, added) -> (old.readAt - added.readAt > 0) ? old : added);
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    /**
+     * Drops results past the stale limit and, if there are still too many, the oldest.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.readAt >= maxStaleNanos);
+        while (entries.size() > maxEntries) {
+            K oldest = null;
+            long oldestReadAt = 0;
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (oldest == null || candidate.getValue().readAt - oldestReadAt < 0) {
+                    oldest = candidate.getKey();
+                    oldestReadAt = candidate.getValue().readAt;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest);
+        }
+    }
+
+    private static SQLException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new SQLException(cause);
+    }
+}
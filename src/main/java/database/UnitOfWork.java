@@ -0,0 +1,105 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import metrics.Metrics;
+
+/**
+ * One database transaction shared by several DAO calls, so that writes spanning DAOs are committed together
+ * or not at all, with one commit (and one sync to disk) rather than one per statement.
+ *
+ * DAO methods that take a unit of work run on its connection and pass generated keys back on the objects
+ * they insert, so later statements can use them without reading them back:
+ * {@code try (UnitOfWork work = UnitOfWork.begin()) { customers.addCustomer(work, customer); ...; work.commit(); }}
+ * Closing a unit of work that was not committed rolls it back. Commits and rollbacks are counted in the
+ * {@code db.units.commits} and {@code db.units.rollbacks} metrics.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class UnitOfWork implements AutoCloseable {
+
+    private final Connection connection;
+    private boolean committed;
+
+    /**
+     * Starts a unit of work on a connection, which it closes when it is closed.
+     *
+     * @param connection the connection to run the transaction on
+     * @throws SQLException if the transaction cannot be started
+     */
+    public UnitOfWork(Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Starts a unit of work on a new connection to the live database.
+     *
+     * @return the unit of work
+     * @throws SQLException if the database cannot be opened
+     */
+    public static UnitOfWork begin() throws SQLException {
+        Connection connection = DriverManager.getConnection(ReadRouting.PRIMARY_URL);
+        try {
+            return new UnitOfWork(connection);
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the connection the DAOs should run their statements on. It must not be closed or committed directly.
+     *
+     * @return the connection
+     */
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Commits every statement run in this unit of work.
+     *
+     * @throws SQLException if the commit fails, in which case closing rolls back
+     */
+    public void commit() throws SQLException {
+        connection.commit();
+        committed = true;
+        Metrics.counter("db.units.commits").increment();
+    }
+
+    /**
+     * Returns whether the unit of work has been committed.
+     *
+     * @return true once {@link #commit()} has succeeded
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Rolls back anything not committed and closes the connection.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!committed) {
+                connection.rollback();
+                Metrics.counter("db.units.rollbacks").increment();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
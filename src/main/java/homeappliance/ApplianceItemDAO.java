@@ -7,6 +7,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import database.StaleReads;
 
 /**
  * ApplianceItemDAO is a Data Access Object (DAO) class that provides methods 
@@ -20,6 +24,16 @@ import java.util.ArrayList;
  */
 public class ApplianceItemDAO {
 	
+	/**
+	 * Item list reads keep their last good result and share concurrent identical reads, as in {@link HomeApplianceDAO}.
+	 * A catalogue write marks every result as out of date.
+	 */
+	private static final StaleReads<List<Object>, List<ApplianceItem>> ITEM_READS = StaleReads.configured("catalogue.reads");
+
+	static {
+	    CatalogueEvents.addListener((source, id) -> ITEM_READS.invalidate());
+	}
+	
 	/**
      * Default constructor for ApplianceItemDAO.
      * Initialises a new instance of the class without any additional setup.
@@ -53,6 +67,11 @@ public class ApplianceItemDAO {
 	        try (PreparedStatement preStatement = conn.prepareStatement(table)) {  // Use try-with-resources to ensure that the PreparedStatement is closed
 	            preStatement.execute(); // Executes the SQL statement without any parameters
 	        }
+	        // Index used to join products to their items on the products page
+	        try (PreparedStatement preStatement = conn.prepareStatement(
+	                "CREATE INDEX IF NOT EXISTS idx_applianceItem_homeApplianceId ON applianceItem(homeApplianceId)")) {
+	            preStatement.execute();
+	        }
 	    } catch(SQLException ex) {
 	        ex.printStackTrace();
 	    }
@@ -80,6 +99,7 @@ public class ApplianceItemDAO {
 	                        item.setId(generatedKeys.getInt(1));
 	                    }
 	                }
+	                CatalogueEvents.fire(CatalogueEvents.Source.ITEM, item.getId());
 	                return true;
 	            }
 	        } catch (SQLException ex) {
@@ -94,6 +114,13 @@ public class ApplianceItemDAO {
 	     * @return an ArrayList of ApplianceItem objects
 	     */
 		public ArrayList<ApplianceItem> findAllApplianceItems() {
+		    return read(Arrays.asList("findAllApplianceItems"), this::queryAllApplianceItems);
+		}
+
+		/**
+		 * Runs the query behind {@link #findAllApplianceItems()}.
+		 */
+		private List<ApplianceItem> queryAllApplianceItems() throws SQLException {
 		    String query = "SELECT * FROM applianceItem";
 		    ArrayList<ApplianceItem> items = new ArrayList<>();
 		    try (Connection conn = this.connect();
@@ -115,8 +142,6 @@ public class ApplianceItemDAO {
 		                System.out.println("Warning: No HomeAppliance found for ID " + result.getInt("homeApplianceId"));
 		            }
 		        }
-		    } catch (SQLException ex) {
-		        ex.printStackTrace();
 		    }
 		    return items;
 		}
@@ -152,6 +177,24 @@ public class ApplianceItemDAO {
 	        return null;
 	    }
 	    
+	    /**
+	     * Looks up which product an appliance item belongs to without loading the item, reporting
+	     * a failed read instead of treating it as a missing item.
+	     *
+	     * @param id - the ID of the ApplianceItem
+	     * @return the ID of its product, or -1 if there is no item with that ID
+	     * @throws SQLException if the item cannot be read
+	     */
+	    int readProductOfItem(int id) throws SQLException {
+	        try (Connection conn = this.connect();
+	             PreparedStatement preStatement = conn.prepareStatement("SELECT homeApplianceId FROM applianceItem WHERE id = ?")) {
+	            preStatement.setInt(1, id);
+	            try (ResultSet result = preStatement.executeQuery()) {
+	                return result.next() ? result.getInt("homeApplianceId") : -1;
+	            }
+	        }
+	    }
+
 	    /**
 	     * Updates an existing ApplianceItem in the database which is retrieved by its unique ID.
 	     * 
@@ -168,6 +211,9 @@ public class ApplianceItemDAO {
 	            preStatement.setString(4, item.getModel());
 	            preStatement.setInt(5, item.getId());
 	            int rows = preStatement.executeUpdate();
+	            if (rows > 0) {
+	                CatalogueEvents.fire(CatalogueEvents.Source.ITEM, item.getId());
+	            }
 	            return rows > 0;
 	        } catch (SQLException ex) {
 	            ex.printStackTrace();
@@ -187,6 +233,9 @@ public class ApplianceItemDAO {
 	             PreparedStatement preStatement = conn.prepareStatement(query)) {
 	            preStatement.setInt(1, id);
 	            int rows = preStatement.executeUpdate();
+	            if (rows > 0) {
+	                CatalogueEvents.fire(CatalogueEvents.Source.ITEM, id);
+	            }
 	            return rows > 0;
 	        } catch (SQLException ex) {
 	            ex.printStackTrace();
@@ -202,6 +251,13 @@ public class ApplianceItemDAO {
 	     * @return an ArrayList of sorted ApplianceItem objects
 	     */
 	    public ArrayList<ApplianceItem> itemsSortedByWarrantyYears(boolean ascending) {
+	        return read(Arrays.asList("itemsSortedByWarrantyYears", ascending), () -> queryItemsSortedByWarrantyYears(ascending));
+	    }
+
+	    /**
+	     * Runs the query behind {@link #itemsSortedByWarrantyYears(boolean)}.
+	     */
+	    private List<ApplianceItem> queryItemsSortedByWarrantyYears(boolean ascending) throws SQLException {
 	        String order = ascending ? "ASC" : "DESC";
 	        String query = "SELECT * FROM applianceItem ORDER BY warrantyYears " + order;
 	        ArrayList<ApplianceItem> items = new ArrayList<>();
@@ -226,10 +282,20 @@ public class ApplianceItemDAO {
 	                item.setId(result.getInt("id"));
 	                items.add(item);
 	            }
-	        } catch (SQLException ex) {
-	            ex.printStackTrace();
 	        }
 	        return items;
 	    }
 
+	    /**
+	     * Runs an item list read through its stale-tolerant cache, returning an empty list if it fails with nothing to fall back on.
+	     */
+	    private static ArrayList<ApplianceItem> read(List<Object> key, StaleReads.Read<List<ApplianceItem>> query) {
+	        try {
+	            return new ArrayList<>(ITEM_READS.get(key, query));
+	        } catch (SQLException ex) {
+	            // Already logged where the read failed
+	            return new ArrayList<>();
+	        }
+	    }
+
 }
@@ -1,97 +1,270 @@
 package homeappliance;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The Basket class is for managing ApplianceItem objects and their quantities.
  * This class provides functionalities to add items, remove items, retrieve the current basket contents,
  * calculate the total price, and clear the basket.
- * 
- * 
- * 
+ *
+ * Lines are keyed by the ID of their ApplianceItem, so adding an item that was loaded again from the database
+ * increases the quantity of its existing line. Adding and removing are constant time, and the total price,
+ * the number of lines and the number of items are kept up to date as the basket changes rather than
+ * recalculated. A basket can be changed from several requests at once (for example two browser tabs);
+ * every method is synchronized on the basket, and the contents are returned as copies.
+ *
+ * A basket created with a change listener reports every change to it, which {@link BasketStore} uses
+ * to save baskets in the background.
+ *
+ *
  * @author Amrit Singh
  * @version 5/1/2025
  */
 
 public class Basket {
-	
+
+    /**
+     * One line of the basket: an item, its price when it was last added and its quantity.
+     * Lines are immutable; a change to the basket replaces the line.
+     */
+    public static final class Line {
+
+        private final ApplianceItem item;
+        private final int unitPrice;
+        private final int quantity;
+
+        Line(ApplianceItem item, int unitPrice, int quantity) {
+            this.item = item;
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+        }
+
+        /**
+         * Returns the ID of the item on this line.
+         *
+         * @return the ApplianceItem ID
+         */
+        public int getItemId() {
+            return item.getId();
+        }
+
+        /**
+         * Returns the item on this line, as it was when it was last added.
+         *
+         * @return the ApplianceItem
+         */
+        public ApplianceItem getItem() {
+            return item;
+        }
+
+        /**
+         * Returns the price of one unit.
+         *
+         * @return the unit price in pounds
+         */
+        public int getUnitPrice() {
+            return unitPrice;
+        }
+
+        /**
+         * Returns the quantity.
+         *
+         * @return the number of units
+         */
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * Returns the price of the whole line.
+         *
+         * @return the unit price multiplied by the quantity
+         */
+        public int getLineTotal() {
+            return unitPrice * quantity;
+        }
+    }
+
 	/**
      * Default constructor for Basket.
      * Initialises a new instance of the class without any additional setup.
      */
     public Basket() {
-        // No specific initialisation required
+        this(basket -> { });
+    }
+
+    /**
+     * Creates an empty basket that reports its changes.
+     *
+     * @param onChange called with the basket after every change, while it is locked, so it should only do cheap work
+     */
+    public Basket(Consumer<Basket> onChange) {
+        this.onChange = onChange;
     }
-	
-    private Map<ApplianceItem, Integer> items = new HashMap<>();
+
+    /** Lines keyed by item ID, in the order they were first added. */
+    private final Map<Integer, Line> lines = new LinkedHashMap<>();
+    private final Consumer<Basket> onChange;
+    private int totalPrice;
+    private int itemCount;
 
     /**
-     * Adds an ApplianceItem to the basket. If the item already exists in the basket, 
-     * its quantity is incremented by 1.
-     * 
+     * Adds an ApplianceItem to the basket. If the item already exists in the basket,
+     * its quantity is incremented by 1 and its price is updated to the price of the given item.
+     *
      * @param item the ApplianceItem to add to the basket
      */
-    public void addItem(ApplianceItem item) {
-        int currentQuantity = items.getOrDefault(item, 0);
-        items.put(item, currentQuantity + 1);
+    public synchronized void addItem(ApplianceItem item) {
+        int unitPrice = item.getHomeAppliance().getPrice();
+        Line line = lines.get(item.getId());
+        int quantity = (line != null) ? line.quantity : 0;
+        if (line != null) {
+            totalPrice -= line.getLineTotal();
+        }
+        Line added = new Line(item, unitPrice, quantity + 1);
+        lines.put(item.getId(), added);
+        totalPrice += added.getLineTotal();
+        itemCount++;
+        onChange.accept(this);
     }
 
     /**
-     * Removes one instance of an ApplianceItem from the basket based on its ID. 
-     * If the item's quantity is greater than 1, it decrements the quantity by 1. 
+     * Removes one instance of an ApplianceItem from the basket based on its ID.
+     * If the item's quantity is greater than 1, it decrements the quantity by 1.
      * Otherwise, it removes the item from the basket entirely.
-     * 
+     *
      * If the item is not found in the basket, an informational message is displayed.
-     * 
+     *
      * @param itemId the ID of the ApplianceItem to remove
      */
-    public void removeItem(int itemId) {
-        ApplianceItem itemToRemove = null;
-        for (ApplianceItem item : items.keySet()) {
-            if (item.getId() == itemId) {
-                itemToRemove = item;
-                break;
-            }
-        }
-
-        if (itemToRemove != null) {
-            int quantity = items.get(itemToRemove);
-            if (quantity > 1) {
-                items.put(itemToRemove, quantity - 1);
-            } else {
-                items.remove(itemToRemove);
-            }
+    public synchronized void removeItem(int itemId) {
+        if (removeQuantity(itemId, 1)) {
+            onChange.accept(this);
         } else {
             System.out.println("Item with ID " + itemId + " not found in the basket.");
         }
     }
 
+    /**
+     * Removes the quantities of the given lines, for example once they have been ordered.
+     * Items added since the lines were read stay in the basket.
+     *
+     * @param ordered lines previously returned by {@link #getLines()}
+     */
+    public synchronized void removeLines(Collection<Line> ordered) {
+        boolean changed = false;
+        for (Line line : ordered) {
+            changed |= removeQuantity(line.getItemId(), line.quantity);
+        }
+        if (changed) {
+            onChange.accept(this);
+        }
+    }
+
+    /**
+     * Returns a copy of the lines in the basket, in the order they were first added.
+     *
+     * @return the lines
+     */
+    public synchronized List<Line> getLines() {
+        return new ArrayList<>(lines.values());
+    }
+
     /**
      * Retrieves a map of all items in the basket along with their quantities.
-     * 
-     * @return a map where the keys are ApplianceItem objects and the values are their quantities
+     *
+     * @return a copy of the basket, where the keys are ApplianceItem objects and the values are their quantities
      */
-    public Map<ApplianceItem, Integer> getItemsWithQuantities() {
-        return items;
+    public synchronized Map<ApplianceItem, Integer> getItemsWithQuantities() {
+        Map<ApplianceItem, Integer> quantities = new LinkedHashMap<>();
+        for (Line line : lines.values()) {
+            quantities.put(line.item, line.quantity);
+        }
+        return quantities;
     }
 
     /**
-     * Calculates the total price of all items in the basket. The total price is determined
-     * by summing the price of each item multiplied by its quantity.
-     * 
+     * Returns the quantity of an item in the basket.
+     *
+     * @param itemId the ID of the ApplianceItem
+     * @return the quantity, or 0 if the item is not in the basket
+     */
+    public synchronized int getQuantity(int itemId) {
+        Line line = lines.get(itemId);
+        return (line != null) ? line.quantity : 0;
+    }
+
+    /**
+     * Returns the total price of all items in the basket, the price of each item multiplied by its quantity.
+     *
      * @return the total price of items in the basket
      */
-    public int getTotalPrice() {
-        return items.entrySet().stream()
-                .mapToInt(entry -> entry.getKey().getHomeAppliance().getPrice() * entry.getValue())
-                .sum();
+    public synchronized int getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Returns the number of different items in the basket.
+     *
+     * @return the number of lines
+     */
+    public synchronized int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Returns the number of items in the basket, counting each unit.
+     *
+     * @return the sum of the quantities
+     */
+    public synchronized int getItemCount() {
+        return itemCount;
     }
-    
+
     /**
      * Clears all items from the basket, effectively resetting it to an empty state.
      */
-    public void clear() {
-        items.clear(); 
+    public synchronized void clear() {
+        boolean changed = !lines.isEmpty();
+        lines.clear();
+        totalPrice = 0;
+        itemCount = 0;
+        if (changed) {
+            onChange.accept(this);
+        }
+    }
+
+    /**
+     * Fills an empty basket with saved lines, without reporting a change.
+     *
+     * @param saved the lines, one per item, in the order they were first added
+     */
+    synchronized void restore(List<Line> saved) {
+        for (Line line : saved) {
+            lines.put(line.getItemId(), line);
+            totalPrice += line.getLineTotal();
+            itemCount += line.quantity;
+        }
+    }
+
+    private boolean removeQuantity(int itemId, int quantity) {
+        Line line = lines.get(itemId);
+        if (line == null) {
+            return false;
+        }
+        int removed = Math.min(quantity, line.quantity);
+        if (removed == line.quantity) {
+            lines.remove(itemId);
+        } else {
+            lines.put(itemId, new Line(line.item, line.unitPrice, line.quantity - removed));
+        }
+        totalPrice -= line.unitPrice * removed;
+        itemCount -= removed;
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package homeappliance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BasketDAO is a Data Access Object (DAO) class that saves customers' baskets in the SQLite database,
+ * so that they survive a restart of the server. Each line of a basket is one row of the `basketItem` table,
+ * keyed by the user and the appliance item. Baskets are written by {@link BasketStore} in the background
+ * rather than on every change.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class BasketDAO implements BasketStorage {
+
+    /**
+     * Default constructor for BasketDAO.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public BasketDAO() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Establishes a connection to the SQLite database and creates the `basketItem` table
+     * if it does not already exist.
+     *
+     * @return a Connection object to the SQLite database
+     */
+    private Connection connect() {
+        Connection conn = null;
+        try {
+            String url = "jdbc:sqlite:src/main/resources/appliance.sql";
+
+            conn = DriverManager.getConnection(url);
+            String table = "CREATE TABLE IF NOT EXISTS basketItem (" +
+                           "userId INTEGER NOT NULL, " +
+                           "applianceItemId INTEGER NOT NULL, " +
+                           "quantity INTEGER NOT NULL, " +
+                           "position INTEGER NOT NULL, " +
+                           "PRIMARY KEY (userId, applianceItemId), " +
+                           "FOREIGN KEY (userId) REFERENCES users(userId) ON DELETE CASCADE, " +
+                           "FOREIGN KEY (applianceItemId) REFERENCES applianceItem(id) ON DELETE CASCADE)";
+            try (PreparedStatement preStatement = conn.prepareStatement(table)) {
+                preStatement.execute();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return conn;
+    }
+
+    /**
+     * Loads the saved basket of a user, with the current details and price of each item.
+     *
+     * @param userId the user ID
+     * @return the lines in the order they were first added; empty if nothing is saved, or null if an error occurs
+     */
+    @Override
+    public List<Basket.Line> load(int userId) {
+        String query = "SELECT b.quantity, i.id AS itemId, i.warrantyYears, i.brand, i.model, " +
+                       "a.id AS applianceId, a.sku, a.description, a.category, a.price " +
+                       "FROM basketItem b " +
+                       "JOIN applianceItem i ON i.id = b.applianceItemId " +
+                       "JOIN appliance a ON a.id = i.homeApplianceId " +
+                       "WHERE b.userId = ? ORDER BY b.position";
+        List<Basket.Line> lines = new ArrayList<>();
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query)) {
+            preStatement.setInt(1, userId);
+            try (ResultSet result = preStatement.executeQuery()) {
+                while (result.next()) {
+                    HomeAppliance appliance = new HomeAppliance(result.getString("sku"), result.getString("description"),
+                            result.getString("category"), result.getInt("price"));
+                    appliance.setId(result.getInt("applianceId"));
+                    ApplianceItem item = new ApplianceItem(appliance, result.getInt("warrantyYears"),
+                            result.getString("brand"), result.getString("model"));
+                    item.setId(result.getInt("itemId"));
+                    lines.add(new Basket.Line(item, appliance.getPrice(), result.getInt("quantity")));
+                }
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            // Not an empty basket: the caller must not save over what is stored
+            return null;
+        }
+        return lines;
+    }
+
+    /**
+     * Replaces the saved basket of a user in one transaction.
+     *
+     * @param userId the user ID
+     * @param lines the lines to save; an empty list deletes the saved basket
+     * @return true if the basket was saved, false otherwise
+     */
+    @Override
+    public boolean save(int userId, List<Basket.Line> lines) {
+        try (Connection conn = this.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM basketItem WHERE userId = ?");
+                 PreparedStatement insert = conn.prepareStatement(
+                         "INSERT INTO basketItem (userId, applianceItemId, quantity, position) VALUES (?, ?, ?, ?)")) {
+                delete.setInt(1, userId);
+                delete.executeUpdate();
+                int position = 0;
+                for (Basket.Line line : lines) {
+                    insert.setInt(1, userId);
+                    insert.setInt(2, line.getItemId());
+                    insert.setInt(3, line.getQuantity());
+                    insert.setInt(4, position++);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package homeappliance;
+
+import java.util.List;
+
+/**
+ * Saves and loads the contents of customers' baskets for {@link BasketStore}.
+ * The server uses {@link BasketDAO}; tests supply their own storage.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public interface BasketStorage {
+
+    /**
+     * Loads the saved basket of a user. Items that no longer exist are left out.
+     *
+     * @param userId the user ID
+     * @return the lines, one per item, in the order they were first added; empty if nothing is saved,
+     *         or null if the basket could not be read
+     */
+    List<Basket.Line> load(int userId);
+
+    /**
+     * Replaces the saved basket of a user.
+     *
+     * @param userId the user ID
+     * @param lines the lines to save; an empty list deletes the saved basket
+     * @return true if the basket was saved, false otherwise
+     */
+    boolean save(int userId, List<Basket.Line> lines);
+}
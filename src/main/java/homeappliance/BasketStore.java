@@ -0,0 +1,213 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.Metrics;
+
+/**
+ * Keeps the baskets of active customers in memory and saves them to a {@link BasketStorage} in the background,
+ * so that baskets survive a restart of the server without a database write on every click.
+ *
+ * A basket is loaded from storage the first time it is asked for after a restart, or after it was dropped from
+ * memory. Changes are written behind: the first change to a basket schedules a write after a short delay, and
+ * further changes within that delay are saved by the same write. If a write fails, it is tried again after the
+ * delay. Baskets that have not been asked for within the idle time, and have no unsaved changes, are dropped
+ * from memory, so memory only holds the baskets of customers who are shopping. If a saved basket cannot be
+ * read, nothing is kept in memory and no basket is returned, so that an empty basket is never saved over it;
+ * the load is tried again on the next request.
+ *
+ * Each server has its own store and nothing tells one server that another changed a basket, so a basket held in
+ * memory is not reloaded until it has been idle. When several servers share sessions (see {@code SessionStore}),
+ * the load balancer must send each customer's requests to the same server (sticky sessions); otherwise two
+ * servers can each hold a copy of the basket and the last one written replaces the other's changes.
+ *
+ * Loads, failed loads, writes, failed writes and dropped baskets are counted in the {@code basket.store.loads},
+ * {@code basket.store.load_failures}, {@code basket.store.writes}, {@code basket.store.write_failures} and
+ * {@code basket.store.evictions} metrics, and the number of baskets in memory is the {@code basket.store.active} gauge.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class BasketStore {
+
+    private static volatile BasketStore store;
+
+    private final BasketStorage storage;
+    private final long writeDelayMillis;
+    private final long idleNanos;
+    private final Map<Integer, Active> active = new ConcurrentHashMap<>();
+    private final Map<Integer, Basket> unsaved = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+    private final LongAdder loads = Metrics.counter("basket.store.loads");
+    private final LongAdder loadFailures = Metrics.counter("basket.store.load_failures");
+    private final LongAdder writes = Metrics.counter("basket.store.writes");
+    private final LongAdder writeFailures = Metrics.counter("basket.store.write_failures");
+    private final LongAdder evictions = Metrics.counter("basket.store.evictions");
+
+    /**
+     * A basket in memory and when it was last asked for.
+     */
+    private static final class Active {
+        final Basket basket;
+        volatile long usedAt = System.nanoTime();
+
+        Active(Basket basket) {
+            this.basket = basket;
+        }
+    }
+
+    /**
+     * Creates a store that saves baskets to the given storage.
+     *
+     * @param storage saves and loads baskets
+     * @param writeDelayMillis how long after a change the basket is written
+     * @param idleMillis how long a basket stays in memory after it was last asked for
+     */
+    public BasketStore(BasketStorage storage, long writeDelayMillis, long idleMillis) {
+        this.storage = storage;
+        this.writeDelayMillis = writeDelayMillis;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "basket-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1, Math.min(idleMillis, TimeUnit.MINUTES.toMillis(1)));
+        writer.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the store that saves baskets in the database, creating it on first use. It waits
+     * {@code basket.writeDelayMillis} (1 second by default) before writing a changed basket and keeps a basket
+     * in memory for {@code basket.idleMinutes} (30 minutes) after it was last asked for.
+     *
+     * @return the shared store
+     */
+    public static BasketStore shared() {
+        BasketStore shared = store;
+        if (shared == null) {
+            synchronized (BasketStore.class) {
+                shared = store;
+                if (shared == null) {
+                    shared = new BasketStore(new BasketDAO(), Long.getLong("basket.writeDelayMillis", 1000),
+                            TimeUnit.MINUTES.toMillis(Long.getLong("basket.idleMinutes", 30)));
+                    BasketStore gauged = shared;
+                    Metrics.gauge("basket.store.active", () -> gauged.active.size());
+                    store = shared;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the basket of a user, loading it from storage if it is not in memory.
+     *
+     * @param userId the user ID
+     * @return the basket, which saves itself when it changes, or null if the saved basket could not be loaded
+     */
+    public Basket basket(int userId) {
+        Active entry = active.computeIfAbsent(userId, this::load);
+        if (entry == null) {
+            return null;
+        }
+        entry.usedAt = System.nanoTime();
+        return entry.basket;
+    }
+
+    /**
+     * Writes every basket with unsaved changes now, for example before the server stops.
+     */
+    public void flush() {
+        for (Integer userId : new ArrayList<>(unsaved.keySet())) {
+            write(userId);
+        }
+    }
+
+    /**
+     * Writes any unsaved changes and stops writing in the background.
+     */
+    public void stop() {
+        writer.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Returns the number of baskets in memory.
+     *
+     * @return the number of active baskets
+     */
+    public int activeCount() {
+        return active.size();
+    }
+
+    private Active load(int userId) {
+        loads.increment();
+        // A basket dropped from memory with changes not yet written is newer than the saved one
+        Basket pending = unsaved.get(userId);
+        if (pending != null) {
+            return new Active(pending);
+        }
+        List<Basket.Line> lines = storage.load(userId);
+        if (lines == null) {
+            // Returning null keeps nothing in memory, so the next request loads it again
+            loadFailures.increment();
+            return null;
+        }
+        Basket basket = new Basket(updated -> changed(userId, updated));
+        basket.restore(lines);
+        return new Active(basket);
+    }
+
+    /**
+     * Records a change to a basket, scheduling a write unless one is already due.
+     * Called while the basket is locked.
+     */
+    private void changed(int userId, Basket basket) {
+        if (unsaved.put(userId, basket) == null) {
+            schedule(userId);
+        }
+    }
+
+    private void schedule(int userId) {
+        if (!writer.isShutdown()) {
+            writer.schedule(() -> write(userId), writeDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void write(int userId) {
+        Basket basket = unsaved.get(userId);
+        if (basket == null) {
+            return;
+        }
+        // Changes made from here on schedule another write
+        unsaved.remove(userId, basket);
+        if (storage.save(userId, basket.getLines())) {
+            writes.increment();
+        } else {
+            writeFailures.increment();
+            if (unsaved.putIfAbsent(userId, basket) == null) {
+                schedule(userId);
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<Integer, Active> entry : active.entrySet()) {
+            if (now - entry.getValue().usedAt >= idleNanos && !unsaved.containsKey(entry.getKey())
+                    && active.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package homeappliance;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Records catalogue writes for an in-memory index until the index next applies them.
+ *
+ * Recording is cheap and safe from any thread, as {@link CatalogueEvents} requires. When the index
+ * applies the changes, {@link #drain(CatalogueSource)} turns the recorded product and appliance item
+ * IDs into the set of products that must be re-loaded. An appliance item write affects both the product
+ * the index last saw it on and the product it now belongs to, so the index reports which items it
+ * holds through {@link #track} and {@link #untrack}; those two and drain must be called under the index's own lock.
+ * If the changed rows cannot be read, the index hands the products back with {@link #retry}, so that they are
+ * re-loaded on a later read instead of being lost.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+final class CatalogueChanges implements CatalogueEvents.Listener {
+
+    private final Set<Integer> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> pendingItems = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Integer> itemProducts = new HashMap<>();
+    private final Map<Integer, Integer> productItems = new HashMap<>();
+
+    @Override
+    public void catalogueChanged(CatalogueEvents.Source source, int id) {
+        if (source == CatalogueEvents.Source.PRODUCT) {
+            pendingProducts.add(id);
+        } else {
+            pendingItems.add(id);
+        }
+    }
+
+    /**
+     * Checks whether any writes have been recorded since the last drain.
+     *
+     * @return true if there is nothing to apply
+     */
+    boolean isEmpty() {
+        return pendingProducts.isEmpty() && pendingItems.isEmpty();
+    }
+
+    /**
+     * Forgets the recorded writes, before the index loads the whole catalogue.
+     */
+    void clear() {
+        pendingProducts.clear();
+        pendingItems.clear();
+    }
+
+    /**
+     * Records products again after they were drained but could not be re-loaded.
+     *
+     * @param productIds the IDs of the products to re-load on a later read
+     */
+    void retry(Set<Integer> productIds) {
+        pendingProducts.addAll(productIds);
+    }
+
+    /**
+     * Notes the appliance item that the index holds for a product.
+     *
+     * @param listing the product as it was added to the index
+     */
+    void track(ProductListing listing) {
+        if (listing.getItem() != null) {
+            itemProducts.put(listing.getItem().getId(), listing.getAppliance().getId());
+            productItems.put(listing.getAppliance().getId(), listing.getItem().getId());
+        }
+    }
+
+    /**
+     * Forgets the appliance item of a product that has been removed from the index.
+     *
+     * @param productId the product ID
+     */
+    void untrack(int productId) {
+        Integer itemId = productItems.remove(productId);
+        if (itemId != null) {
+            itemProducts.remove(itemId);
+        }
+    }
+
+    /**
+     * Removes the recorded writes and returns the products they affect.
+     *
+     * @param source used to find the current product of a changed appliance item
+     * @return the IDs of the products to re-load
+     */
+    Set<Integer> drain(CatalogueSource source) {
+        return drain(source, itemId -> itemProducts.getOrDefault(itemId, -1));
+    }
+
+    /**
+     * Removes the recorded writes and returns the products they affect, for an index that keeps its own
+     * record of which product holds each appliance item instead of calling {@link #track}.
+     *
+     * @param source used to find the current product of a changed appliance item
+     * @param heldProduct gives the product the index holds an appliance item on, or -1 if none
+     * @return the IDs of the products to re-load
+     * @throws CatalogueSource.ReadFailedException if an appliance item cannot be read; every write is then still recorded
+     */
+    Set<Integer> drain(CatalogueSource source, IntUnaryOperator heldProduct) {
+        Set<Integer> changed = new HashSet<>();
+        for (Iterator<Integer> ids = pendingProducts.iterator(); ids.hasNext();) {
+            changed.add(ids.next());
+            ids.remove();
+        }
+        Set<Integer> items = new HashSet<>();
+        for (Iterator<Integer> ids = pendingItems.iterator(); ids.hasNext();) {
+            items.add(ids.next());
+            ids.remove();
+        }
+        try {
+            for (int itemId : items) {
+                int previous = heldProduct.applyAsInt(itemId);
+                if (previous >= 0) {
+                    changed.add(previous);
+                }
+                int current = source.productOfItem(itemId);
+                if (current >= 0) {
+                    changed.add(current);
+                }
+            }
+        } catch (CatalogueSource.ReadFailedException ex) {
+            pendingProducts.addAll(changed);
+            pendingItems.addAll(items);
+            throw ex;
+        }
+        return changed;
+    }
+}
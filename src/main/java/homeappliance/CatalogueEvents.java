@@ -0,0 +1,88 @@
+package homeappliance;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes notifications whenever the product catalogue (the `appliance` and `applianceItem` tables)
+ * is changed through one of the DAO classes.
+ *
+ * Caches and in-memory indexes in the web layer register a listener here so that they can be
+ * invalidated or updated after a write, instead of polling the database.
+ * Listeners are called on the thread that performed the write, so they should only do cheap work
+ * (such as clearing a map or scheduling a rebuild).
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class CatalogueEvents {
+
+    /**
+     * The table that a catalogue change was made to.
+     */
+    public enum Source {
+        /** A row in the `appliance` table (a HomeAppliance). */
+        PRODUCT,
+        /** A row in the `applianceItem` table (an ApplianceItem). */
+        ITEM
+    }
+
+    /**
+     * Callback interface for components that need to react to catalogue writes.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after a row has been inserted, updated or deleted.
+         * Listeners that need to know which of these happened should re-read the row.
+         *
+         * @param source the table that was changed
+         * @param id the ID of the row that was changed
+         */
+        void catalogueChanged(Source source, int id);
+    }
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private CatalogueEvents() {
+        // Static utility class
+    }
+
+    /**
+     * Registers a listener that is notified of every catalogue write.
+     *
+     * @param listener the listener to add
+     */
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies all registered listeners of a catalogue change.
+     * A failing listener is logged and does not stop the remaining listeners from being called.
+     *
+     * @param source the table that was changed
+     * @param id the ID of the row that was changed
+     */
+    public static void fire(Source source, int id) {
+        for (Listener listener : listeners) {
+            try {
+                listener.catalogueChanged(source, id);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
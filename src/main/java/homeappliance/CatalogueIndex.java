@@ -0,0 +1,119 @@
+package homeappliance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import metrics.Metrics;
+
+/**
+ * Base class of the in-memory indexes over the product catalogue ({@link FacetIndex}, {@link SuggestionIndex}
+ * and {@link FuzzySearchIndex}).
+ *
+ * An index loads every product from its {@link CatalogueSource} on first use. After that it only records
+ * the rows named by {@link CatalogueEvents}, and the next read removes and re-adds just the affected
+ * products. Subclasses implement {@link #add} and {@link #remove}, which are called under the write lock,
+ * and read their own structures under the read lock after calling {@link #ensureCurrent()}.
+ *
+ * If the catalogue cannot be read, the index keeps what it has: it stays unloaded (and empty) after a
+ * failed first load, and recorded writes stay recorded until their products can be re-loaded, so every
+ * later read tries again. Failed reads are counted in the {@code catalogue.index.read_failures} metric.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+abstract class CatalogueIndex implements CatalogueEvents.Listener {
+
+    /** Guards the subclass's structures. */
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CatalogueSource source;
+    private final CatalogueChanges changes = new CatalogueChanges();
+    private volatile boolean loaded;
+
+    /**
+     * Creates an index that loads products from the given source.
+     *
+     * @param source loads catalogue rows
+     */
+    CatalogueIndex(CatalogueSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Records a catalogue write. The affected products are re-loaded on the next read of the index.
+     *
+     * @param source the table that was changed
+     * @param id the ID of the row that was changed
+     */
+    @Override
+    public void catalogueChanged(CatalogueEvents.Source source, int id) {
+        changes.catalogueChanged(source, id);
+    }
+
+    /**
+     * Loads the catalogue on first use and applies the writes recorded since the last read.
+     * Must be called before taking the read lock. If the catalogue cannot be read, the index is left as
+     * it was and the next call tries again.
+     */
+    final void ensureCurrent() {
+        if (loaded && changes.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                // Writes made while loading are applied again on the next read, which is harmless
+                changes.clear();
+                for (ProductListing listing : source.loadAll()) {
+                    add(listing);
+                    changes.track(listing);
+                }
+                loaded = true;
+                return;
+            }
+            // Every changed product is read before any is removed, so a failed read changes nothing
+            Set<Integer> productIds = changes.drain(source);
+            Map<Integer, ProductListing> listings = new HashMap<>();
+            try {
+                for (int productId : productIds) {
+                    listings.put(productId, source.load(productId));
+                }
+            } catch (CatalogueSource.ReadFailedException ex) {
+                changes.retry(productIds);
+                throw ex;
+            }
+            for (int productId : productIds) {
+                remove(productId);
+                changes.untrack(productId);
+                ProductListing listing = listings.get(productId);
+                if (listing != null) {
+                    add(listing);
+                    changes.track(listing);
+                }
+            }
+        } catch (CatalogueSource.ReadFailedException ex) {
+            Metrics.counter("catalogue.index.read_failures").increment();
+            ex.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a product to the index. The product is not in the index when this is called.
+     *
+     * @param listing the product and its first appliance item
+     */
+    abstract void add(ProductListing listing);
+
+    /**
+     * Removes a product from the index, if it is there.
+     *
+     * @param productId the product ID
+     */
+    abstract void remove(int productId);
+}
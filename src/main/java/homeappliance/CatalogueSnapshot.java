@@ -0,0 +1,661 @@
+package homeappliance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable, column-oriented copy of the product catalogue that product listings are filtered and
+ * sorted over without going to the database.
+ *
+ * Each column is a primitive array indexed by row, with rows in product ID order: the IDs, prices,
+ * appliance item IDs and warranties are int arrays, the category and brand are codes into small
+ * dictionaries, and the SKU, description and model are UTF-8 bytes packed end to end. A query is a
+ * loop over those arrays, and objects are only created for the rows it returns. A million products
+ * take about 80 MB this way, a third of the heap they take as {@link ProductListing} objects.
+ *
+ * Matching follows {@link HomeApplianceDAO#findProducts(ProductQuery)} exactly, including SQLite's
+ * LIKE and NOCASE rules, which ignore the case of ASCII letters only. A snapshot is never changed;
+ * {@link #withChanges(Map)} returns a new one, so it can be shared by any number of threads without locking.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class CatalogueSnapshot {
+
+    /** Marks a missing appliance item, warranty, category or brand. */
+    static final int NONE = -1;
+
+    private static final CatalogueSnapshot EMPTY = of(new ArrayList<>());
+
+    // Columns, also read by CatalogueSnapshotFile
+    final int size;
+    final int[] ids;
+    final int[] prices;
+    final int[] itemIds;
+    final int[] warranties;
+    final int[] categoryCodes;
+    final String[] categories;
+    final int[] brandCodes;
+    final String[] brands;
+    final PackedStrings skus;
+    final PackedStrings descriptions;
+    final PackedStrings models;
+
+    private volatile PriceIndex priceIndex;
+
+    /**
+     * Text values of one column stored as UTF-8 bytes end to end, with the start of each value in an offset array.
+     */
+    static final class PackedStrings {
+        final byte[] bytes;
+        final int[] offsets;
+        final BitSet nulls;
+
+        PackedStrings(byte[] bytes, int[] offsets, BitSet nulls) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+            this.nulls = nulls;
+        }
+
+        String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Checks whether a value contains the given bytes, ignoring the case of ASCII letters as LIKE does.
+         */
+        boolean contains(int row, byte[] lowerNeedle) {
+            return !nulls.get(row) && containsIgnoreAsciiCase(bytes, offsets[row], offsets[row + 1], lowerNeedle);
+        }
+
+        boolean sameValue(int row, PackedStrings other, int otherRow) {
+            return nulls.get(row) == other.nulls.get(otherRow)
+                    && Arrays.equals(bytes, offsets[row], offsets[row + 1],
+                            other.bytes, other.offsets[otherRow], other.offsets[otherRow + 1]);
+        }
+
+        long estimatedBytes() {
+            return bytes.length + 4L * offsets.length + nulls.size() / 8;
+        }
+    }
+
+    /** Appends values to a new {@link PackedStrings}. */
+    private static final class PackedStringsBuilder {
+        private byte[] bytes;
+        private int length;
+        private final int[] offsets;
+        private final BitSet nulls = new BitSet();
+        private int rows;
+
+        private PackedStringsBuilder(int capacity, int bytesPerValue) {
+            bytes = new byte[Math.max(16, capacity * bytesPerValue)];
+            offsets = new int[capacity + 1];
+        }
+
+        private void add(String value) {
+            if (value == null) {
+                nulls.set(rows);
+                append(new byte[0], 0, 0);
+            } else {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                append(encoded, 0, encoded.length);
+            }
+        }
+
+        /** Copies a value from another column without decoding it. */
+        private void copy(PackedStrings from, int row) {
+            if (from.nulls.get(row)) {
+                nulls.set(rows);
+            }
+            append(from.bytes, from.offsets[row], from.offsets[row + 1] - from.offsets[row]);
+        }
+
+        private void append(byte[] source, int offset, int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+            }
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+            offsets[++rows] = length;
+        }
+
+        private PackedStrings build() {
+            return new PackedStrings(Arrays.copyOf(bytes, length), Arrays.copyOf(offsets, rows + 1), nulls);
+        }
+    }
+
+    /** Assigns codes to the distinct values of a dictionary-encoded column. */
+    private static final class Dictionary {
+        private final List<String> values;
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private Dictionary(String[] existing) {
+            values = new ArrayList<>(Arrays.asList(existing));
+            for (int i = 0; i < existing.length; i++) {
+                codes.put(existing[i], i);
+            }
+        }
+
+        private int code(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        private String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+
+    /** Builds the columns of a new snapshot row by row, in product ID order. */
+    private static final class Builder {
+        private final int[] ids;
+        private final int[] prices;
+        private final int[] itemIds;
+        private final int[] warranties;
+        private final int[] categoryCodes;
+        private final int[] brandCodes;
+        private final Dictionary categories;
+        private final Dictionary brands;
+        private final PackedStringsBuilder skus;
+        private final PackedStringsBuilder descriptions;
+        private final PackedStringsBuilder models;
+        private int rows;
+
+        private Builder(int capacity, String[] categories, String[] brands) {
+            ids = new int[capacity];
+            prices = new int[capacity];
+            itemIds = new int[capacity];
+            warranties = new int[capacity];
+            categoryCodes = new int[capacity];
+            brandCodes = new int[capacity];
+            this.categories = new Dictionary(categories);
+            this.brands = new Dictionary(brands);
+            skus = new PackedStringsBuilder(capacity, 12);
+            descriptions = new PackedStringsBuilder(capacity, 32);
+            models = new PackedStringsBuilder(capacity, 12);
+        }
+
+        private void add(ProductListing listing) {
+            HomeAppliance appliance = listing.getAppliance();
+            ApplianceItem item = listing.getItem();
+            ids[rows] = appliance.getId();
+            prices[rows] = appliance.getPrice();
+            categoryCodes[rows] = categories.code(appliance.getCategory());
+            skus.add(appliance.getSku());
+            descriptions.add(appliance.getDescription());
+            if (item != null) {
+                itemIds[rows] = item.getId();
+                warranties[rows] = item.getWarrantyYears();
+                brandCodes[rows] = brands.code(item.getBrand());
+                models.add(item.getModel());
+            } else {
+                itemIds[rows] = NONE;
+                warranties[rows] = NONE;
+                brandCodes[rows] = NONE;
+                models.add(null);
+            }
+            rows++;
+        }
+
+        /** Copies a row of an older snapshot built on the same dictionaries. */
+        private void copy(CatalogueSnapshot from, int row) {
+            ids[rows] = from.ids[row];
+            prices[rows] = from.prices[row];
+            itemIds[rows] = from.itemIds[row];
+            warranties[rows] = from.warranties[row];
+            categoryCodes[rows] = from.categoryCodes[row];
+            brandCodes[rows] = from.brandCodes[row];
+            skus.copy(from.skus, row);
+            descriptions.copy(from.descriptions, row);
+            models.copy(from.models, row);
+            rows++;
+        }
+
+        private CatalogueSnapshot build() {
+            return new CatalogueSnapshot(this);
+        }
+    }
+
+    private CatalogueSnapshot(Builder builder) {
+        this(Arrays.copyOf(builder.ids, builder.rows), Arrays.copyOf(builder.prices, builder.rows),
+                Arrays.copyOf(builder.itemIds, builder.rows), Arrays.copyOf(builder.warranties, builder.rows),
+                Arrays.copyOf(builder.categoryCodes, builder.rows), builder.categories.toArray(),
+                Arrays.copyOf(builder.brandCodes, builder.rows), builder.brands.toArray(),
+                builder.skus.build(), builder.descriptions.build(), builder.models.build());
+    }
+
+    /**
+     * Creates a snapshot from its columns, which must all have one entry per row in product ID order.
+     */
+    CatalogueSnapshot(int[] ids, int[] prices, int[] itemIds, int[] warranties, int[] categoryCodes, String[] categories,
+            int[] brandCodes, String[] brands, PackedStrings skus, PackedStrings descriptions, PackedStrings models) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.prices = prices;
+        this.itemIds = itemIds;
+        this.warranties = warranties;
+        this.categoryCodes = categoryCodes;
+        this.categories = categories;
+        this.brandCodes = brandCodes;
+        this.brands = brands;
+        this.skus = skus;
+        this.descriptions = descriptions;
+        this.models = models;
+    }
+
+    /**
+     * Returns a snapshot with no products.
+     *
+     * @return the empty snapshot
+     */
+    public static CatalogueSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a snapshot of the given products.
+     *
+     * @param listings the products with their first appliance items, in any order
+     * @return the snapshot
+     */
+    public static CatalogueSnapshot of(Collection<ProductListing> listings) {
+        List<ProductListing> sorted = new ArrayList<>(listings);
+        sorted.sort((a, b) -> Integer.compare(a.getAppliance().getId(), b.getAppliance().getId()));
+        Builder builder = new Builder(sorted.size(), new String[0], new String[0]);
+        for (ProductListing listing : sorted) {
+            builder.add(listing);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a new snapshot with some products replaced. Unchanged rows are copied column by column
+     * without creating objects, so this costs a few primitive array copies however large the catalogue is.
+     *
+     * @param changed the new version of each changed product by ID; a null value removes the product
+     * @return the new snapshot
+     */
+    public CatalogueSnapshot withChanges(Map<Integer, ProductListing> changed) {
+        if (changed.isEmpty()) {
+            return this;
+        }
+        int[] changedIds = new int[changed.size()];
+        int count = 0;
+        for (int id : changed.keySet()) {
+            changedIds[count++] = id;
+        }
+        Arrays.sort(changedIds);
+
+        Builder builder = new Builder(size + changedIds.length, categories, brands);
+        int row = 0;
+        for (int id : changedIds) {
+            while (row < size && ids[row] < id) {
+                builder.copy(this, row++);
+            }
+            if (row < size && ids[row] == id) {
+                row++;
+            }
+            ProductListing listing = changed.get(id);
+            if (listing != null) {
+                builder.add(listing);
+            }
+        }
+        while (row < size) {
+            builder.copy(this, row++);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of products.
+     *
+     * @return the number of products
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the products matching a query, in the order it asks for.
+     *
+     * @param query the criteria and sort order
+     * @return a List of ProductListing objects in the requested order
+     */
+    public List<ProductListing> findProducts(ProductQuery query) {
+        int[] rows = select(query);
+        List<ProductListing> listings = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            listings.add(listing(row));
+        }
+        return listings;
+    }
+
+    /**
+     * Finds the IDs of the products matching a query, in the order it asks for, without creating any objects per product.
+     *
+     * @param query the criteria and sort order
+     * @return the product IDs
+     */
+    public int[] findProductIds(ProductQuery query) {
+        int[] rows = select(query);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = ids[rows[i]];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the product with the given ID.
+     *
+     * @param productId the product ID
+     * @return the product with its first appliance item, or null if it is not in the snapshot
+     */
+    public ProductListing findProduct(int productId) {
+        int row = Arrays.binarySearch(ids, 0, size, productId);
+        return (row >= 0) ? listing(row) : null;
+    }
+
+    /**
+     * Returns an estimate of the heap used by the columns, for comparing with the objects they replace.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedBytes() {
+        return 6L * 4 * size + skus.estimatedBytes() + descriptions.estimatedBytes() + models.estimatedBytes();
+    }
+
+    /**
+     * Returns the product that an appliance item belongs to in this snapshot.
+     *
+     * @param itemId the appliance item ID
+     * @return the product ID, or {@link #NONE} if no product has that item as its first
+     */
+    int productOfItem(int itemId) {
+        for (int row = 0; row < size; row++) {
+            if (itemIds[row] == itemId) {
+                return ids[row];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the IDs of the products that differ between this snapshot and another one,
+     * including products that are only in one of them.
+     *
+     * @param other the other snapshot
+     * @return the product IDs, in ascending order
+     */
+    int[] changedProductIds(CatalogueSnapshot other) {
+        int[] changed = new int[16];
+        int count = 0;
+        int row = 0;
+        int otherRow = 0;
+        while (row < size || otherRow < other.size) {
+            int id = (row < size) ? ids[row] : Integer.MAX_VALUE;
+            int otherId = (otherRow < other.size) ? other.ids[otherRow] : Integer.MAX_VALUE;
+            int changedId;
+            if (id < otherId) {
+                changedId = id;
+                row++;
+            } else if (otherId < id) {
+                changedId = otherId;
+                otherRow++;
+            } else {
+                changedId = sameRow(row++, other, otherRow++) ? NONE : id;
+            }
+            if (changedId != NONE) {
+                if (count == changed.length) {
+                    changed = Arrays.copyOf(changed, count * 2);
+                }
+                changed[count++] = changedId;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    private boolean sameRow(int row, CatalogueSnapshot other, int otherRow) {
+        return prices[row] == other.prices[otherRow]
+                && itemIds[row] == other.itemIds[otherRow]
+                && warranties[row] == other.warranties[otherRow]
+                && Objects.equals(decode(categories, categoryCodes[row]), decode(other.categories, other.categoryCodes[otherRow]))
+                && Objects.equals(decode(brands, brandCodes[row]), decode(other.brands, other.brandCodes[otherRow]))
+                && skus.sameValue(row, other.skus, otherRow)
+                && descriptions.sameValue(row, other.descriptions, otherRow)
+                && models.sameValue(row, other.models, otherRow);
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return (code == NONE) ? null : dictionary[code];
+    }
+
+    private int[] select(ProductQuery query) {
+        return select(query, true);
+    }
+
+    /**
+     * Finds the IDs of the products matching a query by scanning every row, without the price index.
+     * Used to check and measure the index.
+     *
+     * @param query the criteria and sort order
+     * @return the product IDs
+     */
+    int[] findProductIdsByScan(ProductQuery query) {
+        int[] rows = select(query, false);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = ids[rows[i]];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the price index, building it on first use. Two threads may both build it, which is harmless.
+     */
+    private PriceIndex priceIndex() {
+        PriceIndex index = priceIndex;
+        if (index == null) {
+            index = new PriceIndex(Arrays.copyOf(prices, size), Arrays.copyOf(categoryCodes, size), categories.length);
+            priceIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the rows matching a query in the order it asks for. A price range, or ordering by price,
+     * starts from the rows the price index returns instead of scanning every row.
+     */
+    private int[] select(ProductQuery query, boolean useIndex) {
+        ProductQuery.Sort sort = query.getSort();
+        byte[] keyword = lowerAscii(query.getKeyword());
+        byte[] description = lowerAscii(query.getDescription());
+        // Text criteria on dictionary columns are decided once per distinct value rather than once per row
+        boolean[] keywordCategories = (keyword == null) ? null : matchingCodes(categories, keyword);
+        int category = NONE;
+        if (query.getCategory() != null) {
+            category = Arrays.asList(categories).indexOf(query.getCategory());
+            if (category == NONE) {
+                return new int[0];
+            }
+        }
+        boolean[] brandCodesMatched = null;
+        if (query.getBrand() != null) {
+            brandCodesMatched = new boolean[brands.length];
+            for (int i = 0; i < brands.length; i++) {
+                brandCodesMatched[i] = equalsIgnoreAsciiCase(brands[i], query.getBrand());
+            }
+        }
+        int minPrice = (query.getMinPrice() != null) ? query.getMinPrice() : Integer.MIN_VALUE;
+        int maxPrice = (query.getMaxPrice() != null) ? query.getMaxPrice() : Integer.MAX_VALUE;
+        boolean needsItem = query.getMinWarrantyYears() != null || query.getMaxWarrantyYears() != null
+                || sort == ProductQuery.Sort.WARRANTY_ASC || sort == ProductQuery.Sort.WARRANTY_DESC;
+        int minWarranty = (query.getMinWarrantyYears() != null) ? query.getMinWarrantyYears() : Integer.MIN_VALUE;
+        int maxWarranty = (query.getMaxWarrantyYears() != null) ? query.getMaxWarrantyYears() : Integer.MAX_VALUE;
+
+        int[] candidates = null;
+        if (useIndex && (query.getMinPrice() != null || query.getMaxPrice() != null || sort == ProductQuery.Sort.PRICE_ASC)) {
+            candidates = (category != NONE)
+                    ? priceIndex().range(category, minPrice, maxPrice)
+                    : priceIndex().range(minPrice, maxPrice);
+        }
+        int total = (candidates != null) ? candidates.length : size;
+
+        int[] rows = new int[total];
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            int row = (candidates != null) ? candidates[i] : i;
+            int price = prices[row];
+            if (price < minPrice || price > maxPrice) {
+                continue;
+            }
+            if (category != NONE && categoryCodes[row] != category) {
+                continue;
+            }
+            if (needsItem) {
+                int warranty = warranties[row];
+                if (itemIds[row] == NONE || warranty < minWarranty || warranty > maxWarranty) {
+                    continue;
+                }
+            }
+            if (brandCodesMatched != null && (brandCodes[row] == NONE || !brandCodesMatched[brandCodes[row]])) {
+                continue;
+            }
+            if (description != null && !descriptions.contains(row, description)) {
+                continue;
+            }
+            if (keyword != null && !skus.contains(row, keyword) && !descriptions.contains(row, keyword)
+                    && (categoryCodes[row] == NONE || !keywordCategories[categoryCodes[row]])) {
+                continue;
+            }
+            rows[count++] = row;
+        }
+        if (candidates != null) {
+            // The rows are in price order
+            if (sort == ProductQuery.Sort.PRICE_ASC) {
+                return Arrays.copyOf(rows, count);
+            }
+            if (sort == ProductQuery.Sort.DEFAULT) {
+                Arrays.sort(rows, 0, count);
+                return Arrays.copyOf(rows, count);
+            }
+        }
+        return sortRows(rows, count, sort);
+    }
+
+    /**
+     * Orders matching rows by price or warranty. Row order is product ID order, which breaks ties,
+     * so each row is sorted as one long of its key and its row number. Rows are left as they are for the default order.
+     */
+    private int[] sortRows(int[] rows, int count, ProductQuery.Sort sort) {
+        int[] column;
+        boolean descending;
+        switch (sort) {
+            case PRICE_ASC:
+                column = prices;
+                descending = false;
+                break;
+            case PRICE_DESC:
+                column = prices;
+                descending = true;
+                break;
+            case WARRANTY_ASC:
+                column = warranties;
+                descending = false;
+                break;
+            case WARRANTY_DESC:
+                column = warranties;
+                descending = true;
+                break;
+            default:
+                return Arrays.copyOf(rows, count);
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            long key = descending ? -(long) column[rows[i]] : column[rows[i]];
+            keys[i] = (key << 32) | rows[i];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Creates the objects for one row.
+     */
+    private ProductListing listing(int row) {
+        String category = decode(categories, categoryCodes[row]);
+        HomeAppliance appliance = new HomeAppliance(skus.get(row), descriptions.get(row), category, prices[row]);
+        appliance.setId(ids[row]);
+        ApplianceItem item = null;
+        if (itemIds[row] != NONE) {
+            String brand = decode(brands, brandCodes[row]);
+            item = new ApplianceItem(appliance, warranties[row], brand, models.get(row));
+            item.setId(itemIds[row]);
+        }
+        return new ProductListing(appliance, item);
+    }
+
+    private static boolean[] matchingCodes(String[] dictionary, byte[] lowerNeedle) {
+        boolean[] matches = new boolean[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] value = dictionary[i].getBytes(StandardCharsets.UTF_8);
+            matches[i] = containsIgnoreAsciiCase(value, 0, value.length, lowerNeedle);
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether a range of bytes contains the given lower-case bytes, ignoring the case of ASCII letters.
+     */
+    private static boolean containsIgnoreAsciiCase(byte[] bytes, int start, int end, byte[] lowerNeedle) {
+        int last = end - lowerNeedle.length;
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < lowerNeedle.length && toLowerAscii(bytes[i + j]) == lowerNeedle[j]) {
+                j++;
+            }
+            if (j == lowerNeedle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] lowerAscii(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = toLowerAscii(bytes[i]);
+        }
+        return bytes;
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static boolean equalsIgnoreAsciiCase(String a, String b) {
+        return Arrays.equals(lowerAscii(a), lowerAscii(b));
+    }
+}
@@ -0,0 +1,226 @@
+package homeappliance;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a {@link CatalogueSnapshot} to a compact binary file and maps it back in with {@link FileChannel#map},
+ * so that a restarted server has its catalogue in memory before it has read a single row from the database.
+ *
+ * The file holds the snapshot's columns one after another in little-endian order: the int columns, the
+ * category and brand dictionaries, and for each text column its offsets, null flags and UTF-8 bytes. A
+ * CRC-32 of the contents is stored at the end. Reading maps the file and bulk-copies each column out of the
+ * mapping into an array, which is a straight memory copy rather than a parse of each row. Files with another
+ * format version, a bad checksum or a truncated body are rejected, and the caller falls back to the database.
+ *
+ * A file is written under a temporary name and then moved over the old one, so a reader never maps a half-written file.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class CatalogueSnapshotFile {
+
+    /** "SCAT" in ASCII. */
+    private static final int MAGIC = 0x53434154;
+
+    /** Format version, raised whenever the layout changes. */
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int CHECKSUM_BYTES = 8;
+
+    private CatalogueSnapshotFile() {
+        // Static utility class
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing any file already there.
+     *
+     * @param snapshot the snapshot to save
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CatalogueSnapshot snapshot, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            byte[][] categories = encode(snapshot.categories);
+            byte[][] brands = encode(snapshot.brands);
+            long length = HEADER_BYTES + 6L * 4 * snapshot.size + dictionaryBytes(categories) + dictionaryBytes(brands)
+                    + packedBytes(snapshot.skus) + packedBytes(snapshot.descriptions) + packedBytes(snapshot.models)
+                    + CHECKSUM_BYTES;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Catalogue snapshot is too large to map: " + length + " bytes");
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(VERSION).putInt(snapshot.size).putInt(0);
+                putInts(out, snapshot.ids);
+                putInts(out, snapshot.prices);
+                putInts(out, snapshot.itemIds);
+                putInts(out, snapshot.warranties);
+                putInts(out, snapshot.categoryCodes);
+                putInts(out, snapshot.brandCodes);
+                putDictionary(out, categories);
+                putDictionary(out, brands);
+                putPacked(out, snapshot.skus);
+                putPacked(out, snapshot.descriptions);
+                putPacked(out, snapshot.models);
+                out.putLong(checksum(out, out.position()));
+                out.force();
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot file and reads the snapshot it holds.
+     *
+     * @param file the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, or is not a complete snapshot in the current format
+     */
+    public static CatalogueSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES + CHECKSUM_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalogue snapshot: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a catalogue snapshot: " + file);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Catalogue snapshot " + file + " has format version " + version + ", expected " + VERSION);
+            }
+            int bodyEnd = (int) length - CHECKSUM_BYTES;
+            if (in.getLong(bodyEnd) != checksum(in, bodyEnd)) {
+                throw new IOException("Catalogue snapshot " + file + " is damaged (checksum mismatch)");
+            }
+            try {
+                int size = in.getInt();
+                in.getInt();
+                int[] ids = getInts(in, size);
+                int[] prices = getInts(in, size);
+                int[] itemIds = getInts(in, size);
+                int[] warranties = getInts(in, size);
+                int[] categoryCodes = getInts(in, size);
+                int[] brandCodes = getInts(in, size);
+                String[] categories = getDictionary(in);
+                String[] brands = getDictionary(in);
+                CatalogueSnapshot.PackedStrings skus = getPacked(in, size);
+                CatalogueSnapshot.PackedStrings descriptions = getPacked(in, size);
+                CatalogueSnapshot.PackedStrings models = getPacked(in, size);
+                if (in.position() != bodyEnd) {
+                    throw new IOException("Catalogue snapshot " + file + " has unexpected trailing data");
+                }
+                return new CatalogueSnapshot(ids, prices, itemIds, warranties, categoryCodes, categories,
+                        brandCodes, brands, skus, descriptions, models);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                    | NegativeArraySizeException ex) {
+                throw new IOException("Catalogue snapshot " + file + " is truncated", ex);
+            }
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int end) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(0).limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    private static void putInts(ByteBuffer out, int[] values) {
+        out.asIntBuffer().put(values);
+        out.position(out.position() + 4 * values.length);
+    }
+
+    private static int[] getInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * count);
+        return values;
+    }
+
+    private static byte[][] encode(String[] values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long dictionaryBytes(byte[][] values) {
+        long length = 4;
+        for (byte[] value : values) {
+            length += 4 + value.length;
+        }
+        return length;
+    }
+
+    private static void putDictionary(ByteBuffer out, byte[][] values) {
+        out.putInt(values.length);
+        for (byte[] value : values) {
+            out.putInt(value.length).put(value);
+        }
+    }
+
+    private static String[] getDictionary(ByteBuffer in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            byte[] value = new byte[in.getInt()];
+            in.get(value);
+            values[i] = new String(value, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static long packedBytes(CatalogueSnapshot.PackedStrings column) {
+        return 8 + 4L * column.offsets.length + 8L * column.nulls.toLongArray().length + column.bytes.length;
+    }
+
+    private static void putPacked(ByteBuffer out, CatalogueSnapshot.PackedStrings column) {
+        long[] nulls = column.nulls.toLongArray();
+        out.putInt(column.bytes.length).putInt(nulls.length);
+        putInts(out, column.offsets);
+        out.asLongBuffer().put(nulls);
+        out.position(out.position() + 8 * nulls.length);
+        out.put(column.bytes);
+    }
+
+    private static CatalogueSnapshot.PackedStrings getPacked(ByteBuffer in, int size) {
+        byte[] bytes = new byte[in.getInt()];
+        long[] nulls = new long[in.getInt()];
+        int[] offsets = getInts(in, size + 1);
+        in.asLongBuffer().get(nulls);
+        in.position(in.position() + 8 * nulls.length);
+        in.get(bytes);
+        return new CatalogueSnapshot.PackedStrings(bytes, offsets, BitSet.valueOf(nulls));
+    }
+}
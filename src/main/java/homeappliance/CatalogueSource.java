@@ -0,0 +1,123 @@
+package homeappliance;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads product listing rows for the in-memory catalogue indexes ({@link FacetIndex}, {@link SuggestionIndex},
+ * {@link FuzzySearchIndex} and {@link LiveCatalogue}). Tests supply their own rows; the server uses {@link #shared()}
+ * for the indexes and {@link #database()} for the live catalogue.
+ *
+ * A read that fails throws {@link ReadFailedException} rather than returning an empty list, null or -1, so
+ * that a database error is never taken for an empty catalogue or a deleted row.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public interface CatalogueSource {
+
+    /**
+     * Thrown when catalogue rows cannot be read.
+     */
+    final class ReadFailedException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ReadFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Loads every product with its first appliance item.
+     *
+     * @return all products
+     * @throws ReadFailedException if the products cannot be read
+     */
+    List<ProductListing> loadAll();
+
+    /**
+     * Loads one product with its first appliance item.
+     *
+     * @param productId the product ID
+     * @return the product, or null if it no longer exists
+     * @throws ReadFailedException if the product cannot be read
+     */
+    ProductListing load(int productId);
+
+    /**
+     * Looks up which product an appliance item belongs to.
+     *
+     * @param itemId the appliance item ID
+     * @return the product ID, or -1 if the item no longer exists
+     * @throws ReadFailedException if the item cannot be read
+     */
+    int productOfItem(int itemId);
+
+    /**
+     * Returns a source that reads the catalogue from the database through the DAO classes.
+     *
+     * @return the database source
+     */
+    static CatalogueSource database() {
+        HomeApplianceDAO products = new HomeApplianceDAO();
+        ApplianceItemDAO items = new ApplianceItemDAO();
+        return new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                try {
+                    return products.readAllListings();
+                } catch (SQLException ex) {
+                    throw new ReadFailedException("The catalogue could not be read", ex);
+                }
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                try {
+                    return products.readProductListing(productId);
+                } catch (SQLException ex) {
+                    throw new ReadFailedException("Product " + productId + " could not be read", ex);
+                }
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                try {
+                    return items.readProductOfItem(itemId);
+                } catch (SQLException ex) {
+                    throw new ReadFailedException("Appliance item " + itemId + " could not be read", ex);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a source that loads the whole catalogue from the shared {@link LiveCatalogue} snapshot instead
+     * of the database, so that the indexes load in memory (and straight after a restart, from the saved
+     * snapshot file). Single products are still read from the database.
+     *
+     * @return the shared source
+     */
+    static CatalogueSource shared() {
+        CatalogueSource database = database();
+        return new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return LiveCatalogue.catalogue().currentSnapshot().findProducts(new ProductQuery());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return database.load(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return database.productOfItem(itemId);
+            }
+        };
+    }
+}
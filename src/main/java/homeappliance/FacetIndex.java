@@ -0,0 +1,255 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An in-memory index of the product catalogue for faceted navigation.
+ *
+ * For every value of every {@link Facet} (each category, brand, warranty length and price bucket)
+ * the index holds an {@link IdBitmap} of the IDs of the products with that value, so that combining
+ * filters is a bitmap intersection and counting the products behind each facet value is a
+ * population count, with no database query.
+ *
+ * The index loads the whole catalogue on first use. After that it listens to {@link CatalogueEvents}:
+ * a write only records the changed row, and the next read re-loads just the affected products
+ * and moves them between bitmaps.
+ * Brand and warranty come from a product's first appliance item, as on the products page.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class FacetIndex extends CatalogueIndex {
+
+    /**
+     * The attributes that products can be filtered and counted by.
+     */
+    public enum Facet {
+        /** The product category. */
+        CATEGORY,
+        /** The brand of the product's appliance item. */
+        BRAND,
+        /** The warranty of the product's appliance item, in whole years. */
+        WARRANTY,
+        /** The price bucket of the product, see {@link FacetIndex#priceBucket(int)}. */
+        PRICE
+    }
+
+    /** Lower bounds of the price buckets after the first, in pounds. */
+    private static final int[] PRICE_BUCKET_BOUNDS = { 100, 250, 500, 1000 };
+
+    private static final Comparator<String> NUMERIC_ORDER = Comparator.comparingInt(Integer::parseInt);
+
+    // Guarded by lock
+    private final Map<Facet, Map<String, IdBitmap>> bitmaps = new EnumMap<>(Facet.class);
+    private final Map<Integer, String[]> productValues = new HashMap<>();
+    private final IdBitmap all = new IdBitmap();
+
+    /**
+     * Creates an index that loads products from the given source.
+     * The index only follows catalogue writes once it is registered with {@link CatalogueEvents#addListener}.
+     *
+     * @param source loads catalogue rows
+     */
+    public FacetIndex(CatalogueSource source) {
+        super(source);
+        for (Facet facet : Facet.values()) {
+            boolean numeric = (facet == Facet.WARRANTY || facet == Facet.PRICE);
+            bitmaps.put(facet, numeric ? new TreeMap<>(NUMERIC_ORDER) : new TreeMap<>());
+        }
+    }
+
+    /**
+     * Creates an index over the catalogue in the database.
+     *
+     * @return the new index
+     */
+    public static FacetIndex forDatabase() {
+        return new FacetIndex(CatalogueSource.shared());
+    }
+
+    /**
+     * Returns the IDs of the products matching a selection. Values of the same facet are combined with OR
+     * and different facets with AND; a facet that is missing or has no values does not restrict the result.
+     *
+     * @param selection the selected values of each facet
+     * @return a new set of product IDs
+     */
+    public IdBitmap select(Map<Facet, ? extends Collection<String>> selection) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            IdBitmap result = null;
+            for (Map.Entry<Facet, ? extends Collection<String>> entry : selection.entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                IdBitmap matching = new IdBitmap();
+                for (String value : entry.getValue()) {
+                    IdBitmap bitmap = bitmaps.get(entry.getKey()).get(value);
+                    if (bitmap != null) {
+                        matching = IdBitmap.or(matching, bitmap);
+                    }
+                }
+                result = (result == null) ? matching : IdBitmap.and(result, matching);
+            }
+            return (result == null) ? all.copy() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts how many of the given products have each value of a facet.
+     * Values with no matching products are left out.
+     *
+     * @param facet the facet to count
+     * @param within the product IDs to count, or null to count the whole catalogue
+     * @return the count of each value, in the order of the values
+     */
+    public Map<String, Integer> counts(Facet facet, IdBitmap within) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, IdBitmap> entry : bitmaps.get(facet).entrySet()) {
+                int count = (within == null)
+                        ? entry.getValue().cardinality()
+                        : IdBitmap.andCardinality(entry.getValue(), within);
+                if (count > 0) {
+                    counts.put(entry.getKey(), count);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every value of a facet that at least one product has.
+     *
+     * @param facet the facet
+     * @return the values in order (alphabetical, or numeric for warranty and price)
+     */
+    public List<String> values(Facet facet) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(bitmaps.get(facet).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of products in the index.
+     *
+     * @return the number of products
+     */
+    public int size() {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            return all.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the price bucket a price falls in, identified by the bucket's lowest price.
+     *
+     * @param price the price in pounds
+     * @return the bucket, for example "250" for prices from 250 to 499
+     */
+    public static String priceBucket(int price) {
+        int lower = 0;
+        for (int bound : PRICE_BUCKET_BOUNDS) {
+            if (price >= bound) {
+                lower = bound;
+            }
+        }
+        return String.valueOf(lower);
+    }
+
+    /**
+     * Returns the highest price in a price bucket.
+     *
+     * @param bucket a bucket returned by {@link #priceBucket(int)}
+     * @return the highest price in pounds, or null for the most expensive bucket
+     */
+    public static Integer priceBucketMax(String bucket) {
+        int lower = Integer.parseInt(bucket);
+        for (int bound : PRICE_BUCKET_BOUNDS) {
+            if (bound > lower) {
+                return bound - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a readable label for a price bucket, for example "£250 - £499".
+     *
+     * @param bucket a bucket returned by {@link #priceBucket(int)}
+     * @return the label
+     */
+    public static String priceBucketLabel(String bucket) {
+        Integer max = priceBucketMax(bucket);
+        if ("0".equals(bucket)) {
+            return "Under £" + (max + 1);
+        }
+        return (max == null) ? "£" + bucket + " and over" : "£" + bucket + " - £" + max;
+    }
+
+    @Override
+    void add(ProductListing listing) {
+        HomeAppliance appliance = listing.getAppliance();
+        ApplianceItem item = listing.getItem();
+        String[] values = new String[Facet.values().length];
+        values[Facet.CATEGORY.ordinal()] = appliance.getCategory();
+        values[Facet.PRICE.ordinal()] = priceBucket(appliance.getPrice());
+        if (item != null) {
+            values[Facet.BRAND.ordinal()] = item.getBrand();
+            values[Facet.WARRANTY.ordinal()] = String.valueOf(item.getWarrantyYears());
+        }
+        for (Facet facet : Facet.values()) {
+            String value = values[facet.ordinal()];
+            if (value != null) {
+                bitmaps.get(facet).computeIfAbsent(value, key -> new IdBitmap()).add(appliance.getId());
+            }
+        }
+        productValues.put(appliance.getId(), values);
+        all.add(appliance.getId());
+    }
+
+    @Override
+    void remove(int productId) {
+        String[] values = productValues.remove(productId);
+        if (values == null) {
+            return;
+        }
+        for (Facet facet : Facet.values()) {
+            String value = values[facet.ordinal()];
+            if (value == null) {
+                continue;
+            }
+            Map<String, IdBitmap> facetBitmaps = bitmaps.get(facet);
+            IdBitmap bitmap = facetBitmaps.get(value);
+            if (bitmap != null && bitmap.remove(productId) && bitmap.isEmpty()) {
+                facetBitmaps.remove(value);
+            }
+        }
+        all.remove(productId);
+    }
+}
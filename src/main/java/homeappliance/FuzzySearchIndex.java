@@ -0,0 +1,459 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A typo-tolerant search index over the product catalogue, used when a keyword search finds no exact match.
+ *
+ * Product text (SKU, description, category, brand and model) is split into words, and every distinct word
+ * is indexed by its trigrams: the three-letter sequences of the word padded with a boundary mark, so
+ * "oven" has "$ov", "ove", "ven" and "en$". Posting lists are plain int arrays of word IDs, and each word
+ * keeps an {@link IdBitmap} of the products that use it.
+ *
+ * A query word is matched against the indexed words that share enough of its trigrams to be within the
+ * allowed number of edits (one edit changes at most three trigrams, or four for a swap). Only those
+ * candidates are checked with a bounded edit distance, counting a swap of neighbouring letters as one
+ * edit, so "refridgerator" finds "refrigerator". Each query word must match every product returned,
+ * and products are ranked by how closely their words match: exact, then prefix, then one edit, then two.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class FuzzySearchIndex extends CatalogueIndex {
+
+    /** Number of close matches the search pages show. */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /** Shortest query word matched by prefix or with typos; shorter words must match exactly. */
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    /** Longest word that is indexed; longer runs of letters are not product words. */
+    private static final int MAX_WORD_LENGTH = 40;
+
+    private static final int SCORE_EXACT = 4;
+    private static final int SCORE_PREFIX = 3;
+    private static final int SCORE_ONE_EDIT = 2;
+    private static final int SCORE_TWO_EDITS = 1;
+
+    private static volatile FuzzySearchIndex catalogue;
+
+    /** A growable list of word IDs. */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    /** Working arrays of one searching thread, reused between searches and cleared after each. */
+    private static final class Scratch {
+        private int[] wordCounts = new int[0];
+        private int[] productScores = new int[0];
+        private int[] productWords = new int[0];
+        private final Postings touchedWords = new Postings();
+        private final Postings touchedProducts = new Postings();
+    }
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Guarded by lock
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IdBitmap> wordProducts = new ArrayList<>();
+    private final Map<Long, Postings> trigramWords = new HashMap<>();
+    private final Map<Integer, int[]> productWordIds = new HashMap<>();
+    private int maxProductId;
+
+    /**
+     * Creates an index that loads products from the given source.
+     * The index only follows catalogue writes once it is registered with {@link CatalogueEvents#addListener}.
+     *
+     * @param source loads catalogue rows
+     */
+    public FuzzySearchIndex(CatalogueSource source) {
+        super(source);
+    }
+
+    /**
+     * Returns the index over the catalogue in the database, creating it and registering it for
+     * catalogue writes on first use.
+     *
+     * @return the shared index
+     */
+    public static FuzzySearchIndex catalogue() {
+        FuzzySearchIndex index = catalogue;
+        if (index == null) {
+            synchronized (FuzzySearchIndex.class) {
+                index = catalogue;
+                if (index == null) {
+                    index = new FuzzySearchIndex(CatalogueSource.shared());
+                    CatalogueEvents.addListener(index);
+                    catalogue = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds the products whose text matches every word of a query, allowing typos.
+     *
+     * @param query the search text
+     * @param limit the maximum number of products to return
+     * @return the product IDs, best match first (ties in ID order)
+     */
+    public int[] search(String query, int limit) {
+        List<String> queryWords = distinct(tokenize(query));
+        if (queryWords.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            Scratch work = scratch.get();
+            if (work.wordCounts.length < words.size()) {
+                work.wordCounts = new int[Math.max(words.size(), work.wordCounts.length * 2)];
+            }
+            if (work.productScores.length <= maxProductId) {
+                int length = Math.max(maxProductId + 1, work.productScores.length * 2);
+                work.productScores = new int[length];
+                work.productWords = new int[length];
+            }
+            try {
+                for (int i = 0; i < queryWords.size(); i++) {
+                    if (!matchWord(queryWords.get(i), i, work)) {
+                        return new int[0];
+                    }
+                }
+                return rank(work, queryWords.size(), limit);
+            } finally {
+                Postings touched = work.touchedProducts;
+                for (int i = 0; i < touched.size; i++) {
+                    work.productScores[touched.ids[i]] = 0;
+                    work.productWords[touched.ids[i]] = 0;
+                }
+                touched.size = 0;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct words in use by at least one product.
+     *
+     * @return the number of words
+     */
+    public int size() {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (IdBitmap products : wordProducts) {
+                count += products.isEmpty() ? 0 : 1;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of edits allowed when matching a query word of the given length.
+     *
+     * @param length the length of the word
+     * @return 0, 1 or 2
+     */
+    static int maxEdits(int length) {
+        if (length <= MIN_FUZZY_LENGTH) {
+            return 0;
+        }
+        return (length <= 6) ? 1 : 2;
+    }
+
+    /**
+     * Computes the edit distance between two words, counting an insertion, deletion, substitution
+     * or swap of neighbouring letters as one edit, but stops early once it exceeds a bound.
+     *
+     * @param a the first word
+     * @param b the second word
+     * @param bound the largest distance of interest
+     * @return the distance, or {@code bound + 1} if it is larger than the bound
+     */
+    static int distance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     *
+     * @param text the text, may be null
+     * @return the words in order
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_WORD_LENGTH) {
+                    tokens.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    void add(ProductListing listing) {
+        HomeAppliance appliance = listing.getAppliance();
+        ApplianceItem item = listing.getItem();
+        List<String> tokens = tokenize(appliance.getSku());
+        tokens.addAll(tokenize(appliance.getDescription()));
+        tokens.addAll(tokenize(appliance.getCategory()));
+        if (item != null) {
+            tokens.addAll(tokenize(item.getBrand()));
+            tokens.addAll(tokenize(item.getModel()));
+        }
+        List<String> unique = distinct(tokens);
+        int[] ids = new int[unique.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = wordId(unique.get(i));
+            wordProducts.get(ids[i]).add(appliance.getId());
+        }
+        productWordIds.put(appliance.getId(), ids);
+        maxProductId = Math.max(maxProductId, appliance.getId());
+    }
+
+    @Override
+    void remove(int productId) {
+        int[] ids = productWordIds.remove(productId);
+        if (ids == null) {
+            return;
+        }
+        // Words left without products stay in the trigram postings (so their IDs can be reused) and are skipped
+        for (int id : ids) {
+            wordProducts.get(id).remove(productId);
+        }
+    }
+
+    /**
+     * Returns the ID of a word, indexing it by its trigrams the first time it is seen.
+     */
+    private int wordId(String word) {
+        Integer existing = wordIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int id = words.size();
+        words.add(word);
+        wordProducts.add(new IdBitmap());
+        wordIds.put(word, id);
+        for (long trigram : trigrams(word)) {
+            trigramWords.computeIfAbsent(trigram, key -> new Postings()).add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Finds the indexed words that match one query word and credits their products.
+     * Products that missed an earlier query word are not credited, which makes the query words an AND.
+     *
+     * @return false if no product matched, so the search can stop
+     */
+    private boolean matchWord(String queryWord, int position, Scratch work) {
+        // Collect matching words with their scores, best first
+        List<int[]> matches = new ArrayList<>();
+        Integer exact = wordIds.get(queryWord);
+        if (exact != null) {
+            matches.add(new int[] { exact, SCORE_EXACT });
+        }
+        if (queryWord.length() >= MIN_FUZZY_LENGTH) {
+            long[] grams = trigrams(queryWord);
+            int edits = maxEdits(queryWord.length());
+            // Prefixes share every trigram but the last; words within the edit bound lose at most three per edit,
+            // or four for a swap of neighbouring letters
+            int threshold = Math.max(1, Math.min(grams.length - 1, grams.length - 4 * edits));
+            Postings touched = work.touchedWords;
+            for (long gram : grams) {
+                Postings postings = trigramWords.get(gram);
+                if (postings == null) {
+                    continue;
+                }
+                for (int i = 0; i < postings.size; i++) {
+                    int wordId = postings.ids[i];
+                    if (work.wordCounts[wordId]++ == 0) {
+                        touched.add(wordId);
+                    }
+                }
+            }
+            for (int i = 0; i < touched.size; i++) {
+                int wordId = touched.ids[i];
+                int shared = work.wordCounts[wordId];
+                work.wordCounts[wordId] = 0;
+                if (shared < threshold || (exact != null && wordId == exact)) {
+                    continue;
+                }
+                String word = words.get(wordId);
+                if (word.length() < queryWord.length() - edits) {
+                    // Too short to be a prefix match or within the edit bound
+                    continue;
+                }
+                int score;
+                if (word.startsWith(queryWord)) {
+                    score = SCORE_PREFIX;
+                } else if (edits > 0) {
+                    int distance = distance(queryWord, word, edits);
+                    if (distance > edits) {
+                        score = 0;
+                    } else {
+                        score = (distance == 1) ? SCORE_ONE_EDIT : SCORE_TWO_EDITS;
+                    }
+                } else {
+                    score = 0;
+                }
+                if (score > 0) {
+                    matches.add(new int[] { wordId, score });
+                }
+            }
+            touched.size = 0;
+        }
+        matches.sort((x, y) -> Integer.compare(y[1], x[1]));
+
+        // A product is credited with its best matching word only, because better words come first
+        boolean any = false;
+        for (int[] match : matches) {
+            IdBitmap products = wordProducts.get(match[0]);
+            if (products.isEmpty()) {
+                continue;
+            }
+            int score = match[1];
+            int[] ids = products.toArray();
+            for (int productId : ids) {
+                if (work.productWords[productId] != position) {
+                    continue;
+                }
+                if (position == 0) {
+                    work.touchedProducts.add(productId);
+                }
+                work.productWords[productId] = position + 1;
+                work.productScores[productId] += score;
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Returns the products that matched every query word, best score first and then by ID.
+     */
+    private static int[] rank(Scratch work, int wordCount, int limit) {
+        Postings touched = work.touchedProducts;
+        int maxScore = SCORE_EXACT * wordCount;
+        int[] bucketSizes = new int[maxScore + 1];
+        for (int i = 0; i < touched.size; i++) {
+            int productId = touched.ids[i];
+            if (work.productWords[productId] == wordCount) {
+                bucketSizes[work.productScores[productId]]++;
+            }
+        }
+        int[] results = new int[0];
+        for (int score = maxScore; score > 0 && results.length < limit; score--) {
+            if (bucketSizes[score] == 0) {
+                continue;
+            }
+            int[] bucket = new int[bucketSizes[score]];
+            int size = 0;
+            for (int i = 0; i < touched.size; i++) {
+                int productId = touched.ids[i];
+                if (work.productWords[productId] == wordCount && work.productScores[productId] == score) {
+                    bucket[size++] = productId;
+                }
+            }
+            Arrays.sort(bucket);
+            int take = Math.min(bucket.length, limit - results.length);
+            int offset = results.length;
+            results = Arrays.copyOf(results, offset + take);
+            System.arraycopy(bucket, 0, results, offset, take);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the distinct trigrams of a word padded with a boundary mark at each end, packed into longs.
+     */
+    private static long[] trigrams(String word) {
+        String padded = "$" + word + "$";
+        long[] grams = new long[Math.max(1, padded.length() - 2)];
+        int count = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long gram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = grams[j] == gram;
+            }
+            if (!seen) {
+                grams[count++] = gram;
+            }
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    private static List<String> distinct(List<String> values) {
+        List<String> unique = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (!unique.contains(value)) {
+                unique.add(value);
+            }
+        }
+        return unique;
+    }
+}
@@ -7,7 +7,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import database.StaleReads;
 
 /**
  * Data Access Object (DAO) class for managing HomeAppliance records in an SQLite database.
@@ -20,6 +29,41 @@ import java.util.List;
 
 public class HomeApplianceDAO {
 	
+    /** Columns that may be named in searchProductsByAttribute and filterProductsByAttribute. */
+    private static final Set<String> SEARCHABLE_COLUMNS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("id", "sku", "description", "category", "price")));
+
+    /** Selects each product joined to its first appliance item, which is how the products page shows them. */
+    private static final String PRODUCT_LISTING_SELECT =
+            "SELECT a.id, a.sku, a.description, a.category, a.price, "
+            + "i.id AS itemId, i.warrantyYears, i.brand, i.model "
+            + "FROM appliance a "
+            + "LEFT JOIN applianceItem i ON i.id = "
+            + "(SELECT MIN(id) FROM applianceItem WHERE homeApplianceId = a.id)";
+
+    /** SQL text of findProducts, built once for each combination of criteria and sort order. */
+    private static final Map<Integer, String> PRODUCT_QUERY_SQL = new ConcurrentHashMap<>();
+
+    /**
+     * List reads keep their last good result, which is served while a refresh runs and when the database is
+     * locked or failing (see {@link StaleReads}). Concurrent identical reads share one execution. Every caller
+     * gets its own copy of the list, but the products in it are shared. A catalogue write marks every result
+     * as out of date, so callers after the write wait for a new read unless it fails.
+     */
+    private static final StaleReads<List<Object>, List<HomeAppliance>> PRODUCT_READS = StaleReads.configured("catalogue.reads");
+    private static final StaleReads<ProductQuery, List<ProductListing>> LISTING_READS = StaleReads.configured("catalogue.reads");
+    private static final StaleReads<String, List<String>> CATEGORY_READS = StaleReads.configured("catalogue.reads");
+
+    static {
+        CatalogueEvents.addListener((source, id) -> {
+            PRODUCT_READS.invalidate();
+            LISTING_READS.invalidate();
+            CATEGORY_READS.invalidate();
+        });
+    }
+
+    private static volatile boolean indexesCreated;
+
 	/**
      * Default constructor for HomeApplianceDAO.
      * Initialises a new instance of the class without any additional setup.
@@ -49,6 +93,15 @@ public class HomeApplianceDAO {
             try (PreparedStatement preStatement = conn.prepareStatement(table)) {
                 preStatement.execute();
             }
+            if (!indexesCreated) {
+                // Indexes used by the product listing filters and sorts
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_appliance_category ON appliance(category)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_appliance_price ON appliance(price)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_appliance_category_price ON appliance(category, price)");
+                }
+                indexesCreated = true;
+            }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -64,6 +117,13 @@ public class HomeApplianceDAO {
      * @return an ArrayList of HomeAppliance objects
      */
     public ArrayList<HomeAppliance> findAllProducts() {
+        return read(PRODUCT_READS, Arrays.asList("findAllProducts"), this::queryAllProducts);
+    }
+
+    /**
+     * Runs the query behind {@link #findAllProducts()}.
+     */
+    private List<HomeAppliance> queryAllProducts() throws SQLException {
         String query = "SELECT * FROM appliance;";
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
         try (Connection conn = this.connect();
@@ -79,8 +139,6 @@ public class HomeApplianceDAO {
                 appliance.setId(result.getInt("id"));
                 appliances.add(appliance);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
         return appliances;
     }
@@ -125,6 +183,9 @@ public class HomeApplianceDAO {
              PreparedStatement preStatement = conn.prepareStatement(query)) {
             preStatement.setInt(1, id);
             int rows = preStatement.executeUpdate();
+            if (rows > 0) {
+                CatalogueEvents.fire(CatalogueEvents.Source.PRODUCT, id);
+            }
             return rows > 0;
         } catch (SQLException ex) {
             ex.printStackTrace();
@@ -148,6 +209,9 @@ public class HomeApplianceDAO {
             preStatement.setInt(4, appliance.getPrice());
             preStatement.setInt(5, appliance.getId());
             int rows = preStatement.executeUpdate();
+            if (rows > 0) {
+                CatalogueEvents.fire(CatalogueEvents.Source.PRODUCT, appliance.getId());
+            }
             return rows > 0;
         } catch (SQLException ex) {
             ex.printStackTrace();
@@ -176,6 +240,7 @@ public class HomeApplianceDAO {
                         appliance.setId(generatedKeys.getInt(1));
                     }
                 }
+                CatalogueEvents.fire(CatalogueEvents.Source.PRODUCT, appliance.getId());
                 return true;
             }
         } catch (SQLException ex) {
@@ -190,8 +255,10 @@ public class HomeApplianceDAO {
      * @param attribute - the attribute to search by
      * @param value - the value to search for
      * @return an ArrayList of HomeAppliance objects that match the search criteria
+     * @throws IllegalArgumentException if the attribute is not a column of the appliance table
      */
     public ArrayList<HomeAppliance> searchProductsByAttribute(String attribute, String value) {
+        checkSearchableColumn(attribute);
         String query = "SELECT * FROM appliance WHERE " + attribute + " LIKE ?";
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
         try (Connection conn = this.connect();
@@ -222,6 +289,14 @@ public class HomeApplianceDAO {
      * @return an ArrayList of HomeAppliance objects sorted by price
      */
     public ArrayList<HomeAppliance> productsSortedByPrice(boolean ascending) {
+        return read(PRODUCT_READS, Arrays.asList("productsSortedByPrice", ascending),
+                () -> queryProductsSortedByPrice(ascending));
+    }
+
+    /**
+     * Runs the query behind {@link #productsSortedByPrice(boolean)}.
+     */
+    private List<HomeAppliance> queryProductsSortedByPrice(boolean ascending) throws SQLException {
         String order = ascending ? "ASC" : "DESC";
         String query = "SELECT * FROM appliance ORDER BY price " + order;
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
@@ -238,8 +313,85 @@ public class HomeApplianceDAO {
                 appliance.setId(result.getInt("id"));
                 appliances.add(appliance);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        }
+        return appliances;
+    }
+
+    /**
+     * Retrieves the products priced within a range, cheapest first (equal prices in ID order).
+     *
+     * @param minPrice the lowest price, inclusive
+     * @param maxPrice the highest price, inclusive
+     * @return an ArrayList of HomeAppliance objects sorted by price
+     */
+    public ArrayList<HomeAppliance> findProductsInPriceRange(int minPrice, int maxPrice) {
+        return findProductsInPriceRange(minPrice, maxPrice, null);
+    }
+
+    /**
+     * Retrieves the products of a category priced within a range, cheapest first (equal prices in ID order).
+     * Once the in-memory catalogue snapshot has been loaded, the range is read from its sorted price index
+     * with two binary searches and may lag a write by one snapshot refresh. Until then the database is
+     * queried, using the (category, price) and price indexes.
+     *
+     * @param minPrice the lowest price, inclusive
+     * @param maxPrice the highest price, inclusive
+     * @param category the exact category name, or null for every category
+     * @return an ArrayList of HomeAppliance objects sorted by price
+     */
+    public ArrayList<HomeAppliance> findProductsInPriceRange(int minPrice, int maxPrice, String category) {
+        LiveCatalogue catalogue = LiveCatalogue.catalogue();
+        if (!catalogue.isLoaded()) {
+            return findProductsInPriceRangeFromDatabase(minPrice, maxPrice, category);
+        }
+        ProductQuery query = new ProductQuery().category(category).minPrice(minPrice).maxPrice(maxPrice)
+                .sortBy(ProductQuery.Sort.PRICE_ASC);
+        ArrayList<HomeAppliance> appliances = new ArrayList<>();
+        for (ProductListing listing : catalogue.snapshot().findProducts(query)) {
+            appliances.add(listing.getAppliance());
+        }
+        return appliances;
+    }
+
+    /**
+     * Retrieves the products of a category priced within a range from the database, cheapest first.
+     *
+     * @param minPrice the lowest price, inclusive
+     * @param maxPrice the highest price, inclusive
+     * @param category the exact category name, or null for every category
+     * @return an ArrayList of HomeAppliance objects sorted by price
+     */
+    ArrayList<HomeAppliance> findProductsInPriceRangeFromDatabase(int minPrice, int maxPrice, String category) {
+        return read(PRODUCT_READS, Arrays.asList("findProductsInPriceRange", minPrice, maxPrice, category),
+                () -> queryProductsInPriceRange(minPrice, maxPrice, category));
+    }
+
+    /**
+     * Runs the query behind {@link #findProductsInPriceRangeFromDatabase(int, int, String)}.
+     */
+    private List<HomeAppliance> queryProductsInPriceRange(int minPrice, int maxPrice, String category) throws SQLException {
+        String query = "SELECT * FROM appliance WHERE price BETWEEN ? AND ?"
+                + ((category != null) ? " AND category = ?" : "") + " ORDER BY price, id";
+        ArrayList<HomeAppliance> appliances = new ArrayList<>();
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query)) {
+            preStatement.setInt(1, minPrice);
+            preStatement.setInt(2, maxPrice);
+            if (category != null) {
+                preStatement.setString(3, category);
+            }
+            try (ResultSet result = preStatement.executeQuery()) {
+                while (result.next()) {
+                    HomeAppliance appliance = new HomeAppliance(
+                            result.getString("sku"),
+                            result.getString("description"),
+                            result.getString("category"),
+                            result.getInt("price")
+                    );
+                    appliance.setId(result.getInt("id"));
+                    appliances.add(appliance);
+                }
+            }
         }
         return appliances;
     }
@@ -250,8 +402,10 @@ public class HomeApplianceDAO {
      * @param attribute - the attribute to filter by
      * @param value - the exact value to match
      * @return an ArrayList of HomeAppliance objects that meet the filter criteria
+     * @throws IllegalArgumentException if the attribute is not a column of the appliance table
      */
     public ArrayList<HomeAppliance> filterProductsByAttribute(String attribute, String value) {
+        checkSearchableColumn(attribute);
         String query = "SELECT * FROM appliance WHERE " + attribute + " = ?";
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
         try (Connection conn = this.connect();
@@ -281,6 +435,14 @@ public class HomeApplianceDAO {
      * @return an ArrayList of HomeAppliance objects that belong to the specified category
      */
     public ArrayList<HomeAppliance> filterProductsByCategory(String category) {
+        return read(PRODUCT_READS, Arrays.asList("filterProductsByCategory", category),
+                () -> queryProductsByCategory(category));
+    }
+
+    /**
+     * Runs the query behind {@link #filterProductsByCategory(String)}.
+     */
+    private List<HomeAppliance> queryProductsByCategory(String category) throws SQLException {
         String query = "SELECT * FROM appliance WHERE category = ?";
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
         try (Connection conn = this.connect();
@@ -297,8 +459,6 @@ public class HomeApplianceDAO {
                 appliance.setId(result.getInt("id"));
                 appliances.add(appliance);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
         return appliances;
     }
@@ -309,6 +469,13 @@ public class HomeApplianceDAO {
      * @return a List of category names
      */
     public List<String> findAllCategories() {
+        return read(CATEGORY_READS, "findAllCategories", this::queryAllCategories);
+    }
+
+    /**
+     * Runs the query behind {@link #findAllCategories()}.
+     */
+    private List<String> queryAllCategories() throws SQLException {
         List<String> categories = new ArrayList<>();
         String query = "SELECT DISTINCT category FROM appliance ORDER BY category";
         try (Connection conn = this.connect();
@@ -317,8 +484,6 @@ public class HomeApplianceDAO {
             while (result.next()) {
                 categories.add(result.getString("category"));
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
         return categories;
     }
@@ -331,6 +496,14 @@ public class HomeApplianceDAO {
      * @return an ArrayList of HomeAppliance objects where the keyword appears in the sku, description, or category
      */
     public ArrayList<HomeAppliance> searchProductsByKeyword(String keyword) {
+        return read(PRODUCT_READS, Arrays.asList("searchProductsByKeyword", keyword),
+                () -> queryProductsByKeyword(keyword));
+    }
+
+    /**
+     * Runs the query behind {@link #searchProductsByKeyword(String)}.
+     */
+    private List<HomeAppliance> queryProductsByKeyword(String keyword) throws SQLException {
         String query = "SELECT * FROM appliance WHERE sku LIKE ? OR description LIKE ? OR category LIKE ?";
         ArrayList<HomeAppliance> appliances = new ArrayList<>();
         try (Connection conn = this.connect();
@@ -350,9 +523,277 @@ public class HomeApplianceDAO {
                 appliance.setId(result.getInt("id"));
                 appliances.add(appliance);
             }
+        }
+        return appliances;
+    }
+
+    /**
+     * Reads the products with the given IDs, for example the results of a search made with an in-memory index.
+     *
+     * @param ids the product IDs
+     * @return an ArrayList of HomeAppliance objects in the same order as the IDs, skipping IDs with no product
+     */
+    public ArrayList<HomeAppliance> findProductsByIds(int[] ids) {
+        ArrayList<HomeAppliance> appliances = new ArrayList<>();
+        if (ids.length == 0) {
+            return appliances;
+        }
+        StringBuilder query = new StringBuilder("SELECT * FROM appliance WHERE id IN (?");
+        for (int i = 1; i < ids.length; i++) {
+            query.append(", ?");
+        }
+        query.append(')');
+        Map<Integer, HomeAppliance> byId = new HashMap<>();
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query.toString())) {
+            for (int i = 0; i < ids.length; i++) {
+                preStatement.setInt(i + 1, ids[i]);
+            }
+            try (ResultSet result = preStatement.executeQuery()) {
+                while (result.next()) {
+                    HomeAppliance appliance = new HomeAppliance(
+                            result.getString("sku"),
+                            result.getString("description"),
+                            result.getString("category"),
+                            result.getInt("price")
+                    );
+                    appliance.setId(result.getInt("id"));
+                    byId.put(appliance.getId(), appliance);
+                }
+            }
         } catch (SQLException ex) {
             ex.printStackTrace();
         }
+        for (int id : ids) {
+            HomeAppliance appliance = byId.get(id);
+            if (appliance != null) {
+                appliances.add(appliance);
+            }
+        }
         return appliances;
     }
+
+    /**
+     * Finds the products matching a query together with their appliance items, using a single
+     * parameterised SQL statement. This is used by the products page so that a search, filters and
+     * a sort order can be combined in one request.
+     *
+     * @param query the criteria and sort order
+     * @return a List of ProductListing objects in the requested order
+     */
+    public List<ProductListing> findProducts(ProductQuery query) {
+        return read(LISTING_READS, query.copy(), () -> queryProducts(query));
+    }
+
+    /**
+     * Runs the query behind {@link #findProducts(ProductQuery)}.
+     */
+    private List<ProductListing> queryProducts(ProductQuery query) throws SQLException {
+        String sql = PRODUCT_QUERY_SQL.computeIfAbsent(query.shape(), shape -> buildProductQuery(query));
+        List<ProductListing> listings = new ArrayList<>();
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(sql)) {
+            bindProductQuery(preStatement, query);
+            try (ResultSet result = preStatement.executeQuery()) {
+                while (result.next()) {
+                    listings.add(readListing(result));
+                }
+            }
+        }
+        return listings;
+    }
+
+    /**
+     * Finds a single product together with its first appliance item, as it appears in the product listing.
+     * This lets in-memory indexes refresh one product after a catalogue write.
+     *
+     * @param id the ID of the product
+     * @return the ProductListing, or null if no product has that ID
+     */
+    public ProductListing findProductListing(int id) {
+        try {
+            return readProductListing(id);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Reads a single product listing like {@link #findProductListing(int)}, but reports a failed read
+     * instead of returning null, so that the in-memory catalogue does not take it for a deleted product.
+     *
+     * @param id the ID of the product
+     * @return the ProductListing, or null if no product has that ID
+     * @throws SQLException if the product cannot be read
+     */
+    ProductListing readProductListing(int id) throws SQLException {
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(PRODUCT_LISTING_SELECT + " WHERE a.id = ?")) {
+            preStatement.setInt(1, id);
+            try (ResultSet result = preStatement.executeQuery()) {
+                if (result.next()) {
+                    return readListing(result);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads every product listing like {@link #findProducts(ProductQuery)} with an empty query, but reports
+     * a failed read instead of returning an empty list, so that the in-memory catalogue is not emptied.
+     *
+     * @return all products with their first appliance item
+     * @throws SQLException if the products cannot be read and there is no recent result to fall back on
+     */
+    List<ProductListing> readAllListings() throws SQLException {
+        ProductQuery query = new ProductQuery();
+        return new ArrayList<>(LISTING_READS.get(query.copy(), () -> queryProducts(query)));
+    }
+
+    /**
+     * Runs a list read through its stale-tolerant cache, returning an empty list if it fails with nothing to fall back on.
+     */
+    private static <K, T> ArrayList<T> read(StaleReads<K, List<T>> reads, K key, StaleReads.Read<List<T>> query) {
+        try {
+            return new ArrayList<>(reads.get(key, query));
+        } catch (SQLException ex) {
+            // Already logged where the read failed
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Clears the results kept by the list reads, so that the next reads go to the database.
+     */
+    static void clearCachedReads() {
+        PRODUCT_READS.clear();
+        LISTING_READS.clear();
+        CATEGORY_READS.clear();
+    }
+
+    /**
+     * Maps the current row of a product listing result to a ProductListing.
+     */
+    private static ProductListing readListing(ResultSet result) throws SQLException {
+        HomeAppliance appliance = new HomeAppliance(
+                result.getString("sku"),
+                result.getString("description"),
+                result.getString("category"),
+                result.getInt("price")
+        );
+        appliance.setId(result.getInt("id"));
+
+        ApplianceItem item = null;
+        int itemId = result.getInt("itemId");
+        if (!result.wasNull()) {
+            item = new ApplianceItem(
+                    appliance,
+                    result.getInt("warrantyYears"),
+                    result.getString("brand"),
+                    result.getString("model")
+            );
+            item.setId(itemId);
+        }
+        return new ProductListing(appliance, item);
+    }
+
+    /**
+     * Builds the SQL text for a query. Only the presence of each criterion and the sort order
+     * affect the text, so the result can be reused for every query of the same shape.
+     * Each product is joined to its first appliance item, matching how the products page has always shown them.
+     */
+    static String buildProductQuery(ProductQuery query) {
+        StringBuilder sql = new StringBuilder(PRODUCT_LISTING_SELECT).append(" WHERE 1 = 1");
+        if (query.getKeyword() != null) {
+            sql.append(" AND (a.sku LIKE ? ESCAPE '\\' OR a.description LIKE ? ESCAPE '\\' OR a.category LIKE ? ESCAPE '\\')");
+        }
+        if (query.getCategory() != null) {
+            sql.append(" AND a.category = ?");
+        }
+        if (query.getDescription() != null) {
+            sql.append(" AND a.description LIKE ? ESCAPE '\\'");
+        }
+        if (query.getBrand() != null) {
+            sql.append(" AND i.brand = ? COLLATE NOCASE");
+        }
+        if (query.getMinPrice() != null) {
+            sql.append(" AND a.price >= ?");
+        }
+        if (query.getMaxPrice() != null) {
+            sql.append(" AND a.price <= ?");
+        }
+        if (query.getMinWarrantyYears() != null) {
+            sql.append(" AND i.warrantyYears >= ?");
+        }
+        if (query.getMaxWarrantyYears() != null) {
+            sql.append(" AND i.warrantyYears <= ?");
+        }
+        switch (query.getSort()) {
+            case PRICE_ASC:
+                sql.append(" ORDER BY a.price ASC, a.id");
+                break;
+            case PRICE_DESC:
+                sql.append(" ORDER BY a.price DESC, a.id");
+                break;
+            case WARRANTY_ASC:
+                sql.append(" AND i.id IS NOT NULL ORDER BY i.warrantyYears ASC, a.id");
+                break;
+            case WARRANTY_DESC:
+                sql.append(" AND i.id IS NOT NULL ORDER BY i.warrantyYears DESC, a.id");
+                break;
+            default:
+                sql.append(" ORDER BY a.id");
+                break;
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Sets the parameters of a statement built by buildProductQuery, in the same order as the criteria were appended.
+     */
+    private static void bindProductQuery(PreparedStatement preStatement, ProductQuery query) throws SQLException {
+        int index = 1;
+        if (query.getKeyword() != null) {
+            String likeKeyword = "%" + escapeLike(query.getKeyword()) + "%";
+            preStatement.setString(index++, likeKeyword);
+            preStatement.setString(index++, likeKeyword);
+            preStatement.setString(index++, likeKeyword);
+        }
+        if (query.getCategory() != null) {
+            preStatement.setString(index++, query.getCategory());
+        }
+        if (query.getDescription() != null) {
+            preStatement.setString(index++, "%" + escapeLike(query.getDescription()) + "%");
+        }
+        if (query.getBrand() != null) {
+            preStatement.setString(index++, query.getBrand());
+        }
+        if (query.getMinPrice() != null) {
+            preStatement.setInt(index++, query.getMinPrice());
+        }
+        if (query.getMaxPrice() != null) {
+            preStatement.setInt(index++, query.getMaxPrice());
+        }
+        if (query.getMinWarrantyYears() != null) {
+            preStatement.setInt(index++, query.getMinWarrantyYears());
+        }
+        if (query.getMaxWarrantyYears() != null) {
+            preStatement.setInt(index++, query.getMaxWarrantyYears());
+        }
+    }
+
+    /**
+     * Escapes the LIKE wildcards in user input so that "%" and "_" match themselves.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static void checkSearchableColumn(String attribute) {
+        if (!SEARCHABLE_COLUMNS.contains(attribute)) {
+            throw new IllegalArgumentException("Unknown product attribute: " + attribute);
+        }
+    }
 }
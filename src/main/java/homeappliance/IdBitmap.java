@@ -0,0 +1,317 @@
+package homeappliance;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative row IDs, used by the {@link FacetIndex}.
+ *
+ * A set with few members is stored as a sorted array of IDs; once the array would take more memory
+ * than one bit per possible ID it switches to a bitmap of 64-bit words, and it switches back when
+ * enough members are removed. Intersections of two bitmaps are word-wise ANDs, and counting the
+ * members of an intersection does not allocate a new set.
+ *
+ * Instances are not thread-safe; the facet index guards them with its own lock.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class IdBitmap {
+
+    private int[] ids = new int[4];
+    private long[] words;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public IdBitmap() {
+        // Starts as an empty sorted array
+    }
+
+    /**
+     * Creates a set holding the given IDs.
+     *
+     * @param values the IDs to add
+     * @return the new set
+     */
+    public static IdBitmap of(int... values) {
+        IdBitmap bitmap = new IdBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds an ID to the set.
+     *
+     * @param id the ID, which must not be negative
+     * @return true if the ID was not already in the set
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("IDs must not be negative: " + id);
+        }
+        if (words != null) {
+            int word = id >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            long bit = 1L << id;
+            if ((words[word] & bit) != 0) {
+                return false;
+            }
+            words[word] |= bit;
+            size++;
+            return true;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+        if (size * Integer.BYTES > wordCount(ids[size - 1]) * Long.BYTES) {
+            toWords();
+        }
+        return true;
+    }
+
+    /**
+     * Removes an ID from the set.
+     *
+     * @param id the ID
+     * @return true if the ID was in the set
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        if (words != null) {
+            words[id >>> 6] &= ~(1L << id);
+            size--;
+            // Switch back once the array would take less than half the memory of the words
+            if (size * Integer.BYTES * 2 < words.length * Long.BYTES) {
+                toArray(size);
+            }
+            return true;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Checks whether an ID is in the set.
+     *
+     * @param id the ID
+     * @return true if the ID is in the set
+     */
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        if (words != null) {
+            int word = id >>> 6;
+            return word < words.length && (words[word] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Returns the number of IDs in the set.
+     *
+     * @return the number of IDs
+     */
+    public int cardinality() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return true if the set has no IDs
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls the action for every ID in ascending order.
+     *
+     * @param action the action to call
+     */
+    public void forEach(IntConsumer action) {
+        if (words == null) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+            return;
+        }
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs in ascending order.
+     *
+     * @return a new array of the IDs
+     */
+    public int[] toArray() {
+        if (words == null) {
+            return Arrays.copyOf(ids, size);
+        }
+        int[] values = new int[size];
+        int[] next = { 0 };
+        forEach(id -> values[next[0]++] = id);
+        return values;
+    }
+
+    /**
+     * Returns an independent copy of the set.
+     *
+     * @return the copy
+     */
+    public IdBitmap copy() {
+        IdBitmap copy = new IdBitmap();
+        copy.size = size;
+        if (words != null) {
+            copy.words = words.clone();
+            copy.ids = null;
+        } else {
+            copy.ids = Arrays.copyOf(ids, Math.max(size, 4));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the IDs that are in both sets.
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return a new set holding the intersection
+     */
+    public static IdBitmap and(IdBitmap a, IdBitmap b) {
+        if (a.words != null && b.words != null) {
+            IdBitmap result = new IdBitmap();
+            int length = Math.min(a.words.length, b.words.length);
+            result.words = new long[length];
+            result.ids = null;
+            for (int i = 0; i < length; i++) {
+                result.words[i] = a.words[i] & b.words[i];
+                result.size += Long.bitCount(result.words[i]);
+            }
+            if (result.size * Integer.BYTES * 2 < length * Long.BYTES) {
+                result.toArray(result.size);
+            }
+            return result;
+        }
+        // At least one side is a short array: probe the other set for each of its members
+        IdBitmap small = (a.words == null && (b.words != null || a.size <= b.size)) ? a : b;
+        IdBitmap other = (small == a) ? b : a;
+        IdBitmap result = new IdBitmap();
+        result.ids = new int[Math.max(small.size, 4)];
+        for (int i = 0; i < small.size; i++) {
+            if (other.contains(small.ids[i])) {
+                result.ids[result.size++] = small.ids[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the IDs that are in either set.
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return a new set holding the union
+     */
+    public static IdBitmap or(IdBitmap a, IdBitmap b) {
+        IdBitmap larger = (a.size >= b.size) ? a : b;
+        IdBitmap smaller = (larger == a) ? b : a;
+        IdBitmap result = larger.copy();
+        smaller.forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Counts the IDs that are in both sets without building the intersection.
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return the number of IDs in both sets
+     */
+    public static int andCardinality(IdBitmap a, IdBitmap b) {
+        if (a.words != null && b.words != null) {
+            int count = 0;
+            int length = Math.min(a.words.length, b.words.length);
+            for (int i = 0; i < length; i++) {
+                count += Long.bitCount(a.words[i] & b.words[i]);
+            }
+            return count;
+        }
+        IdBitmap small = (a.words == null && (b.words != null || a.size <= b.size)) ? a : b;
+        IdBitmap other = (small == a) ? b : a;
+        int count = 0;
+        for (int i = 0; i < small.size; i++) {
+            if (other.contains(small.ids[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IdBitmap)) {
+            return false;
+        }
+        IdBitmap other = (IdBitmap) obj;
+        return size == other.size && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private static int wordCount(int maxId) {
+        return (maxId >>> 6) + 1;
+    }
+
+    private void toWords() {
+        words = new long[wordCount(ids[size - 1])];
+        for (int i = 0; i < size; i++) {
+            words[ids[i] >>> 6] |= 1L << ids[i];
+        }
+        ids = null;
+    }
+
+    private void toArray(int capacity) {
+        int[] values = toArray();
+        ids = Arrays.copyOf(values, Math.max(capacity, 4));
+        words = null;
+    }
+}
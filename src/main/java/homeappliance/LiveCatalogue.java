@@ -0,0 +1,297 @@
+package homeappliance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import metrics.Metrics;
+
+/**
+ * Holds the current {@link CatalogueSnapshot} and replaces it after catalogue writes.
+ *
+ * Writes reported by {@link CatalogueEvents} are only recorded. The next reader to find recorded writes
+ * re-loads the changed products and publishes a new snapshot built from the old one; the reference is
+ * swapped in one volatile write, so every reader sees either the old snapshot or the new one. Readers
+ * never wait for each other: while one reader builds the next snapshot, the others keep using the
+ * current one. Only the very first read, which loads the whole catalogue, has to wait.
+ *
+ * A snapshot is only ever built from reads that succeeded. If the first load fails, nothing is installed
+ * and the read throws {@link CatalogueSource.ReadFailedException}; the next read tries again. If a changed
+ * product cannot be re-loaded, readers keep the current snapshot and the changes stay recorded until a
+ * later read can apply them. Failed refreshes are counted in the {@code catalogue.refresh_failures} metric.
+ *
+ * Once {@link #start(Path, long)} is called, the catalogue is saved to a {@link CatalogueSnapshotFile}
+ * at a fixed interval. After a restart the saved file becomes the first snapshot, so reads are served
+ * straight away, while the whole catalogue is re-loaded from the database in the background. The products
+ * that changed while the server was down are then reported through {@link CatalogueEvents}, so the other
+ * in-memory indexes and caches catch up as well. If that load fails, the restored snapshot is kept and the
+ * load is tried again every {@code catalogue.snapshot.retrySeconds} seconds (30 by default).
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class LiveCatalogue implements CatalogueEvents.Listener {
+
+    private static volatile LiveCatalogue catalogue;
+
+    /** Seconds between attempts to catch up with the database after a restart, while it cannot be read. */
+    private static final long CATCH_UP_RETRY_SECONDS = Long.getLong("catalogue.snapshot.retrySeconds", 30);
+
+    private final CatalogueSource source;
+    private final CatalogueChanges changes = new CatalogueChanges();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile CatalogueSnapshot snapshot;
+    private CatalogueSnapshot saved;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a catalogue that loads products from the given source.
+     * It only follows catalogue writes once it is registered with {@link CatalogueEvents#addListener}.
+     *
+     * @param source loads catalogue rows
+     */
+    public LiveCatalogue(CatalogueSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the catalogue read from the database, creating it and registering it for catalogue
+     * writes on first use. It is shared by every product listing.
+     *
+     * @return the shared catalogue
+     */
+    public static LiveCatalogue catalogue() {
+        LiveCatalogue live = catalogue;
+        if (live == null) {
+            synchronized (LiveCatalogue.class) {
+                live = catalogue;
+                if (live == null) {
+                    live = new LiveCatalogue(CatalogueSource.database());
+                    CatalogueEvents.addListener(live);
+                    catalogue = live;
+                }
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Records a catalogue write. The affected products are re-loaded on the next read.
+     *
+     * @param source the table that was changed
+     * @param id the ID of the row that was changed
+     */
+    @Override
+    public void catalogueChanged(CatalogueEvents.Source source, int id) {
+        changes.catalogueChanged(source, id);
+    }
+
+    /**
+     * Returns the current snapshot of the catalogue. Callers should use the one snapshot for all the
+     * reads of a request, so that they see a consistent catalogue.
+     *
+     * @return the snapshot
+     * @throws CatalogueSource.ReadFailedException if the catalogue has not been loaded and cannot be read
+     */
+    public CatalogueSnapshot snapshot() {
+        CatalogueSnapshot current = snapshot;
+        if (current != null && changes.isEmpty()) {
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            // Another reader is already building the next snapshot
+            return current;
+        }
+        try {
+            refresh();
+            return snapshot;
+        } catch (CatalogueSource.ReadFailedException ex) {
+            if (current == null) {
+                throw ex;
+            }
+            // The changes stay recorded, so the next reader tries them again
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the catalogue has been loaded, so that {@link #snapshot()} will not have to wait for it.
+     *
+     * @return true once a snapshot exists
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns a snapshot that includes every catalogue write reported so far, waiting for a refresh in
+     * progress if necessary. Indexes use this when they load the catalogue, so that they cannot miss a write.
+     *
+     * @return the snapshot
+     * @throws CatalogueSource.ReadFailedException if a recorded write cannot be applied
+     */
+    public CatalogueSnapshot currentSnapshot() {
+        refreshLock.lock();
+        try {
+            refresh();
+            return snapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Starts from the snapshot saved in a file, if there is a usable one, and then saves the catalogue to
+     * that file in the background at a fixed interval. If the file is missing or unreadable, the catalogue
+     * is loaded from the database on first use as usual.
+     *
+     * @param file the snapshot file
+     * @param saveIntervalSeconds the number of seconds between saves
+     */
+    public synchronized void start(Path file, long saveIntervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalogue-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (Files.isRegularFile(file) && snapshot == null) {
+            try {
+                long start = System.nanoTime();
+                CatalogueSnapshot restored = CatalogueSnapshotFile.read(file);
+                refreshLock.lock();
+                try {
+                    if (snapshot == null) {
+                        snapshot = restored;
+                        saved = restored;
+                    }
+                } finally {
+                    refreshLock.unlock();
+                }
+                System.out.printf("Restored %d products from %s in %d ms%n", restored.size(), file,
+                        (System.nanoTime() - start) / 1_000_000);
+                scheduler.execute(this::catchUp);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+        scheduler.scheduleWithFixedDelay(() -> save(file), saveIntervalSeconds, saveIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops saving the catalogue in the background.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Re-loads the whole catalogue from the database after starting from a saved file, and reports the
+     * products that differ from the file as catalogue changes. If the catalogue cannot be read, the
+     * restored snapshot is kept and the load is scheduled again.
+     */
+    void catchUp() {
+        // Loaded without the refresh lock, so readers keep using the restored snapshot meanwhile;
+        // writes reported during the load stay recorded and are applied on the next read
+        CatalogueSnapshot fresh;
+        try {
+            fresh = CatalogueSnapshot.of(source.loadAll());
+        } catch (CatalogueSource.ReadFailedException ex) {
+            Metrics.counter("catalogue.snapshot.catch_up_failures").increment();
+            ex.printStackTrace();
+            retryCatchUp();
+            return;
+        }
+        CatalogueSnapshot restored;
+        refreshLock.lock();
+        try {
+            restored = snapshot;
+            snapshot = fresh;
+        } finally {
+            refreshLock.unlock();
+        }
+        for (int productId : restored.changedProductIds(fresh)) {
+            CatalogueEvents.fire(CatalogueEvents.Source.PRODUCT, productId);
+        }
+    }
+
+    /**
+     * Schedules another attempt to catch up, unless the background work has been stopped.
+     */
+    private synchronized void retryCatchUp() {
+        if (scheduler != null) {
+            scheduler.schedule(this::catchUp, CATCH_UP_RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Saves the current snapshot to a file if it has changed since it was last saved or restored.
+     *
+     * @param file the snapshot file
+     */
+    void save(Path file) {
+        CatalogueSnapshot current = snapshot();
+        if (current == saved) {
+            return;
+        }
+        try {
+            CatalogueSnapshotFile.write(current, file);
+            saved = current;
+            Metrics.counter("catalogue.snapshot.saves").increment();
+        } catch (IOException ex) {
+            Metrics.counter("catalogue.snapshot.save_failures").increment();
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the catalogue, or applies the recorded writes to the current snapshot. Called under the refresh lock.
+     * If a read fails the snapshot is left as it was and the writes stay recorded.
+     *
+     * @throws CatalogueSource.ReadFailedException if the catalogue or a changed product cannot be read
+     */
+    private void refresh() {
+        CatalogueSnapshot current = snapshot;
+        try {
+            if (current == null) {
+                // Writes made while loading are applied again on the next read, which is harmless
+                changes.clear();
+                snapshot = CatalogueSnapshot.of(source.loadAll());
+                return;
+            }
+            Set<Integer> productIds = changes.drain(source, current::productOfItem);
+            Map<Integer, ProductListing> changed = new HashMap<>();
+            try {
+                for (int productId : productIds) {
+                    changed.put(productId, source.load(productId));
+                }
+            } catch (CatalogueSource.ReadFailedException ex) {
+                changes.retry(productIds);
+                throw ex;
+            }
+            snapshot = current.withChanges(changed);
+        } catch (CatalogueSource.ReadFailedException ex) {
+            Metrics.counter("catalogue.refresh_failures").increment();
+            ex.printStackTrace();
+            throw ex;
+        }
+    }
+}
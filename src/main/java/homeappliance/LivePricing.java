@@ -0,0 +1,114 @@
+package homeappliance;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import metrics.Metrics;
+
+/**
+ * Holds the current {@link PricingPlan} and replaces it when the pricing rules change.
+ *
+ * The plan is compiled from the rules away from the readers and then swapped in with one volatile write, so a
+ * basket is always priced by either the old rules or the new ones, never a mix, and pricing never waits for a
+ * reload. Rules whose period has not started or has ended stay in the plan and are skipped when pricing,
+ * so promotions start and stop on time without a reload. Reloads are counted in the {@code pricing.reloads}
+ * metric and the number of rules is the {@code pricing.rules} gauge.
+ *
+ * If the rules cannot be read, the previous plan is kept (an empty one if they have never been read) and the
+ * next use of the plan tries the load again, so a database error never silently drops every promotion.
+ * Failed loads are counted in the {@code pricing.reload_failures} metric.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class LivePricing {
+
+    private static volatile LivePricing pricing;
+
+    private final Supplier<List<PricingRule>> rules;
+    private volatile PricingPlan plan = PricingPlan.compile(Collections.emptyList());
+    private volatile boolean stale = true;
+
+    /**
+     * Creates pricing from rules loaded by the given supplier. The rules are loaded straight away.
+     *
+     * @param rules loads every pricing rule, returning null if they cannot be read
+     */
+    public LivePricing(Supplier<List<PricingRule>> rules) {
+        this.rules = rules;
+        reload();
+    }
+
+    /**
+     * Returns the pricing read from the database, loading the rules on first use.
+     *
+     * @return the shared pricing
+     */
+    public static LivePricing pricing() {
+        LivePricing live = pricing;
+        if (live == null) {
+            synchronized (LivePricing.class) {
+                live = pricing;
+                if (live == null) {
+                    PricingRuleDAO dao = new PricingRuleDAO();
+                    live = new LivePricing(dao::findAllRules);
+                    LivePricing gauged = live;
+                    Metrics.gauge("pricing.rules", () -> gauged.plan().ruleCount());
+                    pricing = live;
+                }
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Reloads the shared pricing after rules were added or deleted, if it is in use.
+     */
+    static void rulesChanged() {
+        LivePricing live = pricing;
+        if (live != null) {
+            live.reload();
+        }
+    }
+
+    /**
+     * Returns the current plan, first trying to load the rules again if the last load failed.
+     *
+     * @return the plan
+     */
+    public PricingPlan plan() {
+        if (stale) {
+            reload();
+        }
+        return plan;
+    }
+
+    /**
+     * Prices the lines of a basket with the current plan at the current time.
+     *
+     * @param lines the lines of the basket
+     * @return the price
+     */
+    public PricingPlan.Result price(List<Basket.Line> lines) {
+        return plan().price(lines, System.currentTimeMillis());
+    }
+
+    /**
+     * Loads the rules again and swaps in a plan compiled from them. If they cannot be read, the current
+     * plan is kept and the load is tried again on the next use.
+     */
+    public synchronized void reload() {
+        List<PricingRule> loaded = rules.get();
+        if (loaded == null) {
+            stale = true;
+            Metrics.counter("pricing.reload_failures").increment();
+            return;
+        }
+        plan = PricingPlan.compile(loaded);
+        stale = false;
+        Metrics.counter("pricing.reloads").increment();
+    }
+}
@@ -0,0 +1,118 @@
+package homeappliance;
+
+import java.util.Arrays;
+
+/**
+ * A sorted index of the prices in a {@link CatalogueSnapshot}, used for price range filters and price ordering.
+ *
+ * The rows of the snapshot are kept in two orders: by price across the whole catalogue, and grouped by category
+ * and then by price within each category. Each order has a parallel array of the prices in that order, so a
+ * price range is two binary searches and the rows between them, already sorted by price with ties in row
+ * (product ID) order. Everything is a plain int array: four ints per product.
+ *
+ * An index is built from the columns of one snapshot and, like the snapshot, never changes.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+final class PriceIndex {
+
+    private final int[] prices;
+    private final int[] rows;
+    private final int[] categoryStarts;
+    private final int[] categoryPrices;
+    private final int[] categoryRows;
+
+    /**
+     * Builds the index.
+     *
+     * @param rowPrices the price of each row
+     * @param categoryCodes the category code of each row, or {@link CatalogueSnapshot#NONE}
+     * @param categoryCount the number of category codes
+     */
+    PriceIndex(int[] rowPrices, int[] categoryCodes, int categoryCount) {
+        int size = rowPrices.length;
+        // Sorting the price and row as one long puts equal prices in row order
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) rowPrices[row] << 32) | row;
+        }
+        Arrays.sort(keys);
+        prices = new int[size];
+        rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) keys[i];
+            prices[i] = (int) (keys[i] >> 32);
+        }
+
+        // A stable counting sort by category keeps the price order within each category;
+        // products without a category come first, under code -1
+        categoryStarts = new int[categoryCount + 2];
+        for (int code : categoryCodes) {
+            categoryStarts[code + 2]++;
+        }
+        for (int i = 1; i < categoryStarts.length; i++) {
+            categoryStarts[i] += categoryStarts[i - 1];
+        }
+        int[] next = Arrays.copyOf(categoryStarts, categoryStarts.length - 1);
+        categoryPrices = new int[size];
+        categoryRows = new int[size];
+        for (int i = 0; i < size; i++) {
+            int position = next[categoryCodes[rows[i]] + 1]++;
+            categoryRows[position] = rows[i];
+            categoryPrices[position] = prices[i];
+        }
+    }
+
+    /**
+     * Returns the rows with a price in a range, cheapest first.
+     *
+     * @param minPrice the lowest price, inclusive
+     * @param maxPrice the highest price, inclusive
+     * @return the rows, by price and then by row
+     */
+    int[] range(int minPrice, int maxPrice) {
+        return slice(prices, rows, 0, prices.length, minPrice, maxPrice);
+    }
+
+    /**
+     * Returns the rows of one category with a price in a range, cheapest first.
+     *
+     * @param categoryCode the category code
+     * @param minPrice the lowest price, inclusive
+     * @param maxPrice the highest price, inclusive
+     * @return the rows, by price and then by row
+     */
+    int[] range(int categoryCode, int minPrice, int maxPrice) {
+        return slice(categoryPrices, categoryRows, categoryStarts[categoryCode + 1], categoryStarts[categoryCode + 2],
+                minPrice, maxPrice);
+    }
+
+    private static int[] slice(int[] sortedPrices, int[] sortedRows, int from, int to, int minPrice, int maxPrice) {
+        if (minPrice > maxPrice) {
+            return new int[0];
+        }
+        int start = firstAbove(sortedPrices, from, to, minPrice - 1L);
+        int end = firstAbove(sortedPrices, start, to, maxPrice);
+        return Arrays.copyOfRange(sortedRows, start, end);
+    }
+
+    /**
+     * Returns the first position in a sorted range whose price is greater than a bound, or {@code to} if there is none.
+     */
+    private static int firstAbove(int[] sortedPrices, int from, int to, long bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] <= bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
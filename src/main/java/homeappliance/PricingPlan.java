@@ -0,0 +1,319 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link PricingRule}s in force, compiled for pricing baskets. Rules are indexed by the item and the category
+ * they apply to, so pricing a basket only looks at the rules for the items in it, whatever the number of rules.
+ * A plan is immutable; {@link LivePricing} swaps in a new plan when the rules change.
+ *
+ * A basket is priced in two steps. Bundles are applied first, each complete set of a bundle's items being charged
+ * the bundle price when that is cheaper. The remaining units of each line then get the single best discount among
+ * the item's discounts and multi-buys and its category's discounts; discounts do not add up. Rules outside their
+ * period are skipped. Prices are in whole pounds and percentage discounts are rounded down.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class PricingPlan {
+
+    private static final Step[] NONE = new Step[0];
+
+    /** A plan without rules, which charges the full price. */
+    public static final PricingPlan EMPTY = compile(Collections.emptyList());
+
+    /**
+     * The price of a basket.
+     */
+    public static final class Result {
+
+        private final int subtotal;
+        private final int discount;
+        private final List<String> applied;
+
+        Result(int subtotal, int discount, List<String> applied) {
+            this.subtotal = subtotal;
+            this.discount = discount;
+            this.applied = applied;
+        }
+
+        /**
+         * Returns the full price of the basket.
+         *
+         * @return the sum of the line totals in pounds
+         */
+        public int getSubtotal() {
+            return subtotal;
+        }
+
+        /**
+         * Returns the amount taken off by promotions.
+         *
+         * @return the discount in pounds
+         */
+        public int getDiscount() {
+            return discount;
+        }
+
+        /**
+         * Returns the price to pay.
+         *
+         * @return the subtotal less the discount, in pounds
+         */
+        public int getTotal() {
+            return subtotal - discount;
+        }
+
+        /**
+         * Returns the names of the promotions that lowered the price.
+         *
+         * @return the names, in the order they were applied
+         */
+        public List<String> getApplied() {
+            return Collections.unmodifiableList(applied);
+        }
+    }
+
+    /**
+     * One compiled rule, with its period copied from the rule.
+     */
+    private static final class Step {
+        final String name;
+        final PricingRule.Type type;
+        final int[] itemIds;
+        final int percent;
+        final int buyQuantity;
+        final int payQuantity;
+        final int bundlePrice;
+        final long startsAt;
+        final long endsAt;
+
+        Step(PricingRule rule) {
+            this.name = rule.getName();
+            this.type = rule.getType();
+            this.itemIds = rule.getItemIds();
+            this.percent = rule.getPercent();
+            this.buyQuantity = rule.getBuyQuantity();
+            this.payQuantity = rule.getPayQuantity();
+            this.bundlePrice = rule.getBundlePrice();
+            this.startsAt = rule.getStartsAt();
+            this.endsAt = rule.getEndsAt();
+        }
+
+        boolean activeAt(long now) {
+            return now >= startsAt && now < endsAt;
+        }
+
+        /**
+         * Returns how much this discount or multi-buy takes off some units of an item.
+         */
+        long saving(int quantity, int unitPrice) {
+            if (type == PricingRule.Type.MULTI_BUY) {
+                return (long) (quantity / buyQuantity) * (buyQuantity - payQuantity) * unitPrice;
+            }
+            return (long) quantity * unitPrice * percent / 100;
+        }
+    }
+
+    /** Item discounts and multi-buys, keyed by item ID. */
+    private final Map<Integer, Step[]> itemSteps;
+    /** Category discounts, keyed by category. */
+    private final Map<String, Step[]> categorySteps;
+    /** Bundles, keyed by the lowest item ID in each, as a bundle only applies when all its items are present. */
+    private final Map<Integer, Step[]> bundleSteps;
+    private final int ruleCount;
+
+    private PricingPlan(Map<Integer, Step[]> itemSteps, Map<String, Step[]> categorySteps,
+            Map<Integer, Step[]> bundleSteps, int ruleCount) {
+        this.itemSteps = itemSteps;
+        this.categorySteps = categorySteps;
+        this.bundleSteps = bundleSteps;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Compiles rules into a plan.
+     *
+     * @param rules the rules in force; later changes to them do not affect the plan
+     * @return the plan
+     */
+    public static PricingPlan compile(List<PricingRule> rules) {
+        Map<Integer, List<Step>> items = new HashMap<>();
+        Map<String, List<Step>> categories = new HashMap<>();
+        Map<Integer, List<Step>> bundles = new HashMap<>();
+        for (PricingRule rule : rules) {
+            Step step = new Step(rule);
+            switch (rule.getType()) {
+                case CATEGORY_DISCOUNT:
+                    categories.computeIfAbsent(rule.getCategory(), key -> new ArrayList<>()).add(step);
+                    break;
+                case BUNDLE:
+                    bundles.computeIfAbsent(step.itemIds[0], key -> new ArrayList<>()).add(step);
+                    break;
+                default:
+                    items.computeIfAbsent(step.itemIds[0], key -> new ArrayList<>()).add(step);
+                    break;
+            }
+        }
+        return new PricingPlan(toArrays(items), toArrays(categories), toArrays(bundles), rules.size());
+    }
+
+    /**
+     * Orders each key's rules with multi-buys first and then the largest discounts, so pricing can stop
+     * at the first discount in its period.
+     */
+    private static <K> Map<K, Step[]> toArrays(Map<K, List<Step>> lists) {
+        Map<K, Step[]> arrays = new HashMap<>();
+        for (Map.Entry<K, List<Step>> entry : lists.entrySet()) {
+            Step[] steps = entry.getValue().toArray(NONE);
+            Arrays.sort(steps, Comparator.comparing((Step step) -> step.type != PricingRule.Type.MULTI_BUY)
+                    .thenComparing(step -> -step.percent));
+            arrays.put(entry.getKey(), steps);
+        }
+        return arrays;
+    }
+
+    /**
+     * Returns the number of rules in the plan, including those outside their period.
+     *
+     * @return the number of rules
+     */
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Prices the lines of a basket.
+     *
+     * @param lines the lines, one per item
+     * @param now the time to price at, in milliseconds since the epoch
+     * @return the price
+     */
+    public Result price(List<Basket.Line> lines, long now) {
+        int count = lines.size();
+        int[] remaining = new int[count];
+        int subtotal = 0;
+        long discount = 0;
+        List<String> applied = new ArrayList<>(0);
+        for (int i = 0; i < count; i++) {
+            Basket.Line line = lines.get(i);
+            remaining[i] = line.getQuantity();
+            subtotal += line.getLineTotal();
+        }
+
+        if (!bundleSteps.isEmpty()) {
+            Map<Integer, Integer> lineOf = null;
+            for (int i = 0; i < count; i++) {
+                Step[] bundles = bundleSteps.get(lines.get(i).getItemId());
+                if (bundles == null) {
+                    continue;
+                }
+                if (lineOf == null) {
+                    lineOf = new HashMap<>(count * 2);
+                    for (int j = 0; j < count; j++) {
+                        lineOf.put(lines.get(j).getItemId(), j);
+                    }
+                }
+                for (Step bundle : bundles) {
+                    if (bundle.activeAt(now)) {
+                        discount += applyBundle(bundle, lines, lineOf, remaining, applied);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (remaining[i] == 0) {
+                continue;
+            }
+            Basket.Line line = lines.get(i);
+            Step best = null;
+            long bestSaving = 0;
+            for (Step step : itemSteps.getOrDefault(line.getItemId(), NONE)) {
+                if (!step.activeAt(now)) {
+                    continue;
+                }
+                long saving = step.saving(remaining[i], line.getUnitPrice());
+                if (saving > bestSaving) {
+                    best = step;
+                    bestSaving = saving;
+                }
+                if (step.type != PricingRule.Type.MULTI_BUY) {
+                    break;
+                }
+            }
+            HomeAppliance appliance = line.getItem().getHomeAppliance();
+            String category = (appliance != null) ? appliance.getCategory() : null;
+            Step[] categoryRules = (category != null) ? categorySteps.get(category) : null;
+            if (categoryRules != null) {
+                for (Step step : categoryRules) {
+                    if (!step.activeAt(now)) {
+                        continue;
+                    }
+                    long saving = step.saving(remaining[i], line.getUnitPrice());
+                    if (saving > bestSaving) {
+                        best = step;
+                        bestSaving = saving;
+                    }
+                    break;
+                }
+            }
+            if (best != null) {
+                discount += bestSaving;
+                addName(applied, best.name);
+            }
+        }
+        return new Result(subtotal, (int) discount, applied);
+    }
+
+    /**
+     * Charges complete sets of a bundle's items at the bundle price, if that is cheaper, and returns the saving.
+     */
+    private static long applyBundle(Step bundle, List<Basket.Line> lines, Map<Integer, Integer> lineOf,
+            int[] remaining, List<String> applied) {
+        int[] members = new int[bundle.itemIds.length];
+        int sets = Integer.MAX_VALUE;
+        long fullPrice = 0;
+        for (int m = 0; m < members.length; m++) {
+            Integer index = lineOf.get(bundle.itemIds[m]);
+            if (index == null || remaining[index] == 0) {
+                return 0;
+            }
+            members[m] = index;
+            sets = Math.min(sets, remaining[index]);
+            fullPrice += lines.get(index).getUnitPrice();
+        }
+        if (fullPrice <= bundle.bundlePrice) {
+            return 0;
+        }
+        for (int member : members) {
+            remaining[member] -= sets;
+        }
+        addName(applied, bundle.name);
+        return sets * (fullPrice - bundle.bundlePrice);
+    }
+
+    private static void addName(List<String> applied, String name) {
+        if (!applied.contains(name)) {
+            applied.add(name);
+        }
+    }
+
+    /**
+     * Returns a description of the plan.
+     *
+     * @return a string with the number of rules and of items and categories they apply to
+     */
+    @Override
+    public String toString() {
+        return "PricingPlan [rules=" + ruleCount + ", items=" + itemSteps.size() + ", categories=" + categorySteps.size() + "]";
+    }
+}
@@ -0,0 +1,262 @@
+package homeappliance;
+
+import java.util.Arrays;
+
+/**
+ * A promotion that lowers the price of a basket: a percentage off a category or an item, a multi-buy deal
+ * on an item, or a fixed price for a bundle of items. Any rule can be limited to a period of time.
+ * Rules are stored by {@link PricingRuleDAO} and compiled into a {@link PricingPlan} to price baskets.
+ *
+ * Rules are created with the factory method for their type, for example
+ * {@code PricingRule.multiBuy("3 for 2 on kettles", 12, 3, 2)}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class PricingRule {
+
+    /**
+     * The kinds of promotion.
+     */
+    public enum Type {
+        /** A percentage off every item in a category. */
+        CATEGORY_DISCOUNT,
+        /** A percentage off one item. */
+        ITEM_DISCOUNT,
+        /** Buy a number of units of one item and pay for fewer. */
+        MULTI_BUY,
+        /** A fixed price for one unit of each of several items. */
+        BUNDLE
+    }
+
+    private int id;
+    private final String name;
+    private final Type type;
+    private final String category;
+    private final int[] itemIds;
+    private final int percent;
+    private final int buyQuantity;
+    private final int payQuantity;
+    private final int bundlePrice;
+    private long startsAt = 0;
+    private long endsAt = Long.MAX_VALUE;
+
+    private PricingRule(String name, Type type, String category, int[] itemIds, int percent,
+            int buyQuantity, int payQuantity, int bundlePrice) {
+        this.name = name;
+        this.type = type;
+        this.category = category;
+        this.itemIds = itemIds;
+        this.percent = percent;
+        this.buyQuantity = buyQuantity;
+        this.payQuantity = payQuantity;
+        this.bundlePrice = bundlePrice;
+    }
+
+    /**
+     * Creates a percentage discount on every item in a category.
+     *
+     * @param name the name shown to customers
+     * @param category the category
+     * @param percent the percentage off, from 1 to 100
+     * @return the rule
+     */
+    public static PricingRule categoryDiscount(String name, String category, int percent) {
+        checkPercent(percent);
+        return new PricingRule(name, Type.CATEGORY_DISCOUNT, category, new int[0], percent, 0, 0, 0);
+    }
+
+    /**
+     * Creates a percentage discount on one item.
+     *
+     * @param name the name shown to customers
+     * @param itemId the appliance item ID
+     * @param percent the percentage off, from 1 to 100
+     * @return the rule
+     */
+    public static PricingRule itemDiscount(String name, int itemId, int percent) {
+        checkPercent(percent);
+        return new PricingRule(name, Type.ITEM_DISCOUNT, null, new int[] { itemId }, percent, 0, 0, 0);
+    }
+
+    /**
+     * Creates a multi-buy deal, for example 3 for the price of 2.
+     *
+     * @param name the name shown to customers
+     * @param itemId the appliance item ID
+     * @param buyQuantity the number of units bought together
+     * @param payQuantity the number of those units paid for, fewer than are bought
+     * @return the rule
+     */
+    public static PricingRule multiBuy(String name, int itemId, int buyQuantity, int payQuantity) {
+        if (payQuantity < 0 || buyQuantity <= payQuantity) {
+            throw new IllegalArgumentException("A multi-buy must pay for fewer units than it buys");
+        }
+        return new PricingRule(name, Type.MULTI_BUY, null, new int[] { itemId }, 0, buyQuantity, payQuantity, 0);
+    }
+
+    /**
+     * Creates a fixed price for one unit of each of several items bought together.
+     *
+     * @param name the name shown to customers
+     * @param itemIds the appliance item IDs, at least two different items
+     * @param bundlePrice the price of the bundle in pounds
+     * @return the rule
+     */
+    public static PricingRule bundle(String name, int[] itemIds, int bundlePrice) {
+        int[] sorted = Arrays.stream(itemIds).distinct().sorted().toArray();
+        if (sorted.length < 2 || bundlePrice < 0) {
+            throw new IllegalArgumentException("A bundle needs at least two items and a price");
+        }
+        return new PricingRule(name, Type.BUNDLE, null, sorted, 0, 0, 0, bundlePrice);
+    }
+
+    private static void checkPercent(int percent) {
+        if (percent < 1 || percent > 100) {
+            throw new IllegalArgumentException("Percent must be between 1 and 100: " + percent);
+        }
+    }
+
+    /**
+     * Returns the ID of the rule.
+     *
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the rule.
+     *
+     * @param id the ID
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Limits the rule to a period of time.
+     *
+     * @param startsAt when the rule starts, in milliseconds since the epoch
+     * @param endsAt when the rule ends, in milliseconds since the epoch
+     * @return this rule
+     */
+    public PricingRule activeBetween(long startsAt, long endsAt) {
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+        return this;
+    }
+
+    /**
+     * Returns whether the rule applies at a given time.
+     *
+     * @param now the time, in milliseconds since the epoch
+     * @return true if the time is within the rule's period
+     */
+    public boolean isActiveAt(long now) {
+        return now >= startsAt && now < endsAt;
+    }
+
+    /**
+     * Returns the name shown to customers.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the kind of promotion.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the category of a category discount.
+     *
+     * @return the category, or null for other rules
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the items the rule applies to, in ID order.
+     *
+     * @return a copy of the appliance item IDs; empty for a category discount
+     */
+    public int[] getItemIds() {
+        return itemIds.clone();
+    }
+
+    /**
+     * Returns the percentage off of a discount.
+     *
+     * @return the percentage, or 0 for other rules
+     */
+    public int getPercent() {
+        return percent;
+    }
+
+    /**
+     * Returns the number of units bought together in a multi-buy.
+     *
+     * @return the quantity, or 0 for other rules
+     */
+    public int getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    /**
+     * Returns the number of units paid for in a multi-buy.
+     *
+     * @return the quantity, or 0 for other rules
+     */
+    public int getPayQuantity() {
+        return payQuantity;
+    }
+
+    /**
+     * Returns the price of a bundle.
+     *
+     * @return the price in pounds, or 0 for other rules
+     */
+    public int getBundlePrice() {
+        return bundlePrice;
+    }
+
+    /**
+     * Returns when the rule starts.
+     *
+     * @return the time in milliseconds since the epoch, 0 if it has always applied
+     */
+    public long getStartsAt() {
+        return startsAt;
+    }
+
+    /**
+     * Returns when the rule ends.
+     *
+     * @return the time in milliseconds since the epoch, {@link Long#MAX_VALUE} if it does not end
+     */
+    public long getEndsAt() {
+        return endsAt;
+    }
+
+    /**
+     * Returns a description of the rule.
+     *
+     * @return a string with the rule's ID, type and name
+     */
+    @Override
+    public String toString() {
+        return "PricingRule [id=" + id + ", type=" + type + ", name=" + name + "]";
+    }
+}
@@ -0,0 +1,195 @@
+package homeappliance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PricingRuleDAO is a Data Access Object (DAO) class that stores {@link PricingRule}s in the `pricingRule` table
+ * of the SQLite database. Adding or deleting a rule reloads the rules used to price baskets ({@link LivePricing}).
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class PricingRuleDAO {
+
+    /**
+     * Default constructor for PricingRuleDAO.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public PricingRuleDAO() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Establishes a connection to the SQLite database and creates the `pricingRule` table
+     * if it does not already exist.
+     *
+     * @return a Connection object to the SQLite database
+     */
+    private Connection connect() {
+        Connection conn = null;
+        try {
+            String url = "jdbc:sqlite:src/main/resources/appliance.sql";
+
+            conn = DriverManager.getConnection(url);
+            String table = "CREATE TABLE IF NOT EXISTS pricingRule (" +
+                           "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                           "name TEXT NOT NULL, " +
+                           "type TEXT NOT NULL, " +
+                           "category TEXT, " +
+                           "itemIds TEXT, " +
+                           "percent INTEGER, " +
+                           "buyQuantity INTEGER, " +
+                           "payQuantity INTEGER, " +
+                           "bundlePrice INTEGER, " +
+                           "startsAt INTEGER, " +
+                           "endsAt INTEGER)";
+            try (PreparedStatement preStatement = conn.prepareStatement(table)) {
+                preStatement.execute();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return conn;
+    }
+
+    /**
+     * Retrieves every pricing rule, including those outside their period. Rows that do not describe
+     * a valid rule are skipped.
+     *
+     * @return the rules in ID order, or null if an error occurs
+     */
+    public List<PricingRule> findAllRules() {
+        String query = "SELECT * FROM pricingRule ORDER BY id";
+        List<PricingRule> rules = new ArrayList<>();
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query);
+             ResultSet result = preStatement.executeQuery()) {
+            while (result.next()) {
+                try {
+                    rules.add(toRule(result));
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Skipping pricing rule " + result.getInt("id") + ": " + ex.getMessage());
+                }
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            // Not a partial list, which would look like deleted promotions
+            return null;
+        }
+        return rules;
+    }
+
+    /**
+     * Adds a pricing rule to the database and sets its generated ID.
+     *
+     * @param rule the rule to add
+     * @return true if the rule was added, false otherwise
+     */
+    public boolean addRule(PricingRule rule) {
+        String query = "INSERT INTO pricingRule (name, type, category, itemIds, percent, buyQuantity, payQuantity, " +
+                       "bundlePrice, startsAt, endsAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            preStatement.setString(1, rule.getName());
+            preStatement.setString(2, rule.getType().name());
+            preStatement.setString(3, rule.getCategory());
+            preStatement.setString(4, Arrays.stream(rule.getItemIds()).mapToObj(String::valueOf)
+                    .collect(Collectors.joining(",")));
+            preStatement.setInt(5, rule.getPercent());
+            preStatement.setInt(6, rule.getBuyQuantity());
+            preStatement.setInt(7, rule.getPayQuantity());
+            preStatement.setInt(8, rule.getBundlePrice());
+            preStatement.setLong(9, rule.getStartsAt());
+            if (rule.getEndsAt() == Long.MAX_VALUE) {
+                preStatement.setNull(10, Types.INTEGER);
+            } else {
+                preStatement.setLong(10, rule.getEndsAt());
+            }
+            if (preStatement.executeUpdate() > 0) {
+                try (ResultSet generatedKeys = preStatement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        rule.setId(generatedKeys.getInt(1));
+                    }
+                }
+                LivePricing.rulesChanged();
+                return true;
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a pricing rule by its ID.
+     *
+     * @param id the ID of the rule
+     * @return true if the rule was deleted, false otherwise
+     */
+    public boolean deleteRule(int id) {
+        String query = "DELETE FROM pricingRule WHERE id = ?";
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query)) {
+            preStatement.setInt(1, id);
+            if (preStatement.executeUpdate() > 0) {
+                LivePricing.rulesChanged();
+                return true;
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return false;
+    }
+
+    private static PricingRule toRule(ResultSet result) throws SQLException {
+        String name = result.getString("name");
+        int[] itemIds = parseIds(result.getString("itemIds"));
+        PricingRule rule;
+        switch (PricingRule.Type.valueOf(result.getString("type"))) {
+            case CATEGORY_DISCOUNT:
+                rule = PricingRule.categoryDiscount(name, result.getString("category"), result.getInt("percent"));
+                break;
+            case ITEM_DISCOUNT:
+                rule = PricingRule.itemDiscount(name, firstId(itemIds), result.getInt("percent"));
+                break;
+            case MULTI_BUY:
+                rule = PricingRule.multiBuy(name, firstId(itemIds), result.getInt("buyQuantity"),
+                        result.getInt("payQuantity"));
+                break;
+            default:
+                rule = PricingRule.bundle(name, itemIds, result.getInt("bundlePrice"));
+                break;
+        }
+        long startsAt = result.getLong("startsAt");
+        long endsAt = result.getLong("endsAt");
+        rule.activeBetween(startsAt, result.wasNull() ? Long.MAX_VALUE : endsAt);
+        rule.setId(result.getInt("id"));
+        return rule;
+    }
+
+    private static int[] parseIds(String ids) {
+        if (ids == null || ids.isBlank()) {
+            return new int[0];
+        }
+        return Arrays.stream(ids.split(",")).mapToInt(id -> Integer.parseInt(id.trim())).toArray();
+    }
+
+    private static int firstId(int[] itemIds) {
+        if (itemIds.length == 0) {
+            throw new IllegalArgumentException("The rule has no item");
+        }
+        return itemIds[0];
+    }
+}
@@ -0,0 +1,50 @@
+package homeappliance;
+
+/**
+ * One row of a product listing: a home appliance together with its appliance item
+ * (brand, model and warranty), if it has one.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class ProductListing {
+
+    private final HomeAppliance appliance;
+    private final ApplianceItem item;
+
+    /**
+     * Constructs a listing row.
+     *
+     * @param appliance the product
+     * @param item the product's appliance item, or null if it has none
+     */
+    public ProductListing(HomeAppliance appliance, ApplianceItem item) {
+        this.appliance = appliance;
+        this.item = item;
+    }
+
+    /**
+     * Returns the product.
+     *
+     * @return the HomeAppliance object
+     */
+    public HomeAppliance getAppliance() {
+        return appliance;
+    }
+
+    /**
+     * Returns the appliance item of the product.
+     *
+     * @return the ApplianceItem object, or null if the product has none
+     */
+    public ApplianceItem getItem() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return (item != null) ? item.toString() : appliance.toString();
+    }
+}
@@ -0,0 +1,314 @@
+package homeappliance;
+
+import java.util.Objects;
+
+/**
+ * A typed description of a product listing query: which products to include and in what order.
+ * It is passed to {@link HomeApplianceDAO#findProducts(ProductQuery)}, which turns it into a single
+ * parameterised SQL statement joining each product to its appliance item.
+ *
+ * Every criterion is optional and criteria are combined with AND, for example:
+ * {@code new ProductQuery().keyword("fridge").category("Kitchen").maxPrice(500).sortBy(ProductQuery.Sort.PRICE_ASC)}.
+ * Text values that are null or blank are treated as not set.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class ProductQuery {
+
+    /**
+     * The orders a product listing can be sorted in. Sorting by warranty only lists products
+     * that have an appliance item, as the products page always has.
+     */
+    public enum Sort {
+        /** Order in which products were added. */
+        DEFAULT,
+        /** Cheapest first. */
+        PRICE_ASC,
+        /** Most expensive first. */
+        PRICE_DESC,
+        /** Shortest warranty first. */
+        WARRANTY_ASC,
+        /** Longest warranty first. */
+        WARRANTY_DESC;
+
+        /**
+         * Looks up a sort order by the value used in the products page, for example "priceAsc".
+         *
+         * @param value the page value, may be null
+         * @return the sort order, or {@link #DEFAULT} if the value is not recognised
+         */
+        public static Sort fromParameter(String value) {
+            if (value == null) {
+                return DEFAULT;
+            }
+            switch (value) {
+                case "priceAsc":
+                    return PRICE_ASC;
+                case "priceDesc":
+                    return PRICE_DESC;
+                case "warrantyAsc":
+                    return WARRANTY_ASC;
+                case "warrantyDesc":
+                    return WARRANTY_DESC;
+                default:
+                    return DEFAULT;
+            }
+        }
+    }
+
+    private String keyword;
+    private String category;
+    private String description;
+    private String brand;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer minWarrantyYears;
+    private Integer maxWarrantyYears;
+    private Sort sort = Sort.DEFAULT;
+
+    /**
+     * Creates a query that matches every product in the default order.
+     */
+    public ProductQuery() {
+        // Every criterion starts unset
+    }
+
+    /**
+     * Restricts the query to products whose SKU, description or category contains the keyword.
+     *
+     * @param keyword the text to search for
+     * @return this query
+     */
+    public ProductQuery keyword(String keyword) {
+        this.keyword = blankToNull(keyword);
+        return this;
+    }
+
+    /**
+     * Restricts the query to a single category.
+     *
+     * @param category the exact category name
+     * @return this query
+     */
+    public ProductQuery category(String category) {
+        this.category = blankToNull(category);
+        return this;
+    }
+
+    /**
+     * Restricts the query to products whose description contains the given text.
+     *
+     * @param description the text to look for in the description
+     * @return this query
+     */
+    public ProductQuery description(String description) {
+        this.description = blankToNull(description);
+        return this;
+    }
+
+    /**
+     * Restricts the query to products of a brand (ignoring case).
+     *
+     * @param brand the brand name
+     * @return this query
+     */
+    public ProductQuery brand(String brand) {
+        this.brand = blankToNull(brand);
+        return this;
+    }
+
+    /**
+     * Restricts the query to products costing at least the given price.
+     *
+     * @param minPrice the lowest price in pounds, or null for no lower bound
+     * @return this query
+     */
+    public ProductQuery minPrice(Integer minPrice) {
+        this.minPrice = minPrice;
+        return this;
+    }
+
+    /**
+     * Restricts the query to products costing at most the given price.
+     *
+     * @param maxPrice the highest price in pounds, or null for no upper bound
+     * @return this query
+     */
+    public ProductQuery maxPrice(Integer maxPrice) {
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    /**
+     * Restricts the query to products with at least the given warranty.
+     *
+     * @param minWarrantyYears the shortest warranty in years, or null for no lower bound
+     * @return this query
+     */
+    public ProductQuery minWarrantyYears(Integer minWarrantyYears) {
+        this.minWarrantyYears = minWarrantyYears;
+        return this;
+    }
+
+    /**
+     * Restricts the query to products with at most the given warranty.
+     *
+     * @param maxWarrantyYears the longest warranty in years, or null for no upper bound
+     * @return this query
+     */
+    public ProductQuery maxWarrantyYears(Integer maxWarrantyYears) {
+        this.maxWarrantyYears = maxWarrantyYears;
+        return this;
+    }
+
+    /**
+     * Sets the order of the results.
+     *
+     * @param sort the sort order, null for the default order
+     * @return this query
+     */
+    public ProductQuery sortBy(Sort sort) {
+        this.sort = (sort == null) ? Sort.DEFAULT : sort;
+        return this;
+    }
+
+    /**
+     * Returns the keyword.
+     *
+     * @return the keyword, or null if not set
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the category.
+     *
+     * @return the category, or null if not set
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the description text.
+     *
+     * @return the description text, or null if not set
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the brand.
+     *
+     * @return the brand, or null if not set
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    /**
+     * Returns the lowest price.
+     *
+     * @return the lowest price, or null if not set
+     */
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Returns the highest price.
+     *
+     * @return the highest price, or null if not set
+     */
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Returns the shortest warranty.
+     *
+     * @return the shortest warranty in years, or null if not set
+     */
+    public Integer getMinWarrantyYears() {
+        return minWarrantyYears;
+    }
+
+    /**
+     * Returns the longest warranty.
+     *
+     * @return the longest warranty in years, or null if not set
+     */
+    public Integer getMaxWarrantyYears() {
+        return maxWarrantyYears;
+    }
+
+    /**
+     * Returns the sort order.
+     *
+     * @return the sort order
+     */
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * Returns a number identifying which criteria are set and the sort order. Queries with the same
+     * shape produce the same SQL text and differ only in their parameter values.
+     *
+     * @return the shape of this query
+     */
+    public int shape() {
+        int shape = 0;
+        shape |= (keyword != null) ? 1 : 0;
+        shape |= (category != null) ? 1 << 1 : 0;
+        shape |= (description != null) ? 1 << 2 : 0;
+        shape |= (brand != null) ? 1 << 3 : 0;
+        shape |= (minPrice != null) ? 1 << 4 : 0;
+        shape |= (maxPrice != null) ? 1 << 5 : 0;
+        shape |= (minWarrantyYears != null) ? 1 << 6 : 0;
+        shape |= (maxWarrantyYears != null) ? 1 << 7 : 0;
+        return shape | (sort.ordinal() << 8);
+    }
+
+    /**
+     * Returns a copy of this query, which later changes to this query do not affect.
+     *
+     * @return the copy
+     */
+    public ProductQuery copy() {
+        return new ProductQuery().keyword(keyword).category(category).description(description).brand(brand)
+                .minPrice(minPrice).maxPrice(maxPrice).minWarrantyYears(minWarrantyYears)
+                .maxWarrantyYears(maxWarrantyYears).sortBy(sort);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ProductQuery)) {
+            return false;
+        }
+        ProductQuery other = (ProductQuery) obj;
+        return Objects.equals(keyword, other.keyword) && Objects.equals(category, other.category)
+                && Objects.equals(description, other.description) && Objects.equals(brand, other.brand)
+                && Objects.equals(minPrice, other.minPrice) && Objects.equals(maxPrice, other.maxPrice)
+                && Objects.equals(minWarrantyYears, other.minWarrantyYears)
+                && Objects.equals(maxWarrantyYears, other.maxWarrantyYears) && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyword, category, description, brand, minPrice, maxPrice, minWarrantyYears,
+                maxWarrantyYears, sort);
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+    }
+}
@@ -0,0 +1,322 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A compressed prefix tree (radix trie) from string keys to scored values, used by the {@link SuggestionIndex}.
+ *
+ * Chains of single-child nodes are merged into one edge labelled with the whole substring, so the
+ * number of nodes grows with the number of keys rather than their total length. Every node also
+ * records the best score below it. Finding the highest scoring values under a prefix is then a
+ * best-first walk that only visits as many nodes as it needs, however many keys share the prefix.
+ *
+ * Instances are not thread-safe; the suggestion index guards them with its own lock.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+final class RadixTrie<V> {
+
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private static final class Node<V> {
+        private String label;
+        private Node<V>[] children = noChildren();
+        private int childCount;
+        private String key;
+        private V value;
+        private int score;
+        private int best = Integer.MIN_VALUE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] noChildren() {
+            return (Node<V>[]) NO_CHILDREN;
+        }
+    }
+
+    private final Node<V> root = new Node<>("");
+    private int size;
+
+    /**
+     * Returns the number of keys in the trie.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value stored under a key.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not in the trie
+     */
+    V get(String key) {
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            Node<V> child = child(node, key.charAt(offset));
+            if (child == null || !key.startsWith(child.label, offset)) {
+                return null;
+            }
+            offset += child.label.length();
+            node = child;
+        }
+        return node.value;
+    }
+
+    /**
+     * Stores a value and its score under a key, replacing any value already stored there.
+     *
+     * @param key the key
+     * @param value the value, which must not be null
+     * @param score the score used to rank the value in {@link #top(String, int)}
+     */
+    void put(String key, V value, int score) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int offset = 0;
+        while (true) {
+            path.add(node);
+            if (offset == key.length()) {
+                break;
+            }
+            Node<V> child = child(node, key.charAt(offset));
+            if (child == null) {
+                Node<V> leaf = new Node<>(key.substring(offset));
+                addChild(node, leaf);
+                path.add(leaf);
+                node = leaf;
+                break;
+            }
+            int common = commonPrefix(child.label, key, offset);
+            if (common < child.label.length()) {
+                // Split the edge where the new key leaves it
+                Node<V> middle = new Node<>(child.label.substring(0, common));
+                replaceChild(node, middle);
+                child.label = child.label.substring(common);
+                addChild(middle, child);
+                recompute(middle);
+                child = middle;
+            }
+            node = child;
+            offset += common;
+        }
+        if (node.value == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+        node.score = score;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            recompute(path.get(i));
+        }
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key the key
+     * @return true if the key was in the trie
+     */
+    boolean remove(String key) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int offset = 0;
+        path.add(node);
+        while (offset < key.length()) {
+            Node<V> child = child(node, key.charAt(offset));
+            if (child == null || !key.startsWith(child.label, offset)) {
+                return false;
+            }
+            offset += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        if (node.value == null) {
+            return false;
+        }
+        node.key = null;
+        node.value = null;
+        size--;
+
+        // Keep the trie compressed: drop empty leaves and merge nodes left with a single child
+        if (node != root && node.childCount == 0) {
+            Node<V> parent = path.get(path.size() - 2);
+            removeChild(parent, node);
+            if (parent != root && parent.value == null && parent.childCount == 1) {
+                merge(parent);
+            }
+        } else if (node != root && node.childCount == 1) {
+            merge(node);
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            recompute(path.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the highest scoring values whose keys start with a prefix, best first.
+     * A value stored under several matching keys is returned once, at its best score.
+     *
+     * @param prefix the prefix of the keys
+     * @param limit the maximum number of values to return
+     * @return the values, best first
+     */
+    List<V> top(String prefix, int limit) {
+        List<V> results = new ArrayList<>(limit);
+        Node<V> start = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node<V> child = child(start, prefix.charAt(offset));
+            if (child == null) {
+                return results;
+            }
+            int common = commonPrefix(child.label, prefix, offset);
+            if (common < child.label.length() && offset + common < prefix.length()) {
+                return results;
+            }
+            offset += common;
+            start = child;
+        }
+        if (start.best == Integer.MIN_VALUE || limit <= 0) {
+            return results;
+        }
+
+        // Nodes are queued by the best score below them and values by their own score,
+        // so a value is only taken once nothing left in the queue can beat it
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>();
+        queue.add(new Candidate<>(start, null, start.best, ""));
+        Set<V> seen = new HashSet<>();
+        while (!queue.isEmpty() && results.size() < limit) {
+            Candidate<V> next = queue.poll();
+            if (next.node == null) {
+                if (seen.add(next.value)) {
+                    results.add(next.value);
+                }
+                continue;
+            }
+            Node<V> node = next.node;
+            if (node.value != null) {
+                queue.add(new Candidate<>(null, node.value, node.score, node.key));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                Node<V> child = node.children[i];
+                queue.add(new Candidate<>(child, null, child.best, child.label));
+            }
+        }
+        return results;
+    }
+
+    private static final class Candidate<V> implements Comparable<Candidate<V>> {
+        private final Node<V> node;
+        private final V value;
+        private final int score;
+        private final String order;
+
+        private Candidate(Node<V> node, V value, int score, String order) {
+            this.node = node;
+            this.value = value;
+            this.score = score;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            int byScore = Integer.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            // Take values before expanding nodes of the same score: nothing below the node can beat them,
+            // and with many equal scores expanding first would walk the whole subtree
+            if ((node == null) != (other.node == null)) {
+                return (node == null) ? -1 : 1;
+            }
+            return order.compareTo(other.order);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static <V> void recompute(Node<V> node) {
+        int best = (node.value != null) ? node.score : Integer.MIN_VALUE;
+        for (int i = 0; i < node.childCount; i++) {
+            best = Math.max(best, node.children[i].best);
+        }
+        node.best = best;
+    }
+
+    /** Joins a valueless node with its only child. */
+    private static <V> void merge(Node<V> node) {
+        Node<V> child = node.children[0];
+        node.label = node.label + child.label;
+        node.children = child.children;
+        node.childCount = child.childCount;
+        node.key = child.key;
+        node.value = child.value;
+        node.score = child.score;
+        node.best = child.best;
+    }
+
+    private static <V> int indexOf(Node<V> node, char first) {
+        int low = 0;
+        int high = node.childCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char c = node.children[middle].label.charAt(0);
+            if (c < first) {
+                low = middle + 1;
+            } else if (c > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static <V> Node<V> child(Node<V> node, char first) {
+        int index = indexOf(node, first);
+        return (index >= 0) ? node.children[index] : null;
+    }
+
+    private static <V> void addChild(Node<V> node, Node<V> child) {
+        int index = -indexOf(node, child.label.charAt(0)) - 1;
+        if (node.childCount == node.children.length) {
+            node.children = Arrays.copyOf(node.children, Math.max(2, node.childCount * 2));
+        }
+        System.arraycopy(node.children, index, node.children, index + 1, node.childCount - index);
+        node.children[index] = child;
+        node.childCount++;
+    }
+
+    private static <V> void replaceChild(Node<V> node, Node<V> child) {
+        node.children[indexOf(node, child.label.charAt(0))] = child;
+    }
+
+    private static <V> void removeChild(Node<V> node, Node<V> child) {
+        int index = indexOf(node, child.label.charAt(0));
+        System.arraycopy(node.children, index + 1, node.children, index, node.childCount - index - 1);
+        node.children[--node.childCount] = null;
+    }
+}
@@ -0,0 +1,107 @@
+package homeappliance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * StockDAO is a Data Access Object (DAO) class that keeps the number of units in stock of each appliance item
+ * in the `stock` table of the SQLite database. Items without a row are not stock-tracked and can always be ordered.
+ * Levels are changed in memory by {@link StockLevels} and written here in batches.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class StockDAO implements StockStorage {
+
+    /**
+     * Default constructor for StockDAO.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public StockDAO() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Establishes a connection to the SQLite database and creates the `stock` table
+     * if it does not already exist.
+     *
+     * @return a Connection object to the SQLite database
+     */
+    private Connection connect() {
+        Connection conn = null;
+        try {
+            String url = "jdbc:sqlite:src/main/resources/appliance.sql";
+
+            conn = DriverManager.getConnection(url);
+            String table = "CREATE TABLE IF NOT EXISTS stock (" +
+                           "applianceItemId INTEGER PRIMARY KEY, " +
+                           "quantity INTEGER NOT NULL, " +
+                           "FOREIGN KEY (applianceItemId) REFERENCES applianceItem(id) ON DELETE CASCADE)";
+            try (PreparedStatement preStatement = conn.prepareStatement(table)) {
+                preStatement.execute();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return conn;
+    }
+
+    /**
+     * Loads the number of units of an item in stock.
+     *
+     * @param itemId the appliance item ID
+     * @return the quantity in stock, {@link StockLevels#UNTRACKED} if the item has no stock row,
+     *         or {@link StockLevels#UNAVAILABLE} if an error occurs
+     */
+    @Override
+    public int load(int itemId) {
+        String query = "SELECT quantity FROM stock WHERE applianceItemId = ?";
+        try (Connection conn = this.connect();
+             PreparedStatement preStatement = conn.prepareStatement(query)) {
+            preStatement.setInt(1, itemId);
+            try (ResultSet result = preStatement.executeQuery()) {
+                return result.next() ? result.getInt("quantity") : StockLevels.UNTRACKED;
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            // Not the same as no stock row: the item may be tracked
+            return StockLevels.UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Saves the stock level of several items in one transaction, adding rows for newly tracked items.
+     *
+     * @param quantities the quantity in stock, keyed by appliance item ID
+     * @return true if every level was saved, false otherwise
+     */
+    @Override
+    public boolean save(Map<Integer, Integer> quantities) {
+        String query = "INSERT OR REPLACE INTO stock (applianceItemId, quantity) VALUES (?, ?)";
+        try (Connection conn = this.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement preStatement = conn.prepareStatement(query)) {
+                for (Map.Entry<Integer, Integer> level : quantities.entrySet()) {
+                    preStatement.setInt(1, level.getKey());
+                    preStatement.setInt(2, level.getValue());
+                    preStatement.addBatch();
+                }
+                preStatement.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,386 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.Metrics;
+
+/**
+ * Tracks the stock of each appliance item in memory and reserves it for customers' baskets, so that
+ * checkouts cannot sell more units than there are.
+ *
+ * Adding an item to a basket reserves a unit, which is held for the reservation time and then returns to
+ * stock unless the basket is checked out. Checking out turns the basket's reservations into sales, reserving
+ * again whatever has expired meanwhile; if any item is short, nothing is sold. Each item's counts are updated
+ * with compare-and-set rather than a lock, so checkouts of the same item never queue behind each other.
+ * Items without a stock level are not tracked and can always be ordered. If an item's level cannot be read,
+ * nothing is remembered about it and the call throws an {@link UnavailableException}, so the item is neither
+ * sold unlimited nor refused for good; the level is read again next time.
+ *
+ * Stock levels are loaded from the {@link StockStorage} on first use and written back in batches at a fixed
+ * interval, so a busy item costs one write per interval rather than one per sale. Reservations are only held in
+ * memory, so a restart releases them. Reservations, rejected reservations, expired reservations, units sold and
+ * batch writes are counted in the {@code stock.reservations}, {@code stock.rejections}, {@code stock.expired},
+ * {@code stock.sold}, {@code stock.flushes} and {@code stock.flush_failures} metrics, and levels that could not
+ * be read in {@code stock.load_failures}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class StockLevels {
+
+    /** The stock level of an item whose stock is not tracked. */
+    public static final int UNTRACKED = -1;
+
+    /** Returned by {@link StockStorage#load(int)} when the stock level could not be read. */
+    public static final int UNAVAILABLE = -2;
+
+    private static volatile StockLevels levels;
+
+    private final StockStorage storage;
+    private final long reservationNanos;
+    private final Map<Integer, Level> items = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Set<Integer> unsaved = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder reserved = Metrics.counter("stock.reservations");
+    private final LongAdder rejections = Metrics.counter("stock.rejections");
+    private final LongAdder expired = Metrics.counter("stock.expired");
+    private final LongAdder sold = Metrics.counter("stock.sold");
+    private final LongAdder flushes = Metrics.counter("stock.flushes");
+    private final LongAdder flushFailures = Metrics.counter("stock.flush_failures");
+    private final LongAdder loadFailures = Metrics.counter("stock.load_failures");
+
+    /**
+     * The counts of one item. Units in stock include reserved units; available units are neither sold nor reserved.
+     */
+    private static final class Level {
+        final AtomicInteger inStock;
+        final AtomicInteger available;
+
+        Level(int quantity) {
+            this.inStock = new AtomicInteger(quantity);
+            this.available = new AtomicInteger(quantity);
+        }
+    }
+
+    /** Shared by every item that is not tracked. */
+    private static final Level NOT_TRACKED = new Level(UNTRACKED);
+
+    /**
+     * Thrown when the stock level of an item cannot be read, so it is not known whether the item can be sold.
+     */
+    public static final class UnavailableException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnavailableException(int itemId) {
+            super("The stock level of item " + itemId + " could not be read");
+        }
+    }
+
+    /**
+     * Units of one item held for one customer until a deadline. Replaced rather than changed.
+     */
+    private static final class Reservation {
+        final int quantity;
+        final long expiresAt;
+
+        Reservation(int quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Creates stock levels that are loaded from and saved to the given storage.
+     *
+     * @param storage loads and saves stock levels
+     * @param reservationMillis how long a reservation is held
+     * @param flushMillis how often changed stock levels are saved
+     */
+    public StockLevels(StockStorage storage, long reservationMillis, long flushMillis) {
+        this.storage = storage;
+        this.reservationNanos = TimeUnit.MILLISECONDS.toNanos(reservationMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-levels");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        long sweepMillis = Math.max(1, Math.min(reservationMillis, TimeUnit.SECONDS.toMillis(10)));
+        scheduler.scheduleWithFixedDelay(this::expire, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the stock levels kept in the database, creating them on first use. Reservations are held for
+     * {@code stock.reservationMinutes} (15 minutes by default) and changed levels are saved every
+     * {@code stock.flushMillis} (half a second).
+     *
+     * @return the shared stock levels
+     */
+    public static StockLevels shared() {
+        StockLevels shared = levels;
+        if (shared == null) {
+            synchronized (StockLevels.class) {
+                shared = levels;
+                if (shared == null) {
+                    shared = new StockLevels(new StockDAO(),
+                            TimeUnit.MINUTES.toMillis(Long.getLong("stock.reservationMinutes", 15)),
+                            Long.getLong("stock.flushMillis", 500));
+                    levels = shared;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Reserves units of an item for a customer, extending the customer's existing reservation of that item.
+     *
+     * @param userId the customer's user ID
+     * @param itemId the appliance item ID
+     * @param quantity the number of units
+     * @return true if the units were reserved or the item is not tracked, false if there are not enough available
+     * @throws UnavailableException if the item's stock level cannot be read
+     */
+    public boolean reserve(int userId, int itemId, int quantity) {
+        Level level = level(itemId);
+        if (level == NOT_TRACKED) {
+            return true;
+        }
+        if (!take(level.available, quantity)) {
+            rejections.increment();
+            return false;
+        }
+        hold(userId, itemId, quantity);
+        reserved.increment();
+        return true;
+    }
+
+    /**
+     * Releases units a customer has reserved, for example when they are removed from the basket.
+     *
+     * @param userId the customer's user ID
+     * @param itemId the appliance item ID
+     * @param quantity the number of units; no more than are reserved are released
+     */
+    public void release(int userId, int itemId, int quantity) {
+        Level level = items.get(itemId);
+        if (level == null || level == NOT_TRACKED) {
+            return;
+        }
+        int[] released = new int[1];
+        reservations.computeIfPresent(key(userId, itemId), (key, old) -> {
+            released[0] = Math.min(quantity, old.quantity);
+            return (old.quantity > released[0]) ? new Reservation(old.quantity - released[0], old.expiresAt) : null;
+        });
+        level.available.addAndGet(released[0]);
+    }
+
+    /**
+     * Sells the lines of a customer's basket, using the customer's reservations and reserving again whatever is
+     * not reserved any more. Either every line is sold or none is, in which case the reservations are kept.
+     *
+     * @param userId the customer's user ID
+     * @param lines the lines being ordered
+     * @return true if every line was sold, false if an item does not have enough units available
+     * @throws UnavailableException if an item's stock level cannot be read, in which case nothing is sold
+     */
+    public boolean commit(int userId, List<Basket.Line> lines) {
+        // Read every level before taking anything, so a failed read leaves nothing to undo
+        for (Basket.Line line : lines) {
+            level(line.getItemId());
+        }
+        List<Basket.Line> taken = new ArrayList<>();
+        for (Basket.Line line : lines) {
+            Level level = level(line.getItemId());
+            if (level == NOT_TRACKED) {
+                continue;
+            }
+            Reservation reservation = reservations.remove(key(userId, line.getItemId()));
+            int held = (reservation != null) ? reservation.quantity : 0;
+            int needed = line.getQuantity() - held;
+            if (needed > 0 && !take(level.available, needed)) {
+                rejections.increment();
+                if (held > 0) {
+                    hold(userId, line.getItemId(), held);
+                }
+                for (Basket.Line undone : taken) {
+                    hold(userId, undone.getItemId(), undone.getQuantity());
+                }
+                return false;
+            }
+            if (needed < 0) {
+                // More was reserved than is being ordered
+                level.available.addAndGet(-needed);
+            }
+            taken.add(line);
+        }
+        for (Basket.Line line : taken) {
+            items.get(line.getItemId()).inStock.addAndGet(-line.getQuantity());
+            unsaved.add(line.getItemId());
+            sold.add(line.getQuantity());
+        }
+        return true;
+    }
+
+    /**
+     * Puts the units of committed lines back in stock, for example when the order could not be saved.
+     *
+     * @param lines lines previously passed to {@link #commit(int, List)}
+     */
+    public void cancel(List<Basket.Line> lines) {
+        for (Basket.Line line : lines) {
+            Level level = items.get(line.getItemId());
+            if (level != null && level != NOT_TRACKED) {
+                level.inStock.addAndGet(line.getQuantity());
+                level.available.addAndGet(line.getQuantity());
+                unsaved.add(line.getItemId());
+                sold.add(-line.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Sets the number of units of an item in stock, starting to track it if it was not tracked.
+     * Units already reserved stay reserved.
+     *
+     * @param itemId the appliance item ID
+     * @param quantity the number of units in stock
+     * @throws UnavailableException if the item's current stock level cannot be read
+     */
+    public void setStock(int itemId, int quantity) {
+        Level level = level(itemId);
+        if (level == NOT_TRACKED) {
+            items.replace(itemId, NOT_TRACKED, new Level(quantity));
+            level = items.get(itemId);
+        }
+        int previous = level.inStock.getAndSet(quantity);
+        if (previous != quantity) {
+            level.available.addAndGet(quantity - previous);
+        }
+        unsaved.add(itemId);
+    }
+
+    /**
+     * Returns the number of units of an item that are neither sold nor reserved.
+     *
+     * @param itemId the appliance item ID
+     * @return the available units, or {@link #UNTRACKED} if the item is not tracked
+     * @throws UnavailableException if the item's stock level cannot be read
+     */
+    public int available(int itemId) {
+        Level level = level(itemId);
+        return (level == NOT_TRACKED) ? UNTRACKED : level.available.get();
+    }
+
+    /**
+     * Returns the number of units of an item in stock, including reserved units.
+     *
+     * @param itemId the appliance item ID
+     * @return the units in stock, or {@link #UNTRACKED} if the item is not tracked
+     * @throws UnavailableException if the item's stock level cannot be read
+     */
+    public int inStock(int itemId) {
+        Level level = level(itemId);
+        return (level == NOT_TRACKED) ? UNTRACKED : level.inStock.get();
+    }
+
+    /**
+     * Releases every reservation that has passed its deadline. Runs in the background.
+     */
+    public void expire() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Reservation> entry : reservations.entrySet()) {
+            Reservation reservation = entry.getValue();
+            if (now - reservation.expiresAt >= 0 && reservations.remove(entry.getKey(), reservation)) {
+                items.get(itemOf(entry.getKey())).available.addAndGet(reservation.quantity);
+                expired.add(reservation.quantity);
+            }
+        }
+    }
+
+    /**
+     * Saves every changed stock level in one batch. Runs in the background at a fixed interval.
+     */
+    public synchronized void flush() {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> batch = new HashMap<>();
+        for (Integer itemId : new ArrayList<>(unsaved)) {
+            // Removed before the level is read, so a later change is saved by the next batch
+            unsaved.remove(itemId);
+            batch.put(itemId, items.get(itemId).inStock.get());
+        }
+        if (storage.save(batch)) {
+            flushes.increment();
+        } else {
+            flushFailures.increment();
+            unsaved.addAll(batch.keySet());
+        }
+    }
+
+    /**
+     * Saves any changed stock levels and stops the background work.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private Level level(int itemId) {
+        Level level = items.computeIfAbsent(itemId, id -> {
+            int quantity = storage.load(id);
+            if (quantity == UNAVAILABLE) {
+                // Nothing is cached, so the next call reads the level again
+                loadFailures.increment();
+                return null;
+            }
+            return (quantity == UNTRACKED) ? NOT_TRACKED : new Level(quantity);
+        });
+        if (level == null) {
+            throw new UnavailableException(itemId);
+        }
+        return level;
+    }
+
+    private void hold(int userId, int itemId, int quantity) {
+        reservations.merge(key(userId, itemId), new Reservation(quantity, System.nanoTime() + reservationNanos),
+                (old, added) -> new Reservation(old.quantity + added.quantity, added.expiresAt));
+    }
+
+    /**
+     * Takes units from a count unless fewer are left, retrying when another thread changed the count first.
+     */
+    private static boolean take(AtomicInteger count, int quantity) {
+        int current;
+        do {
+            current = count.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!count.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private static long key(int userId, int itemId) {
+        return ((long) userId << 32) | (itemId & 0xFFFFFFFFL);
+    }
+
+    private static int itemOf(long key) {
+        return (int) key;
+    }
+}
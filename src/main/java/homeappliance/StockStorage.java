@@ -0,0 +1,32 @@
+package homeappliance;
+
+import java.util.Map;
+
+/**
+ * Loads and saves the stock level of each appliance item for {@link StockLevels}.
+ * The server uses {@link StockDAO}; tests supply their own storage.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public interface StockStorage {
+
+    /**
+     * Loads the number of units of an item in stock.
+     *
+     * @param itemId the appliance item ID
+     * @return the quantity in stock, {@link StockLevels#UNTRACKED} if the item's stock is not tracked,
+     *         or {@link StockLevels#UNAVAILABLE} if the level could not be read
+     */
+    int load(int itemId);
+
+    /**
+     * Saves the stock level of several items together.
+     *
+     * @param quantities the quantity in stock, keyed by appliance item ID
+     * @return true if every level was saved, false otherwise
+     */
+    boolean save(Map<Integer, Integer> quantities);
+}
@@ -0,0 +1,286 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-memory typeahead index over the product catalogue, used by the {@code /suggest} endpoint.
+ *
+ * Each product contributes its SKU, description, brand and model as suggestions. A suggestion is
+ * stored in a {@link RadixTrie} under its normalised text and under the text from each later word on,
+ * so typing "free" also suggests "Fridge Freezer". Suggestions are ranked by popularity: the number
+ * of products they describe plus the number of searches made for them.
+ *
+ * Searches are counted without any lock, so recording one never waits for (or holds up) a lookup, and
+ * the counts are folded into the trie by {@link #foldSearches()}; the shared index does that in the
+ * background every {@code suggest.foldSeconds} seconds (5 by default). At most
+ * {@code suggest.maxPendingSearches} distinct texts (10,000) are counted between folds.
+ *
+ * Like the {@link FacetIndex}, the index loads the catalogue on first use and then re-loads only the
+ * products named by {@link CatalogueEvents} on the next read.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class SuggestionIndex extends CatalogueIndex {
+
+    /** The most word positions a suggestion is stored under, which bounds the size of long descriptions. */
+    static final int MAX_WORD_STARTS = 8;
+
+    /** Separates the matched text from the suggestion in trie keys, so that equal texts of different suggestions do not collide. */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final long FOLD_SECONDS = Long.getLong("suggest.foldSeconds", 5);
+    private static final int MAX_PENDING_SEARCHES = Integer.getInteger("suggest.maxPendingSearches", 10_000);
+
+    private static volatile SuggestionIndex catalogue;
+
+    /**
+     * A suggestion and its popularity.
+     */
+    private static final class Suggestion {
+        private final String text;
+        private final String key;
+        private int products;
+        private int searches;
+
+        private Suggestion(String text, String key) {
+            this.text = text;
+            this.key = key;
+        }
+
+        private int popularity() {
+            return products + searches;
+        }
+    }
+
+    // Guarded by lock
+    private final RadixTrie<Suggestion> trie = new RadixTrie<>();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Integer, List<Suggestion>> productSuggestions = new HashMap<>();
+
+    /** Searches recorded since the last fold, by normalised text. */
+    private final Map<String, LongAdder> pendingSearches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index that loads products from the given source.
+     * The index only follows catalogue writes once it is registered with {@link CatalogueEvents#addListener}.
+     *
+     * @param source loads catalogue rows
+     */
+    public SuggestionIndex(CatalogueSource source) {
+        super(source);
+    }
+
+    /**
+     * Returns the index over the catalogue in the database, creating it and registering it for
+     * catalogue writes on first use. It is shared by every page with a search box.
+     *
+     * @return the shared index
+     */
+    public static SuggestionIndex catalogue() {
+        SuggestionIndex index = catalogue;
+        if (index == null) {
+            synchronized (SuggestionIndex.class) {
+                index = catalogue;
+                if (index == null) {
+                    index = new SuggestionIndex(CatalogueSource.shared());
+                    CatalogueEvents.addListener(index);
+                    ScheduledExecutorService folder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "suggestion-searches");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    folder.scheduleWithFixedDelay(index::foldSearches, FOLD_SECONDS, FOLD_SECONDS, TimeUnit.SECONDS);
+                    catalogue = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the most popular suggestions containing a word that starts with the given text (ignoring case).
+     *
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, most popular first; empty if the prefix is blank
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalised = normalise(prefix);
+        if (normalised.isEmpty() || normalised.indexOf(KEY_SEPARATOR) >= 0) {
+            return Collections.emptyList();
+        }
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            List<String> texts = new ArrayList<>(limit);
+            for (Suggestion suggestion : trie.top(normalised, limit)) {
+                texts.add(suggestion.text);
+            }
+            return texts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a search was made. The popularity of the suggestion with the same text is raised
+     * by the next {@link #foldSearches()}.
+     *
+     * @param query the submitted search text
+     */
+    public void recordSearch(String query) {
+        String key = normalise(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        LongAdder count = pendingSearches.get(key);
+        if (count == null) {
+            if (pendingSearches.size() >= MAX_PENDING_SEARCHES) {
+                // A flood of one-off searches must not grow the map without bound
+                return;
+            }
+            count = pendingSearches.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Adds the searches recorded since the last fold to the popularity of the matching suggestions.
+     * Searches that do not match a suggestion are dropped, so the index only ever holds catalogue text.
+     */
+    void foldSearches() {
+        if (pendingSearches.isEmpty()) {
+            return;
+        }
+        ensureCurrent();
+        lock.writeLock().lock();
+        try {
+            for (Iterator<Map.Entry<String, LongAdder>> entries = pendingSearches.entrySet().iterator(); entries.hasNext();) {
+                Map.Entry<String, LongAdder> entry = entries.next();
+                entries.remove();
+                Suggestion suggestion = suggestions.get(entry.getKey());
+                if (suggestion != null) {
+                    suggestion.searches = (int) Math.min(Integer.MAX_VALUE, suggestion.searches + entry.getValue().sum());
+                    store(suggestion);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct suggestions in the index.
+     *
+     * @return the number of suggestions
+     */
+    public int size() {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            return suggestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalises text for matching: lower case, with runs of whitespace replaced by a single space.
+     *
+     * @param text the text, may be null
+     * @return the normalised text
+     */
+    static String normalise(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    void add(ProductListing listing) {
+        HomeAppliance appliance = listing.getAppliance();
+        ApplianceItem item = listing.getItem();
+        List<String> texts = new ArrayList<>(4);
+        texts.add(appliance.getSku());
+        texts.add(appliance.getDescription());
+        if (item != null) {
+            texts.add(item.getBrand());
+            texts.add(item.getModel());
+        }
+
+        List<Suggestion> added = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String key = normalise(text);
+            if (key.isEmpty() || key.indexOf(KEY_SEPARATOR) >= 0) {
+                continue;
+            }
+            Suggestion suggestion = suggestions.computeIfAbsent(key, k -> new Suggestion(text.trim(), k));
+            if (added.contains(suggestion)) {
+                continue;
+            }
+            suggestion.products++;
+            store(suggestion);
+            added.add(suggestion);
+        }
+        productSuggestions.put(appliance.getId(), added);
+    }
+
+    @Override
+    void remove(int productId) {
+        List<Suggestion> removed = productSuggestions.remove(productId);
+        if (removed == null) {
+            return;
+        }
+        for (Suggestion suggestion : removed) {
+            suggestion.products--;
+            if (suggestion.products == 0) {
+                // Searches alone do not keep a suggestion for a product that no longer exists
+                suggestions.remove(suggestion.key);
+                for (String key : trieKeys(suggestion)) {
+                    trie.remove(key);
+                }
+            } else {
+                store(suggestion);
+            }
+        }
+    }
+
+    /**
+     * Stores a suggestion in the trie under each of its keys with its current popularity.
+     */
+    private void store(Suggestion suggestion) {
+        for (String key : trieKeys(suggestion)) {
+            trie.put(key, suggestion, suggestion.popularity());
+        }
+    }
+
+    /**
+     * Returns the trie keys of a suggestion: its text from the start of each word, up to {@link #MAX_WORD_STARTS}.
+     */
+    private static List<String> trieKeys(Suggestion suggestion) {
+        List<String> keys = new ArrayList<>();
+        String key = suggestion.key;
+        int start = 0;
+        while (start >= 0 && keys.size() < MAX_WORD_STARTS) {
+            keys.add(key.substring(start) + KEY_SEPARATOR + key);
+            int space = key.indexOf(' ', start);
+            start = (space < 0) ? -1 : space + 1;
+        }
+        return keys;
+    }
+}
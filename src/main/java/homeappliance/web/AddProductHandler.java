@@ -46,18 +46,8 @@ public class AddProductHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs during the response generation.
      */
     public void handle(HttpExchange he) throws IOException {
-    	
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+    	LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-        
         // Fetch all product categories from the database
         HomeApplianceDAO dao = new HomeApplianceDAO();
         List<String> categories = dao.findAllCategories();
@@ -73,7 +63,7 @@ public class AddProductHandler implements HttpHandler {
             "    <meta charset='UTF-8'>" +
             "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
             "    <title>Add New Product</title>" +
-            "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' crossorigin='anonymous'>" +
+            "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
             "</head>" +
             "<body>" +
             "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -159,27 +149,6 @@ public class AddProductHandler implements HttpHandler {
 
         out.close();
     }
-    
-    /**
-     * Extracts the session ID from the "Cookie" header of the HTTP request.
-     * 
-     * @param exchange the HttpExchange object representing the HTTP request.
-     * @return the session ID as a string, or null if no session ID is found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
 }
 
 
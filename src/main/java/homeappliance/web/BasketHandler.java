@@ -1,14 +1,10 @@
 package homeappliance.web;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.sun.net.httpserver.HttpExchange;
@@ -17,6 +13,9 @@ import com.sun.net.httpserver.HttpHandler;
 import homeappliance.ApplianceItem;
 import homeappliance.ApplianceItemDAO;
 import homeappliance.Basket;
+import homeappliance.LivePricing;
+import homeappliance.PricingPlan;
+import homeappliance.StockLevels;
 import login.web.LoginSessionManager;
 import users.Order;
 import users.OrderDAO;
@@ -28,6 +27,10 @@ import users.UsersDAO;
  * facilitates the checkout process by placing an order and clearing the 
  * basket upon successful checkout.
  * 
+ * Stock is reserved through {@link StockLevels} when an item is added and sold
+ * at checkout, so items that are out of stock cannot be added or ordered.
+ * Baskets are priced with the current promotions by {@link LivePricing}.
+ * 
  * 
  * @author Amrit Singh
  * @version 5/1/2025
@@ -52,6 +55,8 @@ public class BasketHandler implements HttpHandler {
      * - POST: Handles actions like adding items to the basket, removing items, or checking out.
      *
      * If no basket is associated with the user's session, a 400 Bad Request response is sent.
+     * If the saved basket, or the stock level of an item being added or ordered, cannot be loaded,
+     * a 503 Service Unavailable response is sent.
      *
      * @param he the {@link HttpExchange} object representing the HTTP request and response
      * @throws IOException if an I/O error occurs while processing the request or generating the response
@@ -60,19 +65,32 @@ public class BasketHandler implements HttpHandler {
     public void handle(HttpExchange he) throws IOException {
     	
         // Get the session & basket
-        String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-        Basket basket = (session != null) ? session.getBasket() : null;
+        LoginSessionManager.UserSession session = RequestContext.of(he).session();
+        if (session == null) {
+            he.sendResponseHeaders(400, -1);  // 400 Bad Request, no basket
+            he.close();
+            return;
+        }
+        Basket basket = session.getBasket();
 
         if (basket == null) {
-            he.sendResponseHeaders(400, -1);  // 400 Bad Request, no basket
+            // The saved basket could not be read, so ask the browser to try again rather than show it empty
+            he.getResponseHeaders().set("Retry-After", "1");
+            he.sendResponseHeaders(503, -1);
             he.close();
             return;
         }
 
         // Handle POST (add to basket, remove item, or checkout)
         if ("POST".equalsIgnoreCase(he.getRequestMethod())) {
-            handlePostRequest(he, session, basket);
+            try {
+                handlePostRequest(he, session, basket);
+            } catch (StockLevels.UnavailableException ex) {
+                // Not known whether the item can be sold, so refuse for now rather than risk overselling
+                he.getResponseHeaders().set("Retry-After", "1");
+                he.sendResponseHeaders(503, -1);
+                he.close();
+            }
             return;
         }
 
@@ -86,9 +104,11 @@ public class BasketHandler implements HttpHandler {
      * This method processes various POST actions, including:
      * - Reading POST data and parsing query parameters.
      * - Checking out the basket if the "checkout" parameter is present:
-     *   - Creates a new order based on the basket contents.
+     *   - Sells the stock reserved for the basket, returning to the basket with a message if an item is out of stock.
+     *   - Creates a new order for the basket's price after promotions.
      *   - Saves the order to the database.
-     *   - Clears the basket after successful order creation.
+     *   - Removes the ordered lines from the basket after successful order creation,
+     *     keeping anything added from another tab while the order was being placed.
      *   - Redirects the user to the order confirmation page.
      *
      * @param he the {@link HttpExchange} object representing the HTTP request and response
@@ -98,24 +118,31 @@ public class BasketHandler implements HttpHandler {
      */
     private void handlePostRequest(HttpExchange he, LoginSessionManager.UserSession session, Basket basket)
             throws IOException {
-        String requestBody = readRequestBody(he);
-        Map<String, String> params = parseQueryString(requestBody);
+        Map<String, String> params = RequestContext.of(he).form();
+        StockLevels stock = StockLevels.shared();
+        int userId = session.getUserId();
 
         if (params.containsKey("checkout")) {
-            int totalPrice = basket.getTotalPrice();
-            int userId = session.getUserId();
+            List<Basket.Line> lines = basket.getLines();
+            int totalPrice = LivePricing.pricing().price(lines).getTotal();
+            if (!stock.commit(userId, lines)) {
+                redirectToBasket(he, "/basket?stock=out");
+                return;
+            }
 
             Order order = new Order(0, new UsersDAO().findUser(userId), totalPrice, null);
             OrderDAO orderDAO = new OrderDAO();
 
             if (orderDAO.addOrder(order)) {
-                basket.clear();
+                basket.removeLines(lines);
 
                 he.getResponseHeaders().add("Location", "/orderconfirmation");
                 he.sendResponseHeaders(302, -1);  
                 he.close();
                 return;
             }
+            // The order was not saved, so the stock was not sold
+            stock.cancel(lines);
         }
 
         if (params.containsKey("applianceId")) {
@@ -123,6 +150,10 @@ public class BasketHandler implements HttpHandler {
                 int applianceId = Integer.parseInt(params.get("applianceId"));
                 ApplianceItem item = applianceItemDAO.findApplianceItem(applianceId);
                 if (item != null) {
+                    if (!stock.reserve(userId, item.getId(), 1)) {
+                        redirectToBasket(he, "/basket?stock=out");
+                        return;
+                    }
                     basket.addItem(item);
                 }
             } catch (NumberFormatException e) {
@@ -133,14 +164,28 @@ public class BasketHandler implements HttpHandler {
         if (params.containsKey("removeId")) {
             try {
                 int removeId = Integer.parseInt(params.get("removeId"));
-                basket.removeItem(removeId);
+                if (basket.getQuantity(removeId) > 0) {
+                    basket.removeItem(removeId);
+                    stock.release(userId, removeId, 1);
+                }
             } catch (NumberFormatException e) {
                 System.err.println("Invalid removeId: " + params.get("removeId"));
             }
         }
 
+        redirectToBasket(he, "/basket");
+    }
+
+    /**
+     * Redirects back to the basket page.
+     *
+     * @param he the {@link HttpExchange} object representing the HTTP request and response
+     * @param location the basket page URL, with any message parameter
+     * @throws IOException if an I/O error occurs while sending the response
+     */
+    private void redirectToBasket(HttpExchange he, String location) throws IOException {
         he.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-        he.getResponseHeaders().add("Location", "/basket");
+        he.getResponseHeaders().add("Location", location);
         he.sendResponseHeaders(302, -1); 
         he.close(); 
     }
@@ -170,7 +215,7 @@ public class BasketHandler implements HttpHandler {
                 "<html lang='en'>" +
                 "<head>" +
                 "    <title>Your Basket</title>" +
-                "    <link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" crossorigin=\"anonymous\">" +
+                "    <link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
                 "</head>" +
                 "<body>" +
                 "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -190,11 +235,14 @@ public class BasketHandler implements HttpHandler {
                 "        <h1>Your Basket</h1>"
             );
 
-            Map<ApplianceItem, Integer> quantities = basket.getItemsWithQuantities();
-            ArrayList<ApplianceItem> items = new ArrayList<>(quantities.keySet());
-            int totalPrice = basket.getTotalPrice();
+            if ("out".equals(RequestContext.of(he).query("stock"))) {
+                out.write("<div class='alert alert-warning'>Sorry, there is not enough stock of that item.</div>");
+            }
+
+            List<Basket.Line> lines = basket.getLines();
+            PricingPlan.Result price = LivePricing.pricing().price(lines);
 
-            if (items.isEmpty()) {
+            if (lines.isEmpty()) {
                 out.write("<p>Your basket is empty.</p>");
             } else {
                 out.write(
@@ -212,8 +260,8 @@ public class BasketHandler implements HttpHandler {
                     "    <tbody>"
                 );
 
-                for (ApplianceItem item : items) {
-                    int quantity = quantities.get(item);
+                for (Basket.Line line : lines) {
+                    ApplianceItem item = line.getItem();
                     out.write(String.format(
                         "        <tr>" +
                         "            <td>%d</td>" +
@@ -229,13 +277,18 @@ public class BasketHandler implements HttpHandler {
                         "            </td>" +
                         "        </tr>",
                         item.getId(), item.getBrand(), item.getModel(),
-                        item.getHomeAppliance().getPrice(), quantity,
+                        line.getUnitPrice(), line.getQuantity(),
                         item.getId()
                     ));
                 }
 
                 out.write("    </tbody></table>");
-                out.write(String.format("<h3>Total Price: £%d</h3>", totalPrice));
+                if (price.getDiscount() > 0) {
+                    out.write(String.format("<p>Subtotal: £%d</p>", price.getSubtotal()));
+                    out.write(String.format("<p>Promotions (%s): -£%d</p>",
+                            escapeHtml(String.join(", ", price.getApplied())), price.getDiscount()));
+                }
+                out.write(String.format("<h3>Total Price: £%d</h3>", price.getTotal()));
             }
 
             out.write(
@@ -249,89 +302,8 @@ public class BasketHandler implements HttpHandler {
         }
     }
 
-    /**
-     * Reads the body of an HTTP request and returns it as a string.
-     *
-     * This method reads the raw data sent in the request body using UTF-8 encoding
-     * and appends it line by line into a {@link StringBuilder}.
-     *
-     * Useful for handling POST requests where the body contains form data or JSON payloads.
-     *
-     * @param he the {@link HttpExchange} object representing the HTTP request
-     * @return a {@link String} containing the entire body of the HTTP request
-     * @throws IOException if an I/O error occurs while reading the request body
-     */
-    private String readRequestBody(HttpExchange he) throws IOException {
-        try (
-            InputStreamReader isr = new InputStreamReader(he.getRequestBody(), StandardCharsets.UTF_8);
-            BufferedReader br = new BufferedReader(isr)
-        ) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line);
-            }
-            return sb.toString();
-        }
-    }
-
-    /**
-     * Extracts the session ID from the "Cookie" header of an HTTP request.
-     *
-     * This method searches for a cookie named "sessionId" in the "Cookie" header
-     * and returns its value if found. If no "sessionId" cookie is present, or if
-     * the "Cookie" header is missing, it returns {@code null}.
-     *
-     * Useful for managing user sessions in web applications.
-     *
-     * @param exchange the {@link HttpExchange} object representing the HTTP request
-     * @return the session ID as a {@link String} if the "sessionId" cookie is found;
-     *         {@code null} if no such cookie exists or if the header is missing
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Parses a query string into a map of key-value pairs.
-     *
-     * This method processes a query string in the format {@code key1=value1&key2=value2}
-     * and converts it into a {@link Map} where each key corresponds to a parameter name,
-     * and each value corresponds to the parameter's value. If a parameter has no value
-     * (e.g., {@code key1=}), it is assigned an empty string.
-     *
-     *
-     * @param query the query string to parse (e.g., {@code "key1=value1&key2=value2"}); 
-     *              may be {@code null} or empty
-     * @return a {@link Map} containing the parsed key-value pairs; returns an empty map
-     *         if the input is {@code null} or empty
-     */
-    private Map<String, String> parseQueryString(String query) {
-        Map<String, String> result = new HashMap<>();
-        if (query != null && !query.isEmpty()) {
-            String[] pairs = query.split("&");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split("=", 2);
-                String key = keyValue[0];
-                String value = "";
-                if (keyValue.length == 2) {
-                    // URL-decode if needed
-                    value = URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
-                }
-                result.put(key, value);
-            }
-        }
-        return result;
+    private static String escapeHtml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("'", "&#39;").replace("\"", "&quot;");
     }
 }
@@ -0,0 +1,240 @@
+package homeappliance.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A fragment of rendered HTML that is stored pre-compressed as a raw deflate stream.
+ *
+ * The fragment is compressed once when it is rendered and can then be served any number of times
+ * behind a small per-request prefix (for example the navigation bar, which contains the username).
+ * The prefix is deflated on its own with a sync flush and the cached deflate blocks are appended
+ * unchanged, so the expensive part of the page is never recompressed. The gzip trailer is
+ * calculated by combining the CRC32 of the prefix with the stored CRC32 of the fragment.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class CompressedPage {
+
+    /** Fixed gzip member header: magic, deflate, no flags, no mtime, no extra flags, unknown OS. */
+    private static final byte[] GZIP_HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final byte[] deflated;
+    private final int crc;
+    private final int length;
+
+    private CompressedPage(byte[] deflated, int crc, int length) {
+        this.deflated = deflated;
+        this.crc = crc;
+        this.length = length;
+    }
+
+    /**
+     * Compresses an HTML fragment so that it can be cached and spliced behind a prefix.
+     *
+     * @param html the rendered HTML fragment
+     * @return the compressed page
+     */
+    public static CompressedPage compress(String html) {
+        byte[] raw = html.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc32 = new CRC32();
+        crc32.update(raw);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return new CompressedPage(out.toByteArray(), (int) crc32.getValue(), raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of bytes this page occupies in the cache.
+     *
+     * @return the compressed size in bytes
+     */
+    public int compressedSize() {
+        return deflated.length;
+    }
+
+    /**
+     * Returns the size of the page once it has been decompressed.
+     *
+     * @return the uncompressed size in bytes
+     */
+    public int uncompressedSize() {
+        return length;
+    }
+
+    /**
+     * Builds a complete gzip body consisting of the given prefix followed by this page.
+     *
+     * @param prefix the per-request HTML that precedes the cached fragment
+     * @return the gzip encoded response body
+     */
+    public byte[] toGzip(String prefix) {
+        byte[] raw = prefix.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc32 = new CRC32();
+        crc32.update(raw);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(GZIP_HEADER.length + raw.length + deflated.length + 8);
+        out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+
+        // Deflate the prefix with a sync flush: this leaves a non-final, byte-aligned block so that
+        // the cached blocks (which end with the final block) can follow it directly.
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            byte[] buffer = new byte[4096];
+            int count;
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, count);
+            } while (count == buffer.length);
+        } finally {
+            deflater.end();
+        }
+        out.write(deflated, 0, deflated.length);
+
+        writeIntLE(out, crc32Combine((int) crc32.getValue(), crc, length));
+        writeIntLE(out, raw.length + length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the prefix followed by the decompressed page, for clients that do not accept gzip.
+     *
+     * @param prefix the per-request HTML that precedes the cached fragment
+     * @param out the stream to write the response body to
+     * @throws IOException if the page cannot be decompressed or written
+     */
+    public void writeIdentity(String prefix, OutputStream out) throws IOException {
+        out.write(prefix.getBytes(StandardCharsets.UTF_8));
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(deflated);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(buffer, 0, count);
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt cached page", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Checks whether an "Accept-Encoding" request header allows a gzip encoded response.
+     *
+     * @param acceptEncoding the value of the header, may be null
+     * @return true if gzip is listed and not refused with a quality of zero
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim()) || "*".equals(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    /**
+     * Combines the CRC32 of two byte sequences into the CRC32 of their concatenation,
+     * without needing the bytes of the second sequence (port of zlib's crc32_combine).
+     *
+     * @param crc1 the CRC32 of the first sequence
+     * @param crc2 the CRC32 of the second sequence
+     * @param length2 the length of the second sequence
+     * @return the CRC32 of the first sequence followed by the second
+     */
+    static int crc32Combine(int crc1, int crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        int[] even = new int[32];
+        int[] odd = new int[32];
+
+        // Operator for one zero bit in odd
+        odd[0] = 0xedb88320;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // two zero bits
+        gf2MatrixSquare(odd, even); // four zero bits
+
+        // Apply length2 zero bytes to crc1 (the first square puts the operator for one zero byte in even)
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static int gf2MatrixTimes(int[] matrix, int vector) {
+        int sum = 0;
+        int index = 0;
+        while (vector != 0) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[index];
+            }
+            vector >>>= 1;
+            index++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+}
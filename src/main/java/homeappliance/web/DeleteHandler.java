@@ -4,10 +4,8 @@ import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
 import homeappliance.HomeApplianceDAO;
-import login.web.LoginSessionManager;
 import homeappliance.HomeAppliance;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -48,23 +46,11 @@ public class DeleteHandler implements HttpHandler {
      */
     @Override
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            // User is not an admin or not logged in, redirect to login page
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0); // 302 is the status code for redirection
-            he.getResponseBody().close();
-            return;
-        }
-        
         he.sendResponseHeaders(200, 0);
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
 
         try {
-            Map<String, String> params = parseQueryString(he.getRequestURI().getQuery());
+            Map<String, String> params = RequestContext.of(he).query();
             int id = Integer.parseInt(params.get("id"));
 
             HomeApplianceDAO dao = new HomeApplianceDAO();
@@ -76,8 +62,7 @@ public class DeleteHandler implements HttpHandler {
                 out.write(
                     "<html>" +
                     "<head> <title>Home Appliance Store</title>" +
-                    "<link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" " +
-                    "integrity=\"sha384-TX8t27EcRE3e/ihU7zmQxVncDAy5uIKz4rEkgIXeMed4M0jlfIDPvg6uqKI2xXr2\" crossorigin=\"anonymous\">" +
+                    "<link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
                     "</head>" +
                     "<body>" +
                     "<h1>Product Deleted Successfully</h1>" +
@@ -134,48 +119,4 @@ public class DeleteHandler implements HttpHandler {
             out.close();
         }
     }
-    
-    /**
-     * Extracts the session ID from the request cookies.
-     * 
-     * @param exchange the HttpExchange object containing the request.
-     * @return the session ID as a String, or null if not found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Parses a query string into a map of key-value pairs.
-     * 
-     * @param query the query string from the URL.
-     * @return a Map containing query parameters as key-value pairs.
-     */
-    private Map<String, String> parseQueryString(String query) {
-        Map<String, String> result = new HashMap<>();
-        if (query == null || query.isEmpty()) {
-            return result;
-        }
-        String[] pairs = query.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=", 2);
-            if (keyValue.length == 2) {
-                result.put(keyValue[0], keyValue[1]);
-            } else if (keyValue.length == 1) {
-                result.put(keyValue[0], "");
-            }
-        }
-        return result;
-    }
 }
\ No newline at end of file
@@ -1,6 +1,25 @@
 package homeappliance.web;
 
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+
+import database.ReadRouting;
+import database.SnapshotReplica;
+import homeappliance.BasketStore;
+import homeappliance.LiveCatalogue;
+import homeappliance.StockLevels;
+import login.web.AuthenticationFilter;
+import login.web.FileSessionStore;
+import login.web.LoginSessionManager;
+import login.web.MemorySessionStore;
+import login.web.NearCachedSessionStore;
+import login.web.RateLimitFilter;
+import login.web.SessionKeyValueServer;
+import login.web.SessionStore;
+import login.web.SessionTokens;
+import login.web.TcpSessionStore;
+import metrics.web.MetricsHandler;
 import customers.web.ViewAllCustomersHandler;
 import login.web.AdminDashboardHandler;
 import login.web.CustomerDashboardHandler;
@@ -14,9 +33,13 @@ import users.web.ProcessUpdateUserRoleHandler;
 import users.web.UpdateUserRoleHandler;
 import users.web.ViewAllUsersHandler;
 import users.web.ViewOrdersHandler;
+import users.CredentialService;
+import users.UsernameFilter;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 import customers.web.ProcessAddCustomerHandler;
 import customers.web.ProcessUpdateCustomerHandler;
 import customers.web.UpdateCustomerHandler;
@@ -53,6 +76,19 @@ public class Main {
 	/** Port number on which the server listens. */
 	 static final private int PORT = 8080;
 
+	/** Shared by every context so each request is parsed once before it reaches its handler. */
+	 static final private RequestContextFilter REQUEST_CONTEXT_FILTER = new RequestContextFilter();
+
+	/** Access rules declared for each route below; requests that fail them never reach the handler. */
+	 static final private AuthenticationFilter PUBLIC = AuthenticationFilter.anyone();
+	 static final private AuthenticationFilter LOGGED_IN = AuthenticationFilter.loggedIn();
+	 static final private AuthenticationFilter CUSTOMER = AuthenticationFilter.roles("Customer");
+	 static final private AuthenticationFilter ADMIN = AuthenticationFilter.roles("Admin");
+
+	/** Limits on the routes that check or hash passwords, per client address and per username. */
+	 static final private RateLimitFilter LOGIN_LIMIT = RateLimitFilter.forRoute("login", 30, 10);
+	 static final private RateLimitFilter SIGNUP_LIMIT = RateLimitFilter.forRoute("signup", 10, 5);
+
 	 /**
      * The main method initialises and starts the HTTP server.
      * Registers all the handlers for various endpoints.
@@ -63,45 +99,149 @@ public class Main {
      */
 	  public static void main(String[] args) throws IOException {
 
+	    // Serve bundled CSS/JS locally when present, otherwise pages fall back to the CDN
+	    StaticAssets.install(StaticAssets.loadDefault());
+
+	    // Serve reporting queries from a periodically refreshed read-only copy of the database
+	    SnapshotReplica replica = new SnapshotReplica(ReadRouting.PRIMARY_URL, Paths.get(System.getProperty("db.snapshotDir",
+	            Paths.get(System.getProperty("java.io.tmpdir"), "sonic-appliance-snapshots").toString())));
+	    replica.start(Long.getLong("db.snapshot.refreshSeconds", 30));
+	    ReadRouting.install(replica);
+
+	    // Start from the catalogue saved by the last run, catching up from the database in the background
+	    LiveCatalogue.catalogue().start(Paths.get(System.getProperty("catalogue.snapshotFile",
+	            Paths.get(System.getProperty("java.io.tmpdir"), "sonic-appliance-catalogue.bin").toString())),
+	            Long.getLong("catalogue.snapshot.saveSeconds", 60));
+
+	    // Load the usernames in use, so checking a free username needs no query
+	    UsernameFilter.shared();
+
+	    // Pick the password hashing cost for this machine before the first login
+	    CredentialService.shared();
+
+	    // Keep logins in signed cookies rather than in this server's memory, if asked to
+	    long sessionTtlMillis = TimeUnit.MINUTES.toMillis(Long.getLong("session.ttlMinutes", 8 * 60));
+	    if ("signed".equalsIgnoreCase(System.getProperty("session.mode", "memory"))) {
+	        LoginSessionManager.useSignedTokens(SessionTokens.fromKeyRing(
+	                System.getProperty("session.keys", System.getenv("SESSION_KEYS")), sessionTtlMillis));
+	    } else {
+	        LoginSessionManager.useStore(sessionStore(System.getProperty("session.store", "memory"), sessionTtlMillis));
+	    }
+
+	    // Write baskets and stock levels with unsaved changes before the server stops
+	    Runtime.getRuntime().addShutdownHook(new Thread(BasketStore.shared()::stop, "basket-flush"));
+	    Runtime.getRuntime().addShutdownHook(new Thread(StockLevels.shared()::stop, "stock-flush"));
+
 	    HttpServer server = HttpServer.create(new InetSocketAddress(PORT),0);
-	    server.createContext("/", new RootHandler() ); 
-	    server.createContext("/products", new ViewAllProductsHandler() );
-	    server.createContext("/delete", new DeleteHandler() );
-	    server.createContext("/updateproduct", new UpdateProductHandler() );
-	    server.createContext("/processupdateproduct", new ProcessUpdateProductHandler() ); 
-	    server.createContext("/addproduct", new AddProductHandler());
-	    server.createContext("/processaddproduct", new ProcessAddProductHandler());
-	    server.createContext("/basket", new BasketHandler());
+	    register(server, "/", PUBLIC, new RootHandler() ); 
+	    register(server, StaticAssets.URL_PREFIX, PUBLIC, new StaticResourceHandler());
+	    register(server, "/products", PUBLIC, new ViewAllProductsHandler() );
+	    register(server, "/suggest", PUBLIC, new SuggestHandler());
+	    register(server, "/delete", ADMIN, new DeleteHandler() );
+	    register(server, "/updateproduct", ADMIN, new UpdateProductHandler() );
+	    register(server, "/processupdateproduct", ADMIN, new ProcessUpdateProductHandler() ); 
+	    register(server, "/addproduct", ADMIN, new AddProductHandler());
+	    register(server, "/processaddproduct", ADMIN, new ProcessAddProductHandler());
+	    register(server, "/basket", LOGGED_IN, new BasketHandler());
 	    
-	    server.createContext("/customers", new ViewAllCustomersHandler());
-	    server.createContext("/deletecustomer", new DeleteCustomerHandler());
-	    server.createContext("/updatecustomer", new UpdateCustomerHandler());
-	    server.createContext("/processupdatecustomer", new ProcessUpdateCustomerHandler());
-	    server.createContext("/addcustomer", new AddCustomerHandler());
-	    server.createContext("/processaddcustomer", new ProcessAddCustomerHandler());
+	    register(server, "/customers", ADMIN, new ViewAllCustomersHandler());
+	    register(server, "/deletecustomer", ADMIN, new DeleteCustomerHandler());
+	    register(server, "/updatecustomer", ADMIN, new UpdateCustomerHandler());
+	    register(server, "/processupdatecustomer", ADMIN, new ProcessUpdateCustomerHandler());
+	    register(server, "/addcustomer", ADMIN, new AddCustomerHandler());
+	    register(server, "/processaddcustomer", ADMIN, new ProcessAddCustomerHandler());
 	    
-	    server.createContext("/login", new LoginHandler());
-	    server.createContext("/processlogin", new ProcessLoginHandler());
-	    server.createContext("/admindashboard", new AdminDashboardHandler());
-	    server.createContext("/customerdashboard", new CustomerDashboardHandler());
-	    server.createContext("/logout", new LogoutHandler());
-	    server.createContext("/signup", new SignupHandler());
-	    server.createContext("/processsignup", new ProcessSignupHandler());
+	    register(server, "/login", PUBLIC, new LoginHandler());
+	    register(server, "/processlogin", PUBLIC, LOGIN_LIMIT, new ProcessLoginHandler());
+	    register(server, "/admindashboard", ADMIN, new AdminDashboardHandler());
+	    register(server, "/customerdashboard", CUSTOMER, new CustomerDashboardHandler());
+	    register(server, "/logout", PUBLIC, new LogoutHandler());
+	    register(server, "/signup", PUBLIC, new SignupHandler());
+	    register(server, "/processsignup", PUBLIC, SIGNUP_LIMIT, new ProcessSignupHandler());
 	    
-	    server.createContext("/users", new ViewAllUsersHandler());
-	    server.createContext("/updateuserrole", new UpdateUserRoleHandler());
-	    server.createContext("/processupdateuserrole", new ProcessUpdateUserRoleHandler());
-	    server.createContext("/deleteuser", new DeleteUserHandler());
-	    server.createContext("/orderconfirmation", new OrderConfirmationHandler());
-	    server.createContext("/orders", new ViewOrdersHandler());
+	    register(server, "/users", ADMIN, new ViewAllUsersHandler());
+	    register(server, "/updateuserrole", ADMIN, new UpdateUserRoleHandler());
+	    register(server, "/processupdateuserrole", ADMIN, new ProcessUpdateUserRoleHandler());
+	    register(server, "/deleteuser", ADMIN, new DeleteUserHandler());
+	    register(server, "/orderconfirmation", LOGGED_IN, new OrderConfirmationHandler());
+	    register(server, "/orders", LOGGED_IN, new ViewOrdersHandler());
+	    register(server, "/metrics", ADMIN, new MetricsHandler());
 
 
 	    
 	    server.setExecutor(null);
 	    server.start();
 	    System.out.println("The server is listening on port " + PORT);
+	    System.out.println("Serving " + StaticAssets.current().size() + " static assets from " + StaticAssets.URL_PREFIX);
 
 	    
 	  }
 
+	  /**
+	   * Creates the store server-side sessions are kept in. The shared stores are read through a near cache
+	   * whose entries are used for {@code session.cacheMillis} (5 seconds by default).
+	   * 
+	   * @param kind "memory", "file" (in {@code session.storeDir}) or "tcp" (at {@code session.storeAddress}).
+	   * @param ttlMillis how long a session lasts in the shared stores after logging in.
+	   * @return the store.
+	   * @throws IOException if the session directory cannot be created.
+	   */
+	  private static SessionStore sessionStore(String kind, long ttlMillis) throws IOException {
+	    SessionStore shared;
+	    switch (kind) {
+	      case "memory":
+	        return new MemorySessionStore();
+	      case "file":
+	        // Not a shared temporary directory, where another user could plant session files
+	        shared = new FileSessionStore(Paths.get(System.getProperty("session.storeDir",
+	                Paths.get(System.getProperty("user.home"), ".sonic-appliance", "sessions").toString())), ttlMillis);
+	        break;
+	      case "tcp":
+	        shared = TcpSessionStore.connect(System.getProperty("session.storeAddress",
+	                "localhost:" + SessionKeyValueServer.DEFAULT_PORT), ttlMillis);
+	        break;
+	      default:
+	        throw new IllegalArgumentException("Unknown session store: " + kind);
+	    }
+	    return new NearCachedSessionStore(shared, Long.getLong("session.cacheMillis", 5000),
+	            Integer.getInteger("session.cacheEntries", 10_000), System::nanoTime);
+	  }
+
+	  /**
+	   * Registers a handler for a path together with the filters every request passes through:
+	   * request parsing first, then the route's access rule.
+	   * 
+	   * @param server the server to register the handler with.
+	   * @param path the URI path the handler is responsible for.
+	   * @param access the login or role requirement of the route.
+	   * @param handler the handler for requests to the path.
+	   * @return the created context.
+	   */
+	  private static HttpContext register(HttpServer server, String path, AuthenticationFilter access, HttpHandler handler) {
+	    HttpContext context = server.createContext(path, handler);
+	    context.getFilters().add(REQUEST_CONTEXT_FILTER);
+	    context.getFilters().add(access);
+	    return context;
+	  }
+
+	  /**
+	   * Registers a handler for a path as {@link #register(HttpServer, String, AuthenticationFilter, HttpHandler)}
+	   * does, with a rate limit checked after request parsing and before the access rule.
+	   * 
+	   * @param server the server to register the handler with.
+	   * @param path the URI path the handler is responsible for.
+	   * @param access the login or role requirement of the route.
+	   * @param limit the rate limit of the route.
+	   * @param handler the handler for requests to the path.
+	   * @return the created context.
+	   */
+	  private static HttpContext register(HttpServer server, String path, AuthenticationFilter access,
+	          RateLimitFilter limit, HttpHandler handler) {
+	    HttpContext context = server.createContext(path, handler);
+	    context.getFilters().add(REQUEST_CONTEXT_FILTER);
+	    context.getFilters().add(limit);
+	    context.getFilters().add(access);
+	    return context;
+	  }
+
 }
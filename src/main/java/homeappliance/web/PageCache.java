@@ -0,0 +1,311 @@
+package homeappliance.web;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A bounded cache of rendered, pre-compressed page fragments keyed by the visitor's role and the
+ * normalised query parameters of the request.
+ *
+ * The cache is limited by the total compressed size of its entries rather than by entry count.
+ * Because product listings are heavily skewed (a few hot categories and a long tail of one-off
+ * searches) entries are evicted in least-recently-used order, but a new entry is only admitted
+ * when it has been requested more often than the entry it would evict (TinyLFU admission).
+ * Request frequencies are tracked in a small count-min sketch that is periodically halved so that
+ * pages which used to be popular age out.
+ *
+ * All catalogue writes should call {@link #invalidateAll()}. Each invalidation advances a
+ * generation number so that a page rendered from data read before the write is never stored.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class PageCache {
+
+    /** Default cache budget: 8 MB of compressed HTML. */
+    public static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    /** Approximate bookkeeping overhead per entry (map node, key, page object). */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, CompressedPage> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private long currentBytes;
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long rejections;
+    private long evictions;
+
+    /**
+     * Creates a cache that holds at most the given number of bytes of compressed pages.
+     *
+     * @param maxBytes the total size budget of the cache in bytes
+     */
+    public PageCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.max(1, maxBytes / 8);
+        // Size the sketch for roughly ten times the number of average (4 KB) pages that fit in the cache
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(256, maxBytes / 4096 * 10)));
+    }
+
+    /**
+     * Keeps only the query parameters that affect the page: parameters that are not listed are
+     * ignored, values are trimmed and empty ones are dropped. A cached page must be rendered from
+     * these parameters, so that it matches its {@link #key}.
+     *
+     * @param params the parsed query parameters of the request
+     * @param relevant the names of the parameters that change the rendered page
+     * @return the normalised parameters, sorted by name
+     */
+    public static Map<String, String> normalise(Map<String, String> params, String... relevant) {
+        TreeMap<String, String> normalised = new TreeMap<>();
+        for (String name : relevant) {
+            String value = params.get(name);
+            if (value != null && !value.trim().isEmpty()) {
+                normalised.put(name, value.trim());
+            }
+        }
+        return normalised;
+    }
+
+    /**
+     * Builds a cache key from the visitor's role and the query parameters that affect the page,
+     * normalised by {@link #normalise}, so equivalent URLs share one entry. Values are URL-encoded,
+     * so a value containing '&amp;' or '=' cannot be mistaken for another parameter.
+     *
+     * @param role the visitor's role, for example "Guest" or "Customer"
+     * @param params the parsed query parameters of the request
+     * @param relevant the names of the parameters that change the rendered page
+     * @return the normalised cache key
+     */
+    public static String key(String role, Map<String, String> params, String... relevant) {
+        StringBuilder key = new StringBuilder(role);
+        for (Map.Entry<String, String> entry : normalise(params, relevant).entrySet()) {
+            key.append('&').append(entry.getKey()).append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the generation number that must be passed to {@link #put} for a page rendered now.
+     *
+     * @return the current generation
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Looks up a cached page and records the access for the admission policy.
+     *
+     * @param key the normalised cache key
+     * @return the cached page, or null if it is not cached
+     */
+    public synchronized CompressedPage get(String key) {
+        sketch.increment(key.hashCode());
+        CompressedPage page = entries.get(key);
+        if (page == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return page;
+    }
+
+    /**
+     * Offers a freshly rendered page to the cache. The page is discarded if the catalogue was
+     * changed since {@code renderedGeneration}, if it is too large, or if it is requested less
+     * often than the entries it would displace.
+     *
+     * @param key the normalised cache key
+     * @param page the compressed page
+     * @param renderedGeneration the value of {@link #generation()} before the page was rendered
+     * @return true if the page was stored
+     */
+    public synchronized boolean put(String key, CompressedPage page, long renderedGeneration) {
+        if (renderedGeneration != generation) {
+            return false;
+        }
+        long weight = weigh(key, page);
+        if (weight > maxEntryBytes) {
+            rejections++;
+            return false;
+        }
+
+        CompressedPage previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= weigh(key, previous);
+        }
+
+        // Decide admission against every entry that would have to go before removing any of them
+        int candidateFrequency = sketch.frequency(key.hashCode());
+        long freed = 0;
+        int victims = 0;
+        for (Map.Entry<String, CompressedPage> victim : entries.entrySet()) {
+            if (currentBytes - freed + weight <= maxBytes) {
+                break;
+            }
+            if (previous == null && candidateFrequency <= sketch.frequency(victim.getKey().hashCode())) {
+                // A victim is at least as popular as the newcomer: keep them all and drop the newcomer
+                rejections++;
+                return false;
+            }
+            freed += weigh(victim.getKey(), victim.getValue());
+            victims++;
+        }
+
+        Iterator<CompressedPage> eldest = entries.values().iterator();
+        for (int i = 0; i < victims; i++) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+        currentBytes -= freed;
+
+        entries.put(key, page);
+        currentBytes += weight;
+        return true;
+    }
+
+    /**
+     * Removes every cached page and advances the generation, so pages that are currently
+     * being rendered from old data are not stored either.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        currentBytes = 0;
+        generation++;
+    }
+
+    /**
+     * Returns the number of cached pages.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the approximate number of bytes used by cached pages.
+     *
+     * @return the weighted size of the cache
+     */
+    public synchronized long weightedSize() {
+        return currentBytes;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached page.
+     *
+     * @return the hit count
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached page.
+     *
+     * @return the miss count
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of pages that were not admitted to the cache.
+     *
+     * @return the rejection count
+     */
+    public synchronized long rejectionCount() {
+        return rejections;
+    }
+
+    /**
+     * Returns the number of pages that were evicted to make room for others.
+     *
+     * @return the eviction count
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    private static long weigh(String key, CompressedPage page) {
+        return page.compressedSize() + 2L * key.length() + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters used to estimate how often a key has been requested.
+     * After a fixed number of increments every counter is halved, so the estimate reflects
+     * recent popularity rather than all-time popularity.
+     */
+    static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+        private final byte[] counters;
+        private final int mask;
+        private final int resetThreshold;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int size = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+            this.counters = new byte[size * DEPTH];
+            this.mask = size - 1;
+            this.resetThreshold = size * 10;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= resetThreshold) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters[indexOf(hash, row)]);
+            }
+            return min;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+            h ^= h >>> 15;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        private void reset() {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = (byte) (counters[i] >> 1);
+            }
+            additions /= 2;
+        }
+    }
+}
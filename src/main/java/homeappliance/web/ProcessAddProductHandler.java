@@ -1,19 +1,13 @@
 package homeappliance.web;
 
 import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
 
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.BufferedReader;
-import java.util.HashMap;
 import java.util.Map;
 import homeappliance.HomeApplianceDAO;
-import login.web.LoginSessionManager;
 import homeappliance.HomeAppliance;
 
 /**
@@ -51,27 +45,8 @@ public class ProcessAddProductHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs while handling the request or response.
      */
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-    	
-    	
-        BufferedReader reader = new BufferedReader(new InputStreamReader(he.getRequestBody()));
-        String line;
-        StringBuilder input = new StringBuilder();
-        while ((line = reader.readLine()) != null) {
-            input.append(line);
-        }
-
         try {
-            Map<String, String> formData = parseFormData(input.toString());
+            Map<String, String> formData = RequestContext.of(he).form();
             
             // Extract individual fields
             String sku = formData.get("sku");
@@ -103,50 +78,4 @@ public class ProcessAddProductHandler implements HttpHandler {
             ex.printStackTrace();
         }
     }
-    
-    /**
-     * Extracts the session ID from the request cookies.
-     *
-     * @param exchange the HttpExchange object containing the request.
-     * @return the session ID as a String, or null if not found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Parses form data and formats into a map of key-value pairs.
-     *
-     * @param formData the raw form data as a String.
-     * @return a Map containing the parsed key-value pairs.
-     */
-    private Map<String, String> parseFormData(String formData) {
-        Map<String, String> result = new HashMap<>();
-        String[] pairs = formData.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=", 2);
-            if (keyValue.length == 2) {
-                try {
-                    String key = URLDecoder.decode(keyValue[0], "UTF-8");
-                    String value = URLDecoder.decode(keyValue[1], "UTF-8");
-                    result.put(key, value);
-                } catch (UnsupportedEncodingException ex) {
-                    throw new AssertionError("UTF-8 is a required encoding support", ex);
-                }
-            }
-        }
-        return result;
-    }
-    
 }
\ No newline at end of file
@@ -0,0 +1,463 @@
+package homeappliance.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import login.web.LoginSessionManager;
+
+/**
+ * The parsed view of a single HTTP request: its cookies, query string and URL-encoded form body.
+ *
+ * A context is attached to every exchange by the {@link RequestContextFilter} and shared by the
+ * filters and the handler that run for the request, so each part of the request is parsed at most once
+ * and the login session is looked up at most once.
+ * Parsing is lazy: the query string is only scanned when a parameter is first asked for, the body is
+ * only read when {@link #form()} is called, and a value is only URL-decoded when it is looked up and
+ * actually contains an escape. Scanning works on the original string with {@code indexOf} instead of
+ * splitting it with regular expressions, so no intermediate arrays are created.
+ *
+ * Form bodies larger than {@link #MAX_BODY_BYTES} and requests with more than {@link #MAX_PARAMETERS}
+ * parameters are rejected with a {@link RequestTooLargeException}, which the filter turns into a 413 response.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class RequestContext {
+
+    /** Name of the exchange attribute that holds the context. */
+    public static final String ATTRIBUTE = RequestContext.class.getName();
+
+    /** Name of the cookie that carries the login session id. */
+    public static final String SESSION_COOKIE = "sessionId";
+
+    /** Largest form body that will be read, in bytes. */
+    public static final int MAX_BODY_BYTES = Integer.getInteger("request.maxBodyBytes", 64 * 1024);
+
+    /** Largest number of parameters accepted in a query string or form body. */
+    public static final int MAX_PARAMETERS = 256;
+
+    private final HttpExchange exchange;
+    private Parameters query;
+    private Parameters form;
+    private String sessionId;
+    private boolean sessionIdParsed;
+    private LoginSessionManager.UserSession session;
+    private boolean sessionResolved;
+    private boolean rejected;
+
+    private RequestContext(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    /**
+     * Returns the context attached to the exchange, attaching a new one if the exchange
+     * did not pass through the {@link RequestContextFilter}.
+     *
+     * @param exchange the current exchange
+     * @return the request context
+     */
+    public static RequestContext of(HttpExchange exchange) {
+        // Some JDK versions keep exchange attributes on the shared HttpContext, so check the owner
+        Object attached = exchange.getAttribute(ATTRIBUTE);
+        if (attached instanceof RequestContext && ((RequestContext) attached).exchange == exchange) {
+            return (RequestContext) attached;
+        }
+        RequestContext context = new RequestContext(exchange);
+        exchange.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    /**
+     * Detaches the context from the exchange once the request has been handled.
+     *
+     * @param exchange the finished exchange
+     */
+    static void release(HttpExchange exchange) {
+        Object attached = exchange.getAttribute(ATTRIBUTE);
+        if (attached instanceof RequestContext && ((RequestContext) attached).exchange == exchange) {
+            exchange.setAttribute(ATTRIBUTE, null);
+        }
+    }
+
+    /**
+     * Returns the value of a request cookie.
+     *
+     * @param name the cookie name
+     * @return the cookie value, or null if the request has no such cookie
+     */
+    public String cookie(String name) {
+        List<String> headers = exchange.getRequestHeaders().get("Cookie");
+        if (headers == null) {
+            return null;
+        }
+        for (String header : headers) {
+            String value = cookieValue(header, name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the login session id sent by the browser.
+     *
+     * @return the session id, or null if the request has no session cookie
+     */
+    public String sessionId() {
+        if (!sessionIdParsed) {
+            sessionId = cookie(SESSION_COOKIE);
+            sessionIdParsed = true;
+        }
+        return sessionId;
+    }
+
+    /**
+     * Returns the login session of the request. The session is looked up the first time this
+     * method is called, normally by the authentication filter, and handlers share that result.
+     *
+     * @return the user's session, or null if the visitor is not logged in
+     */
+    public LoginSessionManager.UserSession session() {
+        if (!sessionResolved) {
+            String id = sessionId();
+            session = (id == null) ? null : LoginSessionManager.getSession(id);
+            sessionResolved = true;
+        }
+        return session;
+    }
+
+    /**
+     * Returns the role of the logged-in user.
+     *
+     * @return the role, for example "Admin" or "Customer", or null if the visitor is not logged in
+     */
+    public String role() {
+        LoginSessionManager.UserSession current = session();
+        return (current == null) ? null : current.getRole();
+    }
+
+    /**
+     * Returns the parameters of the query string. The returned map is read-only.
+     *
+     * @return the query parameters, empty if the request has no query string
+     * @throws RequestTooLargeException if the query string has too many parameters
+     */
+    public Map<String, String> query() {
+        if (query == null) {
+            query = parse(exchange.getRequestURI().getRawQuery());
+        }
+        return query;
+    }
+
+    /**
+     * Returns a single query parameter.
+     *
+     * @param name the parameter name
+     * @return the decoded value, or null if the parameter is not present
+     */
+    public String query(String name) {
+        return query().get(name);
+    }
+
+    /**
+     * Reads the URL-encoded form body of the request and returns its fields. The body is read
+     * the first time this method is called; later calls return the same read-only map.
+     *
+     * @return the form fields, empty if the request has no body
+     * @throws IOException if the body cannot be read
+     * @throws RequestTooLargeException if the body or its number of fields exceeds the limits
+     */
+    public Map<String, String> form() throws IOException {
+        if (form == null) {
+            form = parse(readBody());
+        }
+        return form;
+    }
+
+    /**
+     * Returns a single form field.
+     *
+     * @param name the field name
+     * @return the decoded value, or null if the field is not present
+     * @throws IOException if the body cannot be read
+     */
+    public String form(String name) throws IOException {
+        return form().get(name);
+    }
+
+    /**
+     * Returns whether the client accepts a gzip-encoded response.
+     *
+     * @return true if gzip may be used
+     */
+    public boolean acceptsGzip() {
+        return CompressedPage.acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    /**
+     * Returns whether the request was rejected for exceeding a size limit.
+     *
+     * @return true if a {@link RequestTooLargeException} was thrown for this request
+     */
+    boolean isRejected() {
+        return rejected;
+    }
+
+    private String readBody() throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            try {
+                if (Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+                    throw reject("Request body of " + length + " bytes exceeds " + MAX_BODY_BYTES);
+                }
+            } catch (NumberFormatException ex) {
+                // Fall through and enforce the limit while reading
+            }
+        }
+        InputStream in = exchange.getRequestBody();
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            throw reject("Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private Parameters parse(String raw) {
+        try {
+            return Parameters.parse(raw);
+        } catch (RequestTooLargeException ex) {
+            rejected = true;
+            throw ex;
+        }
+    }
+
+    private RequestTooLargeException reject(String message) {
+        rejected = true;
+        return new RequestTooLargeException(message);
+    }
+
+    /**
+     * Finds a cookie in a {@code Cookie} request header without splitting the header.
+     *
+     * @param header the header value, for example "theme=dark; sessionId=abc"
+     * @param name the cookie name
+     * @return the cookie value, or null if the header does not contain the cookie
+     */
+    static String cookieValue(String header, String name) {
+        int length = header.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && (header.charAt(start) == ' ' || header.charAt(start) == ';')) {
+                start++;
+            }
+            int end = header.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            int equals = start + name.length();
+            if (equals < end && header.charAt(equals) == '=' && header.startsWith(name, start)) {
+                int valueStart = equals + 1;
+                int valueEnd = end;
+                while (valueEnd > valueStart && header.charAt(valueEnd - 1) == ' ') {
+                    valueEnd--;
+                }
+                if (valueEnd - valueStart >= 2 && header.charAt(valueStart) == '"' && header.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                return header.substring(valueStart, valueEnd);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Thrown when a request exceeds the body size or parameter count limits.
+     */
+    public static final class RequestTooLargeException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        RequestTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The parameters of a query string or URL-encoded form body.
+     *
+     * Parsing only records where each name and value starts and ends in the original string.
+     * Lookups compare names in place and decode a value the first time it is asked for;
+     * values without {@code %} or {@code +} are returned as plain substrings.
+     * A value with a malformed escape, such as {@code %zz}, is returned as it was sent rather than failing
+     * the lookup, because decoding only happens inside the filters and handlers that ask for it.
+     * When a name occurs more than once the last value wins, as the handlers have always done.
+     */
+    public static final class Parameters extends AbstractMap<String, String> {
+
+        private static final Parameters EMPTY = new Parameters("", new int[0], 0);
+
+        private final String raw;
+        /** Four offsets per parameter: name start, name end, value start, value end. */
+        private final int[] bounds;
+        private final int count;
+        private String[] decoded;
+        private Set<Map.Entry<String, String>> entries;
+
+        private Parameters(String raw, int[] bounds, int count) {
+            this.raw = raw;
+            this.bounds = bounds;
+            this.count = count;
+        }
+
+        /**
+         * Scans a raw (still URL-encoded) query string or form body.
+         *
+         * @param raw the encoded parameters, may be null
+         * @return the parameters
+         * @throws RequestTooLargeException if there are more than {@link #MAX_PARAMETERS} parameters
+         */
+        public static Parameters parse(String raw) {
+            if (raw == null || raw.isEmpty()) {
+                return EMPTY;
+            }
+            int[] bounds = new int[16];
+            int count = 0;
+            int length = raw.length();
+            int start = 0;
+            while (start <= length) {
+                int end = raw.indexOf('&', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    if (count == MAX_PARAMETERS) {
+                        throw new RequestTooLargeException("More than " + MAX_PARAMETERS + " parameters");
+                    }
+                    if (bounds.length < (count + 1) * 4) {
+                        int[] grown = new int[bounds.length * 2];
+                        System.arraycopy(bounds, 0, grown, 0, bounds.length);
+                        bounds = grown;
+                    }
+                    int equals = raw.indexOf('=', start);
+                    if (equals < 0 || equals > end) {
+                        equals = end;
+                    }
+                    int i = count * 4;
+                    bounds[i] = start;
+                    bounds[i + 1] = equals;
+                    bounds[i + 2] = Math.min(equals + 1, end);
+                    bounds[i + 3] = end;
+                    count++;
+                }
+                start = end + 1;
+            }
+            return new Parameters(raw, bounds, count);
+        }
+
+        @Override
+        public String get(Object key) {
+            int index = indexOf(key);
+            return (index < 0) ? null : value(index);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return entrySet().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return count == 0;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            if (entries == null) {
+                Map<String, String> all = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    all.put(name(i), value(i));
+                }
+                entries = Collections.unmodifiableMap(all).entrySet();
+            }
+            return entries;
+        }
+
+        private int indexOf(Object key) {
+            if (!(key instanceof String)) {
+                return -1;
+            }
+            String name = (String) key;
+            for (int i = count - 1; i >= 0; i--) {
+                int start = bounds[i * 4];
+                int end = bounds[i * 4 + 1];
+                if (needsDecoding(start, end)) {
+                    if (name.equals(decode(start, end))) {
+                        return i;
+                    }
+                } else if (end - start == name.length() && raw.startsWith(name, start)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private String name(int index) {
+            return decode(bounds[index * 4], bounds[index * 4 + 1]);
+        }
+
+        private String value(int index) {
+            if (decoded == null) {
+                decoded = new String[count];
+            }
+            String value = decoded[index];
+            if (value == null) {
+                value = decode(bounds[index * 4 + 2], bounds[index * 4 + 3]);
+                decoded[index] = value;
+            }
+            return value;
+        }
+
+        private boolean needsDecoding(int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = raw.charAt(i);
+                if (c == '%' || c == '+') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String decode(int start, int end) {
+            String region = raw.substring(start, end);
+            if (!needsDecoding(start, end)) {
+                return region;
+            }
+            try {
+                return URLDecoder.decode(region, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException ex) {
+                // A malformed escape: use the value as sent
+                return region;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package homeappliance.web;
+
+import java.io.IOException;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Attaches a {@link RequestContext} to every exchange before the handler runs, so cookies, query
+ * parameters and form fields are parsed once and shared by later filters and the handler.
+ *
+ * If the request exceeded one of the context's size limits and no response has been sent yet,
+ * the filter answers with 413 Payload Too Large.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class RequestContextFilter extends Filter {
+
+    /**
+     * Default constructor for RequestContextFilter.
+     * Initialises a new instance of the filter without any additional setup.
+     */
+    public RequestContextFilter() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Attaches the request context and passes the exchange on to the next filter or handler.
+     *
+     * @param exchange the HttpExchange object representing the HTTP request and response.
+     * @param chain the remaining filters and the handler.
+     * @throws IOException if an I/O error occurs while handling the request.
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        RequestContext context = RequestContext.of(exchange);
+        try {
+            chain.doFilter(exchange);
+        } catch (RequestContext.RequestTooLargeException ex) {
+            // Handled below
+        } finally {
+            RequestContext.release(exchange);
+        }
+        if (context.isRejected() && exchange.getResponseCode() == -1) {
+            exchange.sendResponseHeaders(413, -1);
+            exchange.close();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Parses cookies, query parameters and form bodies once per request";
+    }
+}
@@ -3,6 +3,7 @@ package homeappliance.web;
 import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.FuzzySearchIndex;
 import homeappliance.HomeApplianceDAO;
 import login.web.LoginSessionManager;
 import homeappliance.HomeAppliance;
@@ -10,7 +11,6 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * The RootHandler class implements the HttpHandler interface and is responsible
@@ -42,25 +42,40 @@ public class RootHandler implements HttpHandler {
     /**
      * Handles incoming HTTP requests to the root endpoint. 
      * Generates an HTML response based on the user's session and search queries.
+     * Requests for any other path that has no handler of its own are answered with 404 Not Found.
      * 
      * @param he the HttpExchange object representing the HTTP request and response.
      * @throws IOException if an I/O error occurs while processing the request.
      */
     @Override
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+        // The root context also receives every path that no other context matches
+        if (!"/".equals(he.getRequestURI().getPath())) {
+            he.sendResponseHeaders(404, -1);
+            he.close();
+            return;
+        }
+
+    	LoginSessionManager.UserSession session = RequestContext.of(he).session();
     	
     	String searchQuery = null;
         ArrayList<HomeAppliance> searchResults = new ArrayList<>();
+        boolean closeMatches = false;
         
-        Map<String, String> params = parseQueryString(he.getRequestURI().getQuery());
+        Map<String, String> params = RequestContext.of(he).query();
         if (params.containsKey("search")) {
             searchQuery = params.get("search");
             
             
             if (searchQuery != null && !searchQuery.isEmpty()) {
                 searchResults = products.searchProductsByKeyword(searchQuery);
+                if (searchResults.isEmpty()) {
+                    // No exact match, so look for products with similar words (for example a misspelling).
+                    // This runs on the request thread so that the index reuses its per-thread scratch arrays.
+                    searchResults = products.findProductsByIds(
+                            FuzzySearchIndex.catalogue().search(searchQuery, FuzzySearchIndex.DEFAULT_LIMIT));
+                    closeMatches = !searchResults.isEmpty();
+                }
             } else {
                 searchResults = products.findAllProducts();
             }
@@ -74,7 +89,7 @@ public class RootHandler implements HttpHandler {
                 "    <meta charset='UTF-8'>" +
                 "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
                 "    <title>Appliance Store</title>" +
-                "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' crossorigin='anonymous'>" +
+                "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
                 "</head>" +
                 "<body>" +
                 "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -143,6 +158,9 @@ public class RootHandler implements HttpHandler {
         // Display search results if a search query is present
         if (searchQuery != null && !searchQuery.isEmpty()) {
             out.write("<h2 class='mb-4'>Search Results for: " + searchQuery + "</h2>");
+            if (closeMatches) {
+                out.write("<p class='text-muted'>No exact matches were found. Showing the closest matches instead.</p>");
+            }
             if (!searchResults.isEmpty()) {
                 out.write("<table class='table table-striped'>" +
                         "    <thead class='thead-dark'>" +
@@ -196,47 +214,4 @@ public class RootHandler implements HttpHandler {
         out.write("</div></body></html>");
         out.close();
     }
-    
-    /**
-     * Extracts the session ID from the "Cookie" header of an HTTP request.
-     * 
-     * @param exchange the HttpExchange object representing the HTTP request.
-     * @return the session ID as a string, or null if no session ID is found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Parses a query string into a map of key-value pairs.
-     * 
-     * @param query the query string to parse.
-     * @return a map where keys are parameter names and values are parameter values.
-     */
-    private Map<String, String> parseQueryString(String query) {
-        Map<String, String> result = new HashMap<>();
-        if (query != null && !query.isEmpty()) {
-            String[] pairs = query.split("&");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split("=", 2);
-                if (keyValue.length == 2) {
-                    result.put(keyValue[0], keyValue[1]);
-                } else if (keyValue.length == 1) {
-                    result.put(keyValue[0], "");
-                }
-            }
-        }
-        return result;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,350 @@
+package homeappliance.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The set of bundled static files (CSS, JavaScript, images and fonts) that are served by the
+ * {@link StaticResourceHandler} under {@code /static/}.
+ *
+ * Assets are loaded once at startup from a directory (by default {@code src/main/resources/static},
+ * or the directory given by the {@code static.dir} system property) or from {@code /static} on the classpath.
+ * Files on disk are memory-mapped rather than read onto the heap. Every asset is also published under a
+ * content-hashed name (for example {@code css/bootstrap.min.3f2a9c01d4e7.css}) which can be cached by
+ * browsers forever, because a changed file gets a new name.
+ * A precompressed {@code .gz} file next to an asset is used as its gzip variant; otherwise text assets
+ * are compressed once while loading.
+ *
+ * Pages link to assets through {@link #url(String, String)} so that they fall back to the public CDN
+ * when a file has not been bundled.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class StaticAssets {
+
+    /** URL path under which the assets are served. */
+    public static final String URL_PREFIX = "/static/";
+
+    /** Bundled location of the Bootstrap stylesheet used by every page. */
+    static final String BOOTSTRAP_CSS = "css/bootstrap.min.css";
+
+    /** Public CDN location of the Bootstrap stylesheet, used when it has not been bundled. */
+    static final String BOOTSTRAP_CDN = "https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css";
+
+    private static final String DEFAULT_DIRECTORY = "src/main/resources/static";
+
+    /** Text assets smaller than this are not worth compressing. */
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+        CONTENT_TYPES.put("map", "application/json; charset=UTF-8");
+        CONTENT_TYPES.put("json", "application/json; charset=UTF-8");
+        CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+        CONTENT_TYPES.put("txt", "text/plain; charset=UTF-8");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("ttf", "font/ttf");
+    }
+
+    private static volatile StaticAssets current = new StaticAssets(Collections.emptyList());
+
+    private final Map<String, Asset> byName = new HashMap<>();
+    private final Map<String, Asset> byHashedName = new HashMap<>();
+
+    private StaticAssets(List<Asset> assets) {
+        for (Asset asset : assets) {
+            byName.put(asset.getName(), asset);
+            byHashedName.put(asset.getHashedName(), asset);
+        }
+    }
+
+    /**
+     * Loads the assets from the configured directory, or from the classpath if that directory does not exist.
+     * An empty set of assets is returned if neither exists, in which case pages use the CDN.
+     *
+     * @return the loaded assets
+     * @throws IOException if an asset cannot be read
+     */
+    public static StaticAssets loadDefault() throws IOException {
+        Path directory = Paths.get(System.getProperty("static.dir", DEFAULT_DIRECTORY));
+        if (Files.isDirectory(directory)) {
+            return load(directory);
+        }
+        URL resource = StaticAssets.class.getResource("/static");
+        if (resource == null) {
+            return new StaticAssets(Collections.emptyList());
+        }
+        try {
+            URI uri = resource.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try (FileSystem jar = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                    return load(jar.provider().getPath(uri));
+                }
+            }
+            return load(Paths.get(uri));
+        } catch (URISyntaxException ex) {
+            throw new IOException("Invalid static resource location: " + resource, ex);
+        }
+    }
+
+    /**
+     * Loads every file below the given directory as an asset, named by its path relative to the directory.
+     *
+     * @param directory the root directory of the assets
+     * @return the loaded assets
+     * @throws IOException if an asset cannot be read
+     */
+    public static StaticAssets load(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .filter(file -> !file.getFileName().toString().endsWith(".gz"))
+                    .collect(Collectors.toList());
+        }
+        try {
+            return new StaticAssets(files.stream().map(file -> {
+                try {
+                    return loadAsset(directory, file);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).collect(Collectors.toList()));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Makes the given assets the ones used by page links and the {@link StaticResourceHandler}.
+     *
+     * @param assets the assets to serve
+     */
+    public static void install(StaticAssets assets) {
+        current = assets;
+    }
+
+    /**
+     * Returns the assets currently being served.
+     *
+     * @return the installed assets
+     */
+    public static StaticAssets current() {
+        return current;
+    }
+
+    /**
+     * Returns the URL to link to for a bundled asset: its content-hashed URL if the file
+     * has been bundled, otherwise the given fallback.
+     *
+     * @param name the asset path relative to the static directory, for example "css/site.css"
+     * @param fallback the URL to use if the asset is not bundled
+     * @return the URL to put in the page
+     */
+    public static String url(String name, String fallback) {
+        Asset asset = current.byName.get(name);
+        return (asset != null) ? URL_PREFIX + asset.getHashedName() : fallback;
+    }
+
+    /**
+     * Returns the URL of the Bootstrap stylesheet, preferring the bundled copy over the CDN.
+     *
+     * @return the stylesheet URL
+     */
+    public static String bootstrapCss() {
+        return url(BOOTSTRAP_CSS, BOOTSTRAP_CDN);
+    }
+
+    /**
+     * Looks up an asset by the path it was requested under (relative to {@code /static/}),
+     * which may be either the plain name or the content-hashed name.
+     *
+     * @param path the requested path
+     * @return the asset, or null if there is no such asset
+     */
+    Asset find(String path) {
+        Asset asset = byHashedName.get(path);
+        return (asset != null) ? asset : byName.get(path);
+    }
+
+    /**
+     * Returns the number of loaded assets.
+     *
+     * @return the asset count
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    private static Asset loadAsset(Path root, Path file) throws IOException {
+        String name = root.relativize(file).toString().replace('\\', '/');
+        ByteBuffer body = map(file);
+        String hash = hash(body);
+
+        ByteBuffer gzip = null;
+        Path precompressed = file.resolveSibling(file.getFileName() + ".gz");
+        String contentType = contentType(name);
+        if (Files.isRegularFile(precompressed)) {
+            gzip = map(precompressed);
+        } else if (isCompressible(contentType) && body.remaining() >= MIN_GZIP_SIZE) {
+            ByteBuffer compressed = gzip(body);
+            if (compressed.remaining() < body.remaining() * 9L / 10) {
+                gzip = compressed;
+            }
+        }
+        return new Asset(name, hashedName(name, hash), contentType, hash, body, gzip);
+    }
+
+    /**
+     * Maps a file into memory, or reads it onto the heap if its file system does not support mapping
+     * (for example a file inside a jar).
+     */
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer();
+        } catch (UnsupportedOperationException ex) {
+            return ByteBuffer.wrap(Files.readAllBytes(file)).asReadOnlyBuffer();
+        }
+    }
+
+    private static String hash(ByteBuffer body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(body.duplicate());
+            StringBuilder hex = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError("SHA-256 is a required algorithm", ex);
+        }
+    }
+
+    private static ByteBuffer gzip(ByteBuffer body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.remaining() / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            byte[] chunk = new byte[8192];
+            ByteBuffer view = body.duplicate();
+            while (view.hasRemaining()) {
+                int count = Math.min(chunk.length, view.remaining());
+                view.get(chunk, 0, count);
+                gzip.write(chunk, 0, count);
+            }
+        }
+        return ByteBuffer.wrap(out.toByteArray()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Inserts the content hash before the file extension: "css/site.css" becomes "css/site.0123456789ab.css".
+     */
+    static String hashedName(String name, String hash) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        if (dot <= slash + 1) {
+            return name + "." + hash;
+        }
+        return name.substring(0, dot) + "." + hash + name.substring(dot);
+    }
+
+    private static String contentType(String name) {
+        int dot = name.lastIndexOf('.');
+        String extension = (dot < 0) ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.startsWith("application/javascript")
+                || contentType.startsWith("application/json") || contentType.startsWith("image/svg");
+    }
+
+    /**
+     * A single static file together with its content hash and optional gzip variant.
+     */
+    static final class Asset {
+        private final String name;
+        private final String hashedName;
+        private final String contentType;
+        private final String etag;
+        private final String gzipEtag;
+        private final ByteBuffer body;
+        private final ByteBuffer gzip;
+
+        Asset(String name, String hashedName, String contentType, String hash, ByteBuffer body, ByteBuffer gzip) {
+            this.name = name;
+            this.hashedName = hashedName;
+            this.contentType = contentType;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+            this.body = body;
+            this.gzip = gzip;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getHashedName() {
+            return hashedName;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        /** Returns the ETag of the gzip variant, which differs from that of the plain file. */
+        String getGzipEtag() {
+            return gzipEtag;
+        }
+
+        /** Returns an independent read-only view of the file contents. */
+        ByteBuffer getBody() {
+            return body.duplicate();
+        }
+
+        /** Returns an independent view of the gzip variant, or null if there is none. */
+        ByteBuffer getGzip() {
+            return (gzip == null) ? null : gzip.duplicate();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package homeappliance.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * The StaticResourceHandler class serves the bundled CSS, JavaScript and image files loaded by
+ * {@link StaticAssets}, so that the store works without access to an external CDN.
+ *
+ * Features:
+ * - Content-hashed URLs are served with {@code Cache-Control: immutable} and a one year lifetime.
+ * - Plain URLs are served with an ETag and must be revalidated, answering 304 when unchanged.
+ * - The gzip variant of an asset is sent when the client accepts it.
+ * - Files are written from their memory mapping, so they are never read onto the heap per request.
+ *
+ * Only files that were loaded at startup can be served, so request paths never reach the file system.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class StaticResourceHandler implements HttpHandler {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+
+    /**
+     * Default constructor for StaticResourceHandler.
+     * Initialises a new instance of the handler without any additional setup.
+     */
+    public StaticResourceHandler() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Handles GET and HEAD requests for a static asset.
+     *
+     * @param he the HttpExchange object representing the HTTP request and response.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    @Override
+    public void handle(HttpExchange he) throws IOException {
+        try {
+            String method = he.getRequestMethod();
+            boolean head = "HEAD".equalsIgnoreCase(method);
+            if (!head && !"GET".equalsIgnoreCase(method)) {
+                he.getResponseHeaders().set("Allow", "GET, HEAD");
+                he.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            String path = he.getRequestURI().getPath();
+            StaticAssets.Asset asset = path.startsWith(StaticAssets.URL_PREFIX)
+                    ? StaticAssets.current().find(path.substring(StaticAssets.URL_PREFIX.length()))
+                    : null;
+            if (asset == null) {
+                he.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            boolean hashed = path.endsWith(asset.getHashedName());
+            Headers headers = he.getResponseHeaders();
+            headers.set("Content-Type", asset.getContentType());
+            headers.set("Cache-Control", hashed ? IMMUTABLE : REVALIDATE);
+            headers.set("Vary", "Accept-Encoding");
+
+            // Each encoding is a different representation, so it gets its own ETag
+            ByteBuffer body = asset.getGzip();
+            boolean gzip = body != null && CompressedPage.acceptsGzip(he.getRequestHeaders().getFirst("Accept-Encoding"));
+            String etag = gzip ? asset.getGzipEtag() : asset.getEtag();
+            headers.set("ETag", etag);
+
+            if (etag.equals(he.getRequestHeaders().getFirst("If-None-Match"))) {
+                he.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            if (gzip) {
+                headers.set("Content-Encoding", "gzip");
+            } else {
+                body = asset.getBody();
+            }
+
+            if (head) {
+                headers.set("Content-Length", String.valueOf(body.remaining()));
+                he.sendResponseHeaders(200, -1);
+                return;
+            }
+            he.sendResponseHeaders(200, body.remaining() == 0 ? -1 : body.remaining());
+            try (OutputStream out = he.getResponseBody()) {
+                WritableByteChannel channel = Channels.newChannel(out);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+        } finally {
+            he.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package homeappliance.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import homeappliance.SuggestionIndex;
+
+/**
+ * The SuggestHandler class answers the typeahead requests made by the search boxes while a customer types.
+ *
+ * {@code GET /suggest?q=fri} returns a JSON array of up to {@value #DEFAULT_LIMIT} suggestion strings
+ * (or up to {@code limit}, at most {@value #MAX_LIMIT}), most popular first, from the shared
+ * {@link SuggestionIndex}. The database is not queried.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class SuggestHandler implements HttpHandler {
+
+    /** Number of suggestions returned when no limit is given. */
+    static final int DEFAULT_LIMIT = 8;
+
+    /** Largest number of suggestions a request may ask for. */
+    static final int MAX_LIMIT = 20;
+
+    /** Longest prefix that is looked up; longer input cannot match a useful suggestion. */
+    private static final int MAX_PREFIX_LENGTH = 100;
+
+    /** Bundled script that calls this handler from the search boxes. */
+    static final String SCRIPT = "js/suggest.js";
+
+    private final SuggestionIndex index;
+
+    /**
+     * Default constructor for SuggestHandler.
+     * Serves suggestions from the shared catalogue index.
+     */
+    public SuggestHandler() {
+        this(SuggestionIndex.catalogue());
+    }
+
+    /**
+     * Creates a handler that serves suggestions from the given index.
+     *
+     * @param index the suggestion index
+     */
+    public SuggestHandler(SuggestionIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Writes the suggestions for the {@code q} parameter as a JSON array.
+     *
+     * @param he the HttpExchange object representing the HTTP request and response.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    @Override
+    public void handle(HttpExchange he) throws IOException {
+        RequestContext context = RequestContext.of(he);
+        String prefix = context.query("q");
+        if (prefix != null && prefix.length() > MAX_PREFIX_LENGTH) {
+            prefix = prefix.substring(0, MAX_PREFIX_LENGTH);
+        }
+        int limit = DEFAULT_LIMIT;
+        try {
+            String requested = context.query("limit");
+            if (requested != null) {
+                limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(requested)));
+            }
+        } catch (NumberFormatException ex) {
+            // Keep the default limit
+        }
+
+        byte[] body = toJson(index.suggest(prefix, limit)).getBytes(StandardCharsets.UTF_8);
+        he.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        // Suggestions only change when the catalogue or search popularity does, so a short cache is safe
+        he.getResponseHeaders().set("Cache-Control", "public, max-age=60");
+        he.sendResponseHeaders(200, body.length);
+        try (OutputStream out = he.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Returns the script tag that adds typeahead suggestions to the search boxes of a page,
+     * or an empty string if the script has not been bundled (the search boxes then work without suggestions).
+     *
+     * @return the HTML to put at the end of the page body
+     */
+    public static String searchBoxScript() {
+        String url = StaticAssets.url(SCRIPT, null);
+        return (url == null) ? "" : "<script src='" + url + "' defer></script>";
+    }
+
+    /**
+     * Writes a list of strings as a JSON array.
+     *
+     * @param values the strings
+     * @return the JSON text
+     */
+    static String toJson(List<String> values) {
+        StringBuilder json = new StringBuilder(values.size() * 32 + 2).append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"');
+            String value = values.get(i);
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '<':
+                        // Keeps the response inert if it is ever embedded in a page
+                        json.append("\\u003c");
+                        break;
+                    default:
+                        if (ch < 0x20) {
+                            json.append(String.format("\\u%04x", (int) ch));
+                        } else {
+                            json.append(ch);
+                        }
+                        break;
+                }
+            }
+            json.append('"');
+        }
+        return json.append(']').toString();
+    }
+}
@@ -3,20 +3,27 @@ package homeappliance.web;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import homeappliance.ApplianceItem;
-import homeappliance.ApplianceItemDAO;
+import homeappliance.CatalogueEvents;
+import homeappliance.CatalogueSnapshot;
+import homeappliance.CatalogueSource;
+import homeappliance.FacetIndex;
+import homeappliance.FuzzySearchIndex;
 import homeappliance.HomeAppliance;
-import homeappliance.HomeApplianceDAO;
+import homeappliance.IdBitmap;
+import homeappliance.LiveCatalogue;
+import homeappliance.ProductListing;
+import homeappliance.ProductQuery;
+import homeappliance.SuggestionIndex;
 import login.web.LoginSessionManager;
+import metrics.Metrics;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.net.URLDecoder;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * The ViewAllProductsHandler class implements the HttpHandler interface
@@ -29,9 +36,32 @@ import java.util.stream.Collectors;
  */
 public class ViewAllProductsHandler implements HttpHandler {
 
-	    private HomeApplianceDAO products = new HomeApplianceDAO();
-	    private ApplianceItemDAO applianceItemDAO = new ApplianceItemDAO();
-	    
+	    /** Query parameters that change the rendered product listing (and so form part of the cache key). */
+	    private static final String[] CACHED_PARAMETERS = { "brand", "category", "filterValue", "maxPrice", "maxWarranty",
+	            "minPrice", "minWarranty", "search", "sortType" };
+
+	    /** Rendered product listings shared by all guest and customer requests, cleared on every catalogue write. */
+	    private static final PageCache pageCache =
+	            new PageCache(Long.getLong("pagecache.maxBytes", PageCache.DEFAULT_MAX_BYTES));
+
+	    /** Category, brand, warranty and price counts for the refine panel, kept up to date from catalogue writes. */
+	    private static final FacetIndex facetIndex = FacetIndex.forDatabase();
+
+	    /** Facets shown in the refine panel, with their headings. */
+	    private static final FacetIndex.Facet[] REFINE_FACETS = {
+	            FacetIndex.Facet.CATEGORY, FacetIndex.Facet.BRAND, FacetIndex.Facet.WARRANTY, FacetIndex.Facet.PRICE };
+	    private static final String[] REFINE_HEADINGS = { "Category", "Brand", "Warranty", "Price" };
+
+	    static {
+	        CatalogueEvents.addListener(facetIndex);
+	        CatalogueEvents.addListener((source, id) -> pageCache.invalidateAll());
+	        Metrics.gauge("pagecache.hits", pageCache::hitCount);
+	        Metrics.gauge("pagecache.misses", pageCache::missCount);
+	        Metrics.gauge("pagecache.bytes", pageCache::weightedSize);
+	        Metrics.gauge("facetindex.products", facetIndex::size);
+	        Metrics.gauge("catalogue.snapshot.bytes",
+	                () -> LiveCatalogue.catalogue().isLoaded() ? LiveCatalogue.catalogue().snapshot().estimatedBytes() : 0L);
+	    }
 	    
 		/**
 	     * Default constructor for ViewAllProductsHandler.
@@ -70,6 +100,11 @@ public class ViewAllProductsHandler implements HttpHandler {
 	            // Otherwise, handle GET = show the list of products
 	            handleShowProducts(he);
 	
+	        } catch (CatalogueSource.ReadFailedException ex) {
+	            // The catalogue has never been loaded, so there is nothing to show (or cache) yet
+	            he.getResponseHeaders().set("Retry-After", "1");
+	            he.sendResponseHeaders(503, -1);
+	            he.close();
 	        } catch (Exception ex) {
 	            ex.printStackTrace();
 	            he.sendResponseHeaders(500, 0);
@@ -88,255 +123,301 @@ public class ViewAllProductsHandler implements HttpHandler {
 	     * - Dynamically generates an HTML response, including filtering and sorting options.</li>
 	     * - Adjusts navigation bar and actions based on user session and role (Admin/Customer).</li>
 	     *
+	     * For guests and customers the product listing is identical for identical parameters, so it is
+	     * served from the {@link PageCache} and only the navigation bar is rendered per request.
+	     * Admin pages contain per-product actions and are always rendered directly.
+	     *
 	     * @param he the {@link HttpExchange} object representing the HTTP request and response.
 	     * @throws IOException if an error occurs while reading the request or writing the response.
 	     */
 	    private void handleShowProducts(HttpExchange he) throws IOException {
 	        // Parse user session
-	        String sessionId = getSessionIdFromCookie(he);
-	        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+	        LoginSessionManager.UserSession session = RequestContext.of(he).session();
 	        boolean isAdmin = (session != null && "Admin".equals(session.getRole()));
-	
+
 	        // Parse query parameters for filtering/sorting
-	        Map<String, String> params = parseQueryString(he.getRequestURI().getQuery());
-	        String searchQuery = params.get("search");
-	        String filterValue = params.get("filterValue");
-	        String category = params.get("category");
-	        String sortType = params.get("sortType");
-	
-	        // Fetch all products and items
-	        List<HomeAppliance> appliances;
-	        if (category != null && !category.isEmpty()) {
-	            appliances = products.filterProductsByCategory(category);
-	        } else if (filterValue != null && !filterValue.isEmpty()) {
-	            appliances = products.searchProductsByAttribute("description", filterValue);
-	        } else {
-	            appliances = products.findAllProducts();
-	        }
-	
-	        List<ApplianceItem> applianceItems = applianceItemDAO.findAllApplianceItems();
-	
-	        // Apply sorting if requested
-	        if (sortType != null && !sortType.isEmpty()) {
-	            switch (sortType) {
-	                case "priceAsc":
-	                    appliances = products.productsSortedByPrice(true);
-	                    break;
-	                case "priceDesc":
-	                    appliances = products.productsSortedByPrice(false);
-	                    break;
-	                case "warrantyAsc":
-	                    applianceItems = applianceItemDAO.itemsSortedByWarrantyYears(true);
-	                    appliances = syncAppliancesWithItems(appliances, applianceItems);
-	                    break;
-	                case "warrantyDesc":
-	                    applianceItems = applianceItemDAO.itemsSortedByWarrantyYears(false);
-	                    appliances = syncAppliancesWithItems(appliances, applianceItems);
-	                    break;
+	        Map<String, String> params = RequestContext.of(he).query();
+	        String header = renderHeader(session);
+	        SuggestionIndex.catalogue().recordSearch(params.get("search"));
+	        // The listing is rendered from the same trimmed parameters that make up its cache key
+	        Map<String, String> listing = PageCache.normalise(params, CACHED_PARAMETERS);
+
+	        he.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+	        if (isAdmin) {
+	            byte[] body = (header + renderProducts(listing, true)).getBytes(StandardCharsets.UTF_8);
+	            he.sendResponseHeaders(200, body.length);
+	            try (OutputStream out = he.getResponseBody()) {
+	                out.write(body);
 	            }
+	            return;
 	        }
-	
-	        // If sorting by warranty, filter out any appliances not in applianceItems
-	        if (sortType != null && sortType.startsWith("warranty")) {
-	            List<Integer> applianceIds = applianceItems.stream()
-	                    .map(ai -> ai.getHomeAppliance().getId())
-	                    .collect(Collectors.toList());
-	            appliances = appliances.stream()
-	                    .filter(ap -> applianceIds.contains(ap.getId()))
-	                    .collect(Collectors.toList());
-	        }
-	
-	        he.sendResponseHeaders(200, 0);
-	        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()))) {
-	
-	            // Get all categories for the dropdown
-	            List<String> categories = products.findAllCategories();
-	
-	            out.write(
-	            	    "<!DOCTYPE html>" +
-	            	    "<html lang='en'>" +
-	            	    "<head>" +
-	            	    "  <meta charset='UTF-8'>" +
-	            	    "  <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
-	            	    "  <title>Products</title>" +
-	            	    "  <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' crossorigin='anonymous'>" +
-	            	    "</head>" +
-	            	    "<body>" +
-	            	    "<nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
-	            	    "  <a class='navbar-brand' href='/'>Home</a>" +
-	            	    "  <button class='navbar-toggler' type='button' data-toggle='collapse' data-target='#navbarNav' aria-controls='navbarNav' aria-expanded='false' aria-label='Toggle navigation'>" +
-	            	    "    <span class='navbar-toggler-icon'></span>" +
-	            	    "  </button>" +
-	            	    "  <div class='collapse navbar-collapse' id='navbarNav'>" +
-	            	    "    <ul class='navbar-nav mr-auto'>"
-	            	);
-	
-	            // Dynamic navigation based on user role
-	            if (session != null) {
-	                if ("Admin".equals(session.getRole())) {
-	                	out.write(
-	                		    "      <li class='nav-item'><a class='nav-link' href='/addproduct'>Add Product</a></li>" +
-	                		    "      <li class='nav-item'><a class='nav-link' href='/customers'>View Customers</a></li>" +
-	                		    "      <li class='nav-item'><a class='nav-link' href='/addcustomer'>Add Customer</a></li>" +
-	                		    "      <li class='nav-item'><a class='nav-link' href='/admindashboard'>Admin Dashboard</a></li>" +
-	                		    "      <li class='nav-item'><a class='nav-link' href='/basket'>Basket</a></li>"
-	                		);
-	                } else if ("Customer".equals(session.getRole())) {
-	                	out.write(
-	                		    "      <li class='nav-item'><a class='nav-link' href='/customerDashboard'>Customer Dashboard</a></li>" +
-	                		    "      <li class='nav-item'><a class='nav-link' href='/basket'>Basket</a></li>"
-	                		);
 
-	                }
-	                out.write(
-	                	    "      <li class='nav-item'><a class='nav-link' href='/logout'>Logout</a></li>" +
-	                	    "      <li class='nav-item'><span class='navbar-text'>Logged in as: " + session.getUsername() + "</span></li>"
-	                	);
+	        String role = (session != null) ? session.getRole() : "Guest";
+	        String key = PageCache.key(role, listing, CACHED_PARAMETERS);
+	        CompressedPage page = pageCache.get(key);
+	        if (page == null) {
+	            long generation = pageCache.generation();
+	            page = CompressedPage.compress(renderProducts(listing, false));
+	            pageCache.put(key, page, generation);
+	        }
 
-	            } else {
-	            	out.write(
-	            		    "      <li class='nav-item'><a class='nav-link' href='/login'>Login</a></li>" +
-	            		    "      <li class='nav-item'><a class='nav-link' href='/signup'>Sign Up</a></li>"
-	            		);
+	        he.getResponseHeaders().add("Vary", "Accept-Encoding, Cookie");
+	        if (RequestContext.of(he).acceptsGzip()) {
+	            byte[] body = page.toGzip(header);
+	            he.getResponseHeaders().set("Content-Encoding", "gzip");
+	            he.sendResponseHeaders(200, body.length);
+	            try (OutputStream out = he.getResponseBody()) {
+	                out.write(body);
 	            }
+	        } else {
+	            he.sendResponseHeaders(200, 0);
+	            try (OutputStream out = he.getResponseBody()) {
+	                page.writeIdentity(header, out);
+	            }
+	        }
+	    }
+
+	    /**
+	     * Renders the start of the products page up to and including the navigation bar,
+	     * which depends on the logged in user.
+	     *
+	     * @param session the current user session, or null for guests
+	     * @return the HTML of the page header
+	     */
+	    private String renderHeader(LoginSessionManager.UserSession session) {
+	        StringBuilder out = new StringBuilder(2048);
+	        out.append(
+	        	    "<!DOCTYPE html>" +
+	        	    "<html lang='en'>" +
+	        	    "<head>" +
+	        	    "  <meta charset='UTF-8'>" +
+	        	    "  <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
+	        	    "  <title>Products</title>" +
+	        	    "  <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
+	        	    "</head>" +
+	        	    "<body>" +
+	        	    "<nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
+	        	    "  <a class='navbar-brand' href='/'>Home</a>" +
+	        	    "  <button class='navbar-toggler' type='button' data-toggle='collapse' data-target='#navbarNav' aria-controls='navbarNav' aria-expanded='false' aria-label='Toggle navigation'>" +
+	        	    "    <span class='navbar-toggler-icon'></span>" +
+	        	    "  </button>" +
+	        	    "  <div class='collapse navbar-collapse' id='navbarNav'>" +
+	        	    "    <ul class='navbar-nav mr-auto'>"
+	        	);
 	
-	            out.write(
-	            	    "    </ul>" +
-	            	    "    <form class='form-inline ml-auto' method='get' action='/'>" +
-	            	    "      <input class='form-control mr-sm-2' type='search' placeholder='Search for product' aria-label='Search' name='search'>" +
-	            	    "      <button class='btn btn-outline-success my-2 my-sm-0' type='submit'>Search</button>" +
-	            	    "    </form>" +
-	            	    "  </div>" +
-	            	    "</nav>" +
-	            	    "<!-- Main container -->" +
-	            	    "<div class='container mt-5'>" +
-	            	    "  <h1 class='mb-4'>Products</h1>" +
-	            	    "<!-- Filter by category -->" +
-	            	    "  <div class='row mb-3'>" +
-	            	    "    <div class='col-md-6'>" +
-	            	    "      <form action='/products' method='get'>" +
-	            	    "        <select name='category' class='form-control mb-2'>" +
-	            	    "          <option value=''>Filter by category...</option>"
-	            	);
-	            for (String cat : categories) {
-	                boolean isSelected = (category != null && cat.equals(category));
-	                out.write("<option value='" + cat + "'" + (isSelected ? " selected" : "") + ">" + cat + "</option>");
+	        // Dynamic navigation based on user role
+	        if (session != null) {
+	            if ("Admin".equals(session.getRole())) {
+	            	out.append(
+	            		    "      <li class='nav-item'><a class='nav-link' href='/addproduct'>Add Product</a></li>" +
+	            		    "      <li class='nav-item'><a class='nav-link' href='/customers'>View Customers</a></li>" +
+	            		    "      <li class='nav-item'><a class='nav-link' href='/addcustomer'>Add Customer</a></li>" +
+	            		    "      <li class='nav-item'><a class='nav-link' href='/admindashboard'>Admin Dashboard</a></li>" +
+	            		    "      <li class='nav-item'><a class='nav-link' href='/basket'>Basket</a></li>"
+	            		);
+	            } else if ("Customer".equals(session.getRole())) {
+	            	out.append(
+	            		    "      <li class='nav-item'><a class='nav-link' href='/customerdashboard'>Customer Dashboard</a></li>" +
+	            		    "      <li class='nav-item'><a class='nav-link' href='/basket'>Basket</a></li>"
+	            		);
+
 	            }
-	            out.write(
-	            	    "        </select>" +
-	            	    "        <button type='submit' class='btn btn-secondary mb-2'>Filter</button>" +
-	            	    "      </form>" +
-	            	    "    </div>" +
-	            	    "    <!-- Sort by ... -->" +
-	            	    "    <div class='col-md-6'>" +
-	            	    "      <form action='/products' method='get'>" +
-	            	    "        <select name='sortType' class='form-control mb-2'>" +
-	            	    "          <option value=''>Sort by...</option>" +
-	            	    "          <option value='priceAsc'>Price Low to High</option>" +
-	            	    "          <option value='priceDesc'>Price High to Low</option>" +
-	            	    "          <option value='warrantyAsc'>Warranty Years Low to High</option>" +
-	            	    "          <option value='warrantyDesc'>Warranty Years High to Low</option>" +
-	            	    "        </select>" +
-	            	    "        <button type='submit' class='btn btn-info mb-2'>Sort</button>" +
-	            	    "      </form>" +
-	            	    "    </div>" +
-	            	    "  </div>" +
-	            	    "<!-- Table of products -->" +
-	            	    "  <div class='table-responsive'>" +
-	            	    "    <table class='table table-striped'>" +
-	            	    "      <thead class='thead-dark'>" +
-	            	    "        <tr>" +
-	            	    "          <th>ID</th>" +
-	            	    "          <th>Brand</th>" +
-	            	    "          <th>Model</th>" +
-	            	    "          <th>Warranty</th>" +
-	            	    "          <th>SKU</th>" +
-	            	    "          <th>Description</th>" +
-	            	    "          <th>Category</th>" +
-	            	    "          <th>Price</th>" +
-	            	    "          <th>Purchase</th>"
+	            out.append(
+	            	    "      <li class='nav-item'><a class='nav-link' href='/logout'>Logout</a></li>" +
+	            	    "      <li class='nav-item'><span class='navbar-text'>Logged in as: " + session.getUsername() + "</span></li>"
 	            	);
 
-	            	// Here is the admin-specific column if needed
-	            	if (isAdmin) {
-	            	    out.write("          <th>Admin Actions</th>");
-	            	}
+	        } else {
+	        	out.append(
+	        		    "      <li class='nav-item'><a class='nav-link' href='/login'>Login</a></li>" +
+	        		    "      <li class='nav-item'><a class='nav-link' href='/signup'>Sign Up</a></li>"
+	        		);
+	        }
+	
+	        out.append(
+	        	    "    </ul>" +
+	        	    "    <form class='form-inline ml-auto' method='get' action='/products'>" +
+	        	    "      <input class='form-control mr-sm-2' type='search' placeholder='Search for product' aria-label='Search' name='search'>" +
+	        	    "      <button class='btn btn-outline-success my-2 my-sm-0' type='submit'>Search</button>" +
+	        	    "    </form>" +
+	        	    "  </div>" +
+	        	    "</nav>"
+	        	);
+	        return out.toString();
+	    }
 
-	            	// Now close the row and continue
-	            	out.write(
-	            	    "        </tr>" +
-	            	    "      </thead>" +
-	            	    "      <tbody>"
-	            	);
+	    /**
+	     * Renders the product listing part of the page (filters, sort options and the product table)
+	     * for the given query parameters.
+	     *
+	     * @param params the parsed query parameters of the request
+	     * @param isAdmin true to include the admin action column
+	     * @return the HTML of the product listing, up to the end of the document
+	     */
+	    private String renderProducts(Map<String, String> params, boolean isAdmin) {
+	        String category = params.get("category");
+	        String sortType = params.get("sortType");
+	        String search = params.get("search");
 
-	            if (isAdmin) {
-	                out.write("      <th>Admin Actions</th>");
-	            }
-	            out.write("        </tr>");
-	            out.write("      </thead>");
-	            out.write("      <tbody>");
+	        // Search, filters and sort order are combined into one query
+	        ProductQuery query = new ProductQuery()
+	                .keyword(search)
+	                .category(category)
+	                .description(params.get("filterValue"))
+	                .brand(params.get("brand"))
+	                .minPrice(parseInteger(params.get("minPrice")))
+	                .maxPrice(parseInteger(params.get("maxPrice")))
+	                .minWarrantyYears(parseInteger(params.get("minWarranty")))
+	                .maxWarrantyYears(parseInteger(params.get("maxWarranty")))
+	                .sortBy(ProductQuery.Sort.fromParameter(sortType));
+	        // Filtered and sorted over the in-memory snapshot rather than the database
+	        CatalogueSnapshot snapshot = LiveCatalogue.catalogue().snapshot();
+	        List<ProductListing> listings = snapshot.findProducts(query);
+
+	        // No exact match for the search, so show the closest matches that pass the other filters
+	        boolean closeMatches = false;
+	        if (listings.isEmpty() && query.getKeyword() != null) {
+	            listings = findCloseMatches(snapshot, query);
+	            closeMatches = !listings.isEmpty();
+	        }
+
+	        // Get all categories for the dropdown from the facet index instead of a SELECT DISTINCT
+	        List<String> categories = facetIndex.values(FacetIndex.Facet.CATEGORY);
+
+	        StringBuilder out = new StringBuilder(8192);
+	        out.append(
+	        	    "<!-- Main container -->" +
+	        	    "<div class='container mt-5'>" +
+	        	    "  <h1 class='mb-4'>Products</h1>" +
+	        	    "<!-- Filter by category -->" +
+	        	    "  <div class='row mb-3'>" +
+	        	    "    <div class='col-md-6'>" +
+	        	    "      <form action='/products' method='get'>" +
+	        	    hiddenInput("search", search) +
+	        	    hiddenInput("sortType", sortType) +
+	        	    "        <select name='category' class='form-control mb-2'>" +
+	        	    "          <option value=''>Filter by category...</option>"
+	        	);
+	        for (String cat : categories) {
+	            boolean isSelected = (category != null && cat.equals(category));
+	            out.append("<option value='" + cat + "'" + (isSelected ? " selected" : "") + ">" + cat + "</option>");
+	        }
+	        out.append(
+	        	    "        </select>" +
+	        	    "        <button type='submit' class='btn btn-secondary mb-2'>Filter</button>" +
+	        	    "      </form>" +
+	        	    "    </div>" +
+	        	    "    <!-- Sort by ... -->" +
+	        	    "    <div class='col-md-6'>" +
+	        	    "      <form action='/products' method='get'>" +
+	        	    hiddenInput("search", search) +
+	        	    hiddenInput("category", category) +
+	        	    "        <select name='sortType' class='form-control mb-2'>" +
+	        	    "          <option value=''>Sort by...</option>" +
+	        	    sortOption("priceAsc", "Price Low to High", sortType) +
+	        	    sortOption("priceDesc", "Price High to Low", sortType) +
+	        	    sortOption("warrantyAsc", "Warranty Years Low to High", sortType) +
+	        	    sortOption("warrantyDesc", "Warranty Years High to Low", sortType) +
+	        	    "        </select>" +
+	        	    "        <button type='submit' class='btn btn-info mb-2'>Sort</button>" +
+	        	    "      </form>" +
+	        	    "    </div>" +
+	        	    "  </div>"
+	        	);
+	        if (closeMatches) {
+	            out.append("  <p class='text-muted'>No exact matches were found for '").append(escapeHtml(search))
+	                    .append("'. Showing the closest matches instead.</p>");
+	        }
+	        out.append(renderFacets(params, listings));
+	        out.append(
+	        	    "<!-- Table of products -->" +
+	        	    "  <div class='table-responsive'>" +
+	        	    "    <table class='table table-striped'>" +
+	        	    "      <thead class='thead-dark'>" +
+	        	    "        <tr>" +
+	        	    "          <th>ID</th>" +
+	        	    "          <th>Brand</th>" +
+	        	    "          <th>Model</th>" +
+	        	    "          <th>Warranty</th>" +
+	        	    "          <th>SKU</th>" +
+	        	    "          <th>Description</th>" +
+	        	    "          <th>Category</th>" +
+	        	    "          <th>Price</th>" +
+	        	    "          <th>Purchase</th>"
+	        	);
+
+	        	// Here is the admin-specific column if needed
+	        	if (isAdmin) {
+	        	    out.append("          <th>Admin Actions</th>");
+	        	}
+
+	        	// Now close the row and continue
+	        	out.append(
+	        	    "        </tr>" +
+	        	    "      </thead>" +
+	        	    "      <tbody>"
+	        	);
 	
-	            for (HomeAppliance appliance : appliances) {
-	                ApplianceItem matchingItem = applianceItems.stream()
-	                    .filter(ai -> ai.getHomeAppliance().getId() == appliance.getId())
-	                    .findFirst()
-	                    .orElse(null);
+	        for (ProductListing listing : listings) {
+	            HomeAppliance appliance = listing.getAppliance();
+	            ApplianceItem matchingItem = listing.getItem();
 	
-	                String brand = (matchingItem != null && matchingItem.getBrand() != null)
-	                        ? matchingItem.getBrand() : "Not Specified";
-	                String model = (matchingItem != null && matchingItem.getModel() != null)
-	                        ? matchingItem.getModel() : "Not Specified";
-	                String warranty = (matchingItem != null)
-	                        ? matchingItem.getWarrantyYears() + " years"
-	                        : "Not Specified";
+	            String brand = (matchingItem != null && matchingItem.getBrand() != null)
+	                    ? matchingItem.getBrand() : "Not Specified";
+	            String model = (matchingItem != null && matchingItem.getModel() != null)
+	                    ? matchingItem.getModel() : "Not Specified";
+	            String warranty = (matchingItem != null)
+	                    ? matchingItem.getWarrantyYears() + " years"
+	                    : "Not Specified";
 	
-	                out.write(
-	                	    "<tr>" +
-	                	    "<td>" + appliance.getId() + "</td>" +
-	                	    "<td>" + brand + "</td>" +
-	                	    "<td>" + model + "</td>" +
-	                	    "<td>" + warranty + "</td>" +
-	                	    "<td>" + appliance.getSku() + "</td>" +
-	                	    "<td>" + appliance.getDescription() + "</td>" +
-	                	    "<td>" + appliance.getCategory() + "</td>" +
-	                	    "<td>£" + appliance.getPrice() + "</td>" +
-	                	    "<!-- Purchase form (POST to the same handler, but we check for POST in handleAddToBasket) -->" +
-	                	    "<td>" +
-	                	    "  <form method='post' action='/basket'>" +
-	                	    "    <input type='hidden' name='applianceId' value='" + appliance.getId() + "' />" +
-	                	    "    <button type='submit' class='btn btn-primary btn-sm' style='font-size: 12px; padding: 2px 6px;'>Add To Basket</button>" +
-	                	    "  </form>" +
-	                	    "</td>"
-	                	);
+	            out.append(
+	            	    "<tr>" +
+	            	    "<td>" + appliance.getId() + "</td>" +
+	            	    "<td>" + brand + "</td>" +
+	            	    "<td>" + model + "</td>" +
+	            	    "<td>" + warranty + "</td>" +
+	            	    "<td>" + appliance.getSku() + "</td>" +
+	            	    "<td>" + appliance.getDescription() + "</td>" +
+	            	    "<td>" + appliance.getCategory() + "</td>" +
+	            	    "<td>£" + appliance.getPrice() + "</td>" +
+	            	    "<!-- Purchase form (POST to the same handler, but we check for POST in handleAddToBasket) -->" +
+	            	    "<td>" +
+	            	    "  <form method='post' action='/basket'>" +
+	            	    "    <input type='hidden' name='applianceId' value='" + appliance.getId() + "' />" +
+	            	    "    <button type='submit' class='btn btn-primary btn-sm' style='font-size: 12px; padding: 2px 6px;'>Add To Basket</button>" +
+	            	    "  </form>" +
+	            	    "</td>"
+	            	);
 	
-	                // Admin actions
-	                if (isAdmin) {
-	                	out.write(
-	                		    "<td style='white-space: nowrap; width: 200px;'>" +
-	                		    "  <a href='/delete?id=" + appliance.getId() + "' " +
-	                		    "     class='btn btn-danger btn-sm' " +
-	                		    "     style='font-size: 12px; padding: 2px 6px; margin-right: 5px;'>Delete</a>" +
-	                		    "  <a href='/updateproduct?id=" + appliance.getId() + "' " +
-	                		    "     class='btn btn-primary btn-sm' " +
-	                		    "     style='font-size: 12px; padding: 2px 6px;'>Update</a>" +
-	                		    "</td>"
-	                		);
-	                }
-	                out.write("</tr>");
+	            // Admin actions
+	            if (isAdmin) {
+	            	out.append(
+	            		    "<td style='white-space: nowrap; width: 200px;'>" +
+	            		    "  <a href='/delete?id=" + appliance.getId() + "' " +
+	            		    "     class='btn btn-danger btn-sm' " +
+	            		    "     style='font-size: 12px; padding: 2px 6px; margin-right: 5px;'>Delete</a>" +
+	            		    "  <a href='/updateproduct?id=" + appliance.getId() + "' " +
+	            		    "     class='btn btn-primary btn-sm' " +
+	            		    "     style='font-size: 12px; padding: 2px 6px;'>Update</a>" +
+	            		    "</td>"
+	            		);
 	            }
+	            out.append("</tr>");
+	        }
 	
-	            out.write("      </tbody>");
-	            out.write("    </table>");
-	            out.write("  </div>");
+	        out.append("      </tbody>");
+	        out.append("    </table>");
+	        out.append("  </div>");
 	
-	            // Back to menu link
-	            out.write("  <a href='/' class='btn btn-secondary mt-3'>Back to Menu</a>");
-	            out.write("</div>"); // .container
-	            out.write("</body>");
-	            out.write("</html>");
-	        }
+	        // Back to menu link
+	        out.append("  <a href='/' class='btn btn-secondary mt-3'>Back to Menu</a>");
+	        out.append("</div>"); // .container
+	        out.append(SuggestHandler.searchBoxScript());
+	        out.append("</body>");
+	        out.append("</html>");
+	        return out.toString();
 	    }
-	
+
 	    /**
 	     * Handles a POST request to add an appliance to the user's basket.
 	     * Extracts the `applianceId` parameter from the POST body and performs necessary processing.
@@ -346,7 +427,7 @@ public class ViewAllProductsHandler implements HttpHandler {
 	     * @throws IOException if an I/O error occurs while processing the request or sending the response.
 	     */
 	    private void handleAddToBasket(HttpExchange he) throws IOException {
-	        Map<String, String> postData = parsePostBody(he);
+	        Map<String, String> postData = RequestContext.of(he).form();
 	
 	        String applianceIdStr = postData.get("applianceId");
 	        if (applianceIdStr != null) {
@@ -364,113 +445,178 @@ public class ViewAllProductsHandler implements HttpHandler {
 	        he.sendResponseHeaders(303, -1);
 	        he.close();
 	    }
+
 	
 	    /**
-	     * Parses the POST body of an HTTP request into a map of key-value pairs.
-	     * This method assumes the POST body contains form data in the standard format:
-	     * {@code key1=value1&key2=value2}. Both keys and values are URL-decoded.
+	     * Finds the products whose words are close to the search keyword (allowing typos) and that pass
+	     * the other criteria of the query. They are listed best match first unless a sort order was chosen.
 	     *
-	     * @param he the {@link HttpExchange} object representing the HTTP request.
-	     * @return a map containing the key-value pairs from the POST body.
-	     *         If the POST body is empty, an empty map is returned.
-	     * @throws IOException if an I/O error occurs while reading the request body.
+	     * @param snapshot the catalogue snapshot the listing is read from
+	     * @param query the query whose keyword found no exact match; its keyword is cleared
+	     * @return the close matches, or an empty list if there are none
 	     */
-	    private Map<String, String> parsePostBody(HttpExchange he) throws IOException {
-	        Map<String, String> result = new HashMap<>();
-	
-	        try (
-	            InputStreamReader isr = new InputStreamReader(he.getRequestBody(), StandardCharsets.UTF_8);
-	            BufferedReader br = new BufferedReader(isr)
-	        ) {
-	            StringBuilder sb = new StringBuilder();
-	            String line;
-	            while ((line = br.readLine()) != null) {
-	                sb.append(line);
+	    private List<ProductListing> findCloseMatches(CatalogueSnapshot snapshot, ProductQuery query) {
+	        int[] ids = FuzzySearchIndex.catalogue().search(query.getKeyword(), FuzzySearchIndex.DEFAULT_LIMIT);
+	        if (ids.length == 0) {
+	            return Collections.emptyList();
+	        }
+	        Map<Integer, Integer> rank = new HashMap<>();
+	        for (int i = 0; i < ids.length; i++) {
+	            rank.put(ids[i], i);
+	        }
+	        List<ProductListing> matches = new ArrayList<>();
+	        for (ProductListing listing : snapshot.findProducts(query.keyword(null))) {
+	            if (rank.containsKey(listing.getAppliance().getId())) {
+	                matches.add(listing);
 	            }
-	            String[] pairs = sb.toString().split("&");
-	            for (String pair : pairs) {
-	                String[] kv = pair.split("=", 2);
-	                if (kv.length == 2) {
-	                    String key = URLDecoder.decode(kv[0], StandardCharsets.UTF_8);
-	                    String value = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
-	                    result.put(key, value);
+	        }
+	        if (query.getSort() == ProductQuery.Sort.DEFAULT) {
+	            matches.sort(Comparator.comparingInt(listing -> rank.get(listing.getAppliance().getId())));
+	        }
+	        return matches;
+	    }
+
+	    /**
+	     * Renders the refine panel: for each facet, a link per value with the number of products in the
+	     * current listing that have it. Following a link narrows the listing to that value while keeping
+	     * the other parameters, and an "Any" link clears the facet again.
+	     *
+	     * @param params the parsed query parameters of the request
+	     * @param listings the products currently listed
+	     * @return the HTML of the refine panel
+	     */
+	    private String renderFacets(Map<String, String> params, List<ProductListing> listings) {
+	        IdBitmap listed = new IdBitmap();
+	        for (ProductListing listing : listings) {
+	            listed.add(listing.getAppliance().getId());
+	        }
+
+	        StringBuilder out = new StringBuilder(2048);
+	        out.append("<!-- Refine by facet -->");
+	        out.append("  <div class='row mb-3'>");
+	        for (int i = 0; i < REFINE_FACETS.length; i++) {
+	            FacetIndex.Facet facet = REFINE_FACETS[i];
+	            String[] names = facetParameters(facet);
+	            out.append("    <div class='col-md-3'>");
+	            out.append("      <h6>").append(REFINE_HEADINGS[i]).append("</h6>");
+	            out.append("      <ul class='list-unstyled small'>");
+	            for (Map.Entry<String, Integer> count : facetIndex.counts(facet, listed).entrySet()) {
+	                String value = count.getKey();
+	                String label;
+	                String[] values;
+	                switch (facet) {
+	                    case WARRANTY:
+	                        label = value + ("1".equals(value) ? " year" : " years");
+	                        values = new String[] { value, value };
+	                        break;
+	                    case PRICE:
+	                        Integer max = FacetIndex.priceBucketMax(value);
+	                        label = FacetIndex.priceBucketLabel(value);
+	                        values = new String[] { value, (max == null) ? null : String.valueOf(max) };
+	                        break;
+	                    default:
+	                        label = value;
+	                        values = new String[] { value };
+	                        break;
 	                }
+	                out.append("        <li><a href='").append(facetLink(params, names, values)).append("'>")
+	                        .append(escapeHtml(label)).append("</a> <span class='badge badge-secondary'>")
+	                        .append(count.getValue()).append("</span></li>");
+	            }
+	            boolean active = false;
+	            for (String name : names) {
+	                active |= (params.get(name) != null && !params.get(name).isEmpty());
 	            }
+	            if (active) {
+	                out.append("        <li><a href='").append(facetLink(params, names, new String[names.length]))
+	                        .append("'>Any</a></li>");
+	            }
+	            out.append("      </ul>");
+	            out.append("    </div>");
 	        }
-	        return result;
+	        out.append("  </div>");
+	        return out.toString();
 	    }
-	
+
 	    /**
-	     * Synchronises a list of home appliances with their corresponding appliance items.
-	     * For each appliance item in the sorted list, it finds the matching home appliance
-	     * (by comparing IDs) and builds a new list containing only the matching appliances.
-	     *
-	     * @param appliances the list of {@link HomeAppliance} objects to synchronize.
-	     * @param sortedItems the sorted list of {@link ApplianceItem} objects to use for synchronization.
-	     * @return a list of {@link HomeAppliance} objects that match the IDs of the appliance items in the sorted list.
-	     *         If no match is found for an item, it is excluded from the resulting list.
+	     * Returns the query parameters that a facet's links set.
 	     */
-	    private List<HomeAppliance> syncAppliancesWithItems(
-	            List<HomeAppliance> appliances, List<ApplianceItem> sortedItems) {
-	        return sortedItems.stream()
-	                .map(item -> appliances.stream()
-	                        .filter(ap -> ap.getId() == item.getHomeAppliance().getId())
-	                        .findFirst()
-	                        .orElse(null))
-	                .filter(Objects::nonNull)
-	                .collect(Collectors.toList());
+	    private static String[] facetParameters(FacetIndex.Facet facet) {
+	        switch (facet) {
+	            case BRAND:
+	                return new String[] { "brand" };
+	            case WARRANTY:
+	                return new String[] { "minWarranty", "maxWarranty" };
+	            case PRICE:
+	                return new String[] { "minPrice", "maxPrice" };
+	            default:
+	                return new String[] { "category" };
+	        }
 	    }
-	
+
 	    /**
-	     * Extracts the session ID from the "Cookie" header of an HTTP request.
-	     * It searches for a cookie named "sessionId" and returns its value if found.
-	     *
-	     * @param exchange the {@link HttpExchange} object containing the HTTP request and headers.
-	     * @return the session ID as a string if the "sessionId" cookie is present and valid;
-	     *         returns null if no "sessionId" cookie is found or if the cookie header is missing.
+	     * Builds a link to the products page with the current parameters, replacing the given ones.
+	     * A null value removes the parameter.
 	     */
-	    private String getSessionIdFromCookie(HttpExchange exchange) {
-	        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-	        if (cookieHeader != null) {
-	            String[] cookies = cookieHeader.split(";");
-	            for (String cookie : cookies) {
-	                cookie = cookie.trim();
-	                String[] cookiePair = cookie.split("=", 2);
-	                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-	                    return cookiePair[1];
-	                }
+	    private static String facetLink(Map<String, String> params, String[] names, String[] values) {
+	        Map<String, String> linked = new TreeMap<>();
+	        for (String name : CACHED_PARAMETERS) {
+	            String value = params.get(name);
+	            if (value != null && !value.isEmpty()) {
+	                linked.put(name, value);
 	            }
 	        }
-	        return null;
+	        for (int i = 0; i < names.length; i++) {
+	            if (values[i] == null) {
+	                linked.remove(names[i]);
+	            } else {
+	                linked.put(names[i], values[i]);
+	            }
+	        }
+	        StringBuilder link = new StringBuilder("/products");
+	        char separator = '?';
+	        for (Map.Entry<String, String> parameter : linked.entrySet()) {
+	            link.append(separator).append(parameter.getKey()).append('=')
+	                    .append(URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8));
+	            separator = '&';
+	        }
+	        return escapeHtml(link.toString());
 	    }
-	
+
 	    /**
-	     * Parses a query string (e.g., "key1=value1&key2=value2") into a map of key-value pairs.
-	     * Each key and value are URL-decoded to handle encoded characters such as spaces ("+") and special symbols.
-	     * If a key has no associated value, it is added to the map with an empty string as the value.
+	     * Parses an optional whole-number query parameter.
 	     *
-	     * @param query the query string to parse (e.g., "key1=value1&key2=value2"); may be null or empty.
-	     * @return a map containing the key-value pairs from the query string.
-	     *         Returns an empty map if the input is null or empty.
+	     * @param value the parameter value, may be null
+	     * @return the number, or null if the parameter is missing or not a number
 	     */
-	    private Map<String, String> parseQueryString(String query) {
-	        Map<String, String> result = new HashMap<>();
-	        if (query != null && !query.isEmpty()) {
-	            String[] pairs = query.split("&");
-	            for (String pair : pairs) {
-	                String[] keyValue = pair.split("=", 2);
-	                if (keyValue.length == 2) {
-	                    String decodedKey = URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8);
-	                    String decodedValue = URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
-	                    result.put(decodedKey, decodedValue);
-	                } else if (keyValue.length == 1) {
-	                    // decode the key, value is empty
-	                    String decodedKey = URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8);
-	                    result.put(decodedKey, "");
-	                }
-	            }
+	    private static Integer parseInteger(String value) {
+	        if (value == null || value.trim().isEmpty()) {
+	            return null;
+	        }
+	        try {
+	            return Integer.valueOf(value.trim());
+	        } catch (NumberFormatException ex) {
+	            return null;
 	        }
-	        return result;
 	    }
 
+	    /**
+	     * Renders a hidden form field that carries an active parameter over to another form,
+	     * so that filtering keeps the current search and sort order and vice versa.
+	     */
+	    private static String hiddenInput(String name, String value) {
+	        if (value == null || value.isEmpty()) {
+	            return "";
+	        }
+	        return "<input type='hidden' name='" + name + "' value='" + escapeHtml(value) + "'>";
+	    }
+
+	    private static String sortOption(String value, String label, String selected) {
+	        return "          <option value='" + value + "'" + (value.equals(selected) ? " selected" : "") + ">" + label + "</option>";
+	    }
+
+	    private static String escapeHtml(String value) {
+	        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+	                .replace("'", "&#39;").replace("\"", "&quot;");
+	    }
 }
@@ -0,0 +1,118 @@
+package login.web;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import homeappliance.web.RequestContext;
+
+/**
+ * Enforces the login and role requirements of a route before its handler runs.
+ *
+ * The filter looks up the visitor's session once and leaves it on the request's {@link RequestContext},
+ * where handlers read it with {@code RequestContext.of(exchange).session()} instead of parsing the
+ * cookie and querying the {@link LoginSessionManager} again. Requests that do not meet the route's
+ * requirement are redirected to the login page, so no handler or database work is done for them.
+ *
+ * Routes declare their requirement in {@code Main} using one of:
+ * - {@link #anyone()} for public pages, whose handlers may still read the session if there is one
+ * - {@link #loggedIn()} for pages any logged-in user may see
+ * - {@link #roles(String...)} for pages restricted to particular roles
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class AuthenticationFilter extends Filter {
+
+    /** Page that unauthorised visitors are redirected to. */
+    public static final String LOGIN_PAGE = "/login";
+
+    private final boolean loginRequired;
+    private final Set<String> roles;
+
+    private AuthenticationFilter(boolean loginRequired, Set<String> roles) {
+        this.loginRequired = loginRequired;
+        this.roles = roles;
+    }
+
+    /**
+     * Creates a filter for a public page.
+     *
+     * @return a filter that lets every request through
+     */
+    public static AuthenticationFilter anyone() {
+        return new AuthenticationFilter(false, Collections.emptySet());
+    }
+
+    /**
+     * Creates a filter for a page that needs a logged-in user of any role.
+     *
+     * @return a filter that redirects visitors who are not logged in
+     */
+    public static AuthenticationFilter loggedIn() {
+        return new AuthenticationFilter(true, Collections.emptySet());
+    }
+
+    /**
+     * Creates a filter for a page restricted to the given roles.
+     *
+     * @param roles the roles allowed to use the page, for example "Admin"
+     * @return a filter that redirects visitors without one of the roles
+     */
+    public static AuthenticationFilter roles(String... roles) {
+        if (roles.length == 0) {
+            throw new IllegalArgumentException("At least one role is required");
+        }
+        return new AuthenticationFilter(true, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(roles))));
+    }
+
+    /**
+     * Checks whether a session satisfies this filter's requirement.
+     *
+     * @param session the visitor's session, or null if they are not logged in
+     * @return true if the request may proceed to the handler
+     */
+    public boolean permits(LoginSessionManager.UserSession session) {
+        if (!loginRequired) {
+            return true;
+        }
+        if (session == null) {
+            return false;
+        }
+        return roles.isEmpty() || roles.contains(session.getRole());
+    }
+
+    /**
+     * Resolves the session and either passes the request on or redirects it to the login page.
+     *
+     * @param exchange the HttpExchange object representing the HTTP request and response.
+     * @param chain the remaining filters and the handler.
+     * @throws IOException if an I/O error occurs while handling the request.
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        LoginSessionManager.UserSession session = loginRequired ? RequestContext.of(exchange).session() : null;
+        if (permits(session)) {
+            chain.doFilter(exchange);
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", LOGIN_PAGE);
+        exchange.sendResponseHeaders(302, -1);
+        exchange.close();
+    }
+
+    @Override
+    public String description() {
+        if (!loginRequired) {
+            return "Public";
+        }
+        return roles.isEmpty() ? "Requires login" : "Requires role " + roles;
+    }
+}
@@ -0,0 +1,211 @@
+package login.web;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import users.Users;
+
+/**
+ * Keeps each session in its own small file in a directory, which servers sharing a disk can all read, and
+ * which keeps sessions across restarts.
+ *
+ * Files are named after a SHA-256 hash of the session ID, so a session ID from a cookie can never name a
+ * path outside the directory. A session is written to a temporary file and then moved into place, so
+ * readers never see half a session; a temporary file that cannot be written or moved is deleted. The store cannot
+ * tell when another server removes a session, so a {@link NearCachedSessionStore} in front of it sees the removal
+ * when its entry expires.
+ *
+ * Anyone who can write to the directory could plant a session for any user, so where the file system has POSIX
+ * permissions the directory is created readable and writable by its owner only, and an existing directory that
+ * other users can access is refused. Servers sharing the directory must run as the same user.
+ *
+ * Each file starts with the time the session expires, a fixed lifetime after it was saved. An expired session
+ * is treated as missing and its file deleted when it is read. Files of sessions that are never read again are
+ * deleted by a sweep of the directory, which a save hands to the sweep executor at most once a minute.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class FileSessionStore implements SessionStore {
+
+    private static final String SUFFIX = ".session";
+    private static final long SWEEP_MILLIS = 60_000;
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    /** Runs each sweep on its own virtual thread, so that a save does not wait for it. */
+    private static final Executor BACKGROUND = sweep -> Thread.ofVirtual().name("session-file-sweep").start(sweep);
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Executor sweeper;
+    private final AtomicLong lastSweep;
+
+    /**
+     * Creates a store in a directory, creating the directory if needed.
+     *
+     * @param directory the directory to keep sessions in
+     * @param ttlMillis how long a session lasts after it is saved
+     * @throws IOException if the directory cannot be created, or other users can access it
+     */
+    public FileSessionStore(Path directory, long ttlMillis) throws IOException {
+        this(directory, ttlMillis, System::currentTimeMillis, BACKGROUND);
+    }
+
+    /**
+     * Creates a store in a directory that expires sessions by the given clock.
+     *
+     * @param directory the directory to keep sessions in
+     * @param ttlMillis how long a session lasts after it is saved
+     * @param clock the current time in milliseconds, the same on every server sharing the directory
+     * @param sweeper runs the sweeps started by saves; {@code Runnable::run} sweeps on the saving thread
+     * @throws IOException if the directory cannot be created, or other users can access it
+     * @throws IllegalArgumentException if the lifetime is not positive
+     */
+    public FileSessionStore(Path directory, long ttlMillis, LongSupplier clock, Executor sweeper) throws IOException {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("The session lifetime must be positive");
+        }
+        this.directory = privateDirectory(directory);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.sweeper = sweeper;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    @Override
+    public void put(String sessionId, Users user) {
+        Path target = path(sessionId);
+        try {
+            Path temporary = Files.createTempFile(directory, "session", ".tmp");
+            long now = clock.getAsLong();
+            try {
+                Files.writeString(temporary, (now + ttlMillis) + "\n" + SessionStore.encode(user), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException ex) {
+                delete(temporary);
+                throw ex;
+            }
+            long last = lastSweep.get();
+            if (now - last >= SWEEP_MILLIS && lastSweep.compareAndSet(last, now)) {
+                sweeper.execute(this::sweep);
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public Users get(String sessionId) {
+        Path file = path(sessionId);
+        String value = read(file);
+        if (value == null) {
+            return null;
+        }
+        int newline = value.indexOf('\n');
+        if (newline < 0 || expired(value.substring(0, newline))) {
+            delete(file);
+            return null;
+        }
+        return SessionStore.decode(value.substring(newline + 1));
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        delete(path(sessionId));
+    }
+
+    /**
+     * Deletes the files of every expired session.
+     *
+     * @return the number of files deleted
+     */
+    int sweep() {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String value = read(file);
+                int newline = (value == null) ? -1 : value.indexOf('\n');
+                if (value != null && (newline < 0 || expired(value.substring(0, newline)))) {
+                    delete(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        return deleted;
+    }
+
+    /**
+     * Creates the session directory for the owner only, and checks that an existing one is not open to other users.
+     */
+    private static Path privateDirectory(Path directory) throws IOException {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return Files.createDirectories(directory);
+        }
+        Path created = Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        if (!OWNER_ONLY.containsAll(Files.getPosixFilePermissions(created))) {
+            throw new IOException("The session directory " + created + " must only be accessible by its owner");
+        }
+        return created;
+    }
+
+    private boolean expired(String expiresAt) {
+        try {
+            return clock.getAsLong() >= Long.parseLong(expiresAt);
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private Path path(String sessionId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(sessionId.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash) + SUFFIX);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java runtime provides SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.StaticAssets;
 
 /**
  * The LoginHandler class is responsible for displaying the login page.
@@ -54,7 +55,7 @@ public class LoginHandler implements HttpHandler {
         	    "    <meta charset='UTF-8'>" +
         	    "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
         	    "    <title>Login</title>" +
-        	    "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css'>" +
+        	    "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
         	    "</head>" +
         	    "<body>" +
         	    "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -1,10 +1,9 @@
 package login.web;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import homeappliance.Basket;
+import homeappliance.BasketStore;
 import users.Users;
 
 /**
@@ -15,7 +14,13 @@ import users.Users;
  * Features:
  * - Creates unique sessions for authenticated users.
  * - Associates sessions with user data, including roles and baskets.
+ *   Baskets are kept by {@link BasketStore} per user rather than in the session, so they
+ *   survive logging out and restarts of the server.
  * - Provides methods to retrieve or terminate sessions.
+ * - Keeps sessions in a {@link SessionStore}: this server's memory by default, or a store
+ *   shared by several servers.
+ * - Optionally keeps no sessions at all, issuing {@link SessionTokens signed tokens} instead,
+ *   so several servers can share the logins and they survive restarts.
  * 
  * 
  * @author Amrit Singh
@@ -32,20 +37,59 @@ public class LoginSessionManager {
         // No specific initialisation required
     }
 	
-	// A map to store active sessions, mapping session IDs to user sessions
-    private final static Map<String, UserSession> sessions = new HashMap<>();
+	// Stores active sessions, mapping session IDs to the logged-in users
+    private static volatile SessionStore store = new MemorySessionStore();
+
+    // Signs session tokens in stateless mode; null while sessions are kept in the map
+    private static volatile SessionTokens tokens;
+
+    /**
+     * Switches to stateless sessions, where the session ID is a signed token carrying the user,
+     * or back to sessions kept in memory.
+     * 
+     * @param signedTokens the tokens to issue and check, or null to keep sessions in memory.
+     */
+    public static void useSignedTokens(SessionTokens signedTokens) {
+        tokens = signedTokens;
+    }
+
+    /**
+     * Replaces the store that server-side sessions are kept in. Sessions in the old store are not moved.
+     * 
+     * @param sessionStore the store to keep sessions in.
+     */
+    public static void useStore(SessionStore sessionStore) {
+        store = sessionStore;
+    }
+
+    /**
+     * Builds the `Set-Cookie` header value that carries a session ID. Signed tokens expire,
+     * so their cookie does too.
+     * 
+     * @param sessionId the session ID returned by {@link #createSession(Users)}.
+     * @return the header value.
+     */
+    public static String sessionCookie(String sessionId) {
+        SessionTokens signed = tokens;
+        String cookie = "sessionId=" + sessionId + "; HttpOnly; Path=/";
+        return (signed == null) ? cookie : cookie + "; Max-Age=" + signed.ttlMillis() / 1000;
+    }
     
     /**
      * Creates a new session for the specified user.
-     * Generates a unique session ID and associates it with the user's session data.
+     * Generates a unique session ID and associates it with the user's session data,
+     * or in stateless mode returns a signed token carrying the user.
      * 
      * @param user the `Users` object representing the authenticated user.
      * @return the unique session ID for the newly created session.
      */
     public static String createSession(Users user) {
+        SessionTokens signed = tokens;
+        if (signed != null) {
+            return signed.issue(user);
+        }
         String sessionId = UUID.randomUUID().toString();
-        UserSession newSession = new UserSession(user);
-        sessions.put(sessionId, newSession);
+        store.put(sessionId, user);
         return sessionId;
     }
 
@@ -56,37 +100,43 @@ public class LoginSessionManager {
      * @return the `UserSession` object associated with the session ID, or `null` if no session exists.
      */
     public static UserSession getSession(String sessionId) {
-        return sessions.get(sessionId);
+        SessionTokens signed = tokens;
+        if (signed != null) {
+            Users user = signed.verify(sessionId);
+            return (user == null) ? null : new UserSession(user);
+        }
+        Users user = store.get(sessionId);
+        return (user == null) ? null : new UserSession(user);
     }
 
     /**
      * Ends the session associated with the given session ID.
-     * Removes the session from the active sessions map.
+     * Removes the session from the active sessions map. A signed token cannot be withdrawn,
+     * so in stateless mode the session only ends when the cookie is cleared or the token expires.
      * 
      * @param sessionId the unique session ID of the session to be terminated.
      */
     public static void endSession(String sessionId) {
-        sessions.remove(sessionId);
+        if (tokens == null) {
+            store.remove(sessionId);
+        }
     }
 
     /**
      * Represents a user session, storing user-specific data.
-     * Each `UserSession` contains a reference to the `Users` object for the logged-in user
-     * and their shopping basket.
+     * Each `UserSession` contains a reference to the `Users` object for the logged-in user,
+     * whose shopping basket is loaded from the {@link BasketStore} when it is first needed.
      */
     public static class UserSession {
         private Users userId; 
-        private Basket basket;
         
         /**
          * Constructs a new `UserSession` for the specified user.
-         * Initialises the user's basket.
          * 
          * @param userId the `Users` object representing the user.
          */
         public UserSession(Users userId) {
             this.userId = userId;
-            this.basket = new Basket();
         }
         
         /**
@@ -126,12 +176,13 @@ public class LoginSessionManager {
         }
 
         /**
-         * Retrieves the shopping basket associated with this session.
+         * Retrieves the shopping basket of the logged-in user, loading it if it is not in memory.
+         * Changes to the basket are saved in the background.
          * 
-         * @return the `Basket` object.
+         * @return the `Basket` object, or null if the saved basket could not be loaded.
          */
         public Basket getBasket() {
-            return basket;
+            return BasketStore.shared().basket(getUserId());
         }
     }
 }
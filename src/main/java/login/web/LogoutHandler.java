@@ -3,6 +3,7 @@ package login.web;
 import java.io.IOException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles user logout by ending their session and redirecting them to the home page.
@@ -40,7 +41,7 @@ public class LogoutHandler implements HttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
     	
         // Retrieve session ID from cookie
-        String sessionId = getSessionIdFromCookie(exchange);
+        String sessionId = RequestContext.of(exchange).sessionId();
 
         // End the session if it exists
         if (sessionId != null) {
@@ -53,27 +54,7 @@ public class LogoutHandler implements HttpHandler {
         exchange.sendResponseHeaders(302, -1);
         exchange.close();
     }
-    
-    /**
-     * Retrieves the session ID from the user's cookies.
-     * 
-     * @param exchange the HttpExchange object containing the request headers.
-     * @return the session ID if present, or `null` if not found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
+
     
     /**
      * Clears the session ID cookie by setting its value to empty and its max-age to 0.
@@ -0,0 +1,53 @@
+package login.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import users.Users;
+
+/**
+ * Keeps sessions in this server's memory, as the {@link LoginSessionManager} always has. Sessions are lost
+ * when the server stops and are not seen by other servers, but looking one up is a single map read, so it
+ * needs no near cache.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class MemorySessionStore implements SessionStore {
+
+    private final Map<String, Users> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor for MemorySessionStore.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public MemorySessionStore() {
+        // No specific initialisation required
+    }
+
+    @Override
+    public void put(String sessionId, Users user) {
+        sessions.put(sessionId, user);
+    }
+
+    @Override
+    public Users get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Returns the number of sessions held.
+     *
+     * @return the number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,146 @@
+package login.web;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import metrics.Metrics;
+import users.Users;
+
+/**
+ * Keeps recently used sessions of a shared {@link SessionStore} in this server's memory, so that most
+ * requests find their session without a round trip to the store.
+ *
+ * Sessions saved or removed through this server update the cache at once. A session removed through another
+ * server is dropped as soon as the store reports it, for stores that do, and otherwise when the cached entry
+ * expires, so a logout elsewhere takes at most the entry lifetime to reach this server. Only sessions that
+ * exist are cached. The cache holds a bounded number of entries, sweeping out expired ones when it is full
+ * and starting again empty if they are all still fresh.
+ *
+ * Lookups answered from the cache are counted in the {@code session.cache.hits} metric, those passed to the
+ * store in {@code session.cache.misses}, and entries dropped on the store's word in
+ * {@code session.cache.invalidations}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class NearCachedSessionStore implements SessionStore {
+
+    private final SessionStore store;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache in front of a store, and listens for the store's invalidations.
+     *
+     * @param store the shared store
+     * @param ttlMillis how long a cached session is used before it is looked up again
+     * @param maxEntries the most sessions cached
+     * @param clock supplies the current time in nanoseconds, such as {@code System::nanoTime}
+     */
+    public NearCachedSessionStore(SessionStore store, long ttlMillis, int maxEntries, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one session");
+        }
+        this.store = store;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        store.addInvalidationListener(this::invalidate);
+    }
+
+    @Override
+    public void put(String sessionId, Users user) {
+        store.put(sessionId, user);
+        cache(sessionId, user);
+    }
+
+    @Override
+    public Users get(String sessionId) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(sessionId);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            Metrics.counter("session.cache.hits").increment();
+            return entry.user;
+        }
+        Metrics.counter("session.cache.misses").increment();
+        Users user = store.get(sessionId);
+        if (user == null) {
+            entries.remove(sessionId);
+        } else {
+            cache(sessionId, user);
+        }
+        return user;
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        entries.remove(sessionId);
+        store.remove(sessionId);
+    }
+
+    /**
+     * Drops a session from the cache after it changed in the store, so the next lookup reads it again.
+     *
+     * @param sessionId the session ID, or null to drop every session
+     */
+    public void invalidate(String sessionId) {
+        if (sessionId == null) {
+            entries.clear();
+            Metrics.counter("session.cache.invalidations").increment();
+        } else if (entries.remove(sessionId) != null) {
+            Metrics.counter("session.cache.invalidations").increment();
+        }
+    }
+
+    /**
+     * Returns the number of sessions cached.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        entries.clear();
+        store.close();
+    }
+
+    private void cache(String sessionId, Users user) {
+        long now = clock.getAsLong();
+        if (entries.size() >= maxEntries && !entries.containsKey(sessionId)) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (now - iterator.next().loadedAt >= ttlNanos) {
+                    iterator.remove();
+                }
+            }
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(sessionId, new Entry(user, now));
+    }
+
+    /**
+     * A cached session and when it was read from the store.
+     */
+    private static final class Entry {
+
+        private final Users user;
+        private final long loadedAt;
+
+        Entry(Users user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
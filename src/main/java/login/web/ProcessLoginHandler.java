@@ -2,11 +2,11 @@ package login.web;
 
 import java.io.*;
 import java.net.HttpURLConnection;
-import java.net.URLDecoder;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.RequestContext;
 
 import users.Users;
 import users.UsersDAO;
@@ -26,6 +26,7 @@ import users.UsersDAO;
  * - Creates a session and sets a session cookie upon successful login.
  * - Redirects users to the appropriate dashboard based on their role (Admin or Customer).
  * - Redirects back to the login page with an error if authentication fails.
+ * - Asks the browser to retry shortly when too many passwords are already being checked.
  * 
  * 
  * @author Amrit Singh
@@ -52,10 +53,7 @@ public class ProcessLoginHandler implements HttpHandler {
 	@Override
 	public void handle(HttpExchange exchange) throws IOException {
 	    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-	        InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), "UTF-8");
-	        BufferedReader br = new BufferedReader(isr);
-	        String formData = br.readLine();
-	        Map<String, String> parsedData = parseFormData(formData);
+	        Map<String, String> parsedData = RequestContext.of(exchange).form();
 
 	        String username = parsedData.get("username");
 	        String password = parsedData.get("password");
@@ -69,7 +67,7 @@ public class ProcessLoginHandler implements HttpHandler {
 	                String sessionId = LoginSessionManager.createSession(user);  
 
 	                // Set the session ID cookie in the response
-	                exchange.getResponseHeaders().set("Set-Cookie", "sessionId=" + sessionId + "; HttpOnly; Path=/");
+	                exchange.getResponseHeaders().set("Set-Cookie", LoginSessionManager.sessionCookie(sessionId));
 
 	                // Redirect users to the correct dashboard based on their role
 	                if ("Admin".equals(user.getRole())) {
@@ -86,6 +84,10 @@ public class ProcessLoginHandler implements HttpHandler {
 	                exchange.getResponseHeaders().set("Location", "/login?error=true");
 	                exchange.sendResponseHeaders(HttpURLConnection.HTTP_SEE_OTHER, -1); // Redirect back to login
 	            }
+	        } catch (RejectedExecutionException ex) {
+	            // Too many logins are waiting for their passwords to be checked
+	            exchange.getResponseHeaders().set("Retry-After", "1");
+	            exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
 	        } catch (Exception ex) {
 	            ex.printStackTrace();
 	            exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
@@ -94,21 +96,4 @@ public class ProcessLoginHandler implements HttpHandler {
 	        }
 	    }
 	}
-	
-    /**
-     * Parses form data from a URL-encoded string into a map of key-value pairs.
-     * 
-     * @param formData the URL-encoded form data string.
-     * @return a map containing the parsed form fields and their corresponding values.
-     * @throws UnsupportedEncodingException if the character encoding is not supported.
-     */
-    private Map<String, String> parseFormData(String formData) throws UnsupportedEncodingException {
-        Map<String, String> parameters = new HashMap<>();
-        String[] pairs = formData.split("&");
-        for (String pair : pairs) {
-            int idx = pair.indexOf("=");
-            parameters.put(URLDecoder.decode(pair.substring(0, idx), "UTF-8"), URLDecoder.decode(pair.substring(idx + 1), "UTF-8"));
-        }
-        return parameters;
-    }
 }
\ No newline at end of file
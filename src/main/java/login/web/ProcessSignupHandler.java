@@ -1,22 +1,21 @@
 package login.web;
 
 import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
 import com.sun.net.httpserver.HttpHandler;
 
 import customers.Address;
 import customers.Customer;
 import customers.CustomerDAO;
+import database.UnitOfWork;
 import users.Users;
 import users.UsersDAO;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.BufferedReader;
-import java.net.URLDecoder;
-import java.util.HashMap;
+import java.sql.SQLException;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles the signup process for new customers. 
@@ -26,7 +25,8 @@ import java.util.Map;
  * Features:
  * - Accepts customer and user details from a signup form.
  * - Creates a new customer in the database.
- * - Creates a corresponding user account with "Customer" role.
+ * - Creates a corresponding user account with "Customer" role, in the same
+ *   transaction as the customer, so either both are saved or neither is.
  * - Automatically logs the user in upon successful signup.
  * 
  * 
@@ -53,16 +53,9 @@ public class ProcessSignupHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs during the process.
      */
 	public void handle(HttpExchange he) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(he.getRequestBody()));
-        String line;
-        StringBuilder input = new StringBuilder();
-        while ((line = reader.readLine()) != null) {
-            input.append(line);
-        }
-
         // Parse the form data into a Map
         try {
-            Map<String, String> formData = parseFormData(input.toString());
+            Map<String, String> formData = RequestContext.of(he).form();
             String businessName = formData.get("name");
             String street = formData.get("addressLine0");
             String town = formData.get("addressLine1");
@@ -80,72 +73,49 @@ public class ProcessSignupHandler implements HttpHandler {
       
             
             Customer newCustomer = new Customer(businessName, address, telephone, email);
-            CustomerDAO custdao = new CustomerDAO();
-            boolean custSuccess = custdao.addCustomer(newCustomer);
-            
-            if (custSuccess) {
-            	int customerId = custdao.getCustomerId(businessName, email);
-            	
-            	if (customerId > 0) {
-            		Users newUser = new Users(username, password, "Customer", customerId);
-            		
-            		// Add the user to the database
-            		UsersDAO dao = new UsersDAO();
-            		boolean success = dao.addUser(newUser);
-            		
-            		if (success) {
-            			// Log the user in by creating a session
-            			String sessionId = LoginSessionManager.createSession(newUser);
-            			
-            			// Set the session ID in a cookie
-            			he.getResponseHeaders().add("Set-Cookie", "sessionId=" + sessionId + "; HttpOnly; Path=/");
-            			
-            			// Redirect to the customer dashboard
-            			he.getResponseHeaders().set("Location", "/customerdashboard");
-            			he.sendResponseHeaders(302, -1);
-            		} else {
-                        // Handle failure to fetch customerId
-                        he.sendResponseHeaders(200, 0);
-                        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
-                        out.write("<html><body><h1>Failed to retrieve customer details.</h1><a href='/signup'>Try Again</a></body></html>");
-                        out.close();
-                    }
-        		} else {
-        			// Handle failure (e.g., username already exists)
-        			he.sendResponseHeaders(200, 0);
-        			BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
-        			out.write("<html><body><h1>Failed to create account. Username may already exist.</h1><a href='/signup'>Try Again</a></body></html>");
-        			out.close();
-        		}
-         
-            	}
+            Users newUser = new Users(username, password, "Customer", null);
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
+            // Turn away taken usernames before the slow password hash; free ones rarely reach the database
+            boolean signedUp = false;
+            if (!new UsersDAO().isUsernameExist(username)) {
+                String hashedPassword = UsersDAO.hashPassword(password);
 
-    /**
-     * Parses form data into a Map.
-     * 
-     * @param formData the raw form data as a string.
-     * @return a Map containing key-value pairs of form data.
-     */
-    private Map<String, String> parseFormData(String formData) {
-    	Map<String, String> result = new HashMap<>();
-        String[] pairs = formData.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=", 2);  // Ensure to split into only two parts: key and value
-            if (keyValue.length == 2) {
-                try {
-                    String key = URLDecoder.decode(keyValue[0], "UTF-8");
-                    String value = URLDecoder.decode(keyValue[1], "UTF-8");
-                    result.put(key, value);
-                } catch (UnsupportedEncodingException ex) {
-                    throw new AssertionError("UTF-8 is a required encoding support", ex);
+                // Add the customer and the user in one transaction, so a failed signup leaves neither behind
+                try (UnitOfWork work = UnitOfWork.begin()) {
+                    new CustomerDAO().addCustomer(work, newCustomer);
+                    newUser.setCustomerId(newCustomer.getCustomerID());
+                    new UsersDAO().addUser(work, newUser, hashedPassword);
+                    work.commit();
+                    signedUp = true;
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
                 }
             }
+
+            if (signedUp) {
+                // Log the user in by creating a session
+                String sessionId = LoginSessionManager.createSession(newUser);
+
+                // Set the session ID in a cookie
+                he.getResponseHeaders().add("Set-Cookie", LoginSessionManager.sessionCookie(sessionId));
+
+                // Redirect to the customer dashboard
+                he.getResponseHeaders().set("Location", "/customerdashboard");
+                he.sendResponseHeaders(302, -1);
+            } else {
+                // Handle failure (e.g., username already exists)
+                he.sendResponseHeaders(200, 0);
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
+                out.write("<html><body><h1>Failed to create account. Username may already exist.</h1><a href='/signup'>Try Again</a></body></html>");
+                out.close();
+            }
+
+        } catch (RejectedExecutionException ex) {
+            // Too many passwords are waiting to be hashed
+            he.getResponseHeaders().set("Retry-After", "1");
+            he.sendResponseHeaders(503, -1);
+        } catch (Exception ex) {
+            ex.printStackTrace();
         }
-        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package login.web;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import homeappliance.web.RequestContext;
+import metrics.Metrics;
+
+/**
+ * Limits how often each client address, and each username submitted in a form, may use a route, so that
+ * password guessing cannot tie up the server with BCrypt work.
+ *
+ * Requests over a limit are answered with 429 Too Many Requests and a {@code Retry-After} header before the
+ * handler runs, so no database or hashing work is done for them. Each limit is a {@link TokenBuckets}: a burst
+ * of the per-minute allowance, then a steady refill. Routes declare their limits in {@code Main} with
+ * {@link #forRoute(String, int, int)}, and each can be changed with {@code -Dratelimit.<route>.ipPerMinute}
+ * and {@code -Dratelimit.<route>.usernamePerMinute}, where 0 turns the limit off. Refused requests are counted
+ * in the {@code ratelimit.<route>.rejected} metric.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class RateLimitFilter extends Filter {
+
+    /** The form field whose value is limited per username. */
+    public static final String USERNAME_FIELD = "username";
+
+    /** The most keys each limit holds, from {@code ratelimit.maxKeys}. */
+    static final int MAX_KEYS = Integer.getInteger("ratelimit.maxKeys", 50_000);
+
+    private final String route;
+    private final TokenBuckets perClient;
+    private final TokenBuckets perUsername;
+
+    /**
+     * Creates a filter with the given limits.
+     *
+     * @param route the route's name, used in metric names
+     * @param perClient the limit for each client address, or null for none
+     * @param perUsername the limit for each submitted username, or null for none
+     */
+    public RateLimitFilter(String route, TokenBuckets perClient, TokenBuckets perUsername) {
+        this.route = route;
+        this.perClient = perClient;
+        this.perUsername = perUsername;
+        if (perClient != null) {
+            Metrics.gauge("ratelimit." + route + ".clients", perClient::size);
+        }
+        if (perUsername != null) {
+            Metrics.gauge("ratelimit." + route + ".usernames", perUsername::size);
+        }
+    }
+
+    /**
+     * Creates a filter for a route with default limits, which system properties may override.
+     *
+     * @param route the route's name, for example "login"
+     * @param ipPerMinute the default requests per minute from each client address, or 0 for no limit
+     * @param usernamePerMinute the default requests per minute for each username, or 0 for no limit
+     * @return the filter
+     */
+    public static RateLimitFilter forRoute(String route, int ipPerMinute, int usernamePerMinute) {
+        return new RateLimitFilter(route,
+                buckets(Integer.getInteger("ratelimit." + route + ".ipPerMinute", ipPerMinute)),
+                buckets(Integer.getInteger("ratelimit." + route + ".usernamePerMinute", usernamePerMinute)));
+    }
+
+    private static TokenBuckets buckets(int perMinute) {
+        return (perMinute > 0) ? new TokenBuckets(perMinute, perMinute, MAX_KEYS, System::nanoTime) : null;
+    }
+
+    /**
+     * Checks a request against the limits, taking a token from each bucket it passes.
+     *
+     * @param client the client's address
+     * @param username the submitted username, or null if there is none
+     * @return 0 if the request may go ahead, otherwise the nanoseconds until it may be retried
+     */
+    public long check(String client, String username) {
+        if (perClient != null) {
+            long wait = perClient.tryAcquire(client);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        if (perUsername != null && username != null && !username.isBlank()) {
+            return perUsername.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+        }
+        return 0;
+    }
+
+    /**
+     * Passes the request on if it is within the limits, otherwise answers 429 Too Many Requests.
+     *
+     * @param exchange the HttpExchange object representing the HTTP request and response.
+     * @param chain the remaining filters and the handler.
+     * @throws IOException if an I/O error occurs while handling the request.
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String username = null;
+        if (perUsername != null && "POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            username = RequestContext.of(exchange).form(USERNAME_FIELD);
+        }
+        long wait = check(clientAddress(exchange), username);
+        if (wait == 0) {
+            chain.doFilter(exchange);
+            return;
+        }
+        Metrics.counter("ratelimit." + route + ".rejected").increment();
+        exchange.getResponseHeaders().set("Retry-After",
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1))));
+        exchange.sendResponseHeaders(429, -1);
+        exchange.close();
+    }
+
+    private static String clientAddress(HttpExchange exchange) {
+        InetSocketAddress remote = exchange.getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        return (remote.getAddress() != null) ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+
+    @Override
+    public String description() {
+        return "Limits requests to " + route + " per client address and per username";
+    }
+}
@@ -0,0 +1,283 @@
+package login.web;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A small key-value server that several servers can share sessions through, standing in for an external
+ * cache in development and tests. It keeps its values in memory, so they are lost when it stops.
+ *
+ * Clients send one command per line and get one line back:
+ * - {@code GET <key>} answers {@code VAL <value>}, or {@code NIL} if there is no value or it has expired
+ * - {@code PUT <key> <value> <ttlMillis>} keeps the value for that many milliseconds and answers {@code OK}
+ * - {@code DEL <key>} answers {@code OK}
+ * - {@code SUB} answers {@code OK}, after which the connection receives {@code INV <key>} whenever a value is
+ *   deleted, replaced or expires, so clients can drop it from their caches
+ * Expired values are never returned, and are swept from memory once a minute.
+ * Keys and values must not contain spaces or line breaks. Each connection is served on its own virtual thread.
+ * Run it with {@code java login.web.SessionKeyValueServer [port]}; it listens on port 7070 by default.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class SessionKeyValueServer implements AutoCloseable {
+
+    /** The port the server listens on when run on its own. */
+    public static final int DEFAULT_PORT = 7070;
+
+    private static final long SWEEP_MILLIS = 60_000;
+
+    private final ServerSocket serverSocket;
+    private final LongSupplier clock;
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private final Set<Writer> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * A value and the time, in clock milliseconds, at which it expires.
+     */
+    private static final class Entry {
+        final String value;
+        final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private SessionKeyValueServer(ServerSocket serverSocket, LongSupplier clock) {
+        this.serverSocket = serverSocket;
+        this.clock = clock;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-kv-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a server listening on the loopback address.
+     *
+     * @param port the port, or 0 for any free port
+     * @return the running server
+     * @throws IOException if the port cannot be opened
+     */
+    public static SessionKeyValueServer start(int port) throws IOException {
+        return start(port, System::currentTimeMillis);
+    }
+
+    /**
+     * Starts a server on the loopback address that expires values by the given clock.
+     *
+     * @param port the port, or 0 for any free port
+     * @param clock the current time in milliseconds
+     * @return the running server
+     * @throws IOException if the port cannot be opened
+     */
+    static SessionKeyValueServer start(int port, LongSupplier clock) throws IOException {
+        SessionKeyValueServer server = new SessionKeyValueServer(
+                new ServerSocket(port, 50, InetAddress.getLoopbackAddress()), clock);
+        Thread.ofPlatform().name("session-kv-accept").daemon(true).start(server::accept);
+        server.sweeper.scheduleWithFixedDelay(server::sweep, SWEEP_MILLIS, SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+        return server;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of values held, including expired values not yet swept.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Removes every expired value and tells subscribers about each one.
+     */
+    void sweep() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Entry> entry : values.entrySet()) {
+            if (now >= entry.getValue().expiresAt && values.remove(entry.getKey(), entry.getValue())) {
+                publish(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Stops listening and closes every client connection.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread.ofVirtual().name("session-kv-client").start(() -> serve(socket));
+            } catch (IOException ex) {
+                if (!serverSocket.isClosed()) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Writer out = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] command = line.split(" ", 4);
+                String reply;
+                boolean subscribe = false;
+                switch (command[0]) {
+                    case "GET":
+                        String value = (command.length == 2) ? get(command[1]) : null;
+                        reply = (value == null) ? "NIL" : "VAL " + value;
+                        break;
+                    case "PUT":
+                        reply = (command.length == 4 && put(command[1], command[2], command[3])) ? "OK" : "ERR";
+                        break;
+                    case "DEL":
+                        if (command.length == 2 && values.remove(command[1]) != null) {
+                            publish(command[1]);
+                        }
+                        reply = (command.length == 2) ? "OK" : "ERR";
+                        break;
+                    case "SUB":
+                        subscribe = true;
+                        reply = "OK";
+                        break;
+                    default:
+                        reply = "ERR";
+                        break;
+                }
+                synchronized (out) {
+                    out.write(reply);
+                    out.write('\n');
+                    out.flush();
+                }
+                if (subscribe) {
+                    // Only after the reply, so the client reads "OK" before any invalidation
+                    subscribers.add(out);
+                }
+            }
+        } catch (IOException ex) {
+            // The client went away
+        } finally {
+            if (out != null) {
+                subscribers.remove(out);
+            }
+            connections.remove(socket);
+        }
+    }
+
+    private String get(String key) {
+        Entry entry = values.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= entry.expiresAt) {
+            if (values.remove(key, entry)) {
+                publish(key);
+            }
+            return null;
+        }
+        return entry.value;
+    }
+
+    private boolean put(String key, String value, String ttlMillis) {
+        long ttl;
+        try {
+            ttl = Long.parseLong(ttlMillis);
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        if (ttl <= 0) {
+            return false;
+        }
+        if (values.put(key, new Entry(value, clock.getAsLong() + ttl)) != null) {
+            publish(key);
+        }
+        return true;
+    }
+
+    private void publish(String key) {
+        for (Writer subscriber : subscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.write("INV " + key + "\n");
+                    subscriber.flush();
+                }
+            } catch (IOException ex) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     *
+     * @param args optionally, the port to listen on
+     * @throws IOException if the port cannot be opened
+     * @throws InterruptedException if the server is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (SessionKeyValueServer server = start(port)) {
+            System.out.println("Session key-value server listening on port " + server.port());
+            Thread.currentThread().join();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package login.web;
+
+import java.util.function.Consumer;
+
+import users.Users;
+
+/**
+ * Where the {@link LoginSessionManager} keeps server-side sessions, so that several servers can share them.
+ *
+ * A store maps a session ID to the logged-in user, without their password. Implementations:
+ * - {@link MemorySessionStore}, the default, keeps sessions in this server's memory
+ * - {@link FileSessionStore} keeps one file per session in a directory the servers share
+ * - {@link TcpSessionStore} keeps them in a {@link SessionKeyValueServer} the servers connect to
+ * The shared stores are wrapped in a {@link NearCachedSessionStore}, so most requests find their session
+ * without leaving the process. Stores that can tell when a session changed elsewhere pass that on to
+ * listeners added with {@link #addInvalidationListener(Consumer)}, so near caches drop it straight away.
+ *
+ * Stores report failures by printing them and behaving as if the session did not exist, so a store outage
+ * logs visitors out rather than failing their requests.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public interface SessionStore {
+
+    /**
+     * Saves a session.
+     *
+     * @param sessionId the session ID
+     * @param user the logged-in user
+     */
+    void put(String sessionId, Users user);
+
+    /**
+     * Looks up a session.
+     *
+     * @param sessionId the session ID
+     * @return the logged-in user, without a password, or null if there is no such session
+     */
+    Users get(String sessionId);
+
+    /**
+     * Removes a session.
+     *
+     * @param sessionId the session ID
+     */
+    void remove(String sessionId);
+
+    /**
+     * Registers a listener told the ID of every session changed or removed through another connection to
+     * the store, or null when any session may have changed. Stores that cannot tell ignore the listener.
+     *
+     * @param listener receives session IDs, or null for all sessions
+     */
+    default void addInvalidationListener(Consumer<String> listener) {
+        // Not supported by default
+    }
+
+    /**
+     * Releases any connections or threads held by the store.
+     */
+    default void close() {
+        // Nothing to release by default
+    }
+
+    /**
+     * Writes a user as the text a shared store keeps, as {@code userId:customerId:role:username}.
+     *
+     * @param user the user
+     * @return the text
+     */
+    static String encode(Users user) {
+        return user.getUserId() + ":" + (user.getCustomerId() == null ? "" : user.getCustomerId()) + ":"
+                + user.getRole() + ":" + user.getUsername();
+    }
+
+    /**
+     * Reads a user written by {@link #encode(Users)}.
+     *
+     * @param value the text
+     * @return the user, without a password, or null if the text is not a user
+     */
+    static Users decode(String value) {
+        String[] fields = (value == null) ? new String[0] : value.split(":", 4);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            Users user = new Users(fields[3], null, fields[2], fields[1].isEmpty() ? null : Integer.valueOf(fields[1]));
+            user.setUserId(Integer.parseInt(fields[0]));
+            return user;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package login.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import metrics.Metrics;
+import users.Users;
+
+/**
+ * Issues and checks signed session tokens, which carry the logged-in user in the cookie itself so that no
+ * server keeps the session, and any server with the keys can check it, including after a restart.
+ *
+ * A token is {@code v1.<key id>.<payload>.<signature>}, where the payload holds the user's ID, customer ID,
+ * role, username and expiry time, and the signature is an HMAC-SHA256 of everything before it. Signatures are
+ * compared in constant time. Tokens are signed with the first key of the key ring and checked with whichever
+ * key their ID names, so keys can be rotated by putting a new key first and dropping the old one once the
+ * tokens it signed have expired. A token cannot be revoked before it expires: logging out clears the cookie,
+ * but a copy of the token stays valid until then.
+ *
+ * Tokens issued and refused are counted in the {@code session.tokens.issued}, {@code session.tokens.rejected}
+ * and {@code session.tokens.expired} metrics.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class SessionTokens {
+
+    /** The fewest bytes a signing key may have. */
+    public static final int MIN_KEY_BYTES = 32;
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys;
+    private final String signingKeyId;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Creates tokens signed with the first of the given keys.
+     *
+     * @param keys the key ring, by key ID, with the signing key first
+     * @param ttlMillis how long a token stays valid, in milliseconds
+     * @param clock supplies the current time in milliseconds, such as {@code System::currentTimeMillis}
+     * @throws IllegalArgumentException if there are no keys, a key ID is not letters, digits, '-' or '_',
+     *         or a key is shorter than {@link #MIN_KEY_BYTES}
+     */
+    public SessionTokens(Map<String, byte[]> keys, long ttlMillis, LongSupplier clock) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one session key is required");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("The session lifetime must be positive");
+        }
+        Map<String, SecretKeySpec> ring = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> key : keys.entrySet()) {
+            if (!KEY_ID.matcher(key.getKey()).matches()) {
+                throw new IllegalArgumentException("Invalid session key ID: " + key.getKey());
+            }
+            if (key.getValue().length < MIN_KEY_BYTES) {
+                throw new IllegalArgumentException("Session key " + key.getKey() + " is shorter than "
+                        + MIN_KEY_BYTES + " bytes");
+            }
+            ring.put(key.getKey(), new SecretKeySpec(key.getValue().clone(), ALGORITHM));
+        }
+        this.keys = Collections.unmodifiableMap(ring);
+        this.signingKeyId = ring.keySet().iterator().next();
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates tokens from a key ring written as comma-separated {@code id=base64key} entries, signing with
+     * the first, for example {@code 2026b=...,2026a=...}.
+     *
+     * @param keyRing the key ring
+     * @param ttlMillis how long a token stays valid, in milliseconds
+     * @return the tokens
+     * @throws IllegalArgumentException if the key ring is missing or malformed
+     */
+    public static SessionTokens fromKeyRing(String keyRing, long ttlMillis) {
+        if (keyRing == null || keyRing.isBlank()) {
+            throw new IllegalArgumentException("No session keys are configured");
+        }
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (String entry : keyRing.split(",")) {
+            int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Session keys must be written as id=base64key");
+            }
+            keys.put(entry.substring(0, equals).trim(), Base64.getDecoder().decode(entry.substring(equals + 1).trim()));
+        }
+        return new SessionTokens(keys, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a random key for the key ring.
+     *
+     * @return the key, Base64 encoded
+     */
+    public static String newKey() {
+        byte[] key = new byte[MIN_KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    /**
+     * Returns how long a token stays valid.
+     *
+     * @return the lifetime in milliseconds
+     */
+    public long ttlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Issues a token for a logged-in user.
+     *
+     * @param user the user
+     * @return the token
+     */
+    public String issue(Users user) {
+        String payload = user.getUserId() + ":" + (user.getCustomerId() == null ? "" : user.getCustomerId()) + ":"
+                + (clock.getAsLong() + ttlMillis) + ":" + user.getRole() + ":" + user.getUsername();
+        String signed = VERSION + "." + signingKeyId + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Metrics.counter("session.tokens.issued").increment();
+        return signed + "." + ENCODER.encodeToString(sign(keys.get(signingKeyId), signed));
+    }
+
+    /**
+     * Checks a token and returns the user it was issued for.
+     *
+     * @param token the token
+     * @return the user, without a password, or null if the token is malformed, forged, signed with an unknown
+     *         key or expired
+     */
+    public Users verify(String token) {
+        String[] parts = (token == null) ? new String[0] : token.split("\\.", -1);
+        SecretKeySpec key = (parts.length == 4 && VERSION.equals(parts[0])) ? keys.get(parts[1]) : null;
+        if (key == null) {
+            return reject("session.tokens.rejected");
+        }
+        try {
+            byte[] signature = DECODER.decode(parts[3]);
+            String signed = token.substring(0, token.length() - parts[3].length() - 1);
+            if (!MessageDigest.isEqual(signature, sign(key, signed))) {
+                return reject("session.tokens.rejected");
+            }
+            String[] fields = new String(DECODER.decode(parts[2]), StandardCharsets.UTF_8).split(":", 5);
+            if (fields.length != 5) {
+                return reject("session.tokens.rejected");
+            }
+            if (Long.parseLong(fields[2]) <= clock.getAsLong()) {
+                return reject("session.tokens.expired");
+            }
+            Users user = new Users(fields[4], null, fields[3], fields[1].isEmpty() ? null : Integer.valueOf(fields[1]));
+            user.setUserId(Integer.parseInt(fields[0]));
+            return user;
+        } catch (IllegalArgumentException ex) {
+            // Not Base64, or not a number where one is expected
+            return reject("session.tokens.rejected");
+        }
+    }
+
+    private static Users reject(String metric) {
+        Metrics.counter(metric).increment();
+        return null;
+    }
+
+    private static byte[] sign(SecretKeySpec key, String signed) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signed.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            // Every Java runtime provides HmacSHA256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Prints a new random key, to add to the front of {@code session.keys} when rotating keys.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        System.out.println(newKey());
+    }
+}
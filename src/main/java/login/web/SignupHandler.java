@@ -3,6 +3,7 @@ package login.web;
 import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.web.StaticAssets;
 import java.io.BufferedWriter;
 import java.io.IOException;
 
@@ -53,7 +54,7 @@ public class SignupHandler implements HttpHandler {
                 "    <meta charset='UTF-8'>" +
                 "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
                 "    <title>Signup</title>" +
-                "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css'>" +
+                "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
                 "</head>" +
                 "<body>" +
                 "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -0,0 +1,246 @@
+package login.web;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import users.Users;
+
+/**
+ * Keeps sessions in a {@link SessionKeyValueServer}, so that every server connected to it shares them.
+ * Each session is saved with a lifetime, after which the server no longer returns it and sweeps it away.
+ *
+ * Commands are sent over a small pool of kept-open connections, so a lookup costs one round trip rather than
+ * a new connection. When an invalidation listener is added, a separate connection subscribes to the server's
+ * invalidations and passes each removed session on. If that connection drops, invalidations may have been
+ * missed, so listeners are told that any session may have changed before it reconnects.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class TcpSessionStore implements SessionStore {
+
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9._-]{1,200}");
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final InetSocketAddress address;
+    private final int timeoutMillis;
+    private final long ttlMillis;
+    private final BlockingQueue<Connection> idle;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    private volatile Connection subscription;
+    private Thread subscriber;
+
+    /**
+     * Creates a store that connects to a key-value server when first used.
+     *
+     * @param address the server's address
+     * @param poolSize the most connections kept open between commands
+     * @param timeoutMillis the longest to wait for the server to answer
+     * @param ttlMillis how long a session lasts after it is saved
+     * @throws IllegalArgumentException if the lifetime is not positive
+     */
+    public TcpSessionStore(InetSocketAddress address, int poolSize, int timeoutMillis, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("The session lifetime must be positive");
+        }
+        this.address = address;
+        this.timeoutMillis = timeoutMillis;
+        this.ttlMillis = ttlMillis;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    /**
+     * Creates a store for a server given as {@code host:port}.
+     *
+     * @param hostAndPort the server's address, for example "localhost:7070"
+     * @param ttlMillis how long a session lasts after it is saved
+     * @return the store
+     * @throws IllegalArgumentException if the address has no port
+     */
+    public static TcpSessionStore connect(String hostAndPort, long ttlMillis) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("The session store address must be host:port");
+        }
+        return new TcpSessionStore(new InetSocketAddress(hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1))), 8, 2000, ttlMillis);
+    }
+
+    @Override
+    public void put(String sessionId, Users user) {
+        if (!KEY.matcher(sessionId).matches()) {
+            throw new IllegalArgumentException("Session IDs in a shared store must be letters, digits, '.', '-' or '_'");
+        }
+        byte[] value = SessionStore.encode(user).getBytes(StandardCharsets.UTF_8);
+        request("PUT " + sessionId + " " + Base64.getUrlEncoder().withoutPadding().encodeToString(value) + " " + ttlMillis);
+    }
+
+    @Override
+    public Users get(String sessionId) {
+        if (sessionId == null || !KEY.matcher(sessionId).matches()) {
+            return null;
+        }
+        String reply = request("GET " + sessionId);
+        if (reply == null || !reply.startsWith("VAL ")) {
+            return null;
+        }
+        try {
+            return SessionStore.decode(new String(Base64.getUrlDecoder().decode(reply.substring(4)),
+                    StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        if (sessionId != null && KEY.matcher(sessionId).matches()) {
+            request("DEL " + sessionId);
+        }
+    }
+
+    @Override
+    public synchronized void addInvalidationListener(Consumer<String> listener) {
+        listeners.add(listener);
+        if (subscriber == null && !closed) {
+            subscriber = Thread.ofPlatform().name("session-invalidations").daemon(true).start(this::subscribe);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection current = subscription;
+        if (current != null) {
+            current.close();
+        }
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Sends a command and returns the answer, retrying once on a new connection if a kept-open one has
+     * gone stale, for example because the server restarted.
+     */
+    private String request(String command) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Connection connection = idle.poll();
+            boolean pooled = connection != null;
+            try {
+                if (connection == null) {
+                    connection = new Connection(address, timeoutMillis);
+                }
+                String reply = connection.send(command);
+                if (closed || !idle.offer(connection)) {
+                    connection.close();
+                }
+                return reply;
+            } catch (IOException ex) {
+                if (connection != null) {
+                    connection.close();
+                }
+                if (!pooled) {
+                    ex.printStackTrace();
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void subscribe() {
+        while (!closed) {
+            try (Connection connection = new Connection(address, 0)) {
+                subscription = connection;
+                if (!"OK".equals(connection.send("SUB"))) {
+                    throw new IOException("The session store refused the subscription");
+                }
+                String line;
+                while ((line = connection.in.readLine()) != null) {
+                    if (line.startsWith("INV ")) {
+                        notifyListeners(line.substring(4));
+                    }
+                }
+            } catch (IOException ex) {
+                if (!closed) {
+                    System.err.println("Session invalidations lost: " + ex.getMessage());
+                }
+            }
+            // Anything could have changed while the subscription was down
+            notifyListeners(null);
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private void notifyListeners(String sessionId) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(sessionId);
+        }
+    }
+
+    /**
+     * One open connection to the server.
+     */
+    private static final class Connection implements AutoCloseable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+
+        Connection(InetSocketAddress address, int timeoutMillis) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(address, timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                socket.setTcpNoDelay(true);
+                in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                socket.close();
+                throw ex;
+            }
+        }
+
+        String send(String command) throws IOException {
+            out.write(command);
+            out.write('\n');
+            out.flush();
+            String reply = in.readLine();
+            if (reply == null) {
+                throw new IOException("The session store closed the connection");
+            }
+            return reply;
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                // Already closed
+            }
+        }
+    }
+}
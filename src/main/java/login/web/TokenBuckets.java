@@ -0,0 +1,132 @@
+package login.web;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket for each of many keys, such as client addresses or usernames, held in a bounded map.
+ *
+ * Each bucket holds up to a capacity of tokens and refills at a steady rate; a request takes one token, and is
+ * refused while its bucket is empty. A bucket that has refilled completely is the same as no bucket, so buckets
+ * expire once they have been idle that long and are swept out when the map reaches its size limit. If the map is
+ * still full of active buckets, as when an attacker makes up a new key for every request, new keys share one
+ * overflow bucket, so memory stays bounded and made-up keys are still limited together. A sweep visits every
+ * bucket, so while the map stays full it runs at most once per refill interval, and new keys go straight to the
+ * overflow bucket in between.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class TokenBuckets {
+
+    /** The key of the bucket shared by new keys while the map is full. */
+    static final String OVERFLOW_KEY = "";
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long refillNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    /**
+     * Creates buckets that each hold a burst of requests and refill at the given rate.
+     *
+     * @param capacity the most requests allowed at once after a quiet period
+     * @param perMinute the requests allowed per minute once the burst is used up
+     * @param maxKeys the most keys held before new keys share a bucket
+     * @param clock supplies the current time in nanoseconds, such as {@code System::nanoTime}
+     * @throws IllegalArgumentException if the capacity, rate or number of keys is not positive
+     */
+    public TokenBuckets(int capacity, int perMinute, int maxKeys, LongSupplier clock) {
+        if (capacity < 1 || perMinute < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("The capacity, rate and number of keys must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.refillNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.nextSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes a token from a key's bucket if there is one.
+     *
+     * @param key the key, such as a client address
+     * @return 0 if the request may go ahead, otherwise the nanoseconds until the bucket has a token again
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            long next = nextSweep.get();
+            if (buckets.size() >= maxKeys && now - next >= 0 && nextSweep.compareAndSet(next, now + refillNanos)) {
+                sweep(now);
+            }
+            if (buckets.size() >= maxKeys) {
+                key = OVERFLOW_KEY;
+            }
+            bucket = buckets.computeIfAbsent(key, ignored -> new Bucket(capacity, now));
+        }
+        return bucket.take(now);
+    }
+
+    /**
+     * Returns the number of keys with a bucket.
+     *
+     * @return the number of buckets held
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Removes the buckets that have refilled completely, which behave the same as no bucket.
+     *
+     * @param now the current time in nanoseconds
+     */
+    void sweep(long now) {
+        Iterator<Bucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().updated() >= refillNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The tokens left for one key, refilled when it is next used.
+     */
+    private final class Bucket {
+
+        private double tokens;
+        private long updated;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updated = now;
+        }
+
+        synchronized long take(long now) {
+            tokens = Math.min(capacity, tokens + Math.max(0, now - updated) * tokensPerNano);
+            updated = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+
+        synchronized long updated() {
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A process-wide registry of named counters and gauges used to monitor the server.
+ *
+ * Counters are incremented by the code being measured and are cheap to update from many threads.
+ * Gauges are read from a supplier each time a snapshot is taken, so they always report the current value
+ * (for example the age of a database snapshot or the size of a cache).
+ * Names use dotted lower case, for example {@code db.snapshot.age_ms}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public final class Metrics {
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {
+        // Static registry
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     *
+     * @param name the metric name
+     * @return the counter
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge previously registered under the same name.
+     *
+     * @param name the metric name
+     * @param value supplies the current value when a snapshot is taken
+     */
+    public static void gauge(String name, Supplier<? extends Number> value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Removes a counter or gauge.
+     *
+     * @param name the metric name
+     */
+    public static void remove(String name) {
+        counters.remove(name);
+        gauges.remove(name);
+    }
+
+    /**
+     * Returns the current value of every metric, sorted by name.
+     * A gauge whose supplier fails is left out of the snapshot.
+     *
+     * @return the metric values
+     */
+    public static Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> {
+            try {
+                Number value = gauge.get();
+                if (value != null) {
+                    values.put(name, value);
+                }
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        });
+        return values;
+    }
+}
@@ -0,0 +1,53 @@
+package metrics.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import metrics.Metrics;
+
+/**
+ * The MetricsHandler class reports the values in the {@link Metrics} registry as plain text,
+ * one {@code name value} pair per line, so they can be read by an administrator or scraped by a monitoring tool.
+ * The route is restricted to administrators in {@code Main}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class MetricsHandler implements HttpHandler {
+
+    /**
+     * Default constructor for MetricsHandler.
+     * Initialises a new instance of the handler without any additional setup.
+     */
+    public MetricsHandler() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Writes the current metric values.
+     *
+     * @param he the HttpExchange object representing the HTTP request and response.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    @Override
+    public void handle(HttpExchange he) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, Number> metric : Metrics.snapshot().entrySet()) {
+            body.append(metric.getKey()).append(' ').append(metric.getValue()).append('\n');
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        he.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        he.getResponseHeaders().set("Cache-Control", "no-store");
+        he.sendResponseHeaders(200, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = he.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
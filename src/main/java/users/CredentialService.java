@@ -0,0 +1,283 @@
+package users;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import metrics.Metrics;
+
+/**
+ * Hashes and checks passwords with BCrypt on a bounded pool of threads, at a cost calibrated to this machine.
+ *
+ * A BCrypt hash takes tens to hundreds of milliseconds of CPU by design, so hashing is done on a fixed number
+ * of threads with a bounded queue: a burst of logins waits its turn or is turned away with a
+ * {@link RejectedExecutionException}, rather than starving the rest of the server. The cost (work factor) is
+ * the highest at which one hash takes no longer than a target time, so hashes get stronger on faster hardware.
+ * A password that is already a BCrypt hash, such as one read back from the database and saved again with a
+ * changed role, is stored as it is rather than hashed a second time. Hashes made at a lower cost are upgraded
+ * in the background the next time their user logs in.
+ *
+ * Hashes and checks are counted in the {@code credentials.hashes} and {@code credentials.checks} metrics, with
+ * their total time in {@code credentials.hash_us} and {@code credentials.check_us}. Upgrades are counted in
+ * {@code credentials.rehashes}, passwords not hashed again in {@code credentials.unchanged} and requests
+ * turned away in {@code credentials.rejected}; the {@code credentials.cost} and {@code credentials.queued}
+ * gauges show the cost in use and the hashes waiting.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class CredentialService {
+
+    /** The lowest cost BCrypt accepts. */
+    public static final int MIN_COST = 4;
+    /** The highest cost BCrypt accepts. */
+    public static final int MAX_COST = 31;
+    /** The cost at which calibration measures a hash. */
+    static final int PROBE_COST = 6;
+
+    /** The hash formats jbcrypt reads. */
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2a?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+
+    private static volatile CredentialService shared;
+
+    private final int cost;
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Creates a service that hashes at the given cost on a pool of the given size.
+     *
+     * @param cost the BCrypt cost of new hashes
+     * @param threads the number of passwords hashed or checked at once
+     * @param queueCapacity the number of hashes and checks that may wait for a thread
+     * @throws IllegalArgumentException if the cost is out of range, or there are no threads
+     */
+    public CredentialService(int cost, int threads, int queueCapacity) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("The BCrypt cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("The pool needs at least one thread and one queue slot");
+        }
+        this.cost = cost;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "credential-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Returns the service used by the DAOs, calibrating the cost on first use so a hash takes at most
+     * {@code credentials.targetMillis} (250 milliseconds by default), and never less than
+     * {@code credentials.minCost} (10, the jbcrypt default). Passwords are hashed on
+     * {@code credentials.threads} threads (half the processors) with up to {@code credentials.queue}
+     * (64) waiting.
+     *
+     * @return the shared service
+     */
+    public static CredentialService shared() {
+        CredentialService service = shared;
+        if (service == null) {
+            synchronized (CredentialService.class) {
+                service = shared;
+                if (service == null) {
+                    int cost = calibrate(Long.getLong("credentials.targetMillis", 250),
+                            Integer.getInteger("credentials.minCost", 10), MAX_COST);
+                    service = new CredentialService(cost,
+                            Integer.getInteger("credentials.threads",
+                                    Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                            Integer.getInteger("credentials.queue", 64));
+                    CredentialService gauged = service;
+                    Metrics.gauge("credentials.cost", () -> gauged.cost);
+                    Metrics.gauge("credentials.queued", () -> gauged.pool.getQueue().size());
+                    shared = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Finds the highest cost at which a hash takes no longer than the target time on this machine. Each step
+     * of cost doubles the time, so one hash is timed at a low cost and the rest is worked out from it.
+     *
+     * @param targetMillis the longest a hash should take
+     * @param minCost the lowest cost to return, whatever the time
+     * @param maxCost the highest cost to return
+     * @return the cost
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        String salt = BCrypt.gensalt(PROBE_COST);
+        long best = Long.MAX_VALUE;
+        // The fastest of a few runs, so the first run's class loading and compilation do not count
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int cost = PROBE_COST;
+        while (cost < MAX_COST && best << (cost + 1 - PROBE_COST) <= targetNanos) {
+            cost++;
+        }
+        return Math.max(Math.max(minCost, MIN_COST), Math.min(cost, maxCost));
+    }
+
+    /**
+     * Returns whether a value is a BCrypt hash rather than a plaintext password.
+     *
+     * @param value the value
+     * @return true if it is a BCrypt hash
+     */
+    public static boolean isHash(String value) {
+        return value != null && BCRYPT_HASH.matcher(value).matches();
+    }
+
+    /**
+     * Returns the cost a BCrypt hash was made at.
+     *
+     * @param hash the hash
+     * @return the cost, or -1 if the value is not a BCrypt hash
+     */
+    public static int costOf(String hash) {
+        if (!isHash(hash)) {
+            return -1;
+        }
+        int dollar = hash.indexOf('$', 1);
+        return Integer.parseInt(hash.substring(dollar + 1, dollar + 3));
+    }
+
+    /**
+     * Returns the cost of new hashes.
+     *
+     * @return the cost
+     */
+    public int cost() {
+        return cost;
+    }
+
+    /**
+     * Hashes a password at the service's cost.
+     *
+     * @param password the plaintext password
+     * @return the hash
+     * @throws RejectedExecutionException if too many passwords are already waiting to be hashed
+     */
+    public String hash(String password) {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)), "credentials.hashes", "credentials.hash_us");
+    }
+
+    /**
+     * Returns the value to store for a password being saved: the password itself if it is already a hash,
+     * such as the stored hash of a user whose other details changed, otherwise its hash.
+     *
+     * @param password the password being saved, either plaintext or a BCrypt hash
+     * @return the hash to store
+     * @throws RejectedExecutionException if too many passwords are already waiting to be hashed
+     */
+    public String hashForSave(String password) {
+        if (isHash(password)) {
+            Metrics.counter("credentials.unchanged").increment();
+            return password;
+        }
+        return hash(password);
+    }
+
+    /**
+     * Checks a password against a stored hash.
+     *
+     * @param password the plaintext password
+     * @param hash the stored hash
+     * @return true if the password matches
+     * @throws RejectedExecutionException if too many passwords are already waiting to be checked
+     */
+    public boolean check(String password, String hash) {
+        if (password == null || !isHash(hash)) {
+            return false;
+        }
+        return run(() -> BCrypt.checkpw(password, hash), "credentials.checks", "credentials.check_us");
+    }
+
+    /**
+     * Returns whether a stored hash was made at a lower cost than new hashes, and should be upgraded.
+     *
+     * @param hash the stored hash
+     * @return true if the hash should be replaced
+     */
+    public boolean needsRehash(String hash) {
+        return costOf(hash) < cost;
+    }
+
+    /**
+     * Hashes a password again at the current cost in the background and passes the new hash on, after the
+     * password has been checked against a hash that {@link #needsRehash(String) needs upgrading}. The upgrade
+     * is skipped if the pool is busy, and tried again at the next login.
+     *
+     * @param password the plaintext password, already checked
+     * @param save saves the new hash
+     */
+    public void rehashLater(String password, Consumer<String> save) {
+        try {
+            pool.execute(() -> {
+                long start = System.nanoTime();
+                String upgraded = BCrypt.hashpw(password, BCrypt.gensalt(cost));
+                record("credentials.hashes", "credentials.hash_us", start);
+                save.accept(upgraded);
+                Metrics.counter("credentials.rehashes").increment();
+            });
+        } catch (RejectedExecutionException ex) {
+            Metrics.counter("credentials.rejected").increment();
+        }
+    }
+
+    /**
+     * Stops the pool once the hashes already queued are done.
+     */
+    public void stop() {
+        pool.shutdown();
+    }
+
+    private <T> T run(Callable<T> task, String countMetric, String timeMetric) {
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                long start = System.nanoTime();
+                T result = task.call();
+                record(countMetric, timeMetric, start);
+                return result;
+            });
+        } catch (RejectedExecutionException ex) {
+            Metrics.counter("credentials.rejected").increment();
+            throw ex;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RejectedExecutionException("Interrupted while waiting for a password hash", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void record(String countMetric, String timeMetric, long start) {
+        Metrics.counter(countMetric).increment();
+        Metrics.counter(timeMetric).add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+}
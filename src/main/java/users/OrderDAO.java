@@ -4,6 +4,8 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import database.ReadRouting;
+
 /**
  * OrderDAO is a Data Access Object (DAO) class that provides methods 
  * for managing Order records in an SQLite database. 
@@ -111,7 +113,7 @@ public class OrderDAO {
         String query = "SELECT orderId, userId, totalPrice, createdAt FROM orders WHERE userId = ?";
         UsersDAO usersDAO = new UsersDAO(); // Use the existing UsersDAO to fetch user details
 
-        try (Connection conn = this.connect();
+        try (Connection conn = ReadRouting.connect("OrderDAO.getOrdersByUserId", this::connect);
              PreparedStatement preStatement = conn.prepareStatement(query)) {
 
             preStatement.setInt(1, userId);
@@ -0,0 +1,282 @@
+package users;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import metrics.Metrics;
+
+/**
+ * A Bloom filter of the usernames in use, so that checking a free username does not need a database query.
+ *
+ * A Bloom filter never says a username it was given is absent, but may say an absent one is present, at about
+ * the configured false-positive rate. {@link UsersDAO#isUsernameExist(String)} therefore only queries the
+ * database when the filter says a username might be taken. Names cannot be taken out of a Bloom filter, so a
+ * deleted or renamed user's old name stays in it as a false positive until the filter is rebuilt, which happens
+ * in the background once the stale names, or the names added since the last build, grow past the headroom the
+ * filter was sized for.
+ *
+ * Until the filter has been loaded, and if loading fails, every username is reported as possibly taken, so
+ * checks fall back to the database. Checks the filter answered are counted in the
+ * {@code users.filter.skipped} metric, checks passed to the database in {@code users.filter.queried}, and
+ * those the database then found free in {@code users.filter.false_positives}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public final class UsernameFilter {
+
+    /** The smallest number of names a filter is sized for. */
+    static final int MIN_CAPACITY = 1024;
+
+    private static volatile UsernameFilter shared;
+
+    private final Supplier<List<String>> usernames;
+    private final double falsePositiveRate;
+    private volatile Bits bits;
+    private List<String> addedSinceLoad = new ArrayList<>();
+    private int added;
+    private int stale;
+    private boolean loading;
+
+    /**
+     * Creates an empty filter, which reports every username as possibly taken until it is loaded.
+     *
+     * @param usernames loads every username in use, returning null if they cannot be read
+     * @param falsePositiveRate the chance of a free username being reported as possibly taken, between 0 and 1
+     * @throws IllegalArgumentException if the rate is not between 0 and 1
+     */
+    public UsernameFilter(Supplier<List<String>> usernames, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("The false-positive rate must be between 0 and 1");
+        }
+        this.usernames = usernames;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Returns the filter of the usernames in the database, loading it on first use. Its false-positive rate
+     * is {@code users.filter.falsePositiveRate} (1% by default).
+     *
+     * @return the shared filter
+     */
+    public static UsernameFilter shared() {
+        UsernameFilter filter = shared;
+        if (filter == null) {
+            synchronized (UsernameFilter.class) {
+                filter = shared;
+                if (filter == null) {
+                    UsersDAO dao = new UsersDAO();
+                    filter = new UsernameFilter(dao::findAllUsernames,
+                            Double.parseDouble(System.getProperty("users.filter.falsePositiveRate", "0.01")));
+                    filter.load();
+                    UsernameFilter gauged = filter;
+                    Metrics.gauge("users.filter.bits", () -> {
+                        Bits current = gauged.bits;
+                        return (current == null) ? 0 : current.size;
+                    });
+                    shared = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Builds the filter from the usernames in use and swaps it in. Names added while they are being read are
+     * kept. If the names cannot be read, the current filter is kept.
+     *
+     * @return true if the filter was rebuilt
+     */
+    public boolean load() {
+        List<String> carried;
+        synchronized (this) {
+            if (loading) {
+                return false;
+            }
+            loading = true;
+            carried = addedSinceLoad;
+            addedSinceLoad = new ArrayList<>();
+        }
+        try {
+            List<String> names = usernames.get();
+            if (names == null) {
+                synchronized (this) {
+                    carried.addAll(addedSinceLoad);
+                    addedSinceLoad = carried;
+                }
+                return false;
+            }
+            synchronized (this) {
+                // Names added before the read may not have been committed yet, so both lists are kept
+                Bits next = new Bits(Math.max(MIN_CAPACITY, 2 * (names.size() + carried.size())), falsePositiveRate);
+                names.forEach(next::put);
+                carried.forEach(next::put);
+                addedSinceLoad.forEach(next::put);
+                added = addedSinceLoad.size();
+                stale = 0;
+                bits = next;
+            }
+            Metrics.counter("users.filter.loads").increment();
+            return true;
+        } finally {
+            synchronized (this) {
+                loading = false;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a username might be in use. A false result means it is definitely free.
+     *
+     * @param username the username
+     * @return false if the username is not in use, true if it might be
+     */
+    public boolean mightContain(String username) {
+        Bits current = bits;
+        if (current == null || username == null) {
+            return true;
+        }
+        if (current.mightContain(username)) {
+            Metrics.counter("users.filter.queried").increment();
+            return true;
+        }
+        Metrics.counter("users.filter.skipped").increment();
+        return false;
+    }
+
+    /**
+     * Records that a username the filter said might be taken was found to be free.
+     */
+    public void falsePositive() {
+        if (bits != null) {
+            Metrics.counter("users.filter.false_positives").increment();
+        }
+    }
+
+    /**
+     * Adds a username that is now in use. It may be added before the insert is committed, as a name that is
+     * then rolled back is only a false positive.
+     *
+     * @param username the username
+     */
+    public void add(String username) {
+        if (username == null) {
+            return;
+        }
+        boolean rebuild;
+        synchronized (this) {
+            addedSinceLoad.add(username);
+            Bits current = bits;
+            if (current == null) {
+                return;
+            }
+            current.put(username);
+            rebuild = ++added > current.capacity / 2;
+        }
+        if (rebuild) {
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * Records that a username is no longer in use, after a user was deleted or renamed. The name stays in the
+     * filter until it is rebuilt.
+     */
+    public void removed() {
+        boolean rebuild;
+        synchronized (this) {
+            Bits current = bits;
+            if (current == null) {
+                return;
+            }
+            rebuild = ++stale > current.capacity / 4;
+        }
+        if (rebuild) {
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * Returns the number of bits in the filter.
+     *
+     * @return the size of the filter, or 0 if it has not been loaded
+     */
+    public int size() {
+        Bits current = bits;
+        return (current == null) ? 0 : current.size;
+    }
+
+    private void rebuildInBackground() {
+        Thread.ofVirtual().name("username-filter").start(this::load);
+    }
+
+    /**
+     * The bits of one filter, sized for a number of names. Bits are only ever set, so readers need no lock.
+     */
+    private static final class Bits {
+
+        private final int capacity;
+        private final int size;
+        private final int hashes;
+        private final AtomicLongArray words;
+
+        Bits(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            double ln2 = Math.log(2);
+            long bitCount = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.size = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bitCount));
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * ln2));
+            this.words = new AtomicLongArray((size + 63) >>> 6);
+        }
+
+        void put(String username) {
+            long hash = hash(username);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(first + i * second, size);
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String username) {
+            long hash = hash(username);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(first + i * second, size);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Hashes a username to 64 bits with FNV-1a and a final mix, so that both halves can be used as hashes.
+         */
+        private static long hash(String username) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < username.length(); i++) {
+                hash ^= username.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            // An odd second hash steps through every bit when the size is even
+            return hash | 1L << 32;
+        }
+    }
+}
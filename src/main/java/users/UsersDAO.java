@@ -5,8 +5,12 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import org.mindrot.jbcrypt.BCrypt;
+import java.util.List;
+
+import database.ReadRouting;
+import database.UnitOfWork;
 
 /**
  * The UsersDAO class provides data access object methods for managing user records in the SQLite database.
@@ -71,7 +75,7 @@ public class UsersDAO {
 	    try (Connection conn = this.connect();
 	         PreparedStatement preStatement = conn.prepareStatement(query)) {
 
-	        String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt());
+	        String hashedPassword = CredentialService.shared().hashForSave(user.getPassword());
 
 	        preStatement.setString(1, user.getUsername());
 	        preStatement.setString(2, hashedPassword);
@@ -83,12 +87,55 @@ public class UsersDAO {
 	            preStatement.setInt(4, user.getCustomerId());
 	        }
 	        int rows = preStatement.executeUpdate();
+	        if (rows > 0) {
+	            UsernameFilter.shared().add(user.getUsername());
+	        }
 	        return rows > 0;
 	    } catch (SQLException ex) {
 	        ex.printStackTrace();
 	    }
 	    return false;
 	}
+
+	/**
+     * Hashes a password for {@link #addUser(UnitOfWork, Users, String)}. Hashing is deliberately slow, so it
+     * should be done before the unit of work starts rather than while it holds the database write lock.
+     * 
+     * @param password the plaintext password
+     * @return the hashed password
+     */
+	public static String hashPassword(String password) {
+	    return CredentialService.shared().hash(password);
+	}
+
+	/**
+     * Adds a new user as part of a unit of work, setting the user's generated ID. A username that is
+     * already taken fails on the table's unique constraint, so no separate check is needed.
+     * Nothing is saved until the unit of work is committed.
+     * 
+     * @param work the unit of work to run in
+     * @param user the Users object containing user details
+     * @param hashedPassword the user's password, hashed with {@link #hashPassword(String)}
+     * @throws SQLException if the user cannot be added, in which case the unit of work should be rolled back
+     */
+	public void addUser(UnitOfWork work, Users user, String hashedPassword) throws SQLException {
+	    String query = "INSERT INTO users(username, password, role, customerId) VALUES(?, ?, ?, ?)";
+	    try (PreparedStatement preStatement = work.connection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+	        preStatement.setString(1, user.getUsername());
+	        preStatement.setString(2, hashedPassword);
+	        preStatement.setString(3, user.getRole());
+	        preStatement.setObject(4, user.getCustomerId()); //setObject to handle null
+	        preStatement.executeUpdate();
+	        // Added before the commit, as a name that is rolled back is only a false positive
+	        UsernameFilter.shared().add(user.getUsername());
+	        try (ResultSet generatedKeys = preStatement.getGeneratedKeys()) {
+	            if (!generatedKeys.next()) {
+	                throw new SQLException("No ID was generated for the user");
+	            }
+	            user.setUserId(generatedKeys.getInt(1));
+	        }
+	    }
+	}
 	
 	/**
      * Retrieves all user records from the database.
@@ -98,7 +145,7 @@ public class UsersDAO {
 	public ArrayList<Users> findAllUsers() {
 		String query = "SELECT * FROM users;";
 		ArrayList<Users> users = new ArrayList<>();
-		try (Connection conn = this.connect();
+		try (Connection conn = ReadRouting.connect("UsersDAO.findAllUsers", this::connect);
 				PreparedStatement preStatement = conn.prepareStatement(query);
 				ResultSet result = preStatement.executeQuery()){
 					while (result.next()) {
@@ -157,6 +204,9 @@ public class UsersDAO {
 	         PreparedStatement preStatement = conn.prepareStatement(query)) {
 	        preStatement.setInt(1, userId);
 	        int rows = preStatement.executeUpdate();
+	        if (rows > 0) {
+	            UsernameFilter.shared().removed();
+	        }
 	        return rows > 0;
 	    } catch (SQLException ex) {
 	        System.out.println("Error deleting user: " + ex.getMessage());
@@ -166,12 +216,13 @@ public class UsersDAO {
 	
 	/**
      * Updates an existing user record in the database with new details.
+     * A password that is still the stored hash, as when only the role or username changed, is not hashed again.
      * 
      * @param user the Users object containing updated user details
      * @return true if the update is successful, false otherwise
      */
 	public boolean updateUser(Users user) {
-		String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt());
+		String hashedPassword = CredentialService.shared().hashForSave(user.getPassword());
 		
 		String query = "UPDATE users SET username = ?, password = ?, role = ?, customerId = ? WHERE userId = ?";
 		try (Connection conn = this.connect();
@@ -182,6 +233,12 @@ public class UsersDAO {
 			preStatement.setObject(4, user.getCustomerId()); //setObject to handle null
 			preStatement.setInt(5, user.getUserId());
 			int rows = preStatement.executeUpdate();
+			if (rows > 0) {
+				// The old username may have changed, so it is counted as stale
+				UsernameFilter filter = UsernameFilter.shared();
+				filter.add(user.getUsername());
+				filter.removed();
+			}
 			return rows > 0;
 		} catch (SQLException ex) {
 			ex.printStackTrace();
@@ -191,10 +248,12 @@ public class UsersDAO {
 	
 	/**
      * Authenticates a user by their username and password.
+     * A stored hash made at a lower cost than new hashes is upgraded in the background after a successful login.
      * 
      * @param username the username of the user
      * @param password the plaintext password to check
      * @return true if authentication is successful, false otherwise
+     * @throws java.util.concurrent.RejectedExecutionException if too many passwords are already being checked
      */
 	public boolean authenticate(String username, String password) {
 	    String query = "SELECT password FROM users WHERE username = ?";
@@ -205,7 +264,14 @@ public class UsersDAO {
 
 	        if (result.next()) {
 	            String storedPassword = result.getString("password");
-	            return BCrypt.checkpw(password, storedPassword);
+	            CredentialService credentials = CredentialService.shared();
+	            if (!credentials.check(password, storedPassword)) {
+	                return false;
+	            }
+	            if (credentials.needsRehash(storedPassword)) {
+	                credentials.rehashLater(password, upgraded -> replacePassword(username, storedPassword, upgraded));
+	            }
+	            return true;
 	        }
 	    } catch (SQLException ex) {
 	        ex.printStackTrace();
@@ -213,6 +279,28 @@ public class UsersDAO {
 	    return false;
 	}
 	
+	/**
+     * Replaces a user's password hash, unless the password was changed since the old hash was read.
+     * 
+     * @param username the username of the user
+     * @param oldHash the hash the new one replaces
+     * @param newHash the new hash
+     * @return true if the hash was replaced, false otherwise
+     */
+	private boolean replacePassword(String username, String oldHash, String newHash) {
+	    String query = "UPDATE users SET password = ? WHERE username = ? AND password = ?";
+	    try (Connection conn = this.connect();
+	         PreparedStatement preStatement = conn.prepareStatement(query)) {
+	        preStatement.setString(1, newHash);
+	        preStatement.setString(2, username);
+	        preStatement.setString(3, oldHash);
+	        return preStatement.executeUpdate() > 0;
+	    } catch (SQLException ex) {
+	        ex.printStackTrace();
+	    }
+	    return false;
+	}
+	
 	/**
      * Retrieves the role of a user by their username.
      * 
@@ -285,19 +373,27 @@ public class UsersDAO {
 	
 	/**
 	 * Checks if a given username already exists in the database.
-	 * 
+	 * Usernames the {@link UsernameFilter} has never seen are reported free without a query.
 	 *
 	 * @param username the username to check in the database.
 	 * @return true if the username exists, false otherwise.
 	 */
 	public boolean isUsernameExist(String username) {
+	    UsernameFilter filter = UsernameFilter.shared();
+	    if (!filter.mightContain(username)) {
+	        return false;
+	    }
 	    String query = "SELECT COUNT(username) FROM users WHERE username = ?";
 	    try (Connection conn = this.connect();
 	         PreparedStatement preStatement = conn.prepareStatement(query)) {
 	        preStatement.setString(1, username);
 	        ResultSet rs = preStatement.executeQuery();
 	        if (rs.next()) {
-	            return rs.getInt(1) > 0;
+	            boolean exists = rs.getInt(1) > 0;
+	            if (!exists) {
+	                filter.falsePositive();
+	            }
+	            return exists;
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -305,5 +401,26 @@ public class UsersDAO {
 	    return false; 
 	}
 
+	/**
+	 * Retrieves every username in use, to load the {@link UsernameFilter}.
+	 *
+	 * @return the usernames, or null if they cannot be read
+	 */
+	public List<String> findAllUsernames() {
+	    String query = "SELECT username FROM users WHERE username IS NOT NULL";
+	    List<String> usernames = new ArrayList<>();
+	    try (Connection conn = this.connect();
+	         PreparedStatement preStatement = conn.prepareStatement(query);
+	         ResultSet result = preStatement.executeQuery()) {
+	        while (result.next()) {
+	            usernames.add(result.getString(1));
+	        }
+	    } catch (SQLException ex) {
+	        ex.printStackTrace();
+	        return null;
+	    }
+	    return usernames;
+	}
+
 	
 }
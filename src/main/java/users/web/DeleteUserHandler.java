@@ -3,13 +3,13 @@ package users.web;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.util.HashMap;
 import java.util.Map;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import login.web.LoginSessionManager;
+import homeappliance.web.StaticAssets;
 import users.Users;
 import users.UsersDAO;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles the HTTP request to delete a user from the system.
@@ -49,22 +49,11 @@ public class DeleteUserHandler implements HttpHandler {
      */
     @Override
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-        
         he.sendResponseHeaders(200, 0);
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
 
         try {
-            Map<String, String> params = parseQueryString(he.getRequestURI().getQuery());
+            Map<String, String> params = RequestContext.of(he).query();
             int id = Integer.parseInt(params.get("id"));
 
             UsersDAO dao = new UsersDAO();
@@ -77,8 +66,7 @@ public class DeleteUserHandler implements HttpHandler {
                 out.write(
                     "<html>" +
                     "<head> <title>Sonic Home Appliances</title>" +
-                    "<link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" " +
-                    "integrity=\"sha384-TX8t27EcRE3e/ihU7zmQxVncDAy5uIKz4rEkgIXeMed4M0jlfIDPvg6uqKI2xXr2\" crossorigin=\"anonymous\">" +
+                    "<link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
                     "</head>" +
                     "<body>" +
                     "<h1>User Deleted Successfully</h1>" +
@@ -134,48 +122,4 @@ public class DeleteUserHandler implements HttpHandler {
             out.close();
         }
     }
-    
-    /**
-     * Retrieves the session ID from the request's cookies.
-     * 
-     * @param exchange the HttpExchange object containing the HTTP request.
-     * @return the session ID if found, otherwise null.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Parses a query string into a Map of key-value pairs.
-     * 
-     * @param query the query string from the URL.
-     * @return a map containing the query parameters and their values.
-     */
-    private Map<String, String> parseQueryString(String query) {
-        Map<String, String> result = new HashMap<>();
-        if (query == null || query.isEmpty()) {
-            return result;
-        }
-        String[] pairs = query.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=", 2);
-            if (keyValue.length == 2) {
-                result.put(keyValue[0], keyValue[1]);
-            } else if (keyValue.length == 1) {
-                result.put(keyValue[0], "");
-            }
-        }
-        return result;
-    }
 }
\ No newline at end of file
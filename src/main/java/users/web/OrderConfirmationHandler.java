@@ -6,6 +6,7 @@ import java.io.OutputStreamWriter;
 
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
+import homeappliance.web.StaticAssets;
 
 /**
  * Handles the display of the order confirmation page.
@@ -56,7 +57,7 @@ public class OrderConfirmationHandler implements HttpHandler {
                 "<html lang='en'>" +
                 "<head>" +
                 "    <title>Order Confirmation</title>" +
-                "    <link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" crossorigin=\"anonymous\">" +
+                "    <link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
                 "</head>" +
                 "<body>" +
                 "    <div class='container mt-5'>" +
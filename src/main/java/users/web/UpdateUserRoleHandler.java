@@ -5,7 +5,9 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.StaticAssets;
 import login.web.LoginSessionManager;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles the HTTP request to display a form for updating a user's role.
@@ -43,30 +45,17 @@ public class UpdateUserRoleHandler implements HttpHandler {
      * @throws IOException if an I/O error occurs while writing the response.
      */
     public void handle(HttpExchange he) throws IOException {
-    	String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+    	LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
-        // Check if user is logged in and is an admin
-        if (session == null || !"Admin".equals(session.getRole())) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
-    	
         he.sendResponseHeaders(200, 0);
         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(he.getResponseBody()));
         
-        String query = he.getRequestURI().getQuery();
-        String usrId = null;
-        if (query != null && query.contains("id=")) {
-        	usrId = query.split("=")[1];
-        }
+        String usrId = RequestContext.of(he).query("id");
 
         out.write(
             "<html>" +
             "<head><title>Update Customer</title>" +
-            "<link rel=\"stylesheet\" href=\"https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css\" crossorigin=\"anonymous\">" +
+            "<link rel=\"stylesheet\" href=\"" + StaticAssets.bootstrapCss() + "\">" +
             "</head>" +
             "<body>" +
             "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -123,25 +112,4 @@ public class UpdateUserRoleHandler implements HttpHandler {
 
         out.close();
     }
-    
-    /**
-     * Retrieves the session ID from the HTTP request cookies.
-     * 
-     * @param exchange the HttpExchange object representing the HTTP request and response.
-     * @return the session ID as a string, or null if no session ID is found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
 }
\ No newline at end of file
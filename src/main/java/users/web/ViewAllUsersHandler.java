@@ -6,9 +6,11 @@ import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.StaticAssets;
 import login.web.LoginSessionManager;
 import users.Users;
 import users.UsersDAO;
+import homeappliance.web.RequestContext;
 
 /**
  * Handles HTTP requests to display a list of all users in the system.
@@ -45,17 +47,8 @@ public class ViewAllUsersHandler implements HttpHandler{
      * @throws IOException if an I/O error occurs while writing the response.
      */
 	  public void handle(HttpExchange he) throws IOException {
-		  String sessionId = getSessionIdFromCookie(he);
-	      LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+		  LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
-	      // Check if user is logged in and is an admin
-	      if (session == null || !"Admin".equals(session.getRole())) {
-	          he.getResponseHeaders().set("Location", "/login");
-	          he.sendResponseHeaders(302, 0);
-	          he.getResponseBody().close();
-	          return;
-	      }
-		  	
 		    he.sendResponseHeaders(200,0);
 		    BufferedWriter out = new BufferedWriter(  
 		        new OutputStreamWriter(he.getResponseBody() ));
@@ -71,7 +64,7 @@ public class ViewAllUsersHandler implements HttpHandler{
 			    	    "    <meta charset='UTF-8'>" +
 			    	    "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
 			    	    "    <title>Users</title>" +
-			    	    "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css' integrity='sha384-TX8t27EcRE3e/ihU7zmQxVncDAy5uIKz4rEkgIXeMed4M0jlfIDPvg6uqKI2xXr2' crossorigin='anonymous'>" +
+			    	    "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
 			    	    "</head>" +
 			    	    "<body>" +
 			    	    "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -149,26 +142,6 @@ public class ViewAllUsersHandler implements HttpHandler{
 		    out.close();
 		
 		  }
-		  
-	    /**
-	     * Retrieves the session ID from the HTTP request cookies.
-	     * 
-	     * @param exchange the HttpExchange object representing the HTTP request and response.
-	     * @return the session ID as a string, or null if no session ID is found.
-	     */
-		  private String getSessionIdFromCookie(HttpExchange exchange) {
-		      String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-		      if (cookieHeader != null) {
-		          String[] cookies = cookieHeader.split(";");
-		          for (String cookie : cookies) {
-		              cookie = cookie.trim();
-		              String[] cookiePair = cookie.split("=", 2);
-		              if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-		                  return cookiePair[1];
-		              }
-		          }
-		      }
-		      return null;
-		  }
+
 
 	}
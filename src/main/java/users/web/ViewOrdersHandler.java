@@ -11,6 +11,8 @@ import users.Order;
 import users.OrderDAO;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import homeappliance.web.StaticAssets;
+import homeappliance.web.RequestContext;
 
 /**
  * The ViewOrdersHandler class handles HTTP requests to display the logged-in user's order history.
@@ -48,15 +50,7 @@ public class ViewOrdersHandler implements HttpHandler {
      */
     @Override
     public void handle(HttpExchange he) throws IOException {
-        String sessionId = getSessionIdFromCookie(he);
-        LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
-
-        if (session == null) {
-            he.getResponseHeaders().set("Location", "/login");
-            he.sendResponseHeaders(302, 0);
-            he.getResponseBody().close();
-            return;
-        }
+        LoginSessionManager.UserSession session = RequestContext.of(he).session();
 
         int userId = session.getUserId();
         OrderDAO orderDAO = new OrderDAO();
@@ -72,7 +66,7 @@ public class ViewOrdersHandler implements HttpHandler {
                 "    <meta charset='UTF-8'>" +
                 "    <meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
                 "    <title>My Orders</title>" +
-                "    <link rel='stylesheet' href='https://cdn.jsdelivr.net/npm/bootstrap@4.5.3/dist/css/bootstrap.min.css'>" +
+                "    <link rel='stylesheet' href='" + StaticAssets.bootstrapCss() + "'>" +
                 "</head>" +
                 "<body>" +
                 "    <nav class='navbar navbar-expand-lg navbar-light bg-light'>" +
@@ -122,25 +116,4 @@ public class ViewOrdersHandler implements HttpHandler {
                 "</html>");
         }
     }
-
-    /**
-     * Retrieves the session ID from the "Cookie" header of the HTTP request.
-     * 
-     * @param exchange the HttpExchange object representing the HTTP request and response.
-     * @return the session ID as a string, or null if no session ID is found.
-     */
-    private String getSessionIdFromCookie(HttpExchange exchange) {
-        String cookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
-        if (cookieHeader != null) {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                cookie = cookie.trim();
-                String[] cookiePair = cookie.split("=", 2);
-                if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
-                    return cookiePair[1];
-                }
-            }
-        }
-        return null;
-    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Typeahead for the product search boxes.
+ * Fills a <datalist> for every search box named "search" with suggestions from /suggest as the customer types.
+ */
+(function () {
+  'use strict';
+
+  var DELAY_MS = 120;
+
+  function attach(input, index) {
+    var list = document.createElement('datalist');
+    list.id = 'search-suggestions-' + index;
+    input.parentNode.appendChild(list);
+    input.setAttribute('list', list.id);
+    input.setAttribute('autocomplete', 'off');
+
+    var timer = null;
+    var latest = '';
+    input.addEventListener('input', function () {
+      clearTimeout(timer);
+      var prefix = input.value.trim();
+      if (prefix.length === 0) {
+        list.innerHTML = '';
+        return;
+      }
+      timer = setTimeout(function () {
+        latest = prefix;
+        fetch('/suggest?q=' + encodeURIComponent(prefix), { credentials: 'same-origin' })
+          .then(function (response) { return response.ok ? response.json() : []; })
+          .then(function (suggestions) {
+            // Ignore answers to prefixes the customer has already typed past
+            if (prefix !== latest) {
+              return;
+            }
+            list.innerHTML = '';
+            suggestions.forEach(function (text) {
+              var option = document.createElement('option');
+              option.value = text;
+              list.appendChild(option);
+            });
+          })
+          .catch(function () { /* Suggestions are optional; searching still works */ });
+      }, DELAY_MS);
+    });
+  }
+
+  document.addEventListener('DOMContentLoaded', function () {
+    var inputs = document.querySelectorAll("input[type='search'][name='search']");
+    for (var i = 0; i < inputs.length; i++) {
+      attach(inputs[i], i);
+    }
+  });
+})();
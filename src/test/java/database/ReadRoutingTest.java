@@ -0,0 +1,84 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import metrics.Metrics;
+
+/**
+ * Unit tests for the {@link ReadRouting} class.
+ *
+ * Test scenarios include:
+ * - Parsing the per-method routing configuration
+ * - Falling back to the live database when no snapshot is available
+ * - Leaving other replicas' copies alone when a replica closes
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class ReadRoutingTest {
+
+    /**
+     * Restores the default routing after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        ReadRouting.install(null);
+        ReadRouting.configure(ReadRouting.DEFAULT_ROUTES);
+    }
+
+    /**
+     * Tests that only the configured methods are routed.
+     */
+    @Test
+    public void testConfiguration() {
+        ReadRouting.configure(" CustomerDAO.findAllCustomers , OrderDAO.getOrdersByUserId,");
+
+        assertTrue(ReadRouting.isRouted("CustomerDAO.findAllCustomers"));
+        assertTrue(ReadRouting.isRouted("OrderDAO.getOrdersByUserId"));
+        assertFalse(ReadRouting.isRouted("UsersDAO.findAllUsers"));
+
+        ReadRouting.configure("none");
+        assertFalse(ReadRouting.isRouted("CustomerDAO.findAllCustomers"));
+    }
+
+    /**
+     * Tests that a routed read uses the live database when there is no replica or no copy yet.
+     */
+    @Test
+    public void testFallsBackToPrimary() throws Exception {
+        long before = Metrics.counter("db.reads.primary").sum();
+
+        // The supplier stands in for the DAO's connect() and returns null here
+        assertNull(ReadRouting.connect("CustomerDAO.findAllCustomers", () -> null));
+
+        try (SnapshotReplica replica = new SnapshotReplica("jdbc:unused", Files.createTempDirectory("replica"))) {
+            ReadRouting.install(replica);
+            assertFalse(replica.isAvailable());
+            assertEquals(-1, replica.ageMillis());
+            assertNull(ReadRouting.connect("CustomerDAO.findAllCustomers", () -> null));
+        }
+        assertEquals(before + 2, Metrics.counter("db.reads.primary").sum());
+    }
+
+    /**
+     * Tests that closing a replica does not delete copies made by another replica in the same directory.
+     */
+    @Test
+    public void testKeepsOtherReplicasCopies() throws Exception {
+        Path directory = Files.createTempDirectory("replica");
+        Path other = Files.createFile(directory.resolve("snapshot-other-42-1.sql"));
+
+        try (SnapshotReplica replica = new SnapshotReplica("jdbc:unused", directory)) {
+            assertFalse(replica.isAvailable());
+        }
+        assertTrue(Files.exists(other));
+    }
+}
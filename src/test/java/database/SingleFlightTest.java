@@ -0,0 +1,150 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import metrics.Metrics;
+
+/**
+ * Unit tests for the {@link SingleFlight} class.
+ *
+ * Test scenarios include:
+ * - Sharing one execution and result between concurrent identical calls
+ * - Passing a failed read's exception to every waiting caller
+ * - Starting a fresh read after the previous one finished or was forgotten
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SingleFlight<String, String> flight;
+    private ExecutorService executor;
+
+    /**
+     * Creates a single flight group and a thread pool for the callers.
+     */
+    @BeforeEach
+    public void setUp() {
+        flight = new SingleFlight<>("test.singleflight");
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    /**
+     * Stops the callers' thread pool.
+     */
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that callers arriving while a read is running wait for it and receive its result.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        long coalescedBefore = Metrics.counter("test.singleflight.coalesced").sum();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.execute("Kitchen", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "result";
+            })));
+        }
+        // Wait until every caller but the one running the read has joined it
+        for (int wait = 0; wait < 500 && Metrics.counter("test.singleflight.coalesced").sum() - coalescedBefore < CALLERS - 1; wait++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, flight.inFlight());
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(CALLERS - 1, Metrics.counter("test.singleflight.coalesced").sum() - coalescedBefore);
+        assertEquals(0, flight.inFlight());
+
+        // Nothing is kept once the read finishes
+        assertEquals("again", flight.execute("Kitchen", () -> "again"));
+    }
+
+    /**
+     * Tests that a failure reaches the caller that ran the read and the callers that joined it.
+     *
+     * @throws Exception if the test threads fail unexpectedly
+     */
+    @Test
+    public void testFailureReachesEveryCaller() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> flight.execute("Laundry", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("database is locked");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> second = executor.submit(() -> flight.execute("Laundry", () -> "not run"));
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<String> result : List.of(first, second)) {
+            Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+            assertEquals("database is locked", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Tests that calls made after forget() start a new read, while the detached read still completes.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void testForgetStartsNewRead() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = executor.submit(() -> flight.execute("Cooling", () -> {
+            started.countDown();
+            await(release);
+            return "before write";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        flight.forget();
+        assertEquals("after write", flight.execute("Cooling", () -> "after write"));
+
+        release.countDown();
+        assertEquals("before write", before.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
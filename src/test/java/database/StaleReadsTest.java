@@ -0,0 +1,127 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import metrics.Metrics;
+
+/**
+ * Unit tests for the {@link StaleReads} class.
+ *
+ * Test scenarios include:
+ * - Serving an old result while it is refreshed in the background
+ * - Serving the last good result when a read fails or is too slow
+ * - Reporting a failure when there is no result to fall back on
+ * - Bounding the number of results kept
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class StaleReadsTest {
+
+    /**
+     * Tests that a result past the fresh window is returned at once and replaced by a background refresh.
+     *
+     * @throws Exception if a read fails
+     */
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        StaleReads<String, String> reads = new StaleReads<>("test.stalereads", 0, 60_000, 1000, 10);
+        long staleBefore = Metrics.counter("test.stalereads.stale_serves").sum();
+        assertEquals("first", reads.get("Kitchen", () -> "first"));
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        assertEquals("first", reads.get("Kitchen", () -> {
+            refreshed.countDown();
+            return "second";
+        }));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, Metrics.counter("test.stalereads.stale_serves").sum() - staleBefore);
+
+        String latest = null;
+        for (int wait = 0; wait < 500 && !"second".equals(latest); wait++) {
+            latest = reads.get("Kitchen", () -> "second");
+            Thread.sleep(10);
+        }
+        assertEquals("second", latest);
+    }
+
+    /**
+     * Tests that after a write the caller waits for a new read, but gets the last good result if it fails.
+     *
+     * @throws Exception if the first read fails
+     */
+    @Test
+    public void testStaleOnError() throws Exception {
+        StaleReads<String, String> reads = new StaleReads<>("test.stalereads", 60_000, 60_000, 1000, 10);
+        long errorsBefore = Metrics.counter("test.stalereads.stale_on_error").sum();
+        assertEquals("first", reads.get("Kitchen", () -> "first"));
+        assertEquals("first", reads.get("Kitchen", () -> "not read while fresh"));
+
+        reads.invalidate();
+        assertEquals("after write", reads.get("Kitchen", () -> "after write"));
+
+        reads.invalidate();
+        assertEquals("after write", reads.get("Kitchen", () -> {
+            throw new SQLException("database is locked");
+        }));
+        assertEquals(1, Metrics.counter("test.stalereads.stale_on_error").sum() - errorsBefore);
+
+        SQLException ex = assertThrows(SQLException.class, () -> reads.get("Laundry", () -> {
+            throw new SQLException("database is locked");
+        }));
+        assertEquals("database is locked", ex.getMessage());
+    }
+
+    /**
+     * Tests that a read slower than the timeout is answered with the last good result and still completes.
+     *
+     * @throws Exception if a read fails
+     */
+    @Test
+    public void testStaleOnTimeout() throws Exception {
+        StaleReads<String, String> reads = new StaleReads<>("test.stalereads", 60_000, 60_000, 50, 10);
+        assertEquals("first", reads.get("Kitchen", () -> "first"));
+
+        reads.invalidate();
+        CountDownLatch release = new CountDownLatch(1);
+        assertEquals("first", reads.get("Kitchen", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        release.countDown();
+
+        String latest = null;
+        for (int wait = 0; wait < 500 && !"slow".equals(latest); wait++) {
+            latest = reads.get("Kitchen", () -> "not read while fresh");
+            Thread.sleep(10);
+        }
+        assertEquals("slow", latest);
+    }
+
+    /**
+     * Tests that the oldest results are dropped when there are too many.
+     *
+     * @throws Exception if a read fails
+     */
+    @Test
+    public void testBounded() throws Exception {
+        StaleReads<String, String> reads = new StaleReads<>("test.stalereads", 60_000, 60_000, 1000, 2);
+        reads.get("a", () -> "a");
+        reads.get("b", () -> "b");
+        reads.get("c", () -> "c");
+        assertEquals(2, reads.size());
+        assertEquals("a again", reads.get("a", () -> "a again"));
+    }
+}
@@ -0,0 +1,109 @@
+package database;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import customers.Address;
+import customers.Customer;
+import customers.CustomerDAO;
+import users.Users;
+import users.UsersDAO;
+
+/**
+ * Unit tests for the {@link UnitOfWork} class and the DAO methods that run in one.
+ *
+ * This test class uses Mockito to simulate the {@link Connection} shared by the DAO calls.
+ *
+ * Test scenarios include:
+ * - Committing once for several inserts on the same connection
+ * - Passing generated keys from the customer insert to the user insert
+ * - Rolling back when a later insert fails, such as a duplicate username
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class UnitOfWorkTest {
+
+    private Connection mockConnection;
+    private PreparedStatement mockPreparedStatement;
+    private ResultSet mockGeneratedKeys;
+
+    /**
+     * Sets up a mocked connection whose inserts generate the keys 7 and then 9.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        mockConnection = mock(Connection.class);
+        mockPreparedStatement = mock(PreparedStatement.class);
+        mockGeneratedKeys = mock(ResultSet.class);
+
+        when(mockConnection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+                .thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockGeneratedKeys);
+        when(mockGeneratedKeys.next()).thenReturn(true);
+        when(mockGeneratedKeys.getInt(1)).thenReturn(7, 9);
+    }
+
+    /**
+     * Tests that a customer and a user are added on one connection with one commit, passing the customer ID on.
+     */
+    @Test
+    public void testSignupCommitsOnce() throws SQLException {
+        Customer customer = new Customer("Business1",
+                new Address("1234 Main Street", "Salford", "Manchester", "UK", "M1 1AA"), "01617921111", "info@business1.com");
+        Users user = new Users("newuser", "secret", "Customer", null);
+
+        try (UnitOfWork work = new UnitOfWork(mockConnection)) {
+            new CustomerDAO().addCustomer(work, customer);
+            user.setCustomerId(customer.getCustomerID());
+            new UsersDAO().addUser(work, user, "hashed");
+            work.commit();
+            assertTrue(work.isCommitted());
+        }
+
+        assertEquals(7, customer.getCustomerID());
+        assertEquals(Integer.valueOf(7), user.getCustomerId());
+        assertEquals(9, user.getUserId());
+        verify(mockConnection).setAutoCommit(false);
+        verify(mockConnection, times(1)).commit();
+        verify(mockConnection, never()).rollback();
+        verify(mockConnection).close();
+        verify(mockPreparedStatement).setString(2, "hashed");
+        verify(mockPreparedStatement).setObject(4, 7);
+    }
+
+    /**
+     * Tests that a failed user insert rolls back the customer as well.
+     */
+    @Test
+    public void testFailureRollsBack() throws SQLException {
+        Customer customer = new Customer("Business1",
+                new Address("1234 Main Street", "Salford", "Manchester", "UK", "M1 1AA"), "01617921111", "info@business1.com");
+        Users user = new Users("taken", "secret", "Customer", null);
+
+        assertThrows(SQLException.class, () -> {
+            try (UnitOfWork work = new UnitOfWork(mockConnection)) {
+                new CustomerDAO().addCustomer(work, customer);
+                when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("UNIQUE constraint failed: users.username"));
+                new UsersDAO().addUser(work, user, "hashed");
+                work.commit();
+            }
+        });
+
+        verify(mockConnection, never()).commit();
+        verify(mockConnection).rollback();
+        verify(mockConnection).close();
+    }
+}
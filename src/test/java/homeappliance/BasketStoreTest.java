@@ -0,0 +1,187 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link BasketStore} class, with baskets saved in memory.
+ *
+ * Test scenarios include:
+ * - Saving several quick changes with one delayed write
+ * - Loading a saved basket in a new store, as after a restart
+ * - Retrying a failed write
+ * - Not keeping or saving over a basket that could not be loaded
+ * - Dropping idle baskets from memory and loading them again on the next request
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class BasketStoreTest {
+
+    /** Saved baskets, keyed by user ID. */
+    private final Map<Integer, List<Basket.Line>> saved = new ConcurrentHashMap<>();
+    private final AtomicInteger saves = new AtomicInteger();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicBoolean failingLoads = new AtomicBoolean();
+    private BasketStore store;
+
+    private final BasketStorage storage = new BasketStorage() {
+        @Override
+        public List<Basket.Line> load(int userId) {
+            loads.incrementAndGet();
+            if (failingLoads.get()) {
+                return null;
+            }
+            return saved.getOrDefault(userId, new ArrayList<>());
+        }
+
+        @Override
+        public boolean save(int userId, List<Basket.Line> lines) {
+            if (failing.get()) {
+                return false;
+            }
+            saves.incrementAndGet();
+            saved.put(userId, lines);
+            return true;
+        }
+    };
+
+    /**
+     * Creates a store that writes 50 ms after a change.
+     */
+    @BeforeEach
+    public void setUp() {
+        store = new BasketStore(storage, 50, 60_000);
+    }
+
+    /**
+     * Stops the store.
+     */
+    @AfterEach
+    public void tearDown() {
+        store.stop();
+    }
+
+    /**
+     * Tests that quick changes are saved together, and that a new store loads what was saved.
+     */
+    @Test
+    public void testWriteBehindAndReload() throws InterruptedException {
+        Basket basket = store.basket(1);
+        assertSame(basket, store.basket(1));
+        basket.addItem(item(10, 100));
+        basket.addItem(item(10, 100));
+        basket.addItem(item(11, 25));
+        basket.removeItem(11);
+        basket.addItem(item(12, 5));
+        assertEquals(0, saves.get());
+
+        awaitSaves(1);
+        Thread.sleep(100);
+        assertEquals(1, saves.get());
+        assertEquals(2, saved.get(1).size());
+
+        BasketStore restarted = new BasketStore(storage, 50, 60_000);
+        try {
+            Basket reloaded = restarted.basket(1);
+            assertEquals(205, reloaded.getTotalPrice());
+            assertEquals(2, reloaded.getQuantity(10));
+            assertEquals(10, reloaded.getLines().get(0).getItemId());
+            assertEquals(0, restarted.basket(2).getLineCount());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    /**
+     * Tests that a failed write is tried again, and that flushing writes straight away.
+     */
+    @Test
+    public void testRetryAndFlush() throws InterruptedException {
+        failing.set(true);
+        store.basket(1).addItem(item(10, 100));
+        Thread.sleep(150);
+        assertFalse(saved.containsKey(1));
+
+        failing.set(false);
+        awaitSaves(1);
+        assertEquals(100, saved.get(1).get(0).getLineTotal());
+
+        store.basket(1).clear();
+        store.flush();
+        assertTrue(saved.get(1).isEmpty());
+    }
+
+    /**
+     * Tests that a basket that could not be loaded is neither kept in memory nor saved over,
+     * and is loaded on the next request once storage recovers.
+     */
+    @Test
+    public void testFailedLoadIsRetried() throws InterruptedException {
+        List<Basket.Line> lines = new ArrayList<>();
+        lines.add(new Basket.Line(item(10, 100), 100, 2));
+        saved.put(1, lines);
+
+        failingLoads.set(true);
+        assertNull(store.basket(1));
+        assertNull(store.basket(1));
+        assertEquals(0, store.activeCount());
+        store.flush();
+        Thread.sleep(100);
+        assertEquals(0, saves.get());
+        assertSame(lines, saved.get(1));
+
+        failingLoads.set(false);
+        assertEquals(200, store.basket(1).getTotalPrice());
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * Tests that idle baskets are dropped once saved and loaded again when asked for.
+     */
+    @Test
+    public void testEvictsIdleBaskets() throws InterruptedException {
+        store.stop();
+        store = new BasketStore(storage, 10, 20);
+        store.basket(1).addItem(item(10, 100));
+        store.basket(2);
+        assertEquals(2, store.activeCount());
+
+        for (int i = 0; i < 100 && store.activeCount() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, store.activeCount());
+        assertEquals(1, saves.get());
+
+        assertEquals(100, store.basket(1).getTotalPrice());
+        assertEquals(3, loads.get());
+    }
+
+    private void awaitSaves(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && saves.get() < count; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, saves.get());
+    }
+
+    private static ApplianceItem item(int id, int price) {
+        HomeAppliance appliance = new HomeAppliance("SKU-" + id, "Product " + id, "Kitchen", price);
+        appliance.setId(id);
+        ApplianceItem item = new ApplianceItem(appliance, 2, "Bosch", "Model " + id);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,153 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link Basket} class.
+ *
+ * Test scenarios include:
+ * - Merging separately loaded copies of the same item into one line
+ * - Keeping the total price and counts up to date on add and remove
+ * - Removing only the ordered quantities after checkout
+ * - Adding and removing from several threads at once
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class BasketTest {
+
+    private Basket basket;
+
+    /**
+     * Creates an empty basket.
+     */
+    @BeforeEach
+    public void setUp() {
+        basket = new Basket();
+    }
+
+    /**
+     * Tests that two copies of the same item, as loaded by two requests, share one line.
+     */
+    @Test
+    public void testMergesById() {
+        basket.addItem(item(1, 100));
+        basket.addItem(item(1, 100));
+        basket.addItem(item(2, 40));
+
+        assertEquals(2, basket.getLineCount());
+        assertEquals(3, basket.getItemCount());
+        assertEquals(240, basket.getTotalPrice());
+        assertEquals(2, basket.getQuantity(1));
+
+        List<Basket.Line> lines = basket.getLines();
+        assertEquals(1, lines.get(0).getItemId());
+        assertEquals(200, lines.get(0).getLineTotal());
+        assertEquals(2, lines.get(1).getItemId());
+
+        Map<ApplianceItem, Integer> quantities = basket.getItemsWithQuantities();
+        assertEquals(2, quantities.size());
+        assertTrue(quantities.containsValue(2));
+
+        // The latest price of an item applies to its whole line
+        basket.addItem(item(1, 90));
+        assertEquals(310, basket.getTotalPrice());
+    }
+
+    /**
+     * Tests that removing keeps the totals in step and ignores unknown items.
+     */
+    @Test
+    public void testRemove() {
+        basket.addItem(item(1, 100));
+        basket.addItem(item(1, 100));
+        basket.addItem(item(2, 40));
+
+        basket.removeItem(1);
+        assertEquals(1, basket.getQuantity(1));
+        assertEquals(140, basket.getTotalPrice());
+
+        basket.removeItem(2);
+        basket.removeItem(7);
+        assertEquals(1, basket.getLineCount());
+        assertEquals(1, basket.getItemCount());
+        assertEquals(100, basket.getTotalPrice());
+
+        basket.clear();
+        assertEquals(0, basket.getLineCount());
+        assertEquals(0, basket.getTotalPrice());
+        assertTrue(basket.getLines().isEmpty());
+    }
+
+    /**
+     * Tests that checking out removes what was ordered but keeps items added in the meantime.
+     */
+    @Test
+    public void testRemoveLines() {
+        basket.addItem(item(1, 100));
+        basket.addItem(item(2, 40));
+        List<Basket.Line> ordered = basket.getLines();
+
+        basket.addItem(item(1, 100));
+        basket.addItem(item(3, 5));
+        basket.removeLines(ordered);
+
+        assertEquals(2, basket.getLineCount());
+        assertEquals(1, basket.getQuantity(1));
+        assertEquals(0, basket.getQuantity(2));
+        assertEquals(105, basket.getTotalPrice());
+    }
+
+    /**
+     * Tests that adds and removes from several threads leave the totals consistent.
+     */
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int id = (offset + i) % 10;
+                    basket.addItem(item(id, 10 + id));
+                    basket.addItem(item(id, 10 + id));
+                    basket.removeItem(id);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8000, basket.getItemCount());
+        int total = 0;
+        int count = 0;
+        for (Basket.Line line : basket.getLines()) {
+            total += line.getLineTotal();
+            count += line.getQuantity();
+        }
+        assertEquals(total, basket.getTotalPrice());
+        assertEquals(count, basket.getItemCount());
+        assertEquals(10, basket.getLineCount());
+    }
+
+    private static ApplianceItem item(int id, int price) {
+        HomeAppliance appliance = new HomeAppliance("SKU-" + id, "Product " + id, "Kitchen", price);
+        appliance.setId(id);
+        ApplianceItem item = new ApplianceItem(appliance, 2, "Bosch", "Model " + id);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,125 @@
+package homeappliance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark of {@link CatalogueSnapshot} memory use and query speed over a large synthetic catalogue.
+ *
+ * The benchmark measures the heap held by the catalogue as {@link ProductListing} objects and as a snapshot,
+ * then times a few listing queries: a price range sorted by price, a brand with a warranty filter, and a keyword
+ * search. Each query returns product IDs, so only the scan and sort are timed. Finally it times saving the
+ * snapshot to a {@link CatalogueSnapshotFile} and mapping it back in, which is what a warm restart costs.
+ * Run it with {@code java homeappliance.CatalogueSnapshotBenchmark [products]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class CatalogueSnapshotBenchmark {
+
+    private static final String[] WORDS = { "fridge", "freezer", "washing", "machine", "dryer", "oven", "hob",
+            "dishwasher", "microwave", "kettle", "toaster", "cooker", "hood", "integrated", "freestanding",
+            "compact", "silver", "white", "black", "steel", "smart", "quiet", "eco", "large", "slim" };
+    private static final String[] BRANDS = { "Bosch", "Beko", "Miele", "Samsung", "LG", "Hotpoint", "Indesit",
+            "Zanussi", "Siemens", "Neff", "Smeg", "Whirlpool", "AEG", "Hisense", "Haier" };
+    private static final String[] CATEGORIES = { "Kitchen", "Laundry", "Small Appliances", "Cooling", "Cooking" };
+
+    private static final int ROUNDS = 5;
+    private static final int QUERIES = 20;
+
+    private static long sink;
+
+    /**
+     * Default constructor for CatalogueSnapshotBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public CatalogueSnapshotBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of products to generate
+     * @throws IOException if the snapshot file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int products = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        long before = usedHeap();
+        List<ProductListing> catalogue = generate(products);
+        long objects = usedHeap() - before;
+        System.out.printf("%,d products as objects: %,d MB%n", products, objects >> 20);
+
+        before = usedHeap();
+        long start = System.nanoTime();
+        CatalogueSnapshot snapshot = CatalogueSnapshot.of(catalogue);
+        long built = System.nanoTime() - start;
+        catalogue = null;
+        long columns = usedHeap() - before + objects;
+        System.out.printf("as a snapshot: %,d MB (estimated %,d MB), built in %,d ms%n", columns >> 20,
+                snapshot.estimatedBytes() >> 20, built / 1_000_000);
+
+        ProductQuery priceRange = new ProductQuery().minPrice(200).maxPrice(400).sortBy(ProductQuery.Sort.PRICE_ASC);
+        ProductQuery brand = new ProductQuery().brand("miele").minWarrantyYears(3);
+        ProductQuery keyword = new ProductQuery().keyword("dishwasher").category("Kitchen");
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d: price range %,.1f ms, brand %,.1f ms, keyword %,.1f ms%n", round + 1,
+                    time(snapshot, priceRange), time(snapshot, brand), time(snapshot, keyword));
+        }
+
+        Path file = Files.createTempFile("catalogue-benchmark", ".bin");
+        try {
+            start = System.nanoTime();
+            CatalogueSnapshotFile.write(snapshot, file);
+            long written = System.nanoTime() - start;
+            start = System.nanoTime();
+            CatalogueSnapshot restored = CatalogueSnapshotFile.read(file);
+            long read = System.nanoTime() - start;
+            sink += restored.size();
+            System.out.printf("snapshot file: %,d MB, written in %,d ms, mapped and read in %,d ms%n",
+                    Files.size(file) >> 20, written / 1_000_000, read / 1_000_000);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double time(CatalogueSnapshot snapshot, ProductQuery query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            sink += snapshot.findProductIds(query).length;
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / QUERIES;
+    }
+
+    private static List<ProductListing> generate(int products) {
+        Random random = new Random(42);
+        List<ProductListing> catalogue = new ArrayList<>(products);
+        for (int id = 1; id <= products; id++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+            HomeAppliance appliance = new HomeAppliance(String.format("SKU-%07d", id), description,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], 20 + random.nextInt(1500));
+            appliance.setId(id);
+            ApplianceItem item = new ApplianceItem(appliance, 1 + random.nextInt(5),
+                    BRANDS[random.nextInt(BRANDS.length)], "M" + Integer.toString(id * 7919, 36));
+            item.setId(id);
+            catalogue.add(new ProductListing(appliance, item));
+        }
+        return catalogue;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
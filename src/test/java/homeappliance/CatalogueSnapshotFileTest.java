@@ -0,0 +1,224 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link CatalogueSnapshotFile} class and warm starts of the {@link LiveCatalogue}.
+ *
+ * Test scenarios include:
+ * - Saving a snapshot and mapping it back in
+ * - Rejecting damaged files
+ * - Serving the saved snapshot at startup and catching up from the source in the background
+ * - Keeping the saved snapshot when the source cannot be read at startup
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class CatalogueSnapshotFileTest {
+
+    private Map<Integer, ProductListing> catalogue;
+    private Path directory;
+    private Path file;
+
+    /**
+     * Creates a small catalogue and a directory for the snapshot file.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        catalogue = new TreeMap<>();
+        put(1, "Fridge Freezer", "Kitchen", 450, "Bosch");
+        put(2, "Crème Oven", "Kitchen", 80, null);
+        put(3, null, null, 99, "Beko");
+        directory = Files.createTempDirectory("catalogue-snapshot-test");
+        file = directory.resolve("catalogue.bin");
+    }
+
+    /**
+     * Deletes the snapshot file and its directory.
+     *
+     * @throws IOException if they cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Tests that a saved snapshot reads back with the same products.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        CatalogueSnapshot snapshot = CatalogueSnapshot.of(catalogue.values());
+        CatalogueSnapshotFile.write(snapshot, file);
+        CatalogueSnapshot restored = CatalogueSnapshotFile.read(file);
+
+        assertEquals(0, snapshot.changedProductIds(restored).length);
+        assertEquals("Crème Oven", restored.findProduct(2).getAppliance().getDescription());
+        assertNull(restored.findProduct(2).getItem());
+        assertNull(restored.findProduct(3).getAppliance().getCategory());
+        assertArrayEquals(new int[] { 1, 3 }, restored.findProductIds(new ProductQuery().minWarrantyYears(0)));
+
+        CatalogueSnapshotFile.write(CatalogueSnapshot.empty(), file);
+        assertEquals(0, CatalogueSnapshotFile.read(file).size());
+    }
+
+    /**
+     * Tests that damaged and truncated files are rejected.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testDamagedFile() throws IOException {
+        CatalogueSnapshotFile.write(CatalogueSnapshot.of(catalogue.values()), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        bytes[40] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> CatalogueSnapshotFile.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, 20));
+        assertThrows(IOException.class, () -> CatalogueSnapshotFile.read(file));
+    }
+
+    /**
+     * Tests that a restarted catalogue serves the saved snapshot and reports what changed while it was down.
+     *
+     * @throws Exception if the file cannot be written or the catch-up does not finish
+     */
+    @Test
+    public void testWarmStart() throws Exception {
+        CatalogueSnapshotFile.write(CatalogueSnapshot.of(catalogue.values()), file);
+        put(2, "Crème Oven", "Kitchen", 85, null);
+        catalogue.remove(3);
+
+        List<Integer> reported = new CopyOnWriteArrayList<>();
+        CatalogueEvents.Listener listener = (source, id) -> reported.add(id);
+        CatalogueEvents.addListener(listener);
+        CountDownLatch databaseReady = new CountDownLatch(1);
+        LiveCatalogue live = new LiveCatalogue(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                try {
+                    databaseReady.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return catalogue.containsKey(itemId) ? itemId : -1;
+            }
+        });
+        try {
+            live.start(file, 3600);
+            // The saved snapshot is served while the catalogue is still loading
+            assertArrayEquals(new int[] { 1, 2, 3 }, live.snapshot().findProductIds(new ProductQuery()));
+            assertTrue(reported.isEmpty());
+
+            databaseReady.countDown();
+            for (int wait = 0; wait < 500 && reported.size() < 2; wait++) {
+                Thread.sleep(10);
+            }
+            assertEquals(Arrays.asList(2, 3), reported);
+            assertArrayEquals(new int[] { 1, 2 }, live.snapshot().findProductIds(new ProductQuery()));
+            assertEquals(85, live.snapshot().findProduct(2).getAppliance().getPrice());
+        } finally {
+            live.stop();
+            CatalogueEvents.removeListener(listener);
+        }
+    }
+
+    /**
+     * Tests that a restarted catalogue keeps the saved snapshot, without reporting any changes, when the
+     * catalogue cannot be read, and catches up once it can.
+     *
+     * @throws Exception if the file cannot be written or the first load is never attempted
+     */
+    @Test
+    public void testWarmStartWhenSourceFails() throws Exception {
+        CatalogueSnapshotFile.write(CatalogueSnapshot.of(catalogue.values()), file);
+        catalogue.remove(3);
+
+        List<Integer> reported = new CopyOnWriteArrayList<>();
+        CatalogueEvents.Listener listener = (source, id) -> reported.add(id);
+        CatalogueEvents.addListener(listener);
+        AtomicBoolean failing = new AtomicBoolean(true);
+        CountDownLatch failed = new CountDownLatch(1);
+        LiveCatalogue live = new LiveCatalogue(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                if (failing.get()) {
+                    failed.countDown();
+                    throw new CatalogueSource.ReadFailedException("Test read failure", null);
+                }
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return catalogue.containsKey(itemId) ? itemId : -1;
+            }
+        });
+        try {
+            live.start(file, 3600);
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            assertArrayEquals(new int[] { 1, 2, 3 }, live.snapshot().findProductIds(new ProductQuery()));
+            assertTrue(reported.isEmpty());
+
+            failing.set(false);
+            live.catchUp();
+            assertEquals(Arrays.asList(3), reported);
+            assertArrayEquals(new int[] { 1, 2 }, live.snapshot().findProductIds(new ProductQuery()));
+        } finally {
+            live.stop();
+            CatalogueEvents.removeListener(listener);
+        }
+    }
+
+    private void put(int id, String description, String category, int price, String brand) {
+        HomeAppliance appliance = new HomeAppliance("SKU" + id, description, category, price);
+        appliance.setId(id);
+        ApplianceItem item = null;
+        if (brand != null) {
+            item = new ApplianceItem(appliance, 2, brand, "Model " + id);
+            item.setId(id);
+        }
+        catalogue.put(id, new ProductListing(appliance, item));
+    }
+}
@@ -0,0 +1,254 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link CatalogueSnapshot} and {@link LiveCatalogue} classes.
+ *
+ * Test scenarios include:
+ * - Filtering with the same rules as the SQL query, including ASCII-only case folding
+ * - Sorting by price and warranty with ties in ID order
+ * - Price range lookups through the sorted price index
+ * - Replacing, adding and removing products in a new snapshot
+ * - Publishing a new snapshot after catalogue writes
+ * - Keeping the current snapshot and the recorded writes when the catalogue cannot be read
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class CatalogueSnapshotTest {
+
+    /** The catalogue seen by the live catalogue, keyed by product ID. */
+    private Map<Integer, ProductListing> catalogue;
+    private CatalogueSnapshot snapshot;
+    private boolean failing;
+
+    /**
+     * Creates a snapshot of a small catalogue.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalogue = new TreeMap<>();
+        put(4, "SKU-4", "Washing Machine", "Laundry", 300, "Bosch", 3);
+        put(1, "SKU-1", "Fridge Freezer", "Kitchen", 450, "Bosch", 5);
+        put(2, "SKU-2", "Crème Oven", "Kitchen", 80, "MIELE", 2);
+        put(3, "SKU-3", null, "Kitchen", 450, null, 0);
+        put(5, "SKU-5", "Tumble Dryer", null, 99, "Beko", 5);
+        snapshot = CatalogueSnapshot.of(catalogue.values());
+    }
+
+    /**
+     * Tests that filters combine with AND and follow the SQL matching rules.
+     */
+    @Test
+    public void testFilters() {
+        assertEquals(5, snapshot.size());
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, snapshot.findProductIds(new ProductQuery()));
+
+        // The keyword matches the SKU, description or category, ignoring ASCII case
+        assertArrayEquals(new int[] { 1, 2, 3 }, snapshot.findProductIds(new ProductQuery().keyword("kitCHEN")));
+        assertArrayEquals(new int[] { 4 }, snapshot.findProductIds(new ProductQuery().keyword("sku-4")));
+        // Only ASCII letters are folded, as in SQLite
+        assertArrayEquals(new int[] { 2 }, snapshot.findProductIds(new ProductQuery().keyword("crème")));
+        assertEquals(0, snapshot.findProductIds(new ProductQuery().keyword("CRÈME")).length);
+
+        assertArrayEquals(new int[] { 1, 4 }, snapshot.findProductIds(new ProductQuery().brand("bosch")));
+        assertArrayEquals(new int[] { 2 }, snapshot.findProductIds(new ProductQuery().brand("Miele")));
+        assertArrayEquals(new int[] { 1, 3 },
+                snapshot.findProductIds(new ProductQuery().category("Kitchen").minPrice(100)));
+        assertEquals(0, snapshot.findProductIds(new ProductQuery().category("kitchen")).length);
+        assertArrayEquals(new int[] { 1 }, snapshot.findProductIds(new ProductQuery().description("fridge")));
+
+        // A warranty filter leaves out products without an appliance item
+        assertArrayEquals(new int[] { 4 }, snapshot.findProductIds(new ProductQuery().maxWarrantyYears(3).minPrice(100)));
+        assertArrayEquals(new int[] { 1, 2, 4, 5 }, snapshot.findProductIds(new ProductQuery().minWarrantyYears(0)));
+    }
+
+    /**
+     * Tests the sort orders.
+     */
+    @Test
+    public void testSorts() {
+        assertArrayEquals(new int[] { 2, 5, 4, 1, 3 },
+                snapshot.findProductIds(new ProductQuery().sortBy(ProductQuery.Sort.PRICE_ASC)));
+        assertArrayEquals(new int[] { 1, 3, 4, 5, 2 },
+                snapshot.findProductIds(new ProductQuery().sortBy(ProductQuery.Sort.PRICE_DESC)));
+        assertArrayEquals(new int[] { 1, 5, 4, 2 },
+                snapshot.findProductIds(new ProductQuery().sortBy(ProductQuery.Sort.WARRANTY_DESC)));
+
+        List<ProductListing> listings = snapshot.findProducts(new ProductQuery().sortBy(ProductQuery.Sort.WARRANTY_ASC));
+        assertEquals(2, listings.get(0).getAppliance().getId());
+        assertEquals("Crème Oven", listings.get(0).getAppliance().getDescription());
+        assertEquals("MIELE", listings.get(0).getItem().getBrand());
+        assertEquals("Model 2", listings.get(0).getItem().getModel());
+    }
+
+    /**
+     * Tests price ranges with and without a category, and that the price index agrees with a full scan.
+     */
+    @Test
+    public void testPriceIndex() {
+        assertArrayEquals(new int[] { 5, 4, 1, 3 },
+                snapshot.findProductIds(new ProductQuery().minPrice(99).sortBy(ProductQuery.Sort.PRICE_ASC)));
+        assertArrayEquals(new int[] { 4, 5 }, snapshot.findProductIds(new ProductQuery().minPrice(99).maxPrice(300)));
+        assertArrayEquals(new int[] { 1, 3 }, snapshot.findProductIds(
+                new ProductQuery().category("Kitchen").minPrice(450).sortBy(ProductQuery.Sort.PRICE_ASC)));
+        assertEquals(0, snapshot.findProductIds(new ProductQuery().minPrice(500).maxPrice(100)).length);
+
+        Random random = new Random(7);
+        String[] categories = { null, "Kitchen", "Laundry", "Garden" };
+        for (int id = 10; id < 300; id++) {
+            put(id, "SKU-" + id, "Product " + id, categories[1 + random.nextInt(2)], random.nextInt(50),
+                    random.nextBoolean() ? "Bosch" : null, random.nextInt(4));
+        }
+        CatalogueSnapshot larger = CatalogueSnapshot.of(catalogue.values());
+        for (int i = 0; i < 500; i++) {
+            int low = random.nextInt(60) - 5;
+            ProductQuery query = new ProductQuery()
+                    .category(categories[random.nextInt(categories.length)])
+                    .minPrice(random.nextBoolean() ? low : null)
+                    .maxPrice(random.nextBoolean() ? low + random.nextInt(20) : null)
+                    .sortBy(ProductQuery.Sort.values()[random.nextInt(ProductQuery.Sort.values().length)]);
+            assertArrayEquals(larger.findProductIdsByScan(query), larger.findProductIds(query));
+        }
+    }
+
+    /**
+     * Tests that a changed snapshot leaves the old one untouched.
+     */
+    @Test
+    public void testWithChanges() {
+        Map<Integer, ProductListing> changed = new HashMap<>();
+        put(4, "SKU-4", "Washer Dryer", "Laundry", 500, "Hotpoint", 1);
+        put(9, "SKU-9", "Kettle", "Small Appliances", 20, null, 0);
+        changed.put(4, catalogue.get(4));
+        changed.put(9, catalogue.get(9));
+        changed.put(1, null);
+
+        CatalogueSnapshot next = snapshot.withChanges(changed);
+        assertArrayEquals(new int[] { 2, 3, 4, 5, 9 }, next.findProductIds(new ProductQuery()));
+        assertArrayEquals(new int[] { 4 }, next.findProductIds(new ProductQuery().brand("hotpoint")));
+        assertEquals("Kettle", next.findProduct(9).getAppliance().getDescription());
+        assertNull(next.findProduct(9).getItem());
+        assertNull(next.findProduct(3).getAppliance().getDescription());
+        assertNull(next.findProduct(1));
+
+        assertArrayEquals(new int[] { 1, 4 }, snapshot.findProductIds(new ProductQuery().brand("bosch")));
+        assertEquals(4, next.productOfItem(104));
+        assertEquals(CatalogueSnapshot.NONE, next.productOfItem(101));
+    }
+
+    /**
+     * Tests that the live catalogue publishes a new snapshot after writes, re-loading only the changed products.
+     */
+    @Test
+    public void testLiveCatalogue() {
+        List<Integer> loaded = new ArrayList<>();
+        LiveCatalogue live = new LiveCatalogue(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                loaded.add(productId);
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                // Each test item has an ID 100 higher than its product
+                ProductListing listing = catalogue.get(itemId - 100);
+                return (listing != null && listing.getItem() != null) ? itemId - 100 : -1;
+            }
+        });
+        CatalogueSnapshot first = live.snapshot();
+        assertSame(first, live.snapshot());
+
+        put(5, "SKU-5", "Tumble Dryer", null, 99, "Hoover", 5);
+        live.catalogueChanged(CatalogueEvents.Source.ITEM, 105);
+        CatalogueSnapshot second = live.snapshot();
+        assertNotSame(first, second);
+        assertEquals(Arrays.asList(5), loaded);
+        assertArrayEquals(new int[] { 5 }, second.findProductIds(new ProductQuery().brand("hoover")));
+        assertArrayEquals(new int[] { 5 }, first.findProductIds(new ProductQuery().brand("beko")));
+    }
+
+    /**
+     * Tests that a failed read neither installs an empty snapshot nor turns a changed product into a
+     * deleted one, and that the next read tries again.
+     */
+    @Test
+    public void testLiveCatalogueReadFailures() {
+        LiveCatalogue live = new LiveCatalogue(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                checkReadable();
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                checkReadable();
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                checkReadable();
+                return catalogue.containsKey(itemId - 100) ? itemId - 100 : -1;
+            }
+        });
+        failing = true;
+        assertThrows(CatalogueSource.ReadFailedException.class, live::snapshot);
+        assertFalse(live.isLoaded());
+
+        failing = false;
+        CatalogueSnapshot first = live.snapshot();
+        assertEquals(5, first.size());
+
+        put(4, "SKU-4", "Washer", "Laundry", 350, "Hotpoint", 2);
+        live.catalogueChanged(CatalogueEvents.Source.PRODUCT, 4);
+        live.catalogueChanged(CatalogueEvents.Source.ITEM, 105);
+        failing = true;
+        assertSame(first, live.snapshot());
+        assertThrows(CatalogueSource.ReadFailedException.class, live::currentSnapshot);
+
+        failing = false;
+        CatalogueSnapshot second = live.snapshot();
+        assertNotSame(first, second);
+        assertEquals(5, second.size());
+        assertEquals(350, second.findProduct(4).getAppliance().getPrice());
+    }
+
+    private void checkReadable() {
+        if (failing) {
+            throw new CatalogueSource.ReadFailedException("Test read failure", null);
+        }
+    }
+
+    private void put(int id, String sku, String description, String category, int price, String brand, int warrantyYears) {
+        HomeAppliance appliance = new HomeAppliance(sku, description, category, price);
+        appliance.setId(id);
+        ApplianceItem item = null;
+        if (brand != null) {
+            item = new ApplianceItem(appliance, warrantyYears, brand, "Model " + id);
+            item.setId(100 + id);
+        }
+        catalogue.put(id, new ProductListing(appliance, item));
+    }
+}
@@ -0,0 +1,201 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link FacetIndex} and {@link IdBitmap} classes.
+ *
+ * Test scenarios include:
+ * - Switching bitmaps between the array and word representations
+ * - Intersecting facets and counting facet values
+ * - Applying catalogue writes incrementally
+ * - Keeping the index as it was when the catalogue cannot be read
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class FacetIndexTest {
+
+    /** The catalogue seen by the index, keyed by product ID. */
+    private Map<Integer, ProductListing> catalogue;
+    private int loads;
+    private boolean failing;
+    private FacetIndex index;
+
+    /**
+     * Creates an index over a small in-memory catalogue.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalogue = new TreeMap<>();
+        put(1, "Kitchen", 80, "Bosch", 2);
+        put(2, "Kitchen", 450, "Bosch", 5);
+        put(3, "Kitchen", 1200, "Miele", 5);
+        put(4, "Laundry", 300, "Bosch", 3);
+        put(5, "Laundry", 99, null, 0);
+
+        index = new FacetIndex(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                loads++;
+                checkReadable();
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                loads++;
+                checkReadable();
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                checkReadable();
+                // Each test item has the same ID as its product
+                ProductListing listing = catalogue.get(itemId);
+                return (listing != null && listing.getItem() != null) ? itemId : -1;
+            }
+        });
+    }
+
+    /**
+     * Tests that a bitmap gives the same answers in both representations.
+     */
+    @Test
+    public void testBitmapRepresentations() {
+        IdBitmap sparse = IdBitmap.of(5, 70000, 3);
+        IdBitmap dense = new IdBitmap();
+        for (int id = 0; id < 1000; id++) {
+            dense.add(id * 2);
+        }
+        assertArrayEquals(new int[] { 3, 5, 70000 }, sparse.toArray());
+        assertEquals(1000, dense.cardinality());
+        assertTrue(dense.contains(998));
+        assertFalse(dense.contains(999));
+
+        assertEquals(1, IdBitmap.andCardinality(sparse, IdBitmap.of(70000)));
+        assertEquals(0, IdBitmap.andCardinality(sparse, dense));
+        assertEquals(IdBitmap.of(0, 2, 4), IdBitmap.and(dense, IdBitmap.of(0, 1, 2, 3, 4)));
+
+        // Removing most members switches back to an array without losing the rest
+        for (int id = 2; id < 2000; id += 2) {
+            assertTrue(dense.remove(id));
+        }
+        assertEquals(IdBitmap.of(0), dense);
+        assertEquals(IdBitmap.of(0, 3, 5, 70000), IdBitmap.or(dense, sparse));
+    }
+
+    /**
+     * Tests that selections combine facets with AND and values of one facet with OR.
+     */
+    @Test
+    public void testSelectAndCount() {
+        Map<FacetIndex.Facet, List<String>> selection = new EnumMap<>(FacetIndex.Facet.class);
+        selection.put(FacetIndex.Facet.BRAND, Collections.singletonList("Bosch"));
+        selection.put(FacetIndex.Facet.CATEGORY, Arrays.asList("Kitchen", "Garden"));
+        assertArrayEquals(new int[] { 1, 2 }, index.select(selection).toArray());
+        assertEquals(5, index.select(Collections.emptyMap()).cardinality());
+
+        Map<String, Integer> prices = index.counts(FacetIndex.Facet.PRICE, null);
+        assertEquals(Arrays.asList("0", "250", "1000"), new ArrayList<>(prices.keySet()));
+        assertEquals(Integer.valueOf(2), prices.get("0"));
+
+        Map<String, Integer> warranty = index.counts(FacetIndex.Facet.WARRANTY, IdBitmap.of(2, 3, 4));
+        assertEquals(Integer.valueOf(2), warranty.get("5"));
+        assertNull(warranty.get("2"));
+        assertEquals(Arrays.asList("Kitchen", "Laundry"), index.values(FacetIndex.Facet.CATEGORY));
+    }
+
+    /**
+     * Tests that a write only re-loads the changed product on the next read.
+     */
+    @Test
+    public void testIncrementalUpdate() {
+        assertEquals(5, index.size());
+        assertEquals(1, loads);
+
+        put(4, "Kitchen", 300, "Miele", 3);
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 4);
+        catalogue.remove(5);
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 5);
+
+        assertEquals(Collections.singletonMap("Kitchen", 4), index.counts(FacetIndex.Facet.CATEGORY, null));
+        assertEquals(3, loads);
+        assertEquals(Integer.valueOf(2), index.counts(FacetIndex.Facet.BRAND, null).get("Miele"));
+
+        put(1, "Kitchen", 80, "Beko", 2);
+        index.catalogueChanged(CatalogueEvents.Source.ITEM, 1);
+        assertFalse(index.counts(FacetIndex.Facet.BRAND, IdBitmap.of(1)).containsKey("Bosch"));
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Tests that a failed read neither marks the index as loaded nor drops the changed products, and
+     * that the next read tries again.
+     */
+    @Test
+    public void testFailedReadsAreRetried() {
+        failing = true;
+        assertEquals(0, index.size());
+        failing = false;
+        assertEquals(5, index.size());
+
+        catalogue.remove(4);
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 4);
+        put(1, "Kitchen", 80, "Beko", 2);
+        index.catalogueChanged(CatalogueEvents.Source.ITEM, 1);
+        failing = true;
+        assertEquals(5, index.size());
+        assertEquals(Integer.valueOf(3), index.counts(FacetIndex.Facet.BRAND, null).get("Bosch"));
+
+        failing = false;
+        assertEquals(4, index.size());
+        assertEquals(Integer.valueOf(1), index.counts(FacetIndex.Facet.BRAND, null).get("Bosch"));
+        assertEquals(Integer.valueOf(1), index.counts(FacetIndex.Facet.BRAND, null).get("Beko"));
+    }
+
+    /**
+     * Tests the price bucket boundaries and labels.
+     */
+    @Test
+    public void testPriceBuckets() {
+        assertEquals("0", FacetIndex.priceBucket(99));
+        assertEquals("100", FacetIndex.priceBucket(100));
+        assertEquals("1000", FacetIndex.priceBucket(5000));
+        assertEquals(Integer.valueOf(499), FacetIndex.priceBucketMax("250"));
+        assertNull(FacetIndex.priceBucketMax("1000"));
+        assertEquals("Under £100", FacetIndex.priceBucketLabel("0"));
+        assertEquals("£1000 and over", FacetIndex.priceBucketLabel("1000"));
+    }
+
+    private void checkReadable() {
+        if (failing) {
+            throw new CatalogueSource.ReadFailedException("Test read failure", null);
+        }
+    }
+
+    private void put(int id, String category, int price, String brand, int warrantyYears) {
+        HomeAppliance appliance = new HomeAppliance("SKU" + id, "Product " + id, category, price);
+        appliance.setId(id);
+        ApplianceItem item = null;
+        if (brand != null) {
+            item = new ApplianceItem(appliance, warrantyYears, brand, "Model " + id);
+            item.setId(id);
+        }
+        catalogue.put(id, new ProductListing(appliance, item));
+    }
+}
@@ -0,0 +1,119 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark of {@link FuzzySearchIndex} searches over a large synthetic catalogue.
+ *
+ * Each product has a three word description, a brand and a unique SKU and model, so the index holds a
+ * few common words and many rare ones. The benchmark times building the index, then times searches
+ * for a misspelt common word with a brand, and for a misspelt model code, which matches a single product.
+ * Run it with {@code java homeappliance.FuzzySearchBenchmark [products]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class FuzzySearchBenchmark {
+
+    private static final String[] WORDS = { "fridge", "freezer", "washing", "machine", "dryer", "oven", "hob",
+            "dishwasher", "microwave", "kettle", "toaster", "cooker", "hood", "integrated", "freestanding",
+            "compact", "silver", "white", "black", "steel", "smart", "quiet", "eco", "large", "slim" };
+    private static final String[] BRANDS = { "Bosch", "Beko", "Miele", "Samsung", "LG", "Hotpoint", "Indesit",
+            "Zanussi", "Siemens", "Neff", "Smeg", "Whirlpool", "AEG", "Hisense", "Haier" };
+
+    private static final int SEARCHES = 2_000;
+    private static final int ROUNDS = 5;
+
+    private static int sink;
+
+    /**
+     * Default constructor for FuzzySearchBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public FuzzySearchBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of products to generate
+     */
+    public static void main(String[] args) {
+        int products = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+        List<ProductListing> catalogue = new ArrayList<>(products);
+        for (int id = 1; id <= products; id++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+            HomeAppliance appliance = new HomeAppliance(String.format("SKU-%07d", id), description, "Kitchen", 100);
+            appliance.setId(id);
+            ApplianceItem item = new ApplianceItem(appliance, 1 + random.nextInt(5),
+                    BRANDS[random.nextInt(BRANDS.length)], model(id));
+            item.setId(id);
+            catalogue.add(new ProductListing(appliance, item));
+        }
+
+        FuzzySearchIndex index = new FuzzySearchIndex(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return catalogue;
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId - 1);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return itemId;
+            }
+        });
+        long start = System.nanoTime();
+        int size = index.size();
+        System.out.printf("built %,d words for %,d products in %,d ms%n", size, products,
+                (System.nanoTime() - start) / 1_000_000);
+
+        String[] common = new String[256];
+        String[] rare = new String[256];
+        for (int i = 0; i < common.length; i++) {
+            common[i] = typo(WORDS[random.nextInt(WORDS.length)], random) + " "
+                    + BRANDS[random.nextInt(BRANDS.length)].toLowerCase();
+            rare[i] = typo(model(1 + random.nextInt(products)), random);
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < SEARCHES; i++) {
+                sink += index.search(common[i & (common.length - 1)], FuzzySearchIndex.DEFAULT_LIMIT).length;
+            }
+            long commonElapsed = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < SEARCHES; i++) {
+                sink += index.search(rare[i & (rare.length - 1)], FuzzySearchIndex.DEFAULT_LIMIT).length;
+            }
+            long rareElapsed = System.nanoTime() - start;
+            System.out.printf("round %d: common word %,.1f us/search, model code %,.1f us/search%n", round + 1,
+                    commonElapsed / 1000.0 / SEARCHES, rareElapsed / 1000.0 / SEARCHES);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static String model(int id) {
+        return "M" + Integer.toString(id * 7919, 36);
+    }
+
+    /** Swaps two neighbouring letters of a word, which is one edit. */
+    private static String typo(String word, Random random) {
+        int at = 1 + random.nextInt(word.length() - 2);
+        char[] letters = word.toCharArray();
+        char swapped = letters[at];
+        letters[at] = letters[at + 1];
+        letters[at + 1] = swapped;
+        return new String(letters);
+    }
+}
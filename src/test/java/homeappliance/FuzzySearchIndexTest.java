@@ -0,0 +1,135 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link FuzzySearchIndex} class.
+ *
+ * Test scenarios include:
+ * - Bounded edit distance, including swapped letters
+ * - Finding misspelt products and ranking exact, prefix and typo matches
+ * - Requiring every query word to match
+ * - Applying catalogue writes incrementally
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class FuzzySearchIndexTest {
+
+    /** The catalogue seen by the index, keyed by product ID. */
+    private Map<Integer, ProductListing> catalogue;
+    private FuzzySearchIndex index;
+
+    /**
+     * Creates an index over a small in-memory catalogue.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalogue = new TreeMap<>();
+        put(1, "American Refrigerator", "Kitchen", "Samsung");
+        put(2, "Fridge Freezer", "Kitchen", "Bosch");
+        put(3, "Fridges Compact", "Kitchen", "Beko");
+        put(4, "Washing Machine", "Laundry", "Bosch");
+        put(5, "Tumble Dryer", "Laundry", "Miele");
+
+        index = new FuzzySearchIndex(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                // Each test item has the same ID as its product
+                return catalogue.containsKey(itemId) ? itemId : -1;
+            }
+        });
+    }
+
+    /**
+     * Tests the bounded edit distance and the number of edits allowed per word length.
+     */
+    @Test
+    public void testDistance() {
+        assertEquals(0, FuzzySearchIndex.distance("oven", "oven", 2));
+        assertEquals(1, FuzzySearchIndex.distance("fridge", "firdge", 2));
+        assertEquals(1, FuzzySearchIndex.distance("refridgerator", "refrigerator", 2));
+        assertEquals(2, FuzzySearchIndex.distance("washing", "wahsin", 2));
+        assertEquals(3, FuzzySearchIndex.distance("kettle", "toaster", 2));
+
+        assertEquals(0, FuzzySearchIndex.maxEdits(3));
+        assertEquals(1, FuzzySearchIndex.maxEdits(6));
+        assertEquals(2, FuzzySearchIndex.maxEdits(13));
+        assertEquals(Arrays.asList("sku", "4", "fridge", "freezer"), FuzzySearchIndex.tokenize("SKU-4 Fridge, Freezer"));
+    }
+
+    /**
+     * Tests that misspelt searches find products and that closer matches rank first.
+     */
+    @Test
+    public void testTyposAndRanking() {
+        assertArrayEquals(new int[] { 1 }, index.search("refridgerator", 10));
+        assertArrayEquals(new int[] { 4 }, index.search("wasing machne", 10));
+
+        // An exact match ranks before a prefix, and a prefix before a typo
+        assertArrayEquals(new int[] { 2, 3 }, index.search("fridge", 10));
+        assertArrayEquals(new int[] { 3, 2 }, index.search("fridges", 10));
+        assertArrayEquals(new int[] { 2 }, index.search("firdge", 10));
+        assertArrayEquals(new int[] { 2 }, index.search("fridge", 1));
+        assertEquals(0, index.search("xyz", 10).length);
+    }
+
+    /**
+     * Tests that every word of a query must match a product.
+     */
+    @Test
+    public void testAllWordsMustMatch() {
+        assertArrayEquals(new int[] { 4 }, index.search("bosch washing", 10));
+        assertArrayEquals(new int[] { 2, 4 }, index.search("bosh", 10));
+        assertEquals(0, index.search("bosch dryer", 10).length);
+    }
+
+    /**
+     * Tests that writes are applied on the next search.
+     */
+    @Test
+    public void testIncrementalUpdate() {
+        assertArrayEquals(new int[] { 5 }, index.search("tumble", 10));
+        int words = index.size();
+
+        put(5, "Heat Pump Dryer", "Laundry", "Miele");
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 5);
+        catalogue.remove(2);
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 2);
+
+        assertEquals(0, index.search("tumble", 10).length);
+        assertArrayEquals(new int[] { 5 }, index.search("heat pumps", 10));
+        assertArrayEquals(new int[] { 3 }, index.search("fridge", 10));
+        // "heat" and "pump" are new; "tumble" and the four words only product 2 used are gone
+        assertEquals(words - 3, index.size());
+    }
+
+    private void put(int id, String description, String category, String brand) {
+        HomeAppliance appliance = new HomeAppliance("SKU" + id, description, category, 100);
+        appliance.setId(id);
+        ApplianceItem item = new ApplianceItem(appliance, 2, brand, "Model " + id);
+        item.setId(id);
+        catalogue.put(id, new ProductListing(appliance, item));
+    }
+}
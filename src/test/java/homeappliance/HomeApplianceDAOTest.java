@@ -47,6 +47,7 @@ class HomeApplianceDAOTest {
         mockConnection = mock(Connection.class);
         mockPreparedStatement = mock(PreparedStatement.class);
         mockResultSet = mock(ResultSet.class);
+        HomeApplianceDAO.clearCachedReads();
 
         dao = new HomeApplianceDAO() {
             @Override
@@ -0,0 +1,86 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark of price range queries over a {@link CatalogueSnapshot}, comparing the sorted
+ * {@link PriceIndex} with a scan of every row.
+ *
+ * Prices are spread evenly between £20 and £1519 over five categories. For ranges covering 0.1%, 1%, 10%
+ * and 50% of the prices, the benchmark times a cheapest-first price range with and without a category
+ * filter. Each query returns product IDs, so object creation is not timed.
+ * Run it with {@code java homeappliance.PriceRangeBenchmark [products]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class PriceRangeBenchmark {
+
+    private static final String[] CATEGORIES = { "Kitchen", "Laundry", "Small Appliances", "Cooling", "Cooking" };
+    private static final int MIN_PRICE = 20;
+    private static final int PRICE_SPAN = 1500;
+    private static final double[] WIDTHS = { 0.001, 0.01, 0.1, 0.5 };
+    private static final int QUERIES = 50;
+
+    private static long sink;
+
+    /**
+     * Default constructor for PriceRangeBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public PriceRangeBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of products to generate
+     */
+    public static void main(String[] args) {
+        int products = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        List<ProductListing> catalogue = new ArrayList<>(products);
+        for (int id = 1; id <= products; id++) {
+            HomeAppliance appliance = new HomeAppliance(String.format("SKU-%07d", id), "Product " + id,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], MIN_PRICE + random.nextInt(PRICE_SPAN));
+            appliance.setId(id);
+            catalogue.add(new ProductListing(appliance, null));
+        }
+        CatalogueSnapshot snapshot = CatalogueSnapshot.of(catalogue);
+        catalogue = null;
+
+        long start = System.nanoTime();
+        sink += snapshot.findProductIds(new ProductQuery().minPrice(0).maxPrice(0)).length;
+        System.out.printf("%,d products, price index built in %,d ms%n", products, (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d%n", round + 1);
+            for (double width : WIDTHS) {
+                int span = Math.max(1, (int) (PRICE_SPAN * width));
+                System.out.printf("  width %5.1f%%: index %8.3f ms, scan %8.3f ms | with category: index %8.3f ms, scan %8.3f ms%n",
+                        width * 100, time(snapshot, span, false, true, random), time(snapshot, span, false, false, random),
+                        time(snapshot, span, true, true, random), time(snapshot, span, true, false, random));
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double time(CatalogueSnapshot snapshot, int span, boolean category, boolean index, Random random) {
+        long elapsed = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            int low = MIN_PRICE + random.nextInt(PRICE_SPAN - span + 1);
+            ProductQuery query = new ProductQuery().minPrice(low).maxPrice(low + span - 1)
+                    .category(category ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null)
+                    .sortBy(ProductQuery.Sort.PRICE_ASC);
+            long start = System.nanoTime();
+            sink += (index ? snapshot.findProductIds(query) : snapshot.findProductIdsByScan(query)).length;
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed / 1_000_000.0 / QUERIES;
+    }
+}
@@ -0,0 +1,116 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark of pricing a 100-line basket with a {@link PricingPlan}, against the number of rules in force.
+ *
+ * The catalogue has 100,000 items over five categories. For each number of rules, a mix of item discounts,
+ * multi-buys, category discounts, bundles and expired promotions is compiled, and the benchmark reports the
+ * compile time and the average time to price a random 100-line basket. Pricing should stay in microseconds
+ * however many rules there are, as only the rules for the basket's items and categories are looked at.
+ * Run it with {@code java homeappliance.PricingBenchmark [lines]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class PricingBenchmark {
+
+    private static final String[] CATEGORIES = { "Kitchen", "Laundry", "Small Appliances", "Cooling", "Cooking" };
+    private static final int ITEMS = 100_000;
+    private static final int[] RULE_COUNTS = { 0, 100, 1_000, 10_000, 100_000 };
+    private static final int BASKETS = 1_000;
+    private static final int ITERATIONS = 20;
+
+    private static long sink;
+
+    /**
+     * Default constructor for PricingBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public PricingBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of lines in each basket
+     */
+    public static void main(String[] args) {
+        int lineCount = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+        Random random = new Random(42);
+        List<List<Basket.Line>> baskets = new ArrayList<>(BASKETS);
+        for (int b = 0; b < BASKETS; b++) {
+            List<Basket.Line> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                int itemId = 1 + random.nextInt(ITEMS);
+                lines.add(line(itemId, 1 + random.nextInt(4)));
+            }
+            baskets.add(lines);
+        }
+        long now = System.currentTimeMillis();
+
+        for (int round = 0; round < 2; round++) {
+            System.out.printf("round %d (%d-line baskets)%n", round + 1, lineCount);
+            for (int rules : RULE_COUNTS) {
+                List<PricingRule> ruleList = rules(rules, now, new Random(rules));
+                long start = System.nanoTime();
+                PricingPlan plan = PricingPlan.compile(ruleList);
+                double compileMillis = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                    for (List<Basket.Line> basket : baskets) {
+                        sink += plan.price(basket, now).getTotal();
+                    }
+                }
+                double micros = (System.nanoTime() - start) / 1e3 / (ITERATIONS * BASKETS);
+                System.out.printf("  %,7d rules: compiled in %8.2f ms, %7.2f µs per basket%n", rules, compileMillis, micros);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static List<PricingRule> rules(int count, long now, Random random) {
+        List<PricingRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int itemId = 1 + random.nextInt(ITEMS);
+            PricingRule rule;
+            switch (i % 5) {
+                case 0:
+                    rule = PricingRule.itemDiscount("Item " + i, itemId, 5 + random.nextInt(30));
+                    break;
+                case 1:
+                    rule = PricingRule.multiBuy("Multi-buy " + i, itemId, 3, 2);
+                    break;
+                case 2:
+                    rule = PricingRule.categoryDiscount("Category " + i, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                            1 + random.nextInt(20));
+                    break;
+                case 3:
+                    rule = PricingRule.bundle("Bundle " + i, new int[] { itemId, 1 + random.nextInt(ITEMS) }, 50);
+                    break;
+                default:
+                    rule = PricingRule.itemDiscount("Expired " + i, itemId, 50).activeBetween(0, now - 1);
+                    break;
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private static Basket.Line line(int itemId, int quantity) {
+        int price = 20 + itemId % 1500;
+        HomeAppliance appliance = new HomeAppliance("SKU-" + itemId, "Product " + itemId,
+                CATEGORIES[itemId % CATEGORIES.length], price);
+        appliance.setId(itemId);
+        ApplianceItem item = new ApplianceItem(appliance, 2, "Bosch", "Model " + itemId);
+        item.setId(itemId);
+        return new Basket.Line(item, price, quantity);
+    }
+}
@@ -0,0 +1,155 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link PricingPlan} and {@link LivePricing} classes.
+ *
+ * Test scenarios include:
+ * - Category and item discounts, taking the best one rather than adding them up
+ * - Multi-buy deals on whole multiples only
+ * - Bundles applied before other discounts, only when complete and cheaper
+ * - Promotions outside their period being skipped
+ * - Swapping in a new plan when the rules are reloaded
+ * - Keeping the current plan when the rules cannot be read
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class PricingPlanTest {
+
+    private static final long NOW = 1_000_000L;
+
+    /**
+     * Tests that the best discount for each line applies.
+     */
+    @Test
+    public void testDiscounts() {
+        PricingPlan plan = PricingPlan.compile(Arrays.asList(
+                PricingRule.categoryDiscount("Kitchen sale", "Kitchen", 10),
+                PricingRule.itemDiscount("Kettle offer", 2, 25),
+                PricingRule.categoryDiscount("Laundry sale", "Laundry", 50)));
+
+        PricingPlan.Result result = plan.price(Arrays.asList(line(1, "Kitchen", 99, 2), line(2, "Kitchen", 40, 1),
+                line(3, null, 30, 1)), NOW);
+        assertEquals(268, result.getSubtotal());
+        // 10% of £198 rounded down, and the kettle's 25% rather than 10%
+        assertEquals(19 + 10, result.getDiscount());
+        assertEquals(239, result.getTotal());
+        assertEquals(Arrays.asList("Kitchen sale", "Kettle offer"), result.getApplied());
+
+        assertEquals(0, PricingPlan.EMPTY.price(Arrays.asList(line(1, "Kitchen", 99, 2)), NOW).getDiscount());
+    }
+
+    /**
+     * Tests that a multi-buy only applies to complete multiples, and only when it beats a percentage.
+     */
+    @Test
+    public void testMultiBuy() {
+        PricingPlan plan = PricingPlan.compile(Arrays.asList(
+                PricingRule.multiBuy("3 for 2", 1, 3, 2),
+                PricingRule.categoryDiscount("Kitchen sale", "Kitchen", 20)));
+
+        assertEquals(10, plan.price(Arrays.asList(line(1, "Kitchen", 10, 3)), NOW).getDiscount());
+        assertEquals(10, plan.price(Arrays.asList(line(1, "Kitchen", 10, 5)), NOW).getDiscount());
+        // Two units: 20% off beats no multi-buy
+        PricingPlan.Result result = plan.price(Arrays.asList(line(1, "Kitchen", 10, 2)), NOW);
+        assertEquals(4, result.getDiscount());
+        assertEquals(Arrays.asList("Kitchen sale"), result.getApplied());
+    }
+
+    /**
+     * Tests that bundles take their items out of other discounts and only apply when complete and cheaper.
+     */
+    @Test
+    public void testBundles() {
+        PricingPlan plan = PricingPlan.compile(Arrays.asList(
+                PricingRule.bundle("Laundry pair", new int[] { 5, 4 }, 700),
+                PricingRule.bundle("Dearer pair", new int[] { 4, 6 }, 1000),
+                PricingRule.categoryDiscount("Laundry sale", "Laundry", 10)));
+
+        PricingPlan.Result result = plan.price(Arrays.asList(line(4, "Laundry", 400, 3), line(5, "Laundry", 350, 2),
+                line(6, "Laundry", 500, 1)), NOW);
+        // Two pairs at £700 save £50 each; the third of item 4 gets 10%, as does item 6, since £1000 is not cheaper
+        assertEquals(2 * 50 + 40 + 50, result.getDiscount());
+        assertEquals(Arrays.asList("Laundry pair", "Laundry sale"), result.getApplied());
+
+        assertEquals(40, plan.price(Arrays.asList(line(4, "Laundry", 400, 1)), NOW).getDiscount());
+    }
+
+    /**
+     * Tests that promotions only apply within their period.
+     */
+    @Test
+    public void testPeriods() {
+        PricingPlan plan = PricingPlan.compile(Arrays.asList(
+                PricingRule.itemDiscount("Weekend offer", 1, 50).activeBetween(NOW, NOW + 1000)));
+        List<Basket.Line> lines = Arrays.asList(line(1, "Kitchen", 100, 1));
+
+        assertEquals(0, plan.price(lines, NOW - 1).getDiscount());
+        assertEquals(50, plan.price(lines, NOW).getDiscount());
+        assertEquals(0, plan.price(lines, NOW + 1000).getDiscount());
+    }
+
+    /**
+     * Tests that a reload swaps in a plan compiled from the new rules.
+     */
+    @Test
+    public void testReload() {
+        List<PricingRule> rules = new ArrayList<>();
+        LivePricing pricing = new LivePricing(() -> new ArrayList<>(rules));
+        PricingPlan first = pricing.plan();
+        assertEquals(0, first.ruleCount());
+
+        rules.add(PricingRule.itemDiscount("Offer", 1, 10));
+        assertSame(first, pricing.plan());
+        pricing.reload();
+        assertNotSame(first, pricing.plan());
+        assertEquals(10, pricing.price(Arrays.asList(line(1, "Kitchen", 100, 1))).getDiscount());
+        assertEquals(0, first.price(Arrays.asList(line(1, "Kitchen", 100, 1)), NOW).getDiscount());
+
+        assertThrows(IllegalArgumentException.class, () -> PricingRule.multiBuy("Bad", 1, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> PricingRule.bundle("Bad", new int[] { 1, 1 }, 10));
+    }
+
+    /**
+     * Tests that a failed load keeps the current plan and is tried again on the next use.
+     */
+    @Test
+    public void testFailedReload() {
+        List<PricingRule> rules = new ArrayList<>();
+        boolean[] failing = { true };
+        LivePricing pricing = new LivePricing(() -> failing[0] ? null : new ArrayList<>(rules));
+        assertEquals(0, pricing.plan().ruleCount());
+
+        rules.add(PricingRule.itemDiscount("Offer", 1, 10));
+        failing[0] = false;
+        assertEquals(10, pricing.price(Arrays.asList(line(1, "Kitchen", 100, 1))).getDiscount());
+
+        PricingPlan loaded = pricing.plan();
+        failing[0] = true;
+        rules.clear();
+        pricing.reload();
+        assertSame(loaded, pricing.plan());
+        assertEquals(10, pricing.price(Arrays.asList(line(1, "Kitchen", 100, 1))).getDiscount());
+
+        failing[0] = false;
+        assertEquals(0, pricing.plan().ruleCount());
+    }
+
+    private static Basket.Line line(int itemId, String category, int price, int quantity) {
+        HomeAppliance appliance = new HomeAppliance("SKU-" + itemId, "Product " + itemId, category, price);
+        appliance.setId(itemId);
+        ApplianceItem item = new ApplianceItem(appliance, 2, "Bosch", "Model " + itemId);
+        item.setId(itemId);
+        return new Basket.Line(item, price, quantity);
+    }
+}
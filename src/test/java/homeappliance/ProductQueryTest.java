@@ -0,0 +1,88 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ProductQuery} class and the SQL built from it by {@link HomeApplianceDAO}.
+ *
+ * Test scenarios include:
+ * - Mapping the products page sort values
+ * - Identifying queries with the same shape
+ * - Comparing and copying queries by value
+ * - Combining search, filters and sort order in one statement
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class ProductQueryTest {
+
+    /**
+     * Tests that the products page sort values map to sort orders and unknown values fall back to the default.
+     */
+    @Test
+    public void testSortFromParameter() {
+        assertEquals(ProductQuery.Sort.PRICE_ASC, ProductQuery.Sort.fromParameter("priceAsc"));
+        assertEquals(ProductQuery.Sort.WARRANTY_DESC, ProductQuery.Sort.fromParameter("warrantyDesc"));
+        assertEquals(ProductQuery.Sort.DEFAULT, ProductQuery.Sort.fromParameter("random"));
+        assertEquals(ProductQuery.Sort.DEFAULT, ProductQuery.Sort.fromParameter(null));
+    }
+
+    /**
+     * Tests that the shape depends on which criteria are set, not on their values, and that blank text is ignored.
+     */
+    @Test
+    public void testShape() {
+        ProductQuery fridges = new ProductQuery().keyword("fridge").maxPrice(500);
+        ProductQuery ovens = new ProductQuery().keyword("oven").maxPrice(300);
+        assertEquals(fridges.shape(), ovens.shape());
+
+        assertNotEquals(fridges.shape(), new ProductQuery().keyword("fridge").minPrice(500).shape());
+        assertNotEquals(fridges.shape(), ovens.sortBy(ProductQuery.Sort.PRICE_DESC).shape());
+        assertEquals(new ProductQuery().shape(), new ProductQuery().keyword("  ").category("").shape());
+    }
+
+    /**
+     * Tests that queries with the same criteria are equal, and that a copy does not follow later changes.
+     */
+    @Test
+    public void testEqualsAndCopy() {
+        ProductQuery query = new ProductQuery().category("Kitchen").maxPrice(500).sortBy(ProductQuery.Sort.PRICE_ASC);
+        ProductQuery copy = query.copy();
+        assertEquals(query, copy);
+        assertEquals(query.hashCode(), copy.hashCode());
+        assertEquals(new ProductQuery(), new ProductQuery().keyword(" "));
+
+        query.keyword("fridge");
+        assertNotEquals(query, copy);
+        assertNull(copy.getKeyword());
+    }
+
+    /**
+     * Tests that every criterion becomes a placeholder in a single statement with a stable order.
+     */
+    @Test
+    public void testCombinedQuery() {
+        ProductQuery query = new ProductQuery()
+                .keyword("fridge")
+                .category("Kitchen")
+                .brand("Bosch")
+                .minPrice(100)
+                .maxWarrantyYears(5)
+                .sortBy(ProductQuery.Sort.WARRANTY_ASC);
+        String sql = HomeApplianceDAO.buildProductQuery(query);
+
+        assertEquals(7, sql.chars().filter(c -> c == '?').count());
+        assertTrue(sql.contains("a.category = ?"));
+        assertTrue(sql.contains("i.brand = ? COLLATE NOCASE"));
+        assertTrue(sql.contains("a.price >= ?"));
+        assertTrue(sql.contains("i.warrantyYears <= ?"));
+        assertTrue(sql.endsWith("ORDER BY i.warrantyYears ASC, a.id"));
+        assertFalse(sql.contains("fridge"));
+
+        assertTrue(HomeApplianceDAO.buildProductQuery(new ProductQuery()).endsWith("WHERE 1 = 1 ORDER BY a.id"));
+    }
+}
@@ -0,0 +1,231 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit and stress tests for the {@link StockLevels} class, with stock levels saved in memory.
+ *
+ * Test scenarios include:
+ * - Reserving, releasing and selling units, and leaving untracked items unlimited
+ * - Refusing, and reading again, an item whose level could not be read
+ * - Selling nothing when one line of a basket is short
+ * - Releasing expired reservations and reserving again at checkout
+ * - Saving changed levels in batches
+ * - Thousands of concurrent checkouts of one item never selling more than is in stock
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class StockLevelsTest {
+
+    /** Saved stock levels, keyed by item ID. Items 1 and 2 are tracked. */
+    private final Map<Integer, Integer> saved = new ConcurrentHashMap<>();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger failingLoads = new AtomicInteger();
+    private StockLevels stock;
+
+    private final StockStorage storage = new StockStorage() {
+        @Override
+        public int load(int itemId) {
+            if (failingLoads.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                return StockLevels.UNAVAILABLE;
+            }
+            return saved.getOrDefault(itemId, StockLevels.UNTRACKED);
+        }
+
+        @Override
+        public boolean save(Map<Integer, Integer> quantities) {
+            batches.incrementAndGet();
+            saved.putAll(quantities);
+            return true;
+        }
+    };
+
+    /**
+     * Creates stock levels with 5 units of item 1 and 2 units of item 2, which are saved only when flushed.
+     */
+    @BeforeEach
+    public void setUp() {
+        saved.put(1, 5);
+        saved.put(2, 2);
+        stock = new StockLevels(storage, 60_000, 60_000);
+    }
+
+    /**
+     * Stops the stock levels.
+     */
+    @AfterEach
+    public void tearDown() {
+        stock.stop();
+    }
+
+    /**
+     * Tests that a level that could not be read is not taken as untracked, and is read again next time.
+     */
+    @Test
+    public void testFailedLoadIsNotCached() {
+        failingLoads.set(2);
+        assertThrows(StockLevels.UnavailableException.class, () -> stock.reserve(7, 1, 5));
+        assertThrows(StockLevels.UnavailableException.class, () -> stock.commit(7, Arrays.asList(line(2, 1))));
+
+        assertTrue(stock.reserve(7, 1, 5));
+        assertFalse(stock.reserve(8, 1, 1), "A tracked item must not become unlimited after a failed read");
+        assertEquals(2, stock.available(2));
+    }
+
+    /**
+     * Tests reserving, releasing and selling units.
+     */
+    @Test
+    public void testReserveReleaseAndCommit() {
+        assertTrue(stock.reserve(7, 1, 3));
+        assertFalse(stock.reserve(8, 1, 3));
+        assertEquals(2, stock.available(1));
+        assertEquals(5, stock.inStock(1));
+
+        stock.release(7, 1, 1);
+        stock.release(8, 1, 1);
+        assertEquals(3, stock.available(1));
+
+        assertTrue(stock.commit(7, Arrays.asList(line(1, 2))));
+        assertEquals(3, stock.inStock(1));
+        assertEquals(3, stock.available(1));
+
+        // Releasing after the sale gives nothing back
+        stock.release(7, 1, 2);
+        assertEquals(3, stock.available(1));
+
+        assertTrue(stock.reserve(7, 99, 1000));
+        assertEquals(StockLevels.UNTRACKED, stock.available(99));
+        assertTrue(stock.commit(7, Arrays.asList(line(99, 1000))));
+    }
+
+    /**
+     * Tests that a basket with one short line sells nothing and keeps its reservations.
+     */
+    @Test
+    public void testCommitIsAllOrNothing() {
+        assertTrue(stock.reserve(7, 1, 2));
+        assertTrue(stock.reserve(8, 2, 2));
+
+        assertFalse(stock.commit(7, Arrays.asList(line(1, 2), line(2, 1))));
+        assertEquals(5, stock.inStock(1));
+        assertEquals(3, stock.available(1));
+        assertEquals(0, stock.available(2));
+
+        stock.release(8, 2, 2);
+        assertTrue(stock.commit(7, Arrays.asList(line(1, 2), line(2, 1))));
+        assertEquals(3, stock.inStock(1));
+        assertEquals(1, stock.inStock(2));
+        assertEquals(1, stock.available(2));
+
+        stock.cancel(Arrays.asList(line(1, 2), line(2, 1)));
+        assertEquals(5, stock.inStock(1));
+        assertEquals(2, stock.available(2));
+    }
+
+    /**
+     * Tests that expired reservations return to stock and are reserved again at checkout.
+     */
+    @Test
+    public void testExpiry() throws InterruptedException {
+        stock.stop();
+        stock = new StockLevels(storage, 20, 60_000);
+        assertTrue(stock.reserve(7, 1, 4));
+        Thread.sleep(40);
+        stock.expire();
+        assertEquals(5, stock.available(1));
+
+        assertTrue(stock.reserve(8, 1, 3));
+        assertFalse(stock.commit(7, Arrays.asList(line(1, 4))));
+        assertTrue(stock.commit(7, Arrays.asList(line(1, 2))));
+        assertEquals(0, stock.available(1));
+    }
+
+    /**
+     * Tests that changed levels are saved together, once per flush.
+     */
+    @Test
+    public void testBatchedWrites() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(stock.reserve(i, 1, 1));
+            assertTrue(stock.commit(i, Arrays.asList(line(1, 1))));
+        }
+        stock.setStock(3, 10);
+        assertEquals(0, batches.get());
+
+        stock.flush();
+        stock.flush();
+        assertEquals(1, batches.get());
+        assertEquals(0, (int) saved.get(1));
+        assertEquals(10, (int) saved.get(3));
+        assertEquals(10, stock.available(3));
+    }
+
+    /**
+     * Tests that thousands of customers checking out the same item at once sell exactly the units in stock.
+     */
+    @Test
+    public void testConcurrentCheckoutsOfHotItem() throws Exception {
+        int units = 500;
+        int customers = 5000;
+        stock.setStock(1, units);
+        AtomicInteger orders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> checkouts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int customer = 0; customer < customers; customer++) {
+                int userId = customer;
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    List<Basket.Line> lines = Arrays.asList(line(1, 1 + userId % 2));
+                    // Half of the customers reserve first, the rest go straight to checkout
+                    if (userId % 4 < 2 && !stock.reserve(userId, 1, 1 + userId % 2)) {
+                        return null;
+                    }
+                    if (stock.commit(userId, lines)) {
+                        orders.addAndGet(1 + userId % 2);
+                    } else {
+                        stock.release(userId, 1, 2);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> checkout : checkouts) {
+                checkout.get();
+            }
+        }
+        stock.flush();
+
+        assertEquals(units - orders.get(), stock.inStock(1));
+        assertEquals(stock.inStock(1), stock.available(1));
+        assertTrue(stock.inStock(1) <= 1, "Stock left unsold: " + stock.inStock(1));
+        assertEquals(stock.inStock(1), (int) saved.get(1));
+    }
+
+    private static Basket.Line line(int itemId, int quantity) {
+        HomeAppliance appliance = new HomeAppliance("SKU-" + itemId, "Product " + itemId, "Kitchen", 10);
+        appliance.setId(itemId);
+        ApplianceItem item = new ApplianceItem(appliance, 2, "Bosch", "Model " + itemId);
+        item.setId(itemId);
+        return new Basket.Line(item, 10, quantity);
+    }
+}
@@ -0,0 +1,102 @@
+package homeappliance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark of {@link SuggestionIndex} lookups over a large synthetic catalogue.
+ *
+ * The catalogue has enough products for about 500,000 distinct suggestions (SKUs, descriptions,
+ * brands and models). The benchmark times building the index, then times lookups of random
+ * one to four character prefixes, which are the slowest case because they match the most suggestions.
+ * Run it with {@code java homeappliance.SuggestionBenchmark [products]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class SuggestionBenchmark {
+
+    private static final String[] WORDS = { "fridge", "freezer", "washing", "machine", "dryer", "oven", "hob",
+            "dishwasher", "microwave", "kettle", "toaster", "cooker", "hood", "integrated", "freestanding",
+            "compact", "silver", "white", "black", "steel", "smart", "quiet", "eco", "large", "slim" };
+    private static final String[] BRANDS = { "Bosch", "Beko", "Miele", "Samsung", "LG", "Hotpoint", "Indesit",
+            "Zanussi", "Siemens", "Neff", "Smeg", "Whirlpool", "AEG", "Hisense", "Haier" };
+
+    private static final int LOOKUPS = 200_000;
+    private static final int ROUNDS = 5;
+
+    private static int sink;
+
+    /**
+     * Default constructor for SuggestionBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public SuggestionBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of products to generate
+     */
+    public static void main(String[] args) {
+        int products = (args.length > 0) ? Integer.parseInt(args[0]) : 170_000;
+        Random random = new Random(42);
+        List<ProductListing> catalogue = new ArrayList<>(products);
+        for (int id = 1; id <= products; id++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            HomeAppliance appliance = new HomeAppliance(String.format("SKU-%07d", id), description, "Kitchen", 100);
+            appliance.setId(id);
+            ApplianceItem item = new ApplianceItem(appliance, 1 + random.nextInt(5),
+                    BRANDS[random.nextInt(BRANDS.length)], "M" + Integer.toString(id * 7919, 36));
+            item.setId(id);
+            catalogue.add(new ProductListing(appliance, item));
+        }
+
+        SuggestionIndex index = new SuggestionIndex(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return catalogue;
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId - 1);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return itemId;
+            }
+        });
+        long start = System.nanoTime();
+        int size = index.size();
+        System.out.printf("built %,d suggestions in %,d ms%n", size, (System.nanoTime() - start) / 1_000_000);
+
+        String[] prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += index.suggest(prefixes[i & (prefixes.length - 1)], 8).size();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %,.1f us/lookup%n", round + 1, elapsed / 1000.0 / LOOKUPS);
+        }
+
+        // An update re-loads only the changed product
+        start = System.nanoTime();
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, products / 2);
+        sink += index.suggest("fr", 8).size();
+        System.out.printf("incremental update: %,d us%n", (System.nanoTime() - start) / 1000);
+        System.out.println("(checksum " + sink + ")");
+    }
+}
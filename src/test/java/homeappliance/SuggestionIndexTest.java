@@ -0,0 +1,147 @@
+package homeappliance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link SuggestionIndex} and {@link RadixTrie} classes.
+ *
+ * Test scenarios include:
+ * - Splitting and merging trie edges as keys are added and removed
+ * - Matching suggestions from the start of any word, ranked by popularity
+ * - Counting searches and folding them into the ranking
+ * - Following catalogue writes
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class SuggestionIndexTest {
+
+    private Map<Integer, ProductListing> catalogue;
+    private SuggestionIndex index;
+
+    /**
+     * Creates an index over a small in-memory catalogue.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalogue = new TreeMap<>();
+        put(1, "FF-100", "Fridge Freezer", "Bosch", "Serie 4");
+        put(2, "FF-200", "Fridge Freezer", "Beko", "Harvest");
+        put(3, "WM-300", "Washing Machine", "Bosch", "Serie 6");
+        put(4, "FR-400", "Freestanding Fridge", "Miele", null);
+
+        index = new SuggestionIndex(new CatalogueSource() {
+            @Override
+            public List<ProductListing> loadAll() {
+                return new ArrayList<>(catalogue.values());
+            }
+
+            @Override
+            public ProductListing load(int productId) {
+                return catalogue.get(productId);
+            }
+
+            @Override
+            public int productOfItem(int itemId) {
+                return catalogue.containsKey(itemId) ? itemId : -1;
+            }
+        });
+    }
+
+    /**
+     * Tests that the trie keeps working as edges are split and merged, and ranks by score.
+     */
+    @Test
+    public void testTrie() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("team", "team", 1);
+        trie.put("tea", "tea", 3);
+        trie.put("ten", "ten", 2);
+        trie.put("toast", "toast", 5);
+        assertEquals(4, trie.size());
+        assertEquals("tea", trie.get("tea"));
+        assertNull(trie.get("te"));
+
+        assertEquals(Arrays.asList("toast", "tea", "ten", "team"), trie.top("t", 10));
+        assertEquals(Arrays.asList("tea", "ten"), trie.top("te", 2));
+        assertEquals(Collections.singletonList("toast"), trie.top("toa", 10));
+        assertTrue(trie.top("tx", 10).isEmpty());
+
+        assertTrue(trie.remove("tea"));
+        assertFalse(trie.remove("tea"));
+        assertEquals("team", trie.get("team"));
+        assertEquals(Arrays.asList("ten", "team"), trie.top("te", 10));
+
+        trie.put("team", "team", 9);
+        assertEquals("team", trie.top("t", 1).get(0));
+    }
+
+    /**
+     * Tests that suggestions match from the start of any word and the most popular come first.
+     */
+    @Test
+    public void testSuggest() {
+        // "Fridge Freezer" describes two products, so it outranks the single ones
+        List<String> suggestions = index.suggest("f", 10);
+        assertEquals("Fridge Freezer", suggestions.get(0));
+        assertEquals(new TreeSet<>(Arrays.asList("FF-100", "FF-200", "FR-400", "Freestanding Fridge")),
+                new TreeSet<>(suggestions.subList(1, suggestions.size())));
+        assertEquals(Arrays.asList("Fridge Freezer", "Freestanding Fridge"), index.suggest("FRIDGE", 10));
+        assertEquals(Collections.singletonList("Fridge Freezer"), index.suggest("freez", 10));
+        assertEquals(Arrays.asList("Bosch", "Beko"), index.suggest("b", 10));
+        assertTrue(index.suggest("   ", 10).isEmpty());
+        assertTrue(index.suggest("kettle", 10).isEmpty());
+
+        index.recordSearch("freestanding  fridge");
+        index.recordSearch("Freestanding Fridge");
+        index.recordSearch("something else");
+        // Searches only count once they are folded in
+        assertEquals("Fridge Freezer", index.suggest("fr", 1).get(0));
+        index.foldSearches();
+        assertEquals("Freestanding Fridge", index.suggest("fr", 1).get(0));
+    }
+
+    /**
+     * Tests that changed and deleted products are reflected on the next lookup.
+     */
+    @Test
+    public void testCatalogueChanges() {
+        assertEquals(Arrays.asList("Serie 4", "Serie 6"), index.suggest("serie", 10));
+        int size = index.size();
+
+        put(3, "WM-300", "Washer Dryer", "Bosch", "Serie 8");
+        index.catalogueChanged(CatalogueEvents.Source.ITEM, 3);
+        catalogue.remove(2);
+        index.catalogueChanged(CatalogueEvents.Source.PRODUCT, 2);
+
+        assertEquals(Arrays.asList("Serie 4", "Serie 8"), index.suggest("serie", 10));
+        assertTrue(index.suggest("washing", 10).isEmpty());
+        assertTrue(index.suggest("beko", 10).isEmpty());
+        assertEquals(Collections.singletonList("Fridge Freezer"), index.suggest("fridge f", 10));
+        assertEquals(size - 3, index.size());
+    }
+
+    private void put(int id, String sku, String description, String brand, String model) {
+        HomeAppliance appliance = new HomeAppliance(sku, description, "Kitchen", 100);
+        appliance.setId(id);
+        ApplianceItem item = null;
+        if (brand != null) {
+            item = new ApplianceItem(appliance, 2, brand, model);
+            item.setId(id);
+        }
+        catalogue.put(id, new ProductListing(appliance, item));
+    }
+}
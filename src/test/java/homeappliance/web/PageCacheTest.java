@@ -0,0 +1,247 @@
+package homeappliance.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link PageCache} and {@link CompressedPage} classes.
+ *
+ * Test scenarios include:
+ * - Splicing a per-request prefix in front of a cached, pre-compressed page
+ * - Normalising cache keys and escaping their values
+ * - Size-bounded admission and eviction
+ * - Refusing a newcomer without evicting anything
+ * - Invalidation after catalogue writes
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class PageCacheTest {
+
+    private PageCache cache;
+
+    /**
+     * Creates a small cache before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        cache = new PageCache(64 * 1024);
+    }
+
+    /**
+     * Tests that a prefix followed by a cached page decodes as one valid gzip stream.
+     */
+    @Test
+    public void testGzipSpliceRoundTrip() throws IOException {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            html.append("<tr><td>").append(i).append("</td><td>Fridge £").append(i * 3).append("</td></tr>");
+        }
+        CompressedPage page = CompressedPage.compress(html.toString());
+        String prefix = "<nav>Logged in as: northernsteakhouse</nav>";
+
+        byte[] gzip = page.toGzip(prefix);
+
+        assertEquals(prefix + html, gunzip(gzip), "Spliced body should decode to prefix + page");
+        assertTrue(page.compressedSize() < page.uncompressedSize(), "Page should be stored compressed");
+    }
+
+    /**
+     * Tests that the identity encoding writes the prefix followed by the decompressed page.
+     */
+    @Test
+    public void testWriteIdentity() throws IOException {
+        CompressedPage page = CompressedPage.compress("<table>Kitchen</table>");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        page.writeIdentity("<nav></nav>", out);
+
+        assertEquals("<nav></nav><table>Kitchen</table>", out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    /**
+     * Tests combining two CRC32 values against the CRC32 of the concatenated bytes.
+     */
+    @Test
+    public void testCrc32Combine() {
+        Random random = new Random(42);
+        byte[] first = new byte[1234];
+        byte[] second = new byte[98765];
+        random.nextBytes(first);
+        random.nextBytes(second);
+
+        CRC32 whole = new CRC32();
+        whole.update(first);
+        whole.update(second);
+        CRC32 a = new CRC32();
+        a.update(first);
+        CRC32 b = new CRC32();
+        b.update(second);
+
+        assertEquals((int) whole.getValue(),
+                CompressedPage.crc32Combine((int) a.getValue(), (int) b.getValue(), second.length));
+    }
+
+    /**
+     * Tests that keys ignore unrelated and empty parameters and the order of parameters.
+     */
+    @Test
+    public void testKeyNormalisation() {
+        Map<String, String> first = new HashMap<>();
+        first.put("sortType", "priceAsc");
+        first.put("category", " Kitchen ");
+        first.put("utm_source", "newsletter");
+        first.put("search", "");
+        Map<String, String> second = new HashMap<>();
+        second.put("category", "Kitchen");
+        second.put("sortType", "priceAsc");
+
+        String[] relevant = { "category", "search", "sortType" };
+        assertEquals(PageCache.key("Guest", first, relevant), PageCache.key("Guest", second, relevant));
+        assertNotEquals(PageCache.key("Guest", second, relevant), PageCache.key("Customer", second, relevant));
+        assertEquals(second, PageCache.normalise(first, relevant));
+    }
+
+    /**
+     * Tests that a value containing the key's separators cannot produce the key of other parameters.
+     */
+    @Test
+    public void testKeyEscapesValues() {
+        Map<String, String> smuggled = new HashMap<>();
+        smuggled.put("search", "x&sortType=priceAsc");
+        Map<String, String> separate = new HashMap<>();
+        separate.put("search", "x");
+        separate.put("sortType", "priceAsc");
+
+        String[] relevant = { "search", "sortType" };
+        assertNotEquals(PageCache.key("Guest", smuggled, relevant), PageCache.key("Guest", separate, relevant));
+        assertEquals("x&sortType=priceAsc", PageCache.normalise(smuggled, relevant).get("search"));
+    }
+
+    /**
+     * Tests that a full cache keeps frequently requested pages instead of one-off pages.
+     */
+    @Test
+    public void testColdPageIsNotAdmittedOverHotPages() {
+        CompressedPage page = randomPage(9000);
+        for (int i = 0; i < 8; i++) {
+            String key = "Guest&category=Hot" + i;
+            for (int hit = 0; hit < 5; hit++) {
+                cache.get(key);
+            }
+            assertTrue(cache.put(key, page, cache.generation()));
+        }
+        long sizeBefore = cache.weightedSize();
+
+        cache.get("Guest&search=rare");
+        boolean admitted = cache.put("Guest&search=rare", page, cache.generation());
+
+        assertFalse(admitted, "A page seen once should not displace popular pages");
+        assertEquals(sizeBefore, cache.weightedSize());
+        assertNotNull(cache.get("Guest&category=Hot0"));
+        assertTrue(cache.weightedSize() <= 64 * 1024);
+    }
+
+    /**
+     * Tests that a newcomer needing several victims is refused without evicting any of them
+     * when a later victim is more popular than the newcomer.
+     */
+    @Test
+    public void testRejectedPutEvictsNothing() {
+        CompressedPage small = randomPage(3000);
+        cache.get("Guest&category=Cold");
+        cache.put("Guest&category=Cold", small, cache.generation());
+        long smallWeight = cache.weightedSize();
+        for (int hit = 0; hit < 6; hit++) {
+            cache.get("Guest&category=Hot");
+        }
+        cache.put("Guest&category=Hot", small, cache.generation());
+        for (int i = 0; cache.weightedSize() + smallWeight <= 64 * 1024; i++) {
+            String key = "Guest&category=F" + i;
+            for (int hit = 0; hit < 6; hit++) {
+                cache.get(key);
+            }
+            assertTrue(cache.put(key, small, cache.generation()));
+        }
+        int sizeBefore = cache.size();
+        long weightBefore = cache.weightedSize();
+
+        // Warmer than the first victim but not the second, and too large to fit by evicting only the first
+        for (int hit = 0; hit < 3; hit++) {
+            cache.get("Guest&search=warm");
+        }
+        assertFalse(cache.put("Guest&search=warm", randomPage(7000), cache.generation()));
+
+        assertEquals(sizeBefore, cache.size());
+        assertEquals(weightBefore, cache.weightedSize());
+        assertEquals(0, cache.evictionCount());
+        assertNotNull(cache.get("Guest&category=Cold"), "The cold victim must not be evicted");
+        assertNotNull(cache.get("Guest&category=Hot"));
+    }
+
+    /**
+     * Tests that a popular newcomer evicts the least recently used entry.
+     */
+    @Test
+    public void testHotPageEvictsLeastRecentlyUsed() {
+        CompressedPage page = randomPage(9000);
+        for (int i = 0; i < 8; i++) {
+            String key = "Guest&category=C" + i;
+            cache.get(key);
+            cache.put(key, page, cache.generation());
+        }
+        for (int hit = 0; hit < 6; hit++) {
+            cache.get("Guest&category=New");
+        }
+
+        assertTrue(cache.put("Guest&category=New", page, cache.generation()));
+        assertNotNull(cache.get("Guest&category=New"));
+        assertTrue(cache.evictionCount() > 0);
+        assertTrue(cache.weightedSize() <= 64 * 1024);
+    }
+
+    /**
+     * Tests that invalidation clears the cache and discards pages rendered before the write.
+     */
+    @Test
+    public void testInvalidateAll() {
+        CompressedPage page = CompressedPage.compress("<p>old</p>");
+        long generation = cache.generation();
+        cache.put("Guest", page, generation);
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("Guest"));
+        assertFalse(cache.put("Guest", page, generation), "Page rendered before the write must not be stored");
+        assertTrue(cache.put("Guest", page, cache.generation()));
+    }
+
+    private static CompressedPage randomPage(int length) {
+        Random random = new Random(length);
+        StringBuilder html = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            html.append((char) ('!' + random.nextInt(90)));
+        }
+        return CompressedPage.compress(html.toString());
+    }
+
+    private static String gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
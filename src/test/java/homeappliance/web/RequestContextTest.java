@@ -0,0 +1,102 @@
+package homeappliance.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the parsing done by the {@link RequestContext} class.
+ *
+ * Test scenarios include:
+ * - Looking up and decoding query and form parameters
+ * - Keeping values with malformed escapes as they were sent
+ * - Parameters without values and repeated parameters
+ * - Rejecting requests with too many parameters
+ * - Finding the session cookie in a Cookie header
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class RequestContextTest {
+
+    /**
+     * Tests that encoded values are decoded and plain values are returned unchanged.
+     */
+    @Test
+    public void testDecodesValues() {
+        Map<String, String> params = RequestContext.Parameters.parse("search=Washing+Machine&category=Kitchen%20%26%20Dining&sortType=priceAsc");
+
+        assertEquals("Washing Machine", params.get("search"));
+        assertEquals("Kitchen & Dining", params.get("category"));
+        assertEquals("priceAsc", params.get("sortType"));
+        assertNull(params.get("missing"));
+        assertEquals(3, params.size());
+    }
+
+    /**
+     * Tests that a malformed escape does not fail the lookup, and the value is kept as it was sent.
+     */
+    @Test
+    public void testMalformedEscape() {
+        Map<String, String> params = RequestContext.Parameters.parse("search=%zz&category=50%&sortType=price%2");
+
+        assertEquals("%zz", params.get("search"));
+        assertEquals("50%", params.get("category"));
+        assertEquals("price%2", params.get("sortType"));
+        assertEquals("%zz", RequestContext.Parameters.parse("%zz=1").keySet().iterator().next());
+    }
+
+    /**
+     * Tests parameters without a value, empty pairs and repeated names.
+     */
+    @Test
+    public void testEdgeCases() {
+        Map<String, String> params = RequestContext.Parameters.parse("checkout&&id=1&id=2&note=");
+
+        assertTrue(params.containsKey("checkout"));
+        assertEquals("", params.get("checkout"));
+        assertEquals("2", params.get("id"), "The last value of a repeated parameter should win");
+        assertEquals("", params.get("note"));
+        assertTrue(RequestContext.Parameters.parse(null).isEmpty());
+    }
+
+    /**
+     * Tests that encoded parameter names are matched after decoding.
+     */
+    @Test
+    public void testEncodedNames() {
+        Map<String, String> params = RequestContext.Parameters.parse("new%43ategory=Garden");
+
+        assertEquals("Garden", params.get("newCategory"));
+    }
+
+    /**
+     * Tests that too many parameters are rejected.
+     */
+    @Test
+    public void testParameterLimit() {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i <= RequestContext.MAX_PARAMETERS; i++) {
+            raw.append("p").append(i).append("=1&");
+        }
+
+        assertThrows(RequestContext.RequestTooLargeException.class, () -> RequestContext.Parameters.parse(raw.toString()));
+    }
+
+    /**
+     * Tests finding a cookie among several in one header.
+     */
+    @Test
+    public void testCookieValue() {
+        String header = "theme=dark; xsessionId=wrong;sessionId=abc-123 ; lang=\"en\"";
+
+        assertEquals("abc-123", RequestContext.cookieValue(header, "sessionId"));
+        assertEquals("en", RequestContext.cookieValue(header, "lang"));
+        assertNull(RequestContext.cookieValue(header, "session"));
+        assertNull(RequestContext.cookieValue("", "sessionId"));
+    }
+}
@@ -0,0 +1,128 @@
+package homeappliance.web;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A microbenchmark comparing the {@link RequestContext} parsing with the split-based helpers that
+ * used to be copied into every handler.
+ *
+ * Each case parses a typical request the way a handler uses it: find the session cookie, then read
+ * two or three parameters. Run it with {@code java homeappliance.web.RequestParsingBenchmark}; it
+ * prints the average time per request for each case after a warm-up phase.
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+public class RequestParsingBenchmark {
+
+    private static final String COOKIE = "theme=dark; _ga=GA1.1.123456789.1700000000; sessionId=3f9a6c1e-5b7d-4e2a-9c8b-1d2e3f4a5b6c; lang=en";
+    private static final String QUERY = "category=Kitchen&filterValue=Fridge&search=&sortType=priceAsc&utm_source=newsletter";
+    private static final String FORM = "sku=ABC-12345&description=Frost+Free+Fridge+Freezer+%2850%2F50%29&category=new&newCategory=Kitchen&price=499";
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 200_000;
+
+    private static int sink;
+
+    /**
+     * Default constructor for RequestParsingBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public RequestParsingBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        run("cookie  (split)", () -> length(legacySessionId(COOKIE)));
+        run("cookie  (context)", () -> length(RequestContext.cookieValue(COOKIE, "sessionId")));
+        run("query   (split)", () -> {
+            Map<String, String> params = legacyParse(QUERY);
+            return length(params.get("category")) + length(params.get("sortType"));
+        });
+        run("query   (context)", () -> {
+            Map<String, String> params = RequestContext.Parameters.parse(QUERY);
+            return length(params.get("category")) + length(params.get("sortType"));
+        });
+        run("form    (split)", () -> {
+            Map<String, String> params = legacyParse(FORM);
+            return length(params.get("sku")) + length(params.get("description")) + length(params.get("price"));
+        });
+        run("form    (context)", () -> {
+            Map<String, String> params = RequestContext.Parameters.parse(FORM);
+            return length(params.get("sku")) + length(params.get("description")) + length(params.get("price"));
+        });
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static void run(String name, Operation operation) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(operation);
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long elapsed = measure(operation);
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-18s avg %6.1f ns/op   best %6.1f ns/op%n", name,
+                (double) total / ROUNDS / OPERATIONS, (double) best / OPERATIONS);
+    }
+
+    private static long measure(Operation operation) {
+        int result = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            result += operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += result;
+        return elapsed;
+    }
+
+    private static int length(String value) {
+        return (value == null) ? 0 : value.length();
+    }
+
+    /** The cookie lookup previously copied into each handler. */
+    private static String legacySessionId(String cookieHeader) {
+        String[] cookies = cookieHeader.split(";");
+        for (String cookie : cookies) {
+            cookie = cookie.trim();
+            String[] cookiePair = cookie.split("=", 2);
+            if ("sessionId".equals(cookiePair[0]) && cookiePair.length > 1) {
+                return cookiePair[1];
+            }
+        }
+        return null;
+    }
+
+    /** The query and form parsing previously copied into each handler. */
+    private static Map<String, String> legacyParse(String query) {
+        Map<String, String> result = new HashMap<>();
+        String[] pairs = query.split("&");
+        for (String pair : pairs) {
+            String[] keyValue = pair.split("=", 2);
+            String key = URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8);
+            String value = (keyValue.length == 2) ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "";
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int run();
+    }
+}
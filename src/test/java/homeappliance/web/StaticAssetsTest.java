@@ -0,0 +1,148 @@
+package homeappliance.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link StaticAssets} class.
+ *
+ * Test scenarios include:
+ * - Publishing assets under content-hashed names
+ * - Compressing text assets and picking up precompressed variants
+ * - Falling back to the CDN for assets that are not bundled
+ * - Serving the bundled Bootstrap stylesheet
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class StaticAssetsTest {
+
+    private Path directory;
+
+    /**
+     * Creates a temporary asset directory before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("static");
+        Files.createDirectories(directory.resolve("css"));
+        Files.createDirectories(directory.resolve("js"));
+    }
+
+    /**
+     * Removes the asset directory and restores the default assets after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        StaticAssets.install(StaticAssets.load(Files.createTempDirectory("empty")));
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Tests that an asset can be found under its plain and its content-hashed name.
+     */
+    @Test
+    public void testHashedNames() throws IOException {
+        Files.write(directory.resolve("css/site.css"), "body { color: red; }".getBytes(StandardCharsets.UTF_8));
+
+        StaticAssets assets = StaticAssets.load(directory);
+        StaticAssets.Asset asset = assets.find("css/site.css");
+
+        assertNotNull(asset);
+        assertTrue(asset.getHashedName().matches("css/site\\.[0-9a-f]{12}\\.css"), asset.getHashedName());
+        assertSame(asset, assets.find(asset.getHashedName()));
+        assertEquals("text/css; charset=UTF-8", asset.getContentType());
+        assertNull(assets.find("../site.css"));
+    }
+
+    /**
+     * Tests that changing the contents of a file changes its hashed name.
+     */
+    @Test
+    public void testHashChangesWithContent() throws IOException {
+        Path file = directory.resolve("js/app.js");
+        Files.write(file, "console.log(1);".getBytes(StandardCharsets.UTF_8));
+        String first = StaticAssets.load(directory).find("js/app.js").getHashedName();
+
+        Files.write(file, "console.log(2);".getBytes(StandardCharsets.UTF_8));
+        String second = StaticAssets.load(directory).find("js/app.js").getHashedName();
+
+        assertNotEquals(first, second);
+    }
+
+    /**
+     * Tests that large text assets get a gzip variant that decompresses to the original.
+     */
+    @Test
+    public void testGeneratedGzipVariant() throws IOException {
+        String css = ".table { margin: 0; }\n".repeat(500);
+        Files.write(directory.resolve("css/table.css"), css.getBytes(StandardCharsets.UTF_8));
+
+        StaticAssets.Asset asset = StaticAssets.load(directory).find("css/table.css");
+
+        assertNotNull(asset.getGzip());
+        assertEquals(css, gunzip(asset.getGzip()));
+        assertNotEquals(asset.getEtag(), asset.getGzipEtag(), "Each encoding needs its own ETag");
+    }
+
+    /**
+     * Tests that a precompressed .gz file is used as the variant and not published on its own.
+     */
+    @Test
+    public void testPrecompressedVariant() throws IOException {
+        Files.write(directory.resolve("css/tiny.css"), "a{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("css/tiny.css.gz"), new byte[] { 1, 2, 3 });
+
+        StaticAssets assets = StaticAssets.load(directory);
+
+        assertEquals(1, assets.size());
+        assertEquals(3, assets.find("css/tiny.css").getGzip().remaining());
+    }
+
+    /**
+     * Tests that links fall back to the CDN until the stylesheet is bundled.
+     */
+    @Test
+    public void testBootstrapFallback() throws IOException {
+        StaticAssets.install(StaticAssets.load(directory));
+        assertEquals(StaticAssets.BOOTSTRAP_CDN, StaticAssets.bootstrapCss());
+
+        Files.write(directory.resolve("css/bootstrap.min.css"), ".btn{}".getBytes(StandardCharsets.UTF_8));
+        StaticAssets.install(StaticAssets.load(directory));
+        assertTrue(StaticAssets.bootstrapCss().startsWith("/static/css/bootstrap.min."));
+    }
+
+    /**
+     * Tests that the default assets include the Bootstrap stylesheet, so pages do not need the CDN.
+     */
+    @Test
+    public void testBootstrapIsBundled() throws IOException {
+        StaticAssets.install(StaticAssets.load(Paths.get("src/main/resources/static")));
+        assertTrue(StaticAssets.bootstrapCss().startsWith("/static/css/bootstrap.min."));
+        assertNotNull(StaticAssets.current().find(StaticAssets.BOOTSTRAP_CSS).getGzip());
+    }
+
+    private static String gunzip(ByteBuffer gzip) throws IOException {
+        byte[] bytes = new byte[gzip.remaining()];
+        gzip.get(bytes);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package login.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import users.Users;
+
+/**
+ * Unit tests for the access rules of the {@link AuthenticationFilter} class.
+ *
+ * Test scenarios include:
+ * - Public routes admitting visitors who are not logged in
+ * - Routes that need any logged-in user
+ * - Routes restricted to particular roles
+ *
+ *
+ * @author Amrit Singh
+ * @version 18/10/2026
+ */
+
+class AuthenticationFilterTest {
+
+    private final LoginSessionManager.UserSession admin =
+            new LoginSessionManager.UserSession(new Users("admin", "hash", "Admin", null));
+    private final LoginSessionManager.UserSession customer =
+            new LoginSessionManager.UserSession(new Users("northernsteakhouse", "hash", "Customer", 1));
+
+    /**
+     * Tests that public routes admit everyone.
+     */
+    @Test
+    public void testAnyone() {
+        AuthenticationFilter filter = AuthenticationFilter.anyone();
+
+        assertTrue(filter.permits(null));
+        assertTrue(filter.permits(customer));
+    }
+
+    /**
+     * Tests that login-only routes admit every role but not anonymous visitors.
+     */
+    @Test
+    public void testLoggedIn() {
+        AuthenticationFilter filter = AuthenticationFilter.loggedIn();
+
+        assertFalse(filter.permits(null));
+        assertTrue(filter.permits(admin));
+        assertTrue(filter.permits(customer));
+    }
+
+    /**
+     * Tests that role-restricted routes only admit the listed roles.
+     */
+    @Test
+    public void testRoles() {
+        AuthenticationFilter filter = AuthenticationFilter.roles("Admin");
+
+        assertFalse(filter.permits(null));
+        assertTrue(filter.permits(admin));
+        assertFalse(filter.permits(customer));
+        assertThrows(IllegalArgumentException.class, () -> AuthenticationFilter.roles());
+    }
+}
@@ -0,0 +1,116 @@
+package login.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link RateLimitFilter} and {@link TokenBuckets} classes.
+ *
+ * Test scenarios include:
+ * - Allowing a burst, then refusing until a token has refilled
+ * - Limiting each key separately
+ * - Expiring refilled buckets and sharing one bucket when the map is full
+ * - Sweeping a full map at most once per refill interval
+ * - Limiting by client address and by username, whichever runs out first
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Tests that a bucket allows its burst, then one request per refill interval.
+     */
+    @Test
+    public void testBurstAndRefill() {
+        TokenBuckets buckets = new TokenBuckets(3, 6, 100, now::get);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        }
+        long wait = buckets.tryAcquire("10.0.0.1");
+        // Six a minute refills one token every ten seconds
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(10), "wait " + wait);
+        assertEquals(0, buckets.tryAcquire("10.0.0.2"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertTrue(buckets.tryAcquire("10.0.0.1") > 0);
+    }
+
+    /**
+     * Tests that refilled buckets are swept out, and new keys share a bucket while the map is full.
+     */
+    @Test
+    public void testBounded() {
+        TokenBuckets buckets = new TokenBuckets(1, 60, 2, now::get);
+        assertEquals(0, buckets.tryAcquire("a"));
+        assertEquals(0, buckets.tryAcquire("b"));
+        assertEquals(2, buckets.size());
+
+        // The map is full of empty buckets, so made-up keys share one
+        assertEquals(0, buckets.tryAcquire("c"));
+        assertTrue(buckets.tryAcquire("d") > 0);
+        assertEquals(3, buckets.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, buckets.tryAcquire("e"));
+        assertEquals(1, buckets.size());
+    }
+
+    /**
+     * Tests that while the map stays full, new keys go to the overflow bucket without a sweep
+     * until a refill interval has passed since the last one.
+     */
+    @Test
+    public void testSweepIsRateLimited() {
+        TokenBuckets buckets = new TokenBuckets(1, 60, 2, now::get);
+        assertEquals(0, buckets.tryAcquire("a"));
+        now.set(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(0, buckets.tryAcquire("b"));
+        // Sweeps, but nothing has refilled yet
+        assertEquals(0, buckets.tryAcquire("c"));
+
+        // "a" has refilled, but the last sweep was too recent to run another
+        now.set(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(buckets.tryAcquire("d") > 0);
+        assertEquals(3, buckets.size());
+
+        // A refill interval after the last sweep, "a" and "b" are swept out
+        now.set(TimeUnit.MILLISECONDS.toNanos(1600));
+        assertEquals(0, buckets.tryAcquire("e"));
+        assertEquals(2, buckets.size());
+    }
+
+    /**
+     * Tests that the filter refuses a request once either its address or its username is over the limit.
+     */
+    @Test
+    public void testClientAndUsername() {
+        RateLimitFilter filter = new RateLimitFilter("test",
+                new TokenBuckets(5, 5, 100, now::get), new TokenBuckets(2, 2, 100, now::get));
+
+        assertEquals(0, filter.check("10.0.0.1", "admin"));
+        assertEquals(0, filter.check("10.0.0.2", " Admin "));
+        // The same username from a third address is refused
+        assertTrue(filter.check("10.0.0.3", "admin") > 0);
+        assertEquals(0, filter.check("10.0.0.1", "northernsteakhouse"));
+        assertEquals(0, filter.check("10.0.0.1", null));
+        assertEquals(0, filter.check("10.0.0.1", ""));
+        assertEquals(0, filter.check("10.0.0.1", "someoneelse"));
+        // The address has used its five
+        assertTrue(filter.check("10.0.0.1", "another") > 0);
+
+        RateLimitFilter unlimited = new RateLimitFilter("open", null, null);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, unlimited.check("10.0.0.1", "admin"));
+        }
+    }
+}
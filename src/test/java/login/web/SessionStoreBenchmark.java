@@ -0,0 +1,116 @@
+package login.web;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import users.Users;
+
+/**
+ * A benchmark of the time each {@link SessionStore} adds to a request, which looks up the visitor's session.
+ *
+ * For each store, sessions are created and then looked up at random many times, as a busy server would, and
+ * the benchmark reports the average time to save a session and to look one up, with and without a
+ * {@link NearCachedSessionStore} in front of the shared stores. Signed tokens, which need no store, are
+ * included for comparison. Run it with {@code java login.web.SessionStoreBenchmark [sessions] [lookups]}.
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+public class SessionStoreBenchmark {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static long sink;
+
+    /**
+     * Default constructor for SessionStoreBenchmark.
+     * Initialises a new instance of the class without any additional setup.
+     */
+    public SessionStoreBenchmark() {
+        // No specific initialisation required
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args optionally, the number of sessions and the number of lookups
+     * @throws IOException if the temporary directory or the key-value server cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000;
+        int lookups = (args.length > 1) ? Integer.parseInt(args[1]) : 50_000;
+
+        try (SessionKeyValueServer server = SessionKeyValueServer.start(0)) {
+            for (int round = 0; round < 2; round++) {
+                System.out.printf("round %d (%,d sessions, %,d lookups)%n", round + 1, sessions, lookups);
+                run("memory", new MemorySessionStore(), sessions, lookups);
+                run("file", new FileSessionStore(Files.createTempDirectory("sessions"), HOUR), sessions, lookups);
+                run("file + near cache", cached(new FileSessionStore(Files.createTempDirectory("sessions"), HOUR)),
+                        sessions, lookups);
+                run("tcp", tcp(server), sessions, lookups);
+                run("tcp + near cache", cached(tcp(server)), sessions, lookups);
+                runTokens(sessions, lookups);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static void run(String name, SessionStore store, int sessions, int lookups) {
+        List<String> ids = new ArrayList<>(sessions);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            String id = UUID.randomUUID().toString();
+            store.put(id, user(i));
+            ids.add(id);
+        }
+        double putMicros = (System.nanoTime() - start) / 1e3 / sessions;
+
+        Random random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sink += store.get(ids.get(random.nextInt(sessions))).getUserId();
+        }
+        double getMicros = (System.nanoTime() - start) / 1e3 / lookups;
+        store.close();
+        System.out.printf("  %-18s save %8.2f µs, look up %8.2f µs%n", name, putMicros, getMicros);
+    }
+
+    private static void runTokens(int sessions, int lookups) {
+        SessionTokens tokens = SessionTokens.fromKeyRing("bench=" + SessionTokens.newKey(), 60 * 60 * 1000L);
+        List<String> issued = new ArrayList<>(sessions);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            issued.add(tokens.issue(user(i)));
+        }
+        double issueMicros = (System.nanoTime() - start) / 1e3 / sessions;
+
+        Random random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sink += tokens.verify(issued.get(random.nextInt(sessions))).getUserId();
+        }
+        double verifyMicros = (System.nanoTime() - start) / 1e3 / lookups;
+        System.out.printf("  %-18s save %8.2f µs, look up %8.2f µs%n", "signed tokens", issueMicros, verifyMicros);
+    }
+
+    private static SessionStore cached(SessionStore store) {
+        return new NearCachedSessionStore(store, 5000, 10_000, System::nanoTime);
+    }
+
+    private static TcpSessionStore tcp(SessionKeyValueServer server) {
+        return new TcpSessionStore(new InetSocketAddress("localhost", server.port()), 4, 2000, HOUR);
+    }
+
+    private static Users user(int i) {
+        Users user = new Users("customer" + i, null, "Customer", i);
+        user.setUserId(i + 1);
+        return user;
+    }
+}
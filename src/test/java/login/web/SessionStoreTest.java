@@ -0,0 +1,284 @@
+package login.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import users.Users;
+
+/**
+ * Unit tests for the {@link SessionStore} implementations and the {@link NearCachedSessionStore}.
+ *
+ * Test scenarios include:
+ * - Saving, reading and removing sessions in the memory, file and TCP stores
+ * - Two servers sharing sessions through the file and TCP stores
+ * - Expiring sessions in the file and TCP stores, and sweeping them away
+ * - Keeping the file store's directory private and free of temporary files
+ * - The near cache answering repeat lookups and expiring its entries
+ * - Invalidations from the TCP store reaching another server's near cache
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class SessionStoreTest {
+
+    private static final String SESSION = "6f1c2a52-7d0e-4b8e-9a57-0c1d2e3f4a5b";
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    /**
+     * Tests the memory store, and that the session manager uses the store it is given.
+     */
+    @Test
+    public void testMemoryStore() {
+        MemorySessionStore store = new MemorySessionStore();
+        assertRoundTrip(store, store);
+
+        LoginSessionManager.useStore(store);
+        try {
+            String sessionId = LoginSessionManager.createSession(customer());
+            assertEquals(1, store.size());
+            assertEquals("Customer", LoginSessionManager.getSession(sessionId).getRole());
+            LoginSessionManager.endSession(sessionId);
+            assertNull(LoginSessionManager.getSession(sessionId));
+        } finally {
+            LoginSessionManager.useStore(new MemorySessionStore());
+        }
+    }
+
+    /**
+     * Tests that two file stores on the same directory share sessions, and that odd IDs stay inside it.
+     */
+    @Test
+    public void testFileStore() throws IOException {
+        Path directory = Files.createTempDirectory("sessions");
+        assertRoundTrip(new FileSessionStore(directory, HOUR), new FileSessionStore(directory, HOUR));
+
+        FileSessionStore store = new FileSessionStore(directory, HOUR);
+        assertNull(store.get("../../etc/passwd"));
+        store.put("../escape", customer());
+        assertEquals(7, store.get("../escape").getUserId());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * Tests that a failed save leaves no temporary file behind, and that a directory other users can
+     * write to is refused.
+     */
+    @Test
+    public void testFileStoreDirectory() throws Exception {
+        Path directory = Files.createTempDirectory("sessions");
+        FileSessionStore store = new FileSessionStore(directory, HOUR);
+        // A non-empty directory where the session file should go makes the move fail
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(SESSION.getBytes(StandardCharsets.UTF_8));
+        Path blocked = Files.createDirectory(directory.resolve(HexFormat.of().formatHex(hash) + ".session"));
+        Files.createFile(blocked.resolve("inside"));
+        store.put(SESSION, customer());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Path shared = Files.createTempDirectory("sessions");
+            Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+            assertThrows(IOException.class, () -> new FileSessionStore(shared, HOUR));
+            new FileSessionStore(shared.resolve("private"), HOUR);
+            assertEquals(PosixFilePermissions.fromString("rwx------"),
+                    Files.getPosixFilePermissions(shared.resolve("private")));
+        }
+    }
+
+    /**
+     * Tests that two TCP stores share sessions through one server.
+     */
+    @Test
+    public void testTcpStore() throws IOException {
+        try (SessionKeyValueServer server = SessionKeyValueServer.start(0)) {
+            TcpSessionStore first = tcp(server);
+            TcpSessionStore second = tcp(server);
+            assertRoundTrip(first, second);
+            assertNull(second.get("has space"));
+            assertEquals(0, server.size());
+            first.close();
+            second.close();
+        }
+    }
+
+    /**
+     * Tests that a file store stops returning a session once it expires, and that a sweep deletes
+     * the files of expired sessions that are never read again.
+     */
+    @Test
+    public void testFileStoreExpiry() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        Path directory = Files.createTempDirectory("sessions");
+        FileSessionStore store = new FileSessionStore(directory, HOUR, now::get, Runnable::run);
+        store.put(SESSION, customer());
+        store.put("abandoned", customer());
+        now.addAndGet(HOUR - 1);
+        store.put("recent", customer());
+        assertNotNull(store.get(SESSION));
+
+        now.addAndGet(1);
+        assertNull(store.get(SESSION));
+        assertEquals(1, store.sweep());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        assertNotNull(store.get("recent"));
+        assertThrows(IllegalArgumentException.class, () -> new FileSessionStore(directory, 0));
+    }
+
+    /**
+     * Tests that the key-value server stops returning a session once it expires, sweeps expired
+     * sessions away, and refuses a save without a lifetime.
+     */
+    @Test
+    public void testTcpStoreExpiry() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        try (SessionKeyValueServer server = SessionKeyValueServer.start(0, now::get)) {
+            TcpSessionStore store = tcp(server);
+            store.put(SESSION, customer());
+            store.put("abandoned", customer());
+            now.addAndGet(HOUR - 1);
+            store.put("recent", customer());
+            assertNotNull(store.get(SESSION));
+
+            now.addAndGet(1);
+            assertNull(store.get(SESSION));
+            assertEquals(2, server.size());
+            server.sweep();
+            assertEquals(1, server.size());
+            assertNotNull(store.get("recent"));
+            store.close();
+
+            try (Socket socket = new Socket("localhost", server.port())) {
+                socket.getOutputStream().write("PUT key value\n".getBytes(StandardCharsets.UTF_8));
+                assertEquals("ERR", new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), StandardCharsets.UTF_8)).readLine());
+            }
+        }
+    }
+
+    /**
+     * Tests that the near cache answers repeat lookups itself and reads the store again once an entry expires.
+     */
+    @Test
+    public void testNearCache() {
+        AtomicLong now = new AtomicLong();
+        AtomicInteger reads = new AtomicInteger();
+        MemorySessionStore backing = new MemorySessionStore();
+        SessionStore counting = new SessionStore() {
+            @Override
+            public void put(String sessionId, Users user) {
+                backing.put(sessionId, user);
+            }
+            @Override
+            public Users get(String sessionId) {
+                reads.incrementAndGet();
+                return backing.get(sessionId);
+            }
+            @Override
+            public void remove(String sessionId) {
+                backing.remove(sessionId);
+            }
+        };
+        NearCachedSessionStore cache = new NearCachedSessionStore(counting, 1000, 2, now::get);
+
+        cache.put(SESSION, customer());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(7, cache.get(SESSION).getUserId());
+        }
+        assertEquals(0, reads.get());
+
+        // Removed by another server: seen once the entry expires
+        backing.remove(SESSION);
+        assertNotNull(cache.get(SESSION));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(cache.get(SESSION));
+        assertEquals(1, reads.get());
+
+        cache.put("a", customer());
+        cache.put("b", customer());
+        cache.put("c", customer());
+        assertTrue(cache.size() <= 2);
+    }
+
+    /**
+     * Tests that a logout through one server is pushed straight to another server's near cache.
+     */
+    @Test
+    public void testTcpInvalidation() throws Exception {
+        try (SessionKeyValueServer server = SessionKeyValueServer.start(0)) {
+            AtomicLong now = new AtomicLong();
+            NearCachedSessionStore first = new NearCachedSessionStore(tcp(server), 60_000, 100, now::get);
+            TcpSessionStore secondStore = tcp(server);
+            AtomicInteger invalidations = new AtomicInteger();
+            Consumer<String> counter = sessionId -> invalidations.incrementAndGet();
+            secondStore.addInvalidationListener(counter);
+            NearCachedSessionStore second = new NearCachedSessionStore(secondStore, 60_000, 100, now::get);
+
+            first.put(SESSION, customer());
+            assertEquals(7, second.get(SESSION).getUserId());
+            assertEquals(1, second.size());
+
+            // Wait for the subscription to be in place before logging out
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            first.put("probe", customer());
+            first.put("probe", customer());
+            while (invalidations.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            first.remove(SESSION);
+            while (second.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, second.size());
+            assertNull(second.get(SESSION));
+            first.close();
+            second.close();
+        }
+    }
+
+    private static void assertRoundTrip(SessionStore writer, SessionStore reader) {
+        assertNull(reader.get(SESSION));
+        writer.put(SESSION, customer());
+        Users user = reader.get(SESSION);
+        assertEquals(7, user.getUserId());
+        assertEquals("north steak", user.getUsername());
+        assertEquals("Customer", user.getRole());
+        assertEquals(Integer.valueOf(3), user.getCustomerId());
+        reader.remove(SESSION);
+        assertNull(writer.get(SESSION));
+    }
+
+    private static TcpSessionStore tcp(SessionKeyValueServer server) {
+        return new TcpSessionStore(new InetSocketAddress("localhost", server.port()), 4, 2000, HOUR);
+    }
+
+    private static Users customer() {
+        Users user = new Users("north steak", "hash", "Customer", 3);
+        user.setUserId(7);
+        return user;
+    }
+}
@@ -0,0 +1,137 @@
+package login.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import users.Users;
+
+/**
+ * Unit tests for the {@link SessionTokens} class and the stateless mode of the {@link LoginSessionManager}.
+ *
+ * Test scenarios include:
+ * - Issuing a token and reading the user back from it
+ * - Refusing forged, altered, malformed and expired tokens
+ * - Rotating keys, and accepting tokens after a restart with the same keys
+ * - Logging in without a server-side session
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class SessionTokensTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    /**
+     * Tests that a token carries the user, and that a server restarted with the same keys accepts it.
+     */
+    @Test
+    public void testRoundTrip() {
+        String token = tokens(keys("a")).issue(customer());
+
+        Users user = tokens(keys("a")).verify(token);
+        assertNotNull(user);
+        assertEquals(7, user.getUserId());
+        assertEquals("north:steak", user.getUsername());
+        assertEquals("Customer", user.getRole());
+        assertEquals(Integer.valueOf(3), user.getCustomerId());
+        assertNull(user.getPassword());
+
+        Users admin = new Users("admin", "hash", "Admin", null);
+        admin.setUserId(1);
+        assertNull(tokens(keys("a")).verify(tokens(keys("a")).issue(admin)).getCustomerId());
+    }
+
+    /**
+     * Tests that altered, forged, malformed and expired tokens are refused.
+     */
+    @Test
+    public void testRefused() {
+        SessionTokens tokens = tokens(keys("a"));
+        String token = tokens.issue(customer());
+        String[] parts = token.split("\\.");
+
+        // Promote the customer to an admin without re-signing
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("7:3:" + (now.get() + HOUR) + ":Admin:north:steak").getBytes(StandardCharsets.UTF_8));
+        assertNull(tokens.verify(parts[0] + "." + parts[1] + "." + forged + "." + parts[3]));
+        assertNull(tokens(keys("b")).verify(token));
+        assertNull(tokens.verify(token.substring(0, token.length() - 2)));
+        assertNull(tokens.verify("not-a-token"));
+        assertNull(tokens.verify("v1.a.!!!.!!!"));
+        assertNull(tokens.verify(null));
+
+        now.addAndGet(HOUR);
+        assertNull(tokens.verify(token));
+    }
+
+    /**
+     * Tests that after a new key is put first, old tokens are still accepted and new ones use the new key.
+     */
+    @Test
+    public void testRotation() {
+        String old = tokens(keys("a")).issue(customer());
+
+        Map<String, byte[]> rotated = keys("b");
+        rotated.putAll(keys("a"));
+        SessionTokens tokens = tokens(rotated);
+        assertNotNull(tokens.verify(old));
+        String fresh = tokens.issue(customer());
+        assertTrue(fresh.startsWith("v1.b."));
+
+        // Once the old key is dropped, only new tokens are accepted
+        assertNull(tokens(keys("b")).verify(old));
+        assertNotNull(tokens(keys("b")).verify(fresh));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SessionTokens(Map.of("short", new byte[16]), HOUR, now::get));
+        assertThrows(IllegalArgumentException.class, () -> SessionTokens.fromKeyRing("", HOUR));
+        assertNotNull(SessionTokens.fromKeyRing("a=" + SessionTokens.newKey(), HOUR));
+    }
+
+    /**
+     * Tests that in stateless mode the session ID is a token the manager reads back without storing it.
+     */
+    @Test
+    public void testStatelessSessions() {
+        LoginSessionManager.useSignedTokens(tokens(keys("a")));
+        try {
+            String sessionId = LoginSessionManager.createSession(customer());
+            LoginSessionManager.UserSession session = LoginSessionManager.getSession(sessionId);
+            assertEquals(7, session.getUserId());
+            assertEquals("Customer", session.getRole());
+            assertTrue(LoginSessionManager.sessionCookie(sessionId).endsWith("; Max-Age=3600"));
+            assertNull(LoginSessionManager.getSession("00000000-0000-0000-0000-000000000000"));
+        } finally {
+            LoginSessionManager.useSignedTokens(null);
+        }
+    }
+
+    private SessionTokens tokens(Map<String, byte[]> keys) {
+        return new SessionTokens(keys, HOUR, now::get);
+    }
+
+    private static Map<String, byte[]> keys(String id) {
+        byte[] key = new byte[SessionTokens.MIN_KEY_BYTES];
+        key[0] = (byte) id.charAt(0);
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        keys.put(id, key);
+        return keys;
+    }
+
+    private static Users customer() {
+        Users user = new Users("north:steak", "hash", "Customer", 3);
+        user.setUserId(7);
+        return user;
+    }
+}
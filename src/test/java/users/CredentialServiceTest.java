@@ -0,0 +1,86 @@
+package users;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Unit tests for the {@link CredentialService} class.
+ *
+ * Test scenarios include:
+ * - Hashing and checking passwords at the configured cost
+ * - Storing values that are already hashes as they are
+ * - Upgrading hashes made at a lower cost
+ * - Calibrating the cost to a target time within its bounds
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class CredentialServiceTest {
+
+    /**
+     * Tests hashing and checking a password, and that a hash is not hashed again when saved.
+     */
+    @Test
+    public void testHashAndCheck() {
+        CredentialService credentials = new CredentialService(5, 1, 4);
+        String hash = credentials.hash("123456");
+
+        assertTrue(CredentialService.isHash(hash));
+        assertEquals(5, CredentialService.costOf(hash));
+        assertTrue(credentials.check("123456", hash));
+        assertFalse(credentials.check("654321", hash));
+        assertFalse(credentials.check("123456", "123456"));
+
+        assertSame(hash, credentials.hashForSave(hash));
+        String saved = credentials.hashForSave("secret");
+        assertNotEquals("secret", saved);
+        assertTrue(credentials.check("secret", saved));
+        assertFalse(CredentialService.isHash("secret"));
+        assertEquals(-1, CredentialService.costOf("secret"));
+        credentials.stop();
+    }
+
+    /**
+     * Tests that a weaker hash is upgraded in the background to one at the service's cost.
+     */
+    @Test
+    public void testRehash() throws InterruptedException {
+        CredentialService credentials = new CredentialService(6, 1, 4);
+        String weak = BCrypt.hashpw("123456", BCrypt.gensalt(4));
+        assertTrue(credentials.needsRehash(weak));
+        assertFalse(credentials.needsRehash(credentials.hash("123456")));
+
+        CountDownLatch saved = new CountDownLatch(1);
+        AtomicReference<String> upgraded = new AtomicReference<>();
+        credentials.rehashLater("123456", hash -> {
+            upgraded.set(hash);
+            saved.countDown();
+        });
+        assertTrue(saved.await(10, TimeUnit.SECONDS));
+        assertEquals(6, CredentialService.costOf(upgraded.get()));
+        assertTrue(credentials.check("123456", upgraded.get()));
+        credentials.stop();
+    }
+
+    /**
+     * Tests that calibration stays within the given bounds.
+     */
+    @Test
+    public void testCalibrate() {
+        assertEquals(8, CredentialService.calibrate(0, 8, 12));
+        assertEquals(5, CredentialService.calibrate(60_000, 4, 5));
+        int cost = CredentialService.calibrate(50, 4, CredentialService.MAX_COST);
+        assertTrue(cost >= 4 && cost < 20, "cost " + cost);
+
+        assertThrows(IllegalArgumentException.class, () -> new CredentialService(3, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CredentialService(10, 0, 1));
+    }
+}
@@ -0,0 +1,91 @@
+package users;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link UsernameFilter} class.
+ *
+ * Test scenarios include:
+ * - Never reporting a loaded or added username as free
+ * - Keeping false positives near the configured rate
+ * - Reporting every username as possibly taken until the filter loads, or when loading fails
+ * - Keeping names added before a rebuild
+ *
+ *
+ * @author Amrit Singh
+ * @version 19/10/2026
+ */
+
+class UsernameFilterTest {
+
+    /**
+     * Tests that no username in use is reported free, and that few free ones are reported taken.
+     */
+    @Test
+    public void testNoFalseNegatives() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            names.add("user" + i);
+        }
+        UsernameFilter filter = new UsernameFilter(() -> names, 0.01);
+        assertTrue(filter.load());
+
+        for (String name : names) {
+            assertTrue(filter.mightContain(name));
+        }
+        filter.add("newcomer");
+        assertTrue(filter.mightContain("newcomer"));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("free" + i)) {
+                falsePositives++;
+            }
+        }
+        // Sized for twice the names, so well under the configured 1%
+        assertTrue(falsePositives < 1_000, "false positives: " + falsePositives);
+    }
+
+    /**
+     * Tests that every username may be taken until the filter has loaded, and after a failed load.
+     */
+    @Test
+    public void testUnloaded() {
+        UsernameFilter filter = new UsernameFilter(() -> null, 0.01);
+        assertTrue(filter.mightContain("anyone"));
+        assertFalse(filter.load());
+        assertTrue(filter.mightContain("anyone"));
+        assertEquals(0, filter.size());
+
+        assertThrows(IllegalArgumentException.class, () -> new UsernameFilter(() -> null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new UsernameFilter(() -> null, 1));
+    }
+
+    /**
+     * Tests that a rebuild drops deleted names but keeps those added since the last load,
+     * which may not have been committed when the names were read.
+     */
+    @Test
+    public void testRebuild() {
+        List<String> names = new ArrayList<>(List.of("admin", "departed"));
+        UsernameFilter filter = new UsernameFilter(() -> new ArrayList<>(names), 0.001);
+        filter.add("early");
+        assertTrue(filter.load());
+        assertTrue(filter.mightContain("early"));
+        assertTrue(filter.mightContain("departed"));
+
+        filter.add("uncommitted");
+        names.remove("departed");
+        filter.removed();
+        assertTrue(filter.load());
+
+        assertTrue(filter.mightContain("admin"));
+        assertTrue(filter.mightContain("uncommitted"));
+        assertFalse(filter.mightContain("departed"));
+    }
+}